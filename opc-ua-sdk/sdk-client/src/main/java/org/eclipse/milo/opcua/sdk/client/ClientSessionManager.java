@@ -409,7 +409,10 @@ class ClientSessionManager {
             }
         };
 
-        stackClient.getChannelFuture().thenCompose(activate).whenCompleteAsync((asr, ex) -> {
+        CompletableFuture<ClientSecureChannel> channelFuture =
+            stackClient.getChannelFuture(csr.getAuthenticationToken());
+
+        channelFuture.thenCompose(activate).whenCompleteAsync((asr, ex) -> {
             CompletableFuture<OpcUaSession> sessionFuture = activatingState.sessionFuture;
 
             if (asr != null) {
@@ -448,6 +451,8 @@ class ClientSessionManager {
             } else {
                 logger.debug("ActivateSession failed: {}", ex.getMessage(), ex);
 
+                stackClient.releaseSession(csr.getAuthenticationToken());
+
                 state.compareAndSet(activatingState, new Inactive());
                 sessionFuture.completeExceptionally(ex);
             }
@@ -497,7 +502,10 @@ class ClientSessionManager {
         };
 
 
-        stackClient.getChannelFuture().thenCompose(activate).whenCompleteAsync((asr, ex) -> {
+        CompletableFuture<ClientSecureChannel> channelFuture =
+            stackClient.getChannelFuture(previousSession.getAuthenticationToken());
+
+        channelFuture.thenCompose(activate).whenCompleteAsync((asr, ex) -> {
             CompletableFuture<OpcUaSession> sessionFuture = reactivatingState.sessionFuture;
 
             if (asr != null) {
@@ -532,6 +540,8 @@ class ClientSessionManager {
 
                     // A session-related error means the session is no longer valid.
                     // Create a new session re-using the current future.
+                    stackClient.releaseSession(previousSession.getAuthenticationToken());
+
                     Creating creating = new Creating(sessionFuture);
 
                     if (state.compareAndSet(reactivatingState, creating)) {
@@ -85,6 +85,14 @@ public interface OpcUaClientConfig extends UaTcpStackClientConfig {
         builder.setEventLoop(config.getEventLoop());
         builder.setWheelTimer(config.getWheelTimer());
         builder.setSecureChannelReauthenticationEnabled(config.isSecureChannelReauthenticationEnabled());
+        builder.setFlushConsolidationConfig(config.getFlushConsolidationConfig());
+        builder.setExecutorProvider(config.getExecutorProvider());
+        config.getInterningCache().ifPresent(builder::setInterningCache);
+        builder.setPrimitiveArraysEnabled(config.isPrimitiveArraysEnabled());
+        builder.setInFlightLimitConfig(config.getInFlightLimitConfig());
+        builder.setChannelPoolConfig(config.getChannelPoolConfig());
+        builder.setParallelDecodingConfig(config.getParallelDecodingConfig());
+        builder.setAdaptiveBufferSizeConfig(config.getAdaptiveBufferSizeConfig());
 
         // OpcUaClientConfig values
         builder.setSessionName(config.getSessionName());
@@ -19,13 +19,20 @@ import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
 import io.netty.util.HashedWheelTimer;
 import org.eclipse.milo.opcua.sdk.client.api.identity.AnonymousProvider;
 import org.eclipse.milo.opcua.sdk.client.api.identity.IdentityProvider;
+import org.eclipse.milo.opcua.stack.client.config.ChannelPoolConfig;
+import org.eclipse.milo.opcua.stack.client.config.InFlightLimitConfig;
 import org.eclipse.milo.opcua.stack.client.config.UaTcpStackClientConfig;
 import org.eclipse.milo.opcua.stack.client.config.UaTcpStackClientConfigBuilder;
+import org.eclipse.milo.opcua.stack.core.application.ExecutorProvider;
+import org.eclipse.milo.opcua.stack.core.channel.AdaptiveBufferSizeConfig;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelConfig;
+import org.eclipse.milo.opcua.stack.core.channel.FlushConsolidationConfig;
+import org.eclipse.milo.opcua.stack.core.channel.ParallelDecodingConfig;
+import org.eclipse.milo.opcua.stack.core.serialization.binary.InterningCache;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
 import org.eclipse.milo.opcua.stack.core.types.structured.EndpointDescription;
@@ -133,7 +140,7 @@ public class OpcUaClientConfigBuilder extends UaTcpStackClientConfigBuilder {
     }
 
     @Override
-    public OpcUaClientConfigBuilder setEventLoop(NioEventLoopGroup eventLoop) {
+    public OpcUaClientConfigBuilder setEventLoop(EventLoopGroup eventLoop) {
         super.setEventLoop(eventLoop);
         return this;
     }
@@ -152,6 +159,54 @@ public class OpcUaClientConfigBuilder extends UaTcpStackClientConfigBuilder {
         return this;
     }
 
+    @Override
+    public OpcUaClientConfigBuilder setFlushConsolidationConfig(FlushConsolidationConfig flushConsolidationConfig) {
+        super.setFlushConsolidationConfig(flushConsolidationConfig);
+        return this;
+    }
+
+    @Override
+    public OpcUaClientConfigBuilder setExecutorProvider(ExecutorProvider executorProvider) {
+        super.setExecutorProvider(executorProvider);
+        return this;
+    }
+
+    @Override
+    public OpcUaClientConfigBuilder setInterningCache(InterningCache interningCache) {
+        super.setInterningCache(interningCache);
+        return this;
+    }
+
+    @Override
+    public OpcUaClientConfigBuilder setPrimitiveArraysEnabled(boolean primitiveArraysEnabled) {
+        super.setPrimitiveArraysEnabled(primitiveArraysEnabled);
+        return this;
+    }
+
+    @Override
+    public OpcUaClientConfigBuilder setInFlightLimitConfig(InFlightLimitConfig inFlightLimitConfig) {
+        super.setInFlightLimitConfig(inFlightLimitConfig);
+        return this;
+    }
+
+    @Override
+    public OpcUaClientConfigBuilder setChannelPoolConfig(ChannelPoolConfig channelPoolConfig) {
+        super.setChannelPoolConfig(channelPoolConfig);
+        return this;
+    }
+
+    @Override
+    public OpcUaClientConfigBuilder setParallelDecodingConfig(ParallelDecodingConfig parallelDecodingConfig) {
+        super.setParallelDecodingConfig(parallelDecodingConfig);
+        return this;
+    }
+
+    @Override
+    public OpcUaClientConfigBuilder setAdaptiveBufferSizeConfig(AdaptiveBufferSizeConfig adaptiveBufferSizeConfig) {
+        super.setAdaptiveBufferSizeConfig(adaptiveBufferSizeConfig);
+        return this;
+    }
+
     public OpcUaClientConfig build() {
         UaTcpStackClientConfig stackClientConfig = super.build();
 
@@ -279,7 +334,7 @@ public class OpcUaClientConfigBuilder extends UaTcpStackClientConfigBuilder {
         }
 
         @Override
-        public NioEventLoopGroup getEventLoop() {
+        public EventLoopGroup getEventLoop() {
             return stackClientConfig.getEventLoop();
         }
 
@@ -293,6 +348,46 @@ public class OpcUaClientConfigBuilder extends UaTcpStackClientConfigBuilder {
             return stackClientConfig.isSecureChannelReauthenticationEnabled();
         }
 
+        @Override
+        public FlushConsolidationConfig getFlushConsolidationConfig() {
+            return stackClientConfig.getFlushConsolidationConfig();
+        }
+
+        @Override
+        public ExecutorProvider getExecutorProvider() {
+            return stackClientConfig.getExecutorProvider();
+        }
+
+        @Override
+        public Optional<InterningCache> getInterningCache() {
+            return stackClientConfig.getInterningCache();
+        }
+
+        @Override
+        public boolean isPrimitiveArraysEnabled() {
+            return stackClientConfig.isPrimitiveArraysEnabled();
+        }
+
+        @Override
+        public InFlightLimitConfig getInFlightLimitConfig() {
+            return stackClientConfig.getInFlightLimitConfig();
+        }
+
+        @Override
+        public ChannelPoolConfig getChannelPoolConfig() {
+            return stackClientConfig.getChannelPoolConfig();
+        }
+
+        @Override
+        public ParallelDecodingConfig getParallelDecodingConfig() {
+            return stackClientConfig.getParallelDecodingConfig();
+        }
+
+        @Override
+        public AdaptiveBufferSizeConfig getAdaptiveBufferSizeConfig() {
+            return stackClientConfig.getAdaptiveBufferSizeConfig();
+        }
+
     }
 
 }
@@ -29,6 +29,7 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import javax.annotation.Nullable;
 
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -65,6 +66,7 @@ import org.eclipse.milo.opcua.stack.core.types.structured.EndpointDescription;
 import org.eclipse.milo.opcua.stack.core.types.structured.SignedSoftwareCertificate;
 import org.eclipse.milo.opcua.stack.core.types.structured.UserTokenPolicy;
 import org.eclipse.milo.opcua.stack.core.util.ManifestUtil;
+import org.eclipse.milo.opcua.stack.core.util.TransportUtil;
 import org.eclipse.milo.opcua.stack.server.tcp.UaTcpStackServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -132,32 +134,16 @@ public class OpcUaServer {
             );
 
             for (String hostname : hostnames) {
-                for (SecurityPolicy securityPolicy : config.getSecurityPolicies()) {
-                    MessageSecurityMode messageSecurity = securityPolicy == SecurityPolicy.None ?
-                        MessageSecurityMode.None : MessageSecurityMode.SignAndEncrypt;
-
-                    String endpointUrl = endpointUrl(hostname, config.getBindPort(), config.getServerName());
-
-                    Set<X509Certificate> certificates = config.getCertificateManager().getCertificates();
-
-                    if (certificates.isEmpty() && securityPolicy == SecurityPolicy.None) {
-                        logger.info("Binding endpoint {} to {} [{}/{}]",
-                            endpointUrl, bindAddress, securityPolicy, messageSecurity);
-
-                        stackServer.addEndpoint(endpointUrl, bindAddress, null, securityPolicy, messageSecurity);
-                    } else {
-                        for (X509Certificate certificate : certificates) {
-                            logger.info("Binding endpoint {} to {} [{}/{}]",
-                                endpointUrl, bindAddress, securityPolicy, messageSecurity);
-
-                            stackServer.addEndpoint(
-                                endpointUrl, bindAddress, certificate, securityPolicy, messageSecurity);
-                        }
-                    }
-                }
+                addEndpoints(endpointUrl(hostname, config.getBindPort(), config.getServerName()), bindAddress);
             }
         }
 
+        config.getLocalAddress().ifPresent(localAddress ->
+            addEndpoints(localEndpointUrl(localAddress, config.getServerName()), null));
+
+        config.getDomainSocketPath().ifPresent(socketPath ->
+            addEndpoints(domainSocketEndpointUrl(configuredHostname, socketPath, config.getServerName()), null));
+
         eventBus = new AsyncEventBus("server", stackServer.getExecutorService());
 
         logger.info("eclipse milo opc-ua stack version: {}", Stack.VERSION);
@@ -172,6 +158,51 @@ public class OpcUaServer {
         return stackServer.shutdown().thenApply(ignored -> OpcUaServer.this);
     }
 
+    private void addEndpoints(String endpointUrl, @Nullable String bindAddress) {
+        for (SecurityPolicy securityPolicy : config.getSecurityPolicies()) {
+            MessageSecurityMode messageSecurity = securityPolicy == SecurityPolicy.None ?
+                MessageSecurityMode.None : MessageSecurityMode.SignAndEncrypt;
+
+            Set<X509Certificate> certificates = config.getCertificateManager().getCertificates();
+
+            if (certificates.isEmpty() && securityPolicy == SecurityPolicy.None) {
+                logger.info("Binding endpoint {} to {} [{}/{}]",
+                    endpointUrl, bindAddress, securityPolicy, messageSecurity);
+
+                stackServer.addEndpoint(endpointUrl, bindAddress, null, securityPolicy, messageSecurity);
+            } else {
+                for (X509Certificate certificate : certificates) {
+                    logger.info("Binding endpoint {} to {} [{}/{}]",
+                        endpointUrl, bindAddress, securityPolicy, messageSecurity);
+
+                    stackServer.addEndpoint(
+                        endpointUrl, bindAddress, certificate, securityPolicy, messageSecurity);
+                }
+            }
+        }
+    }
+
+    private static String localEndpointUrl(String localAddress, String serverName) {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(String.format("%s://%s", TransportUtil.LOCAL_SCHEME, localAddress));
+        if (!serverName.isEmpty()) {
+            sb.append("/").append(serverName);
+        }
+        return sb.toString();
+    }
+
+    private static String domainSocketEndpointUrl(String hostname, String socketPath, String serverName) {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(String.format("%s://%s", TransportUtil.UNIX_SCHEME, hostname));
+        if (!serverName.isEmpty()) {
+            sb.append("/").append(serverName);
+        }
+        sb.append("?socket=").append(socketPath);
+        return sb.toString();
+    }
+
     private static String endpointUrl(String hostname, int port, String serverName) {
         StringBuilder sb = new StringBuilder();
 
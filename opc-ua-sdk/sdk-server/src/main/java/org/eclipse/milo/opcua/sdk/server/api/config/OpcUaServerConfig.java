@@ -15,6 +15,7 @@ package org.eclipse.milo.opcua.sdk.server.api.config;
 
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -86,6 +87,26 @@ public interface OpcUaServerConfig extends UaTcpStackServerConfig {
      */
     int getBindPort();
 
+    /**
+     * Get the name of the in-JVM local address to add endpoints at, if any.
+     * <p>
+     * Local endpoint URLs will be of the format "opc.local://{localAddress}/{serverName}" and are added in addition
+     * to the TCP endpoints. Only clients in the same JVM can connect to them.
+     *
+     * @return the name of the in-JVM local address to add endpoints at, if any.
+     */
+    Optional<String> getLocalAddress();
+
+    /**
+     * Get the path of the Unix domain socket to add endpoints at, if any.
+     * <p>
+     * Unix domain socket endpoint URLs will be of the format "opc.unix://{hostname}/{serverName}?socket={path}" and
+     * are added in addition to the TCP endpoints. Requires the native epoll transport.
+     *
+     * @return the path of the Unix domain socket to add endpoints at, if any.
+     */
+    Optional<String> getDomainSocketPath();
+
     /**
      * Get the {@link IdentityValidator} for the server.
      *
@@ -143,12 +164,21 @@ public interface OpcUaServerConfig extends UaTcpStackServerConfig {
         builder.setSoftwareCertificates(config.getSoftwareCertificates());
         builder.setChannelConfig(config.getChannelConfig());
         builder.setStrictEndpointUrlsEnabled(config.isStrictEndpointUrlsEnabled());
+        builder.setFlushConsolidationConfig(config.getFlushConsolidationConfig());
+        builder.setExecutorProvider(config.getExecutorProvider());
+        config.getInterningCache().ifPresent(builder::setInterningCache);
+        builder.setPrimitiveArraysEnabled(config.isPrimitiveArraysEnabled());
+        builder.setMaxPendingHandshakes(config.getMaxPendingHandshakes());
+        builder.setParallelDecodingConfig(config.getParallelDecodingConfig());
+        builder.setAdaptiveBufferSizeConfig(config.getAdaptiveBufferSizeConfig());
 
         // OpcUaServerConfig values
         builder.setSecurityPolicies(config.getSecurityPolicies());
         builder.setHostname(config.getHostname());
         builder.setBindAddresses(config.getBindAddresses());
         builder.setBindPort(config.getBindPort());
+        config.getLocalAddress().ifPresent(builder::setLocalAddress);
+        config.getDomainSocketPath().ifPresent(builder::setDomainSocketPath);
         builder.setIdentityValidator(config.getIdentityValidator());
         builder.setBuildInfo(config.getBuildInfo());
         builder.setLimits(config.getLimits());
@@ -17,6 +17,7 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
@@ -27,8 +28,13 @@ import org.eclipse.milo.opcua.sdk.server.identity.IdentityValidator;
 import org.eclipse.milo.opcua.stack.core.Stack;
 import org.eclipse.milo.opcua.stack.core.application.CertificateManager;
 import org.eclipse.milo.opcua.stack.core.application.CertificateValidator;
+import org.eclipse.milo.opcua.stack.core.application.ExecutorProvider;
+import org.eclipse.milo.opcua.stack.core.channel.AdaptiveBufferSizeConfig;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelConfig;
+import org.eclipse.milo.opcua.stack.core.channel.FlushConsolidationConfig;
+import org.eclipse.milo.opcua.stack.core.channel.ParallelDecodingConfig;
 import org.eclipse.milo.opcua.stack.core.security.SecurityPolicy;
+import org.eclipse.milo.opcua.stack.core.serialization.binary.InterningCache;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.structured.BuildInfo;
@@ -44,6 +50,8 @@ public class OpcUaServerConfigBuilder extends UaTcpStackServerConfigBuilder {
     private String hostname = getDefaultHostname();
     private List<String> bindAddresses = newArrayList("0.0.0.0");
     private int bindPort = Stack.DEFAULT_PORT;
+    private String localAddress = null;
+    private String domainSocketPath = null;
     private EnumSet<SecurityPolicy> securityPolicies = EnumSet.of(SecurityPolicy.None);
     private IdentityValidator identityValidator = AnonymousIdentityValidator.INSTANCE;
 
@@ -71,6 +79,16 @@ public class OpcUaServerConfigBuilder extends UaTcpStackServerConfigBuilder {
         return this;
     }
 
+    public OpcUaServerConfigBuilder setLocalAddress(String localAddress) {
+        this.localAddress = localAddress;
+        return this;
+    }
+
+    public OpcUaServerConfigBuilder setDomainSocketPath(String domainSocketPath) {
+        this.domainSocketPath = domainSocketPath;
+        return this;
+    }
+
     public OpcUaServerConfigBuilder setSecurityPolicies(EnumSet<SecurityPolicy> securityPolicies) {
         this.securityPolicies = securityPolicies;
         return this;
@@ -162,6 +180,48 @@ public class OpcUaServerConfigBuilder extends UaTcpStackServerConfigBuilder {
         return this;
     }
 
+    @Override
+    public OpcUaServerConfigBuilder setFlushConsolidationConfig(FlushConsolidationConfig flushConsolidationConfig) {
+        super.setFlushConsolidationConfig(flushConsolidationConfig);
+        return this;
+    }
+
+    @Override
+    public OpcUaServerConfigBuilder setExecutorProvider(ExecutorProvider executorProvider) {
+        super.setExecutorProvider(executorProvider);
+        return this;
+    }
+
+    @Override
+    public OpcUaServerConfigBuilder setInterningCache(InterningCache interningCache) {
+        super.setInterningCache(interningCache);
+        return this;
+    }
+
+    @Override
+    public OpcUaServerConfigBuilder setPrimitiveArraysEnabled(boolean primitiveArraysEnabled) {
+        super.setPrimitiveArraysEnabled(primitiveArraysEnabled);
+        return this;
+    }
+
+    @Override
+    public OpcUaServerConfigBuilder setMaxPendingHandshakes(int maxPendingHandshakes) {
+        super.setMaxPendingHandshakes(maxPendingHandshakes);
+        return this;
+    }
+
+    @Override
+    public OpcUaServerConfigBuilder setParallelDecodingConfig(ParallelDecodingConfig parallelDecodingConfig) {
+        super.setParallelDecodingConfig(parallelDecodingConfig);
+        return this;
+    }
+
+    @Override
+    public OpcUaServerConfigBuilder setAdaptiveBufferSizeConfig(AdaptiveBufferSizeConfig adaptiveBufferSizeConfig) {
+        super.setAdaptiveBufferSizeConfig(adaptiveBufferSizeConfig);
+        return this;
+    }
+
     public OpcUaServerConfig build() {
         UaTcpStackServerConfig stackServerConfig = super.build();
 
@@ -170,6 +230,8 @@ public class OpcUaServerConfigBuilder extends UaTcpStackServerConfigBuilder {
             hostname,
             bindAddresses,
             bindPort,
+            localAddress,
+            domainSocketPath,
             securityPolicies,
             identityValidator,
             buildInfo,
@@ -194,6 +256,8 @@ public class OpcUaServerConfigBuilder extends UaTcpStackServerConfigBuilder {
         private final String hostname;
         private final List<String> bindAddresses;
         private final int bindPort;
+        private final String localAddress;
+        private final String domainSocketPath;
         private final EnumSet<SecurityPolicy> securityPolicies;
         private final IdentityValidator identityValidator;
         private final BuildInfo buildInfo;
@@ -204,6 +268,8 @@ public class OpcUaServerConfigBuilder extends UaTcpStackServerConfigBuilder {
                                      String hostname,
                                      List<String> bindAddresses,
                                      int bindPort,
+                                     String localAddress,
+                                     String domainSocketPath,
                                      EnumSet<SecurityPolicy> securityPolicies,
                                      IdentityValidator identityValidator,
                                      BuildInfo buildInfo,
@@ -215,6 +281,8 @@ public class OpcUaServerConfigBuilder extends UaTcpStackServerConfigBuilder {
             this.hostname = hostname;
             this.bindAddresses = bindAddresses;
             this.bindPort = bindPort;
+            this.localAddress = localAddress;
+            this.domainSocketPath = domainSocketPath;
             this.securityPolicies = securityPolicies;
             this.identityValidator = identityValidator;
             this.buildInfo = buildInfo;
@@ -237,6 +305,16 @@ public class OpcUaServerConfigBuilder extends UaTcpStackServerConfigBuilder {
             return bindPort;
         }
 
+        @Override
+        public Optional<String> getLocalAddress() {
+            return Optional.ofNullable(localAddress);
+        }
+
+        @Override
+        public Optional<String> getDomainSocketPath() {
+            return Optional.ofNullable(domainSocketPath);
+        }
+
         @Override
         public IdentityValidator getIdentityValidator() {
             return identityValidator;
@@ -317,6 +395,41 @@ public class OpcUaServerConfigBuilder extends UaTcpStackServerConfigBuilder {
             return hostnameResolver;
         }
 
+        @Override
+        public FlushConsolidationConfig getFlushConsolidationConfig() {
+            return stackServerConfig.getFlushConsolidationConfig();
+        }
+
+        @Override
+        public ExecutorProvider getExecutorProvider() {
+            return stackServerConfig.getExecutorProvider();
+        }
+
+        @Override
+        public Optional<InterningCache> getInterningCache() {
+            return stackServerConfig.getInterningCache();
+        }
+
+        @Override
+        public boolean isPrimitiveArraysEnabled() {
+            return stackServerConfig.isPrimitiveArraysEnabled();
+        }
+
+        @Override
+        public int getMaxPendingHandshakes() {
+            return stackServerConfig.getMaxPendingHandshakes();
+        }
+
+        @Override
+        public ParallelDecodingConfig getParallelDecodingConfig() {
+            return stackServerConfig.getParallelDecodingConfig();
+        }
+
+        @Override
+        public AdaptiveBufferSizeConfig getAdaptiveBufferSizeConfig() {
+            return stackServerConfig.getAdaptiveBufferSizeConfig();
+        }
+
     }
 
 }
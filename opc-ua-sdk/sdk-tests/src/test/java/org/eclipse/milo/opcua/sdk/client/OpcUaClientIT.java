@@ -136,6 +136,7 @@ public class OpcUaClientIT {
             .setApplicationUri("urn:digitalpetri:opcua:server")
             .setBindAddresses(newArrayList("localhost"))
             .setBindPort(12686)
+            .setLocalAddress("sdk-tests")
             .setCertificateManager(certificateManager)
             .setCertificateValidator(certificateValidator)
             .setSecurityPolicies(EnumSet.of(SecurityPolicy.None, SecurityPolicy.Basic128Rsa15))
@@ -183,6 +184,41 @@ public class OpcUaClientIT {
         SocketServers.shutdownAll().get();
     }
 
+    @Test
+    public void testReadOverLocalTransport() throws Exception {
+        logger.info("testReadOverLocalTransport()");
+
+        EndpointDescription[] endpoints = UaTcpStackClient.getEndpoints("opc.local://sdk-tests/test-server").get();
+
+        EndpointDescription endpoint = Arrays.stream(endpoints)
+            .filter(e -> e.getEndpointUrl().startsWith("opc.local:"))
+            .filter(e -> e.getSecurityPolicyUri().equals(SecurityPolicy.None.getSecurityPolicyUri()))
+            .findFirst().orElseThrow(() -> new Exception("no desired endpoints returned"));
+
+        OpcUaClientConfig clientConfig = OpcUaClientConfig.builder()
+            .setApplicationName(LocalizedText.english("digitalpetri opc-ua client"))
+            .setApplicationUri("urn:digitalpetri:opcua:client")
+            .setEndpoint(endpoint)
+            .setRequestTimeout(uint(60000))
+            .build();
+
+        OpcUaClient localClient = new OpcUaClient(clientConfig);
+
+        try {
+            localClient.connect().get();
+
+            DataValue value = localClient.readValues(
+                0.0,
+                TimestampsToReturn.Both,
+                newArrayList(Identifiers.Server_ServerStatus_CurrentTime)
+            ).get().get(0);
+
+            assertTrue(value.getStatusCode().isGood());
+        } finally {
+            localClient.disconnect().get();
+        }
+    }
+
     @Test
     public void testRead() throws Exception {
         logger.info("testRead()");
@@ -100,6 +100,19 @@ class ClientChannelManager {
         }
     }
 
+    /**
+     * @return the current {@link ClientSecureChannel} if connected, without connecting or waiting for a connection.
+     */
+    Optional<ClientSecureChannel> getConnectedChannel() {
+        State currentState = state.get();
+
+        if (currentState instanceof Connected) {
+            return Optional.ofNullable(((Connected) currentState).connected.getNow(null));
+        } else {
+            return Optional.empty();
+        }
+    }
+
     public CompletableFuture<Unit> disconnect() {
         State currentState = state.get();
 
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.google.common.collect.Maps;
+import org.eclipse.milo.opcua.stack.client.config.ChannelPoolConfig;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.serialization.UaRequestMessage;
+import org.eclipse.milo.opcua.stack.core.serialization.UaResponseMessage;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.structured.CloseSessionRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.CreateSessionResponse;
+
+/**
+ * The {@link ClientChannelManager}s of a {@link UaTcpStackClient}, one per pooled secure channel.
+ * <p>
+ * Requests carrying a session's authentication token go to the channel the session was created on, which is learned
+ * from the {@link CreateSessionResponse}. Other requests are spread over the pool by the configured
+ * {@link ChannelPoolConfig.SelectionPolicy}.
+ * <p>
+ * A session's channel is forgotten when the session is closed, when one of its requests fails because the server no
+ * longer knows the session, or when its owner releases it.
+ */
+class ClientChannelPool {
+
+    private final AtomicInteger nextChannel = new AtomicInteger(0);
+
+    private final ConcurrentMap<NodeId, Integer> sessionChannels = Maps.newConcurrentMap();
+
+    private final ClientChannelManager[] channelManagers;
+    private final AtomicIntegerArray pendingCounts;
+    private final ChannelPoolConfig.SelectionPolicy selectionPolicy;
+
+    ClientChannelPool(UaTcpStackClient client, ChannelPoolConfig config) {
+        channelManagers = new ClientChannelManager[config.getSize()];
+
+        for (int i = 0; i < channelManagers.length; i++) {
+            channelManagers[i] = new ClientChannelManager(client);
+        }
+
+        pendingCounts = new AtomicIntegerArray(channelManagers.length);
+        selectionPolicy = config.getSelectionPolicy();
+    }
+
+    int size() {
+        return channelManagers.length;
+    }
+
+    /**
+     * @return the {@link ClientChannelManager} of the first channel in the pool.
+     */
+    ClientChannelManager primary() {
+        return channelManagers[0];
+    }
+
+    ClientChannelManager get(int index) {
+        return channelManagers[index];
+    }
+
+    /**
+     * @param authenticationToken the authentication token of a session.
+     * @return the index of the channel the session was created on, or 0 if it isn't known.
+     */
+    int sessionChannel(NodeId authenticationToken) {
+        Integer index = sessionChannels.get(authenticationToken);
+
+        return index != null ? index : 0;
+    }
+
+    /**
+     * Forget the channel of a session that won't be used again.
+     *
+     * @param authenticationToken the authentication token of a session.
+     */
+    void release(NodeId authenticationToken) {
+        sessionChannels.remove(authenticationToken);
+    }
+
+    /**
+     * @param request a request about to be sent.
+     * @return the index of the channel to send {@code request} on.
+     */
+    int select(UaRequestMessage request) {
+        NodeId authenticationToken = request.getRequestHeader().getAuthenticationToken();
+
+        if (authenticationToken != null && authenticationToken.isNotNull()) {
+            return sessionChannel(authenticationToken);
+        } else if (selectionPolicy == ChannelPoolConfig.SelectionPolicy.LeastLoaded) {
+            int selected = 0;
+            int fewest = pendingCounts.get(0);
+
+            for (int i = 1; i < channelManagers.length && fewest > 0; i++) {
+                int count = pendingCounts.get(i);
+
+                if (count < fewest) {
+                    selected = i;
+                    fewest = count;
+                }
+            }
+
+            return selected;
+        } else {
+            return Math.floorMod(nextChannel.getAndIncrement(), channelManagers.length);
+        }
+    }
+
+    /**
+     * Count {@code response} against channel {@code index} until it completes, and remember the channel of any
+     * session it creates or forget the channel of any session it closes or finds invalid.
+     *
+     * @return a future completed like {@code response}, but only once the session's channel has been recorded, so a
+     * caller can't send a request for a new session before its channel is known.
+     */
+    <T extends UaResponseMessage> CompletableFuture<T> track(int index,
+                                                             UaRequestMessage request,
+                                                             CompletableFuture<T> response) {
+
+        CompletableFuture<T> tracked = new CompletableFuture<>();
+
+        pendingCounts.incrementAndGet(index);
+
+        response.whenComplete((r, ex) -> {
+            pendingCounts.decrementAndGet(index);
+
+            if (r instanceof CreateSessionResponse) {
+                NodeId authenticationToken = ((CreateSessionResponse) r).getAuthenticationToken();
+
+                if (authenticationToken != null) {
+                    sessionChannels.put(authenticationToken, index);
+                }
+            } else if (request instanceof CloseSessionRequest || isSessionInvalid(ex)) {
+                NodeId authenticationToken = request.getRequestHeader().getAuthenticationToken();
+
+                if (authenticationToken != null) {
+                    sessionChannels.remove(authenticationToken);
+                }
+            }
+
+            if (r != null) {
+                tracked.complete(r);
+            } else {
+                tracked.completeExceptionally(ex);
+            }
+        });
+
+        return tracked;
+    }
+
+    private static boolean isSessionInvalid(Throwable ex) {
+        if (ex == null) {
+            return false;
+        }
+
+        long statusCode = UaException.extract(ex)
+            .map(e -> e.getStatusCode().getValue())
+            .orElse(StatusCodes.Bad_UnexpectedError);
+
+        return statusCode == StatusCodes.Bad_SessionIdInvalid || statusCode == StatusCodes.Bad_SessionClosed;
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.client;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import org.eclipse.milo.opcua.stack.client.config.InFlightLimitConfig;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.serialization.UaRequestMessage;
+import org.eclipse.milo.opcua.stack.core.types.structured.PublishRequest;
+import org.eclipse.milo.opcua.stack.core.util.AsyncSemaphore;
+import org.eclipse.milo.opcua.stack.core.util.AsyncSemaphore.SemaphorePermit;
+
+/**
+ * Admits requests into the in-flight window described by an {@link InFlightLimitConfig}.
+ * <p>
+ * A request holds its permit from the moment it's admitted until its response future completes, so a request that
+ * times out or fails frees its slot the same as one that's answered.
+ */
+class InFlightLimiter {
+
+    private final AsyncSemaphore requestPermits;
+    private final AsyncSemaphore publishPermits;
+
+    private final InFlightLimitConfig.SaturationPolicy saturationPolicy;
+    private final int maxQueuedRequests;
+    private final long maxQueueMillis;
+    private final InFlightMetrics metrics;
+
+    private final HashedWheelTimer wheelTimer;
+
+    InFlightLimiter(InFlightLimitConfig config, HashedWheelTimer wheelTimer) {
+        this.wheelTimer = wheelTimer;
+
+        requestPermits = new AsyncSemaphore(config.getMaxInFlightRequests());
+
+        publishPermits = config.getReservedPublishRequests() > 0 ?
+            new AsyncSemaphore(config.getReservedPublishRequests()) : null;
+
+        saturationPolicy = config.getSaturationPolicy();
+        maxQueuedRequests = config.getMaxQueuedRequests();
+        maxQueueMillis = config.getMaxQueueMillis();
+
+        metrics = new InFlightMetrics(
+            config.getMaxInFlightRequests(),
+            config.getReservedPublishRequests(),
+            requestPermits,
+            publishPermits);
+    }
+
+    InFlightMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Send {@code request} once it's admitted to its window.
+     *
+     * @param request the request to send.
+     * @param send    sends the request and returns its response future.
+     * @return the response future, completed exceptionally with {@code Bad_TooManyOperations} if the window is full
+     * and the {@link InFlightLimitConfig.SaturationPolicy} is {@code FailFast}, or if the request can't wait or waits
+     * too long for room in the window.
+     */
+    <T> CompletableFuture<T> submit(UaRequestMessage request, Supplier<CompletableFuture<T>> send) {
+        AsyncSemaphore permits = (publishPermits != null && request instanceof PublishRequest) ?
+            publishPermits : requestPermits;
+
+        Optional<SemaphorePermit> permit = permits.tryAcquire();
+
+        if (permit.isPresent()) {
+            metrics.recordAcquired(0L);
+
+            return sendAndRelease(permit.get(), send);
+        } else if (saturationPolicy == InFlightLimitConfig.SaturationPolicy.FailFast) {
+            return reject("too many requests in flight: " + request.getClass().getSimpleName());
+        } else {
+            Optional<CompletableFuture<SemaphorePermit>> acquisition = permits.acquire(maxQueuedRequests);
+
+            if (!acquisition.isPresent()) {
+                return reject("too many requests queued: " + request.getClass().getSimpleName());
+            }
+
+            long queuedAt = System.nanoTime();
+            CompletableFuture<SemaphorePermit> acquired = acquisition.get();
+
+            if (maxQueueMillis > 0) {
+                Timeout timeout = wheelTimer.newTimeout(t -> {
+                    if (permits.cancel(acquired)) {
+                        metrics.recordRejected();
+
+                        acquired.completeExceptionally(new UaException(
+                            StatusCodes.Bad_TooManyOperations,
+                            "request queued longer than " + maxQueueMillis + "ms: " +
+                                request.getClass().getSimpleName()));
+                    }
+                }, maxQueueMillis, TimeUnit.MILLISECONDS);
+
+                acquired.thenRun(timeout::cancel);
+            }
+
+            return acquired.thenCompose(p -> {
+                metrics.recordAcquired(Math.max(1L, System.nanoTime() - queuedAt));
+
+                return sendAndRelease(p, send);
+            });
+        }
+    }
+
+    private <T> CompletableFuture<T> reject(String message) {
+        metrics.recordRejected();
+
+        CompletableFuture<T> f = new CompletableFuture<>();
+        f.completeExceptionally(new UaException(StatusCodes.Bad_TooManyOperations, message));
+        return f;
+    }
+
+    private static <T> CompletableFuture<T> sendAndRelease(SemaphorePermit permit,
+                                                          Supplier<CompletableFuture<T>> send) {
+        CompletableFuture<T> future;
+
+        try {
+            future = send.get();
+        } catch (Throwable t) {
+            permit.release();
+            throw t;
+        }
+
+        future.whenComplete((r, ex) -> permit.release());
+
+        return future;
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.client;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.base.MoreObjects;
+import org.eclipse.milo.opcua.stack.client.config.InFlightLimitConfig;
+import org.eclipse.milo.opcua.stack.core.util.AsyncSemaphore;
+
+/**
+ * Counters for the in-flight window of a {@link UaTcpStackClient} configured with an {@link InFlightLimitConfig}.
+ * <p>
+ * The request and reserved Publish lanes are reported separately; the queue and rejection counters cover both.
+ */
+public class InFlightMetrics {
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+
+    private final LongAccumulator maxQueueNanos = new LongAccumulator(Math::max, 0L);
+    private final LongAccumulator peakInFlightRequests = new LongAccumulator(Math::max, 0L);
+
+    private final int maxInFlightRequests;
+    private final int reservedPublishRequests;
+    private final AsyncSemaphore requestPermits;
+    private final AsyncSemaphore publishPermits;
+
+    InFlightMetrics(int maxInFlightRequests,
+                    int reservedPublishRequests,
+                    AsyncSemaphore requestPermits,
+                    AsyncSemaphore publishPermits) {
+
+        this.maxInFlightRequests = maxInFlightRequests;
+        this.reservedPublishRequests = reservedPublishRequests;
+        this.requestPermits = requestPermits;
+        this.publishPermits = publishPermits;
+    }
+
+    void recordAcquired(long queuedNanos) {
+        acquired.increment();
+
+        if (queuedNanos > 0) {
+            queued.increment();
+            queueNanos.add(queuedNanos);
+            maxQueueNanos.accumulate(queuedNanos);
+        }
+
+        peakInFlightRequests.accumulate(getInFlightRequests());
+    }
+
+    void recordRejected() {
+        rejected.increment();
+    }
+
+    /**
+     * @return the size of the request window.
+     */
+    public int getMaxInFlightRequests() {
+        return maxInFlightRequests;
+    }
+
+    /**
+     * @return the size of the reserved Publish lane, or 0 if Publish requests share the request window.
+     */
+    public int getReservedPublishRequests() {
+        return reservedPublishRequests;
+    }
+
+    /**
+     * @return the number of requests currently in flight in the request window.
+     */
+    public int getInFlightRequests() {
+        return maxInFlightRequests - requestPermits.getAvailablePermits();
+    }
+
+    /**
+     * @return the number of Publish requests currently in flight in the reserved Publish lane.
+     */
+    public int getInFlightPublishRequests() {
+        return publishPermits != null ? reservedPublishRequests - publishPermits.getAvailablePermits() : 0;
+    }
+
+    /**
+     * @return the fraction, between 0 and 1, of the request window currently in use.
+     */
+    public double getUtilization() {
+        return (double) getInFlightRequests() / maxInFlightRequests;
+    }
+
+    /**
+     * @return the largest number of requests that have been in flight in the request window at once.
+     */
+    public long getPeakInFlightRequests() {
+        return peakInFlightRequests.get();
+    }
+
+    /**
+     * @return the number of requests currently waiting for room in their window.
+     */
+    public int getQueueLength() {
+        return requestPermits.getQueueLength() + (publishPermits != null ? publishPermits.getQueueLength() : 0);
+    }
+
+    /**
+     * @return the number of requests admitted to their window.
+     */
+    public long getAcquiredRequests() {
+        return acquired.sum();
+    }
+
+    /**
+     * @return the number of admitted requests that had to wait for room in their window.
+     */
+    public long getQueuedRequests() {
+        return queued.sum();
+    }
+
+    /**
+     * @return the number of requests failed because their window was full, or because they could not wait or waited
+     * too long for room in it.
+     */
+    public long getRejectedRequests() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return the total time admitted requests spent waiting for room in their window.
+     */
+    public long getQueueNanos() {
+        return queueNanos.sum();
+    }
+
+    /**
+     * @return the longest time a single request spent waiting for room in its window.
+     */
+    public long getMaxQueueNanos() {
+        return maxQueueNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("maxInFlightRequests", maxInFlightRequests)
+            .add("reservedPublishRequests", reservedPublishRequests)
+            .add("inFlightRequests", getInFlightRequests())
+            .add("inFlightPublishRequests", getInFlightPublishRequests())
+            .add("peakInFlightRequests", getPeakInFlightRequests())
+            .add("queueLength", getQueueLength())
+            .add("acquiredRequests", getAcquiredRequests())
+            .add("queuedRequests", getQueuedRequests())
+            .add("rejectedRequests", getRejectedRequests())
+            .add("queueNanos", getQueueNanos())
+            .add("maxQueueNanos", getMaxQueueNanos())
+            .toString();
+    }
+
+}
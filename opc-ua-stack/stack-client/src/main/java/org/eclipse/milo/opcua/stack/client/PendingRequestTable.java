@@ -0,0 +1,626 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nullable;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.UaServiceFaultException;
+import org.eclipse.milo.opcua.stack.core.serialization.ArrayElementConsumers;
+import org.eclipse.milo.opcua.stack.core.serialization.UaResponseMessage;
+import org.eclipse.milo.opcua.stack.core.types.structured.RequestHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.ResponseHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.ServiceFault;
+
+/**
+ * The requests a {@link UaTcpStackClient} has sent and is awaiting responses for, keyed by request handle and, once
+ * sent, indexed by secure channel id and request id.
+ * <p>
+ * Each {@link PendingRequest} holds the response future, the deadline, and the secure channel request id in a single
+ * entry. Entries live in open-addressing tables of primitive {@code long} keys, split into independently locked
+ * segments, so sending and completing a request neither boxes its handle nor allocates a map node. Timeouts are
+ * enforced by one sweep scheduled on the {@link HashedWheelTimer} while any request is pending, rather than by a
+ * timer task per request. Each segment keeps its requests in a heap ordered by deadline, so a sweep only visits the
+ * requests that have expired.
+ * <p>
+ * Responses are matched by request id, which the secure channel layer guarantees, rather than by the request handle
+ * echoed in the response header, which a server may not fill in, e.g. for a {@link ServiceFault}.
+ */
+public class PendingRequestTable {
+
+    /**
+     * The timeout used for requests whose header has no timeout hint, in milliseconds.
+     */
+    public static final long DEFAULT_TIMEOUT_MS = 60000;
+
+    /**
+     * The interval between timeout sweeps, in milliseconds. Requests time out at most this much after their deadline.
+     */
+    public static final long SWEEP_INTERVAL_MS = 100;
+
+    private static final int SEGMENT_COUNT = 16;
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+    private static final long EMPTY = -1L;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final Segment[] requestIdSegments = new Segment[SEGMENT_COUNT];
+
+    private final AtomicBoolean sweepScheduled = new AtomicBoolean(false);
+
+    private final HashedWheelTimer wheelTimer;
+
+    public PendingRequestTable(HashedWheelTimer wheelTimer) {
+        this.wheelTimer = wheelTimer;
+
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(true);
+            requestIdSegments[i] = new Segment(false);
+        }
+    }
+
+    /**
+     * Add a request awaiting a response, replacing any pending request with the same handle.
+     *
+     * @param requestHeader the {@link RequestHeader} of the request.
+     * @param future        the future to complete with the response.
+     * @return the {@link PendingRequest} added.
+     */
+    public PendingRequest put(RequestHeader requestHeader, CompletableFuture<UaResponseMessage> future) {
+        return put(requestHeader, future, null);
+    }
+
+    /**
+     * Add a request awaiting a response, replacing any pending request with the same handle.
+     *
+     * @param requestHeader the {@link RequestHeader} of the request.
+     * @param future        the future to complete with the response.
+     * @param consumers     the {@link ArrayElementConsumers} to decode the response with, or {@code null}.
+     * @return the {@link PendingRequest} added.
+     */
+    public PendingRequest put(RequestHeader requestHeader,
+                              CompletableFuture<UaResponseMessage> future,
+                              @Nullable ArrayElementConsumers consumers) {
+
+        long timeoutMillis = requestHeader.getTimeoutHint() != null ?
+            requestHeader.getTimeoutHint().longValue() : DEFAULT_TIMEOUT_MS;
+
+        PendingRequest request = new PendingRequest(
+            this,
+            requestHeader.getRequestHandle().longValue(),
+            future,
+            consumers,
+            System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis),
+            timeoutMillis);
+
+        segment(request.requestHandle).put(request.requestHandle, request);
+
+        scheduleSweep();
+
+        return request;
+    }
+
+    /**
+     * @param requestHandle the handle of a pending request.
+     * @return the {@link PendingRequest} with handle {@code requestHandle}, or {@code null} if there is none.
+     */
+    @Nullable
+    public PendingRequest get(long requestHandle) {
+        return segment(requestHandle).get(requestHandle);
+    }
+
+    /**
+     * @param requestHandle the handle of a pending request.
+     * @return the {@link PendingRequest} removed, or {@code null} if there was none with handle {@code requestHandle}.
+     */
+    @Nullable
+    public PendingRequest remove(long requestHandle) {
+        PendingRequest request = segment(requestHandle).remove(requestHandle, null);
+
+        if (request != null) {
+            unindex(request);
+        }
+
+        return request;
+    }
+
+    /**
+     * Remove {@code request}, if it's still the pending request for its handle.
+     *
+     * @param request the {@link PendingRequest} to remove.
+     * @return {@code true} if {@code request} was removed.
+     */
+    public boolean remove(PendingRequest request) {
+        if (segment(request.requestHandle).remove(request.requestHandle, request) != null) {
+            unindex(request);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * @param secureChannelId the id of the secure channel the request was sent on.
+     * @param requestId       the secure channel request id the request was sent with.
+     * @return the {@link PendingRequest} sent on secure channel {@code secureChannelId} with request id
+     * {@code requestId}, or {@code null} if there is none.
+     */
+    @Nullable
+    public PendingRequest getByRequestId(long secureChannelId, long requestId) {
+        long key = requestIdKey(secureChannelId, requestId);
+
+        return key != EMPTY ? requestIdSegment(key).get(key) : null;
+    }
+
+    /**
+     * Remove the pending request sent on secure channel {@code secureChannelId} with request id {@code requestId}.
+     *
+     * @param secureChannelId the id of the secure channel the request was sent on.
+     * @param requestId       the secure channel request id the request was sent with.
+     * @return the {@link PendingRequest} removed, or {@code null} if there was none.
+     */
+    @Nullable
+    public PendingRequest removeByRequestId(long secureChannelId, long requestId) {
+        PendingRequest request = getByRequestId(secureChannelId, requestId);
+
+        return request != null && remove(request) ? request : null;
+    }
+
+    /**
+     * @return the number of requests pending.
+     */
+    public int size() {
+        int size = 0;
+
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+
+        return size;
+    }
+
+    private Segment segment(long requestHandle) {
+        return segments[hash(requestHandle) >>> 28];
+    }
+
+    private Segment requestIdSegment(long key) {
+        return requestIdSegments[hash(key) >>> 28];
+    }
+
+    /**
+     * Index {@code request} by the secure channel id and request id it was just sent with, replacing the index entry
+     * for the channel and id it was previously sent with, if any.
+     */
+    private void index(PendingRequest request, long secureChannelId, long requestId) {
+        unindex(request);
+
+        request.secureChannelId = secureChannelId;
+        request.requestId = requestId;
+
+        long key = requestIdKey(secureChannelId, requestId);
+
+        if (key != EMPTY) {
+            requestIdSegment(key).put(key, request);
+
+            // The request may have completed or timed out while it was being sent; its removal could have looked at
+            // the index before this entry was added.
+            if (get(request.requestHandle) != request) {
+                unindex(request);
+            }
+        }
+    }
+
+    private void unindex(PendingRequest request) {
+        long key = requestIdKey(request.secureChannelId, request.requestId);
+
+        if (key != EMPTY) {
+            requestIdSegment(key).remove(key, request);
+        }
+    }
+
+    /**
+     * @return the secure channel id and request id, both UInt32, packed into one key. The single pair that packs to
+     * {@link #EMPTY} isn't indexed.
+     */
+    private static long requestIdKey(long secureChannelId, long requestId) {
+        if (secureChannelId == EMPTY || requestId == EMPTY) {
+            return EMPTY;
+        } else {
+            return (secureChannelId << 32) | (requestId & 0xFFFFFFFFL);
+        }
+    }
+
+    private void scheduleSweep() {
+        if (sweepScheduled.compareAndSet(false, true)) {
+            wheelTimer.newTimeout(this::sweep, SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void sweep(Timeout timeout) {
+        long now = System.nanoTime();
+
+        List<PendingRequest> expired = new ArrayList<>();
+
+        for (Segment segment : segments) {
+            segment.removeExpired(now, expired);
+        }
+
+        for (PendingRequest request : expired) {
+            unindex(request);
+
+            String message = "request timed out after " + request.timeoutMillis + "ms";
+            request.future.completeExceptionally(new UaException(StatusCodes.Bad_Timeout, message));
+        }
+
+        sweepScheduled.set(false);
+
+        // A request put while this sweep was running saw it scheduled and didn't schedule another.
+        if (size() > 0) {
+            scheduleSweep();
+        }
+    }
+
+    private static int hash(long key) {
+        int h = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+
+        return h ^ (h >>> 16);
+    }
+
+    public static final class PendingRequest {
+
+        private volatile long secureChannelId = EMPTY;
+        private volatile long requestId = EMPTY;
+
+        /**
+         * The position of this request in its segment's deadline heap, or -1. Guarded by the segment's lock.
+         */
+        private int heapIndex = -1;
+
+        private final PendingRequestTable table;
+        private final long requestHandle;
+        private final CompletableFuture<UaResponseMessage> future;
+        private final ArrayElementConsumers arrayElementConsumers;
+        private final long deadlineNanos;
+        private final long timeoutMillis;
+
+        private PendingRequest(PendingRequestTable table,
+                               long requestHandle,
+                               CompletableFuture<UaResponseMessage> future,
+                               @Nullable ArrayElementConsumers arrayElementConsumers,
+                               long deadlineNanos,
+                               long timeoutMillis) {
+
+            this.table = table;
+            this.requestHandle = requestHandle;
+            this.future = future;
+            this.arrayElementConsumers = arrayElementConsumers;
+            this.deadlineNanos = deadlineNanos;
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        public long getRequestHandle() {
+            return requestHandle;
+        }
+
+        public CompletableFuture<UaResponseMessage> getFuture() {
+            return future;
+        }
+
+        /**
+         * @return the {@link ArrayElementConsumers} to decode the response to this request with, or {@code null}.
+         */
+        @Nullable
+        public ArrayElementConsumers getArrayElementConsumers() {
+            return arrayElementConsumers;
+        }
+
+        /**
+         * @return the id of the secure channel this request was last sent on, or -1 if it hasn't been encoded.
+         */
+        public long getSecureChannelId() {
+            return secureChannelId;
+        }
+
+        /**
+         * @return the secure channel request id this request was last sent with, or -1 if it hasn't been encoded.
+         */
+        public long getRequestId() {
+            return requestId;
+        }
+
+        /**
+         * Record the secure channel and request id this request was encoded with, so its response can be matched by
+         * request id. Must be called before the request is written.
+         *
+         * @param secureChannelId the id of the secure channel this request was encoded for.
+         * @param requestId       the secure channel request id this request was encoded with.
+         */
+        public void setRequestId(long secureChannelId, long requestId) {
+            table.index(this, secureChannelId, requestId);
+        }
+
+        /**
+         * Complete this request with {@code response}, or exceptionally if its service result is bad.
+         *
+         * @param response the response received for this request.
+         */
+        public void complete(UaResponseMessage response) {
+            ResponseHeader header = response.getResponseHeader();
+
+            if (header.getServiceResult().isGood()) {
+                future.complete(response);
+            } else {
+                ServiceFault serviceFault = (response instanceof ServiceFault) ?
+                    (ServiceFault) response : new ServiceFault(header);
+
+                future.completeExceptionally(new UaServiceFaultException(serviceFault));
+            }
+        }
+
+    }
+
+    /**
+     * A linear-probing table of pending requests. Removal shifts the following run of entries back rather than
+     * leaving tombstones, so lookups never have to probe past deleted slots.
+     * <p>
+     * A segment keyed by request handle also keeps its requests in a binary min-heap ordered by deadline, so expired
+     * requests can be found without scanning the table.
+     */
+    private static final class Segment {
+
+        private final boolean tracksDeadlines;
+
+        private long[] keys = newKeys(INITIAL_SEGMENT_CAPACITY);
+        private PendingRequest[] values = new PendingRequest[INITIAL_SEGMENT_CAPACITY];
+        private int size = 0;
+
+        private PendingRequest[] heap;
+        private int heapSize = 0;
+
+        Segment(boolean tracksDeadlines) {
+            this.tracksDeadlines = tracksDeadlines;
+            this.heap = tracksDeadlines ? new PendingRequest[INITIAL_SEGMENT_CAPACITY] : null;
+        }
+
+        synchronized void put(long key, PendingRequest value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+
+            while (keys[i] != EMPTY) {
+                if (keys[i] == key) {
+                    if (tracksDeadlines) {
+                        heapRemove(values[i]);
+                        heapAdd(value);
+                    }
+
+                    values[i] = value;
+                    return;
+                }
+
+                i = (i + 1) & mask;
+            }
+
+            keys[i] = key;
+            values[i] = value;
+            size++;
+
+            if (tracksDeadlines) {
+                heapAdd(value);
+            }
+        }
+
+        @Nullable
+        synchronized PendingRequest get(long key) {
+            int i = indexOf(key);
+
+            return i >= 0 ? values[i] : null;
+        }
+
+        /**
+         * Remove the entry for {@code key}, if there is one and, when {@code expected} is non-null, it's
+         * {@code expected}.
+         */
+        @Nullable
+        synchronized PendingRequest remove(long key, @Nullable PendingRequest expected) {
+            int i = indexOf(key);
+
+            if (i < 0 || (expected != null && values[i] != expected)) {
+                return null;
+            }
+
+            PendingRequest value = values[i];
+            delete(i);
+            return value;
+        }
+
+        synchronized void removeExpired(long now, List<PendingRequest> expired) {
+            while (heapSize > 0 && heap[0].deadlineNanos - now <= 0) {
+                PendingRequest request = heap[0];
+                expired.add(request);
+                delete(indexOf(request.requestHandle));
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private int indexOf(long key) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+
+            while (keys[i] != EMPTY) {
+                if (keys[i] == key) {
+                    return i;
+                }
+
+                i = (i + 1) & mask;
+            }
+
+            return -1;
+        }
+
+        private void delete(int i) {
+            if (tracksDeadlines) {
+                heapRemove(values[i]);
+            }
+
+            int mask = keys.length - 1;
+            int j = i;
+
+            while (true) {
+                j = (j + 1) & mask;
+
+                if (keys[j] == EMPTY) {
+                    break;
+                }
+
+                int k = hash(keys[j]) & mask;
+
+                // The entry at j may only move back to i if its home slot k isn't cyclically within (i, j].
+                boolean stays = i <= j ? (i < k && k <= j) : (i < k || k <= j);
+
+                if (!stays) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    i = j;
+                }
+            }
+
+            keys[i] = EMPTY;
+            values[i] = null;
+            size--;
+
+            // Give back the room left over from a burst of requests. Halving at 1/8 full leaves the table 1/4 full,
+            // well short of the 1/2 that grows it again.
+            if (keys.length > INITIAL_SEGMENT_CAPACITY && size * 8 < keys.length) {
+                resize(keys.length >>> 1);
+            }
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            PendingRequest[] oldValues = values;
+
+            keys = newKeys(capacity);
+            values = new PendingRequest[capacity];
+
+            int mask = capacity - 1;
+
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != EMPTY) {
+                    int i = hash(oldKeys[j]) & mask;
+
+                    while (keys[i] != EMPTY) {
+                        i = (i + 1) & mask;
+                    }
+
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+            }
+
+            if (tracksDeadlines) {
+                heap = Arrays.copyOf(heap, capacity);
+            }
+        }
+
+        private void heapAdd(PendingRequest request) {
+            heap[heapSize] = request;
+            request.heapIndex = heapSize;
+            siftUp(heapSize++);
+        }
+
+        private void heapRemove(PendingRequest request) {
+            int i = request.heapIndex;
+            PendingRequest last = heap[--heapSize];
+            heap[heapSize] = null;
+            request.heapIndex = -1;
+
+            if (i != heapSize) {
+                heap[i] = last;
+                last.heapIndex = i;
+                siftDown(i);
+                siftUp(last.heapIndex);
+            }
+        }
+
+        private void siftUp(int i) {
+            PendingRequest request = heap[i];
+
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+
+                if (heap[parent].deadlineNanos - request.deadlineNanos <= 0) {
+                    break;
+                }
+
+                heap[i] = heap[parent];
+                heap[i].heapIndex = i;
+                i = parent;
+            }
+
+            heap[i] = request;
+            request.heapIndex = i;
+        }
+
+        private void siftDown(int i) {
+            PendingRequest request = heap[i];
+
+            while (true) {
+                int child = 2 * i + 1;
+
+                if (child >= heapSize) {
+                    break;
+                }
+
+                if (child + 1 < heapSize && heap[child + 1].deadlineNanos - heap[child].deadlineNanos < 0) {
+                    child++;
+                }
+
+                if (request.deadlineNanos - heap[child].deadlineNanos <= 0) {
+                    break;
+                }
+
+                heap[i] = heap[child];
+                heap[i].heapIndex = i;
+                i = child;
+            }
+
+            heap[i] = request;
+            request.heapIndex = i;
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+    }
+
+}
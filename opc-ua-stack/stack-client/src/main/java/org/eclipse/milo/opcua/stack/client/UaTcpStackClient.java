@@ -13,6 +13,8 @@
 
 package org.eclipse.milo.opcua.stack.client;
 
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.net.URI;
 import java.nio.channels.ClosedChannelException;
 import java.security.KeyPair;
@@ -20,38 +22,43 @@ import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Maps;
 import io.netty.bootstrap.Bootstrap;
-import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.util.HashedWheelTimer;
-import io.netty.util.Timeout;
+import io.netty.channel.EventLoopGroup;
+import org.eclipse.milo.opcua.stack.client.PendingRequestTable.PendingRequest;
+import org.eclipse.milo.opcua.stack.client.config.ChannelPoolConfig;
+import org.eclipse.milo.opcua.stack.client.config.InFlightLimitConfig;
 import org.eclipse.milo.opcua.stack.client.config.UaTcpStackClientConfig;
 import org.eclipse.milo.opcua.stack.client.handlers.UaRequestFuture;
 import org.eclipse.milo.opcua.stack.client.handlers.UaTcpClientAcknowledgeHandler;
 import org.eclipse.milo.opcua.stack.core.Stack;
 import org.eclipse.milo.opcua.stack.core.StatusCodes;
 import org.eclipse.milo.opcua.stack.core.UaException;
-import org.eclipse.milo.opcua.stack.core.UaServiceFaultException;
+import org.eclipse.milo.opcua.stack.core.application.ExecutorProvider;
 import org.eclipse.milo.opcua.stack.core.application.UaStackClient;
+import org.eclipse.milo.opcua.stack.core.channel.AdaptiveBufferSizeConfig;
+import org.eclipse.milo.opcua.stack.core.channel.BufferSizeAdvisor;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelConfig;
+import org.eclipse.milo.opcua.stack.core.channel.ChannelMetrics;
 import org.eclipse.milo.opcua.stack.core.channel.ClientSecureChannel;
+import org.eclipse.milo.opcua.stack.core.channel.FlushConsolidationConfig;
+import org.eclipse.milo.opcua.stack.core.channel.FlushConsolidationHandler;
+import org.eclipse.milo.opcua.stack.core.serialization.ArrayElementConsumers;
 import org.eclipse.milo.opcua.stack.core.serialization.UaRequestMessage;
 import org.eclipse.milo.opcua.stack.core.serialization.UaResponseMessage;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
 import org.eclipse.milo.opcua.stack.core.types.enumerated.ApplicationType;
 import org.eclipse.milo.opcua.stack.core.types.structured.ApplicationDescription;
@@ -61,8 +68,8 @@ import org.eclipse.milo.opcua.stack.core.types.structured.FindServersResponse;
 import org.eclipse.milo.opcua.stack.core.types.structured.GetEndpointsRequest;
 import org.eclipse.milo.opcua.stack.core.types.structured.GetEndpointsResponse;
 import org.eclipse.milo.opcua.stack.core.types.structured.RequestHeader;
-import org.eclipse.milo.opcua.stack.core.types.structured.ResponseHeader;
-import org.eclipse.milo.opcua.stack.core.types.structured.ServiceFault;
+import org.eclipse.milo.opcua.stack.core.util.BufferUtil;
+import org.eclipse.milo.opcua.stack.core.util.TransportUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -70,25 +77,24 @@ import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.
 
 public class UaTcpStackClient implements UaStackClient {
 
-    private static final long DEFAULT_TIMEOUT_MS = 60000;
-
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    private final Map<UInteger, CompletableFuture<UaResponseMessage>> pending = Maps.newConcurrentMap();
-    private final Map<UInteger, Timeout> timeouts = Maps.newConcurrentMap();
-
-    private final HashedWheelTimer wheelTimer;
+    private final PendingRequestTable pendingRequests;
 
     private final ApplicationDescription application;
 
-    private final ClientChannelManager channelManager;
+    private final ClientChannelPool channelPool;
+
+    private final InFlightLimiter inFlightLimiter;
+
+    private final BufferSizeAdvisor bufferSizeAdvisor;
 
     private final UaTcpStackClientConfig config;
 
     public UaTcpStackClient(UaTcpStackClientConfig config) {
         this.config = config;
 
-        wheelTimer = config.getWheelTimer();
+        pendingRequests = new PendingRequestTable(config.getWheelTimer());
 
         application = new ApplicationDescription(
             config.getApplicationUri(),
@@ -97,7 +103,13 @@ public class UaTcpStackClient implements UaStackClient {
             ApplicationType.Client,
             null, null, null);
 
-        channelManager = new ClientChannelManager(this);
+        channelPool = new ClientChannelPool(this, config.getChannelPoolConfig());
+
+        inFlightLimiter = config.getInFlightLimitConfig().isEnabled() ?
+            new InFlightLimiter(config.getInFlightLimitConfig(), config.getWheelTimer()) : null;
+
+        bufferSizeAdvisor = config.getAdaptiveBufferSizeConfig().isEnabled() ?
+            new BufferSizeAdvisor(config.getAdaptiveBufferSizeConfig()) : null;
     }
 
     public UaTcpStackClientConfig getConfig() {
@@ -108,9 +120,15 @@ public class UaTcpStackClient implements UaStackClient {
     public CompletableFuture<UaStackClient> connect() {
         CompletableFuture<UaStackClient> future = new CompletableFuture<>();
 
-        channelManager.getChannel().whenComplete((ch, ex) -> {
-            if (ch != null) future.complete(this);
-            else future.completeExceptionally(ex);
+        CompletableFuture<?>[] channels = new CompletableFuture<?>[channelPool.size()];
+
+        for (int i = 0; i < channels.length; i++) {
+            channels[i] = channelPool.get(i).getChannel();
+        }
+
+        CompletableFuture.allOf(channels).whenComplete((v, ex) -> {
+            if (ex == null) future.complete(this);
+            else future.completeExceptionally(unwrap(ex));
         });
 
         return future;
@@ -118,40 +136,77 @@ public class UaTcpStackClient implements UaStackClient {
 
     @Override
     public CompletableFuture<UaStackClient> disconnect() {
-        return channelManager.disconnect()
+        CompletableFuture<?>[] disconnected = new CompletableFuture<?>[channelPool.size()];
+
+        for (int i = 0; i < disconnected.length; i++) {
+            disconnected[i] = channelPool.get(i).disconnect();
+        }
+
+        return CompletableFuture.allOf(disconnected)
             .thenApply(v -> UaTcpStackClient.this);
     }
 
     public <T extends UaResponseMessage> CompletableFuture<T> sendRequest(UaRequestMessage request) {
-        return channelManager.getChannel()
-            .thenCompose(sc -> sendRequest(request, sc));
+        return sendRequest(request, null);
+    }
+
+    /**
+     * Send {@code request}, streaming the elements of selected array fields of its response to consumers.
+     * <p>
+     * Elements of a field registered in {@code consumers} are handed to its consumer as they are decoded, and the field
+     * is left empty in the response that completes the returned future, e.g.:
+     * <pre>{@code
+     * ArrayElementConsumers consumers = new ArrayElementConsumers().register(
+     *     ReadResponse.class, "Results", DataValue.class,
+     *     (requestHandle, index, value) -> ...);
+     *
+     * client.sendRequest(readRequest, consumers);
+     * }</pre>
+     * The consumers apply only to the response to this request; other responses are decoded as usual.
+     *
+     * @param request   the request to send.
+     * @param consumers the {@link ArrayElementConsumers} for the response, or {@code null} to stream nothing.
+     * @return a {@link CompletableFuture} completed with the response.
+     */
+    public <T extends UaResponseMessage> CompletableFuture<T> sendRequest(UaRequestMessage request,
+                                                                          @Nullable ArrayElementConsumers consumers) {
+        if (inFlightLimiter != null) {
+            return inFlightLimiter.submit(request, () -> sendAdmittedRequest(request, consumers));
+        } else {
+            return sendAdmittedRequest(request, consumers);
+        }
+    }
+
+    private <T extends UaResponseMessage> CompletableFuture<T> sendAdmittedRequest(
+        UaRequestMessage request,
+        @Nullable ArrayElementConsumers consumers) {
+
+        if (channelPool.size() == 1) {
+            return channelPool.primary().getChannel()
+                .thenCompose(sc -> sendRequest(request, consumers, sc));
+        } else {
+            int index = channelPool.select(request);
+
+            CompletableFuture<T> future = channelPool.get(index).getChannel()
+                .thenCompose(sc -> sendRequest(request, consumers, sc));
+
+            return channelPool.track(index, request, future);
+        }
     }
 
     @SuppressWarnings("unchecked")
     private <T extends UaResponseMessage> CompletionStage<T> sendRequest(UaRequestMessage request,
+                                                                         @Nullable ArrayElementConsumers consumers,
                                                                          ClientSecureChannel sc) {
 
         Channel channel = sc.getChannel();
 
         CompletableFuture<T> future = new CompletableFuture<>();
-        UaRequestFuture requestFuture = new UaRequestFuture(request);
+        UaRequestFuture requestFuture = new UaRequestFuture(request, (CompletableFuture<UaResponseMessage>) future);
 
         RequestHeader requestHeader = request.getRequestHeader();
 
-        pending.put(requestHeader.getRequestHandle(), (CompletableFuture<UaResponseMessage>) future);
-
-        scheduleRequestTimeout(requestHeader);
-
-        requestFuture.getFuture().whenComplete((r, x) -> {
-            if (r != null) {
-                receiveResponse(r);
-            } else {
-                UInteger requestHandle = request.getRequestHeader().getRequestHandle();
-
-                pending.remove(requestHandle);
-                future.completeExceptionally(x);
-            }
-        });
+        PendingRequest pendingRequest = pendingRequests.put(requestHeader, requestFuture.getFuture(), consumers);
 
         channel.writeAndFlush(requestFuture).addListener(f -> {
             if (!f.isSuccess()) {
@@ -160,7 +215,7 @@ public class UaTcpStackClient implements UaStackClient {
                 if (cause instanceof ClosedChannelException) {
                     logger.debug("Channel closed; retrying...");
 
-                    sendRequest(request).whenComplete((r, ex) -> {
+                    sendAdmittedRequest(request, consumers).whenComplete((r, ex) -> {
                         if (r != null) {
                             T t = (T) r;
                             future.complete(t);
@@ -171,7 +226,7 @@ public class UaTcpStackClient implements UaStackClient {
                 } else {
                     UInteger requestHandle = request.getRequestHeader().getRequestHandle();
 
-                    pending.remove(requestHandle);
+                    pendingRequests.remove(pendingRequest);
                     future.completeExceptionally(f.cause());
 
                     logger.debug("Write failed, requestHandle={}", requestHandle, cause);
@@ -188,13 +243,31 @@ public class UaTcpStackClient implements UaStackClient {
         return future;
     }
 
+    @SuppressWarnings("unchecked")
     public void sendRequests(List<? extends UaRequestMessage> requests,
                              List<CompletableFuture<? extends UaResponseMessage>> futures) {
 
         Preconditions.checkArgument(requests.size() == futures.size(),
             "requests and futures parameters must be same size");
 
-        channelManager.getChannel().whenComplete((sc, ex) -> {
+        if (inFlightLimiter != null || channelPool.size() > 1) {
+            // Each request needs its own permit or channel, so the batch is admitted and written request by request.
+            for (int i = 0; i < requests.size(); i++) {
+                CompletableFuture<UaResponseMessage> future = (CompletableFuture<UaResponseMessage>) futures.get(i);
+
+                this.<UaResponseMessage>sendRequest(requests.get(i)).whenComplete((r, ex) -> {
+                    if (r != null) {
+                        future.complete(r);
+                    } else {
+                        future.completeExceptionally(ex);
+                    }
+                });
+            }
+
+            return;
+        }
+
+        channelPool.primary().getChannel().whenComplete((sc, ex) -> {
             if (sc != null) {
                 sendRequests(requests, futures, sc);
             } else {
@@ -212,36 +285,29 @@ public class UaTcpStackClient implements UaStackClient {
         Iterator<? extends UaRequestMessage> requestIterator = requests.iterator();
         Iterator<CompletableFuture<? extends UaResponseMessage>> futureIterator = futures.iterator();
 
-        List<UaRequestFuture> pendingRequests = new ArrayList<>(requests.size());
+        List<UaRequestFuture> requestFutures = new ArrayList<>(requests.size());
+        List<PendingRequest> batch = new ArrayList<>(requests.size());
 
         while (requestIterator.hasNext() && futureIterator.hasNext()) {
             UaRequestMessage request = requestIterator.next();
             CompletableFuture<UaResponseMessage> future =
                 (CompletableFuture<UaResponseMessage>) futureIterator.next();
 
-            UaRequestFuture pendingRequest = new UaRequestFuture(request, future);
-            pendingRequests.add(pendingRequest);
-
-            RequestHeader requestHeader = request.getRequestHeader();
-
-            pending.put(requestHeader.getRequestHandle(), future);
-
-            scheduleRequestTimeout(requestHeader);
-
-            pendingRequest.getFuture().thenAccept(this::receiveResponse);
+            requestFutures.add(new UaRequestFuture(request, future));
+            batch.add(pendingRequests.put(request.getRequestHeader(), future));
         }
 
         channel.eventLoop().execute(() -> {
-            for (UaRequestFuture pendingRequest : pendingRequests) {
-                channel.write(pendingRequest).addListener(f -> {
-                    if (!f.isSuccess()) {
-                        UInteger requestHandle = pendingRequest
-                            .getRequest().getRequestHeader().getRequestHandle();
+            for (int i = 0; i < requestFutures.size(); i++) {
+                PendingRequest pendingRequest = batch.get(i);
 
-                        CompletableFuture<?> future = pending.remove(requestHandle);
-                        if (future != null) future.completeExceptionally(f.cause());
+                channel.write(requestFutures.get(i)).addListener(f -> {
+                    if (!f.isSuccess()) {
+                        if (pendingRequests.remove(pendingRequest)) {
+                            pendingRequest.getFuture().completeExceptionally(f.cause());
+                        }
 
-                        logger.debug("Write failed, requestHandle={}", requestHandle, f.cause());
+                        logger.debug("Write failed, requestHandle={}", pendingRequest.getRequestHandle(), f.cause());
                     }
                 });
             }
@@ -250,56 +316,69 @@ public class UaTcpStackClient implements UaStackClient {
         });
     }
 
-    public CompletableFuture<ClientSecureChannel> getChannelFuture() {
-        return channelManager.getChannel();
+    /**
+     * @return the {@link PendingRequestTable} of requests sent by this client and awaiting responses.
+     */
+    public PendingRequestTable getPendingRequests() {
+        return pendingRequests;
     }
 
-    private void scheduleRequestTimeout(RequestHeader requestHeader) {
-        UInteger requestHandle = requestHeader.getRequestHandle();
-
-        long timeoutHint = requestHeader.getTimeoutHint() != null ?
-            requestHeader.getTimeoutHint().longValue() : DEFAULT_TIMEOUT_MS;
-
-        Timeout timeout = wheelTimer.newTimeout(t -> {
-            if (timeouts.remove(requestHandle) != null && !t.isCancelled()) {
-                CompletableFuture<UaResponseMessage> f = pending.remove(requestHandle);
-                if (f != null) {
-                    String message = "request timed out after " + timeoutHint + "ms";
-                    f.completeExceptionally(new UaException(StatusCodes.Bad_Timeout, message));
-                }
-            }
-        }, timeoutHint, TimeUnit.MILLISECONDS);
-
-        timeouts.put(requestHandle, timeout);
+    /**
+     * @return the primary secure channel; the first channel of the pool if a {@link ChannelPoolConfig} is enabled.
+     */
+    public CompletableFuture<ClientSecureChannel> getChannelFuture() {
+        return channelPool.primary().getChannel();
     }
 
-    private void receiveResponse(UaResponseMessage response) {
-        ResponseHeader header = response.getResponseHeader();
-        UInteger requestHandle = header.getRequestHandle();
+    /**
+     * Get the secure channel requests for the session identified by {@code authenticationToken} are sent on.
+     * <p>
+     * This is the primary secure channel unless a {@link ChannelPoolConfig} is enabled and the session was created on
+     * another channel of the pool.
+     *
+     * @param authenticationToken the authentication token of a session.
+     * @return the secure channel the session's requests are sent on.
+     */
+    public CompletableFuture<ClientSecureChannel> getChannelFuture(NodeId authenticationToken) {
+        return channelPool.get(channelPool.sessionChannel(authenticationToken)).getChannel();
+    }
 
-        CompletableFuture<UaResponseMessage> future = pending.remove(requestHandle);
+    /**
+     * Forget which channel of the pool the session identified by {@code authenticationToken} was created on.
+     * <p>
+     * Call this for a session that is abandoned without a CloseSessionRequest, e.g. because it failed to activate.
+     * Closed sessions and sessions the server reports as invalid are forgotten automatically.
+     *
+     * @param authenticationToken the authentication token of a session that won't be used again.
+     */
+    public void releaseSession(NodeId authenticationToken) {
+        channelPool.release(authenticationToken);
+    }
 
-        if (future != null) {
-            if (header.getServiceResult().isGood()) {
-                future.complete(response);
-            } else {
-                ServiceFault serviceFault;
+    /**
+     * @return the {@link ChannelMetrics} of the primary secure channel, if currently connected.
+     */
+    public Optional<ChannelMetrics> getChannelMetrics() {
+        return channelPool.primary().getConnectedChannel().map(ClientSecureChannel::getMetrics);
+    }
 
-                if (response instanceof ServiceFault) {
-                    serviceFault = (ServiceFault) response;
-                } else {
-                    serviceFault = new ServiceFault(header);
-                }
+    /**
+     * @return the {@link InFlightMetrics} of this client, if an {@link InFlightLimitConfig} is enabled.
+     */
+    public Optional<InFlightMetrics> getInFlightMetrics() {
+        return Optional.ofNullable(inFlightLimiter).map(InFlightLimiter::getMetrics);
+    }
 
-                future.completeExceptionally(new UaServiceFaultException(serviceFault));
-            }
+    /**
+     * @return the {@link BufferSizeAdvisor} sizing the buffers this client negotiates, if an
+     * {@link AdaptiveBufferSizeConfig} is enabled.
+     */
+    public Optional<BufferSizeAdvisor> getBufferSizeAdvisor() {
+        return Optional.ofNullable(bufferSizeAdvisor);
+    }
 
-            Timeout timeout = timeouts.remove(requestHandle);
-            if (timeout != null) timeout.cancel();
-        } else {
-            logger.warn("Received {} for unknown requestHandle: {}",
-                response.getClass().getSimpleName(), requestHandle);
-        }
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
     }
 
     @Override
@@ -341,7 +420,7 @@ public class UaTcpStackClient implements UaStackClient {
 
     @Override
     public ExecutorService getExecutorService() {
-        return config.getExecutor();
+        return config.getExecutorProvider().getExecutor(ExecutorProvider.Stage.Service);
     }
 
     public static CompletableFuture<ClientSecureChannel> bootstrap(
@@ -352,17 +431,20 @@ public class UaTcpStackClient implements UaStackClient {
 
         Bootstrap bootstrap = new Bootstrap();
 
-        bootstrap.group(client.getConfig().getEventLoop())
-            .channel(NioSocketChannel.class)
-            .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+        bootstrap.option(ChannelOption.ALLOCATOR, BufferUtil.getAllocator())
             .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
-            .option(ChannelOption.TCP_NODELAY, true)
-            .handler(new ChannelInitializer<SocketChannel>() {
+            .handler(new ChannelInitializer<Channel>() {
                 @Override
-                protected void initChannel(SocketChannel channel) throws Exception {
+                protected void initChannel(Channel channel) throws Exception {
                     UaTcpClientAcknowledgeHandler acknowledgeHandler =
                         new UaTcpClientAcknowledgeHandler(client, existingChannel, handshake);
 
+                    FlushConsolidationConfig flushConfig = client.getConfig().getFlushConsolidationConfig();
+
+                    if (flushConfig.isEnabled()) {
+                        channel.pipeline().addLast(new FlushConsolidationHandler(flushConfig));
+                    }
+
                     channel.pipeline().addLast(acknowledgeHandler);
                 }
             });
@@ -370,7 +452,22 @@ public class UaTcpStackClient implements UaStackClient {
         try {
             URI uri = new URI(client.getEndpointUrl()).parseServerAuthority();
 
-            bootstrap.connect(uri.getHost(), uri.getPort()).addListener((ChannelFuture f) -> {
+            SocketAddress address = TransportUtil.connectAddress(uri);
+
+            EventLoopGroup eventLoop = client.getConfig().getEventLoop();
+
+            if (TransportUtil.isUnix(uri) && !TransportUtil.isNative(eventLoop)) {
+                // Unix domain sockets need a native event loop; fall back to the shared one.
+                eventLoop = Stack.sharedNativeEventLoop();
+            }
+
+            bootstrap.group(eventLoop).channel(TransportUtil.channelClass(eventLoop, address));
+
+            if (address instanceof InetSocketAddress) {
+                bootstrap.option(ChannelOption.TCP_NODELAY, true);
+            }
+
+            bootstrap.connect(address).addListener((ChannelFuture f) -> {
                 if (!f.isSuccess()) {
                     handshake.completeExceptionally(f.cause());
                 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.client.config;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * Configures the number of secure channels a {@link org.eclipse.milo.opcua.stack.client.UaTcpStackClient} opens to
+ * its endpoint and how requests are distributed among them.
+ * <p>
+ * Every channel has its own connection and serialization queue, so encoding and decoding for different channels
+ * proceed in parallel. A session is bound to the secure channel it was created on, so every request carrying a
+ * session's authentication token is sent on that session's channel; requests without one are distributed by the
+ * {@link SelectionPolicy}. An application spreads session traffic across the pool by opening more than one session.
+ */
+public class ChannelPoolConfig {
+
+    /**
+     * A {@link ChannelPoolConfig} with a single secure channel.
+     */
+    public static final ChannelPoolConfig DISABLED = new ChannelPoolConfig(1, SelectionPolicy.RoundRobin);
+
+    private final int size;
+    private final SelectionPolicy selectionPolicy;
+
+    /**
+     * @param size            the number of secure channels to open.
+     * @param selectionPolicy how to pick the channel for a request not bound to a session.
+     */
+    public ChannelPoolConfig(int size, SelectionPolicy selectionPolicy) {
+        Preconditions.checkArgument(size > 0, "size must be greater than 0");
+        Preconditions.checkNotNull(selectionPolicy, "selectionPolicy");
+
+        this.size = size;
+        this.selectionPolicy = selectionPolicy;
+    }
+
+    public boolean isEnabled() {
+        return size > 1;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public SelectionPolicy getSelectionPolicy() {
+        return selectionPolicy;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("size", size)
+            .add("selectionPolicy", selectionPolicy)
+            .toString();
+    }
+
+    public enum SelectionPolicy {
+
+        /**
+         * Each request goes to the next channel in turn.
+         */
+        RoundRobin,
+
+        /**
+         * Each request goes to the channel with the fewest requests awaiting a response.
+         */
+        LeastLoaded
+
+    }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.client.config;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import org.eclipse.milo.opcua.stack.core.types.structured.PublishRequest;
+
+/**
+ * Configures the window of requests a {@link org.eclipse.milo.opcua.stack.client.UaTcpStackClient} allows in flight,
+ * i.e. sent and awaiting a response, at any one time.
+ * <p>
+ * {@link PublishRequest}s are parked at the server until a notification is available, so they may be given a lane of
+ * their own that ordinary requests can't exhaust.
+ */
+public class InFlightLimitConfig {
+
+    /**
+     * The default maximum number of requests that may wait for room in each window under
+     * {@link SaturationPolicy#Wait}.
+     */
+    public static final int DEFAULT_MAX_QUEUED_REQUESTS = 1024;
+
+    /**
+     * An {@link InFlightLimitConfig} with no limit on the number of requests in flight.
+     */
+    public static final InFlightLimitConfig DISABLED =
+        new InFlightLimitConfig(false, 0, 0, SaturationPolicy.Wait, DEFAULT_MAX_QUEUED_REQUESTS, 0L);
+
+    private final boolean enabled;
+    private final int maxInFlightRequests;
+    private final int reservedPublishRequests;
+    private final SaturationPolicy saturationPolicy;
+    private final int maxQueuedRequests;
+    private final long maxQueueMillis;
+
+    /**
+     * Create an enabled {@link InFlightLimitConfig} that lets up to {@link #DEFAULT_MAX_QUEUED_REQUESTS} requests
+     * wait for room in each window, for as long as it takes.
+     *
+     * @param maxInFlightRequests     the maximum number of requests, other than {@link PublishRequest}s in the
+     *                                reserved lane, in flight at once.
+     * @param reservedPublishRequests the number of {@link PublishRequest}s that may be in flight in their own lane. If
+     *                                0, {@link PublishRequest}s share the window with every other request.
+     * @param saturationPolicy        what to do with a request sent while its window is full.
+     */
+    public InFlightLimitConfig(int maxInFlightRequests,
+                               int reservedPublishRequests,
+                               SaturationPolicy saturationPolicy) {
+
+        this(maxInFlightRequests, reservedPublishRequests, saturationPolicy, DEFAULT_MAX_QUEUED_REQUESTS, 0L);
+    }
+
+    /**
+     * Create an enabled {@link InFlightLimitConfig}.
+     *
+     * @param maxInFlightRequests     the maximum number of requests, other than {@link PublishRequest}s in the
+     *                                reserved lane, in flight at once.
+     * @param reservedPublishRequests the number of {@link PublishRequest}s that may be in flight in their own lane. If
+     *                                0, {@link PublishRequest}s share the window with every other request.
+     * @param saturationPolicy        what to do with a request sent while its window is full.
+     * @param maxQueuedRequests       under {@link SaturationPolicy#Wait}, the maximum number of requests that may
+     *                                wait for room in each window. Requests beyond it fail with
+     *                                {@code Bad_TooManyOperations}.
+     * @param maxQueueMillis          under {@link SaturationPolicy#Wait}, the longest a request may wait for room in
+     *                                its window before failing with {@code Bad_TooManyOperations}, or 0 to wait
+     *                                indefinitely.
+     */
+    public InFlightLimitConfig(int maxInFlightRequests,
+                               int reservedPublishRequests,
+                               SaturationPolicy saturationPolicy,
+                               int maxQueuedRequests,
+                               long maxQueueMillis) {
+
+        this(true, maxInFlightRequests, reservedPublishRequests, saturationPolicy, maxQueuedRequests, maxQueueMillis);
+    }
+
+    private InFlightLimitConfig(boolean enabled,
+                                int maxInFlightRequests,
+                                int reservedPublishRequests,
+                                SaturationPolicy saturationPolicy,
+                                int maxQueuedRequests,
+                                long maxQueueMillis) {
+
+        Preconditions.checkArgument(!enabled || maxInFlightRequests > 0,
+            "maxInFlightRequests must be greater than 0");
+        Preconditions.checkArgument(reservedPublishRequests >= 0,
+            "reservedPublishRequests must be greater than or equal to 0");
+        Preconditions.checkNotNull(saturationPolicy, "saturationPolicy");
+        Preconditions.checkArgument(maxQueuedRequests >= 0,
+            "maxQueuedRequests must be greater than or equal to 0");
+        Preconditions.checkArgument(maxQueueMillis >= 0,
+            "maxQueueMillis must be greater than or equal to 0");
+
+        this.enabled = enabled;
+        this.maxInFlightRequests = maxInFlightRequests;
+        this.reservedPublishRequests = reservedPublishRequests;
+        this.saturationPolicy = saturationPolicy;
+        this.maxQueuedRequests = maxQueuedRequests;
+        this.maxQueueMillis = maxQueueMillis;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxInFlightRequests() {
+        return maxInFlightRequests;
+    }
+
+    public int getReservedPublishRequests() {
+        return reservedPublishRequests;
+    }
+
+    public SaturationPolicy getSaturationPolicy() {
+        return saturationPolicy;
+    }
+
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    /**
+     * @return the longest a request may wait for room in its window, or 0 if it may wait indefinitely.
+     */
+    public long getMaxQueueMillis() {
+        return maxQueueMillis;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("enabled", enabled)
+            .add("maxInFlightRequests", maxInFlightRequests)
+            .add("reservedPublishRequests", reservedPublishRequests)
+            .add("saturationPolicy", saturationPolicy)
+            .add("maxQueuedRequests", maxQueuedRequests)
+            .add("maxQueueMillis", maxQueueMillis)
+            .toString();
+    }
+
+    public enum SaturationPolicy {
+
+        /**
+         * The request waits, without blocking the caller, until a request in flight completes. It fails with
+         * {@code Bad_TooManyOperations} if too many requests are already waiting, or if it waits too long.
+         *
+         * @see #getMaxQueuedRequests()
+         * @see #getMaxQueueMillis()
+         */
+        Wait,
+
+        /**
+         * The request fails immediately with {@code Bad_TooManyOperations}.
+         */
+        FailFast
+
+    }
+
+}
@@ -19,10 +19,16 @@ import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
 import io.netty.util.HashedWheelTimer;
 import org.eclipse.milo.opcua.stack.client.UaTcpStackClient;
+import org.eclipse.milo.opcua.stack.core.application.ExecutorProvider;
+import org.eclipse.milo.opcua.stack.core.channel.AdaptiveBufferSizeConfig;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelConfig;
+import org.eclipse.milo.opcua.stack.core.channel.FlushConsolidationConfig;
+import org.eclipse.milo.opcua.stack.core.channel.ParallelDecodingConfig;
+import org.eclipse.milo.opcua.stack.core.channel.SerializationConfig;
+import org.eclipse.milo.opcua.stack.core.serialization.binary.InterningCache;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
 import org.eclipse.milo.opcua.stack.core.types.structured.EndpointDescription;
@@ -94,9 +100,9 @@ public interface UaTcpStackClientConfig {
     ExecutorService getExecutor();
 
     /**
-     * @return the {@link NioEventLoopGroup} the {@link UaTcpStackClient} will use.
+     * @return the {@link EventLoopGroup} the {@link UaTcpStackClient} will use.
      */
-    NioEventLoopGroup getEventLoop();
+    EventLoopGroup getEventLoop();
 
     /**
      * @return the {@link HashedWheelTimer} the {@link UaTcpStackClient} will use.
@@ -115,6 +121,78 @@ public interface UaTcpStackClientConfig {
      */
     boolean isSecureChannelReauthenticationEnabled();
 
+    /**
+     * @return the {@link FlushConsolidationConfig} for channels opened by this client. Flush consolidation is
+     * disabled by default.
+     */
+    FlushConsolidationConfig getFlushConsolidationConfig();
+
+    /**
+     * Get the {@link ExecutorProvider} supplying the executors for the decode, service, and encode stages.
+     * <p>
+     * If none was configured, every stage uses {@link #getExecutor()}. If one was configured but no executor was,
+     * {@link #getExecutor()} is the {@link ExecutorProvider.Stage#Service} executor.
+     *
+     * @return the {@link ExecutorProvider}.
+     */
+    ExecutorProvider getExecutorProvider();
+
+    /**
+     * Get the {@link InterningCache} used to de-duplicate decoded NodeIds, QualifiedNames, and namespace URIs.
+     * <p>
+     * Interning is disabled unless a cache is configured.
+     *
+     * @return the {@link InterningCache}, if configured.
+     */
+    Optional<InterningCache> getInterningCache();
+
+    /**
+     * @return {@code true} if Variant arrays of numeric and Boolean built-in types should be decoded into primitive
+     * arrays, e.g. {@code double[]} instead of {@code Double[]}.
+     */
+    boolean isPrimitiveArraysEnabled();
+
+    /**
+     * @return the {@link InFlightLimitConfig} bounding the number of requests in flight. Requests are unbounded by
+     * default.
+     */
+    InFlightLimitConfig getInFlightLimitConfig();
+
+    /**
+     * @return the {@link ChannelPoolConfig} describing how many secure channels to open. A single channel is used by
+     * default.
+     */
+    ChannelPoolConfig getChannelPoolConfig();
+
+    /**
+     * @return the {@link ParallelDecodingConfig} for channels opened by this client. Chunks of a message are
+     * decoded one after another by default.
+     */
+    ParallelDecodingConfig getParallelDecodingConfig();
+
+    /**
+     * @return the {@link AdaptiveBufferSizeConfig} used to size the buffers negotiated when this client connects or
+     * reconnects. Adaptive sizing is disabled by default.
+     */
+    AdaptiveBufferSizeConfig getAdaptiveBufferSizeConfig();
+
+    /**
+     * Get the {@link SerializationConfig} for channels opened by this client, combining the array and string length
+     * limits of {@link #getChannelConfig()} with {@link #getInterningCache()}, {@link #isPrimitiveArraysEnabled()},
+     * and {@link #getParallelDecodingConfig()}.
+     *
+     * @return the {@link SerializationConfig} for channels opened by this client.
+     */
+    default SerializationConfig getSerializationConfig() {
+        return SerializationConfig.builder()
+            .setMaxArrayLength(getChannelConfig().getMaxArrayLength())
+            .setMaxStringLength(getChannelConfig().getMaxStringLength())
+            .setInterningCache(getInterningCache().orElse(null))
+            .setPrimitiveArraysEnabled(isPrimitiveArraysEnabled())
+            .setParallelDecodingConfig(getParallelDecodingConfig())
+            .build();
+    }
+
     /**
      * @return a new {@link UaTcpStackClientConfigBuilder}.
      */
@@ -146,6 +224,14 @@ public interface UaTcpStackClientConfig {
         builder.setEventLoop(config.getEventLoop());
         builder.setWheelTimer(config.getWheelTimer());
         builder.setSecureChannelReauthenticationEnabled(config.isSecureChannelReauthenticationEnabled());
+        builder.setFlushConsolidationConfig(config.getFlushConsolidationConfig());
+        builder.setExecutorProvider(config.getExecutorProvider());
+        config.getInterningCache().ifPresent(builder::setInterningCache);
+        builder.setPrimitiveArraysEnabled(config.isPrimitiveArraysEnabled());
+        builder.setInFlightLimitConfig(config.getInFlightLimitConfig());
+        builder.setChannelPoolConfig(config.getChannelPoolConfig());
+        builder.setParallelDecodingConfig(config.getParallelDecodingConfig());
+        builder.setAdaptiveBufferSizeConfig(config.getAdaptiveBufferSizeConfig());
 
         return builder;
     }
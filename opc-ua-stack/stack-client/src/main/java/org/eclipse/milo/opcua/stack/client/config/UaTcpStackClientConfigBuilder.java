@@ -19,10 +19,15 @@ import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import javax.annotation.Nullable;
 
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
 import io.netty.util.HashedWheelTimer;
 import org.eclipse.milo.opcua.stack.core.Stack;
+import org.eclipse.milo.opcua.stack.core.application.ExecutorProvider;
+import org.eclipse.milo.opcua.stack.core.channel.AdaptiveBufferSizeConfig;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelConfig;
+import org.eclipse.milo.opcua.stack.core.channel.FlushConsolidationConfig;
+import org.eclipse.milo.opcua.stack.core.channel.ParallelDecodingConfig;
+import org.eclipse.milo.opcua.stack.core.serialization.binary.InterningCache;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
 import org.eclipse.milo.opcua.stack.core.types.structured.EndpointDescription;
@@ -43,10 +48,18 @@ public class UaTcpStackClientConfigBuilder {
     private ChannelConfig channelConfig = ChannelConfig.DEFAULT;
     private UInteger channelLifetime = uint(60 * 60 * 1000);
     private ExecutorService executor;
-    private NioEventLoopGroup eventLoop;
+    private EventLoopGroup eventLoop;
     private HashedWheelTimer wheelTimer;
 
     private boolean secureChannelReauthenticationEnabled = true;
+    private FlushConsolidationConfig flushConsolidationConfig = FlushConsolidationConfig.DISABLED;
+    private ExecutorProvider executorProvider;
+    private InterningCache interningCache;
+    private boolean primitiveArraysEnabled = false;
+    private InFlightLimitConfig inFlightLimitConfig = InFlightLimitConfig.DISABLED;
+    private ChannelPoolConfig channelPoolConfig = ChannelPoolConfig.DISABLED;
+    private ParallelDecodingConfig parallelDecodingConfig = ParallelDecodingConfig.DISABLED;
+    private AdaptiveBufferSizeConfig adaptiveBufferSizeConfig = AdaptiveBufferSizeConfig.DISABLED;
 
     public UaTcpStackClientConfigBuilder setEndpointUrl(String endpointUrl) {
         this.endpointUrl = endpointUrl;
@@ -98,7 +111,7 @@ public class UaTcpStackClientConfigBuilder {
         return this;
     }
 
-    public UaTcpStackClientConfigBuilder setEventLoop(NioEventLoopGroup eventLoop) {
+    public UaTcpStackClientConfigBuilder setEventLoop(EventLoopGroup eventLoop) {
         this.eventLoop = eventLoop;
         return this;
     }
@@ -115,9 +128,55 @@ public class UaTcpStackClientConfigBuilder {
         return this;
     }
 
+    public UaTcpStackClientConfigBuilder setFlushConsolidationConfig(
+        FlushConsolidationConfig flushConsolidationConfig) {
+
+        this.flushConsolidationConfig = flushConsolidationConfig;
+        return this;
+    }
+
+    public UaTcpStackClientConfigBuilder setExecutorProvider(ExecutorProvider executorProvider) {
+        this.executorProvider = executorProvider;
+        return this;
+    }
+
+    public UaTcpStackClientConfigBuilder setInterningCache(InterningCache interningCache) {
+        this.interningCache = interningCache;
+        return this;
+    }
+
+    public UaTcpStackClientConfigBuilder setPrimitiveArraysEnabled(boolean primitiveArraysEnabled) {
+        this.primitiveArraysEnabled = primitiveArraysEnabled;
+        return this;
+    }
+
+    public UaTcpStackClientConfigBuilder setInFlightLimitConfig(InFlightLimitConfig inFlightLimitConfig) {
+        this.inFlightLimitConfig = inFlightLimitConfig;
+        return this;
+    }
+
+    public UaTcpStackClientConfigBuilder setChannelPoolConfig(ChannelPoolConfig channelPoolConfig) {
+        this.channelPoolConfig = channelPoolConfig;
+        return this;
+    }
+
+    public UaTcpStackClientConfigBuilder setParallelDecodingConfig(ParallelDecodingConfig parallelDecodingConfig) {
+        this.parallelDecodingConfig = parallelDecodingConfig;
+        return this;
+    }
+
+    public UaTcpStackClientConfigBuilder setAdaptiveBufferSizeConfig(
+        AdaptiveBufferSizeConfig adaptiveBufferSizeConfig) {
+
+        this.adaptiveBufferSizeConfig = adaptiveBufferSizeConfig;
+        return this;
+    }
+
     public UaTcpStackClientConfig build() {
         if (executor == null) {
-            executor = Stack.sharedExecutor();
+            executor = executorProvider != null ?
+                executorProvider.getExecutor(ExecutorProvider.Stage.Service) :
+                Stack.sharedExecutor();
         }
         if (eventLoop == null) {
             eventLoop = Stack.sharedEventLoop();
@@ -139,7 +198,15 @@ public class UaTcpStackClientConfigBuilder {
             executor,
             eventLoop,
             wheelTimer,
-            secureChannelReauthenticationEnabled);
+            secureChannelReauthenticationEnabled,
+            flushConsolidationConfig,
+            executorProvider != null ? executorProvider : ExecutorProvider.of(executor),
+            interningCache,
+            primitiveArraysEnabled,
+            inFlightLimitConfig,
+            channelPoolConfig,
+            parallelDecodingConfig,
+            adaptiveBufferSizeConfig);
     }
 
     public static class UaTcpStackClientConfigImpl implements UaTcpStackClientConfig {
@@ -156,10 +223,18 @@ public class UaTcpStackClientConfigBuilder {
         private final ChannelConfig channelConfig;
         private final UInteger channelLifetime;
         private final ExecutorService executor;
-        private final NioEventLoopGroup eventLoop;
+        private final EventLoopGroup eventLoop;
         private final HashedWheelTimer wheelTimer;
 
         private final boolean secureChannelReauthenticationEnabled;
+        private final FlushConsolidationConfig flushConsolidationConfig;
+        private final ExecutorProvider executorProvider;
+        private final InterningCache interningCache;
+        private final boolean primitiveArraysEnabled;
+        private final InFlightLimitConfig inFlightLimitConfig;
+        private final ChannelPoolConfig channelPoolConfig;
+        private final ParallelDecodingConfig parallelDecodingConfig;
+        private final AdaptiveBufferSizeConfig adaptiveBufferSizeConfig;
 
         public UaTcpStackClientConfigImpl(
             @Nullable String endpointUrl,
@@ -172,9 +247,17 @@ public class UaTcpStackClientConfigBuilder {
             ChannelConfig channelConfig,
             UInteger channelLifetime,
             ExecutorService executor,
-            NioEventLoopGroup eventLoop,
+            EventLoopGroup eventLoop,
             HashedWheelTimer wheelTimer,
-            boolean secureChannelReauthenticationEnabled) {
+            boolean secureChannelReauthenticationEnabled,
+            FlushConsolidationConfig flushConsolidationConfig,
+            ExecutorProvider executorProvider,
+            @Nullable InterningCache interningCache,
+            boolean primitiveArraysEnabled,
+            InFlightLimitConfig inFlightLimitConfig,
+            ChannelPoolConfig channelPoolConfig,
+            ParallelDecodingConfig parallelDecodingConfig,
+            AdaptiveBufferSizeConfig adaptiveBufferSizeConfig) {
 
             this.endpointUrl = endpointUrl;
             this.endpoint = endpoint;
@@ -189,6 +272,14 @@ public class UaTcpStackClientConfigBuilder {
             this.eventLoop = eventLoop;
             this.wheelTimer = wheelTimer;
             this.secureChannelReauthenticationEnabled = secureChannelReauthenticationEnabled;
+            this.flushConsolidationConfig = flushConsolidationConfig;
+            this.executorProvider = executorProvider;
+            this.interningCache = interningCache;
+            this.primitiveArraysEnabled = primitiveArraysEnabled;
+            this.inFlightLimitConfig = inFlightLimitConfig;
+            this.channelPoolConfig = channelPoolConfig;
+            this.parallelDecodingConfig = parallelDecodingConfig;
+            this.adaptiveBufferSizeConfig = adaptiveBufferSizeConfig;
         }
 
         @Override
@@ -242,7 +333,7 @@ public class UaTcpStackClientConfigBuilder {
         }
 
         @Override
-        public NioEventLoopGroup getEventLoop() {
+        public EventLoopGroup getEventLoop() {
             return eventLoop;
         }
 
@@ -256,6 +347,46 @@ public class UaTcpStackClientConfigBuilder {
             return secureChannelReauthenticationEnabled;
         }
 
+        @Override
+        public FlushConsolidationConfig getFlushConsolidationConfig() {
+            return flushConsolidationConfig;
+        }
+
+        @Override
+        public ExecutorProvider getExecutorProvider() {
+            return executorProvider;
+        }
+
+        @Override
+        public Optional<InterningCache> getInterningCache() {
+            return Optional.ofNullable(interningCache);
+        }
+
+        @Override
+        public boolean isPrimitiveArraysEnabled() {
+            return primitiveArraysEnabled;
+        }
+
+        @Override
+        public InFlightLimitConfig getInFlightLimitConfig() {
+            return inFlightLimitConfig;
+        }
+
+        @Override
+        public ChannelPoolConfig getChannelPoolConfig() {
+            return channelPoolConfig;
+        }
+
+        @Override
+        public ParallelDecodingConfig getParallelDecodingConfig() {
+            return parallelDecodingConfig;
+        }
+
+        @Override
+        public AdaptiveBufferSizeConfig getAdaptiveBufferSizeConfig() {
+            return adaptiveBufferSizeConfig;
+        }
+
     }
 
 }
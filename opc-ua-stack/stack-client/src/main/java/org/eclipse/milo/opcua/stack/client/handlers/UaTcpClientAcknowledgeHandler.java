@@ -32,7 +32,9 @@ import org.eclipse.milo.opcua.stack.client.UaTcpStackClient;
 import org.eclipse.milo.opcua.stack.client.config.UaTcpStackClientConfig;
 import org.eclipse.milo.opcua.stack.core.StatusCodes;
 import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.channel.BufferSizeAdvisor;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelConfig;
+import org.eclipse.milo.opcua.stack.core.channel.ChannelMetrics;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelParameters;
 import org.eclipse.milo.opcua.stack.core.channel.ClientSecureChannel;
 import org.eclipse.milo.opcua.stack.core.channel.SerializationQueue;
@@ -63,6 +65,9 @@ public class UaTcpClientAcknowledgeHandler extends ByteToMessageCodec<UaRequestF
 
     private volatile Timeout helloTimeout;
 
+    private volatile int receiveBufferSize;
+    private volatile int sendBufferSize;
+
     private final ClientSecureChannel secureChannel;
 
     private final UaTcpStackClient client;
@@ -132,10 +137,28 @@ public class UaTcpClientAcknowledgeHandler extends ByteToMessageCodec<UaRequestF
 
         secureChannel.setChannel(ctx.channel());
 
+        ChannelConfig channelConfig = client.getChannelConfig();
+        Optional<BufferSizeAdvisor> advisor = client.getBufferSizeAdvisor();
+
+        receiveBufferSize = advisor
+            .map(a -> a.recommendReceiveBufferSize(channelConfig))
+            .orElse(channelConfig.getMaxChunkSize());
+
+        sendBufferSize = advisor
+            .map(a -> a.recommendSendBufferSize(channelConfig))
+            .orElse(channelConfig.getMaxChunkSize());
+
+        advisor.ifPresent(a -> {
+            ChannelMetrics metrics = secureChannel.getMetrics();
+
+            a.track(metrics);
+            ctx.channel().closeFuture().addListener(f -> a.untrack(metrics));
+        });
+
         HelloMessage hello = new HelloMessage(
             PROTOCOL_VERSION,
-            client.getChannelConfig().getMaxChunkSize(),
-            client.getChannelConfig().getMaxChunkSize(),
+            receiveBufferSize,
+            sendBufferSize,
             client.getChannelConfig().getMaxMessageSize(),
             client.getChannelConfig().getMaxChunkCount(),
             client.getEndpointUrl());
@@ -180,11 +203,13 @@ public class UaTcpClientAcknowledgeHandler extends ByteToMessageCodec<UaRequestF
             switch (messageType) {
                 case Acknowledge:
                     onAcknowledge(ctx, buffer.readSlice(messageLength));
-                    break;
+                    // Nothing else can arrive until the OpenSecureChannel request is sent; stop reading a cumulation
+                    // buffer that may be released once this handler is removed.
+                    return;
 
                 case Error:
                     onError(ctx, buffer.readSlice(messageLength));
-                    break;
+                    return;
 
                 default:
                     out.add(buffer.readSlice(messageLength).retain());
@@ -222,10 +247,10 @@ public class UaTcpClientAcknowledgeHandler extends ByteToMessageCodec<UaRequestF
         ChannelConfig config = client.getChannelConfig();
 
         /* Our receive buffer size is determined by the remote send buffer size. */
-        long localReceiveBufferSize = Math.min(remoteSendBufferSize, config.getMaxChunkSize());
+        long localReceiveBufferSize = Math.min(remoteSendBufferSize, receiveBufferSize);
 
         /* Our send buffer size is determined by the remote receive buffer size. */
-        long localSendBufferSize = Math.min(remoteReceiveBufferSize, config.getMaxChunkSize());
+        long localSendBufferSize = Math.min(remoteReceiveBufferSize, sendBufferSize);
 
         /* Max message size the remote can send us; not influenced by remote configuration. */
         long localMaxMessageSize = config.getMaxMessageSize();
@@ -247,14 +272,10 @@ public class UaTcpClientAcknowledgeHandler extends ByteToMessageCodec<UaRequestF
         ctx.channel().attr(KEY_AWAITING_HANDSHAKE).set(awaitingHandshake);
 
         ctx.executor().execute(() -> {
-            int maxArrayLength = client.getChannelConfig().getMaxArrayLength();
-            int maxStringLength = client.getChannelConfig().getMaxStringLength();
-
             SerializationQueue serializationQueue = new SerializationQueue(
-                client.getConfig().getExecutor(),
+                client.getConfig().getExecutorProvider(),
                 parameters,
-                maxArrayLength,
-                maxStringLength
+                client.getConfig().getSerializationConfig()
             );
 
             UaTcpClientMessageHandler handler = new UaTcpClientMessageHandler(
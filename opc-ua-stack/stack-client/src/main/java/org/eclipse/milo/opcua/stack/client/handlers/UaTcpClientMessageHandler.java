@@ -14,28 +14,28 @@
 package org.eclipse.milo.opcua.stack.client.handlers;
 
 import java.nio.ByteOrder;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nullable;
 
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Maps;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageCodec;
-import io.netty.util.AttributeKey;
 import io.netty.util.Timeout;
+import org.eclipse.milo.opcua.stack.client.PendingRequestTable;
+import org.eclipse.milo.opcua.stack.client.PendingRequestTable.PendingRequest;
 import org.eclipse.milo.opcua.stack.client.UaTcpStackClient;
 import org.eclipse.milo.opcua.stack.core.StatusCodes;
 import org.eclipse.milo.opcua.stack.core.UaException;
 import org.eclipse.milo.opcua.stack.core.UaRuntimeException;
 import org.eclipse.milo.opcua.stack.core.UaServiceFaultException;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelSecurity;
+import org.eclipse.milo.opcua.stack.core.channel.ChunkEncoder;
 import org.eclipse.milo.opcua.stack.core.channel.ClientSecureChannel;
 import org.eclipse.milo.opcua.stack.core.channel.MessageAbortedException;
 import org.eclipse.milo.opcua.stack.core.channel.SerializationQueue;
@@ -69,21 +69,18 @@ import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.
 
 public class UaTcpClientMessageHandler extends ByteToMessageCodec<UaRequestFuture> implements HeaderDecoder {
 
-    public static final AttributeKey<Map<Long, UaRequestFuture>> KEY_PENDING_REQUEST_FUTURES =
-        AttributeKey.valueOf("pending-request-futures");
-
     public static final int SECURE_CHANNEL_TIMEOUT_SECONDS = 10;
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    private List<ByteBuf> chunkBuffers = new LinkedList<>();
+    private List<ByteBuf> chunkBuffers;
 
     private final AtomicReference<AsymmetricSecurityHeader> headerRef = new AtomicReference<>();
 
     private ScheduledFuture renewFuture;
     private Timeout secureChannelTimeout;
 
-    private final Map<Long, UaRequestFuture> pending;
+    private final PendingRequestTable pendingRequests;
     private final LongSequence requestIdSequence;
 
     private final UaTcpStackClient client;
@@ -102,11 +99,9 @@ public class UaTcpClientMessageHandler extends ByteToMessageCodec<UaRequestFutur
         this.serializationQueue = serializationQueue;
         this.handshakeFuture = handshakeFuture;
 
-        secureChannel
-            .attr(KEY_PENDING_REQUEST_FUTURES)
-            .setIfAbsent(Maps.newConcurrentMap());
+        chunkBuffers = new ArrayList<>(serializationQueue.getParameters().getLocalMaxChunkCount());
 
-        pending = secureChannel.attr(KEY_PENDING_REQUEST_FUTURES).get();
+        pendingRequests = client.getPendingRequests();
 
         secureChannel
             .attr(ClientSecureChannel.KEY_REQUEST_ID_SEQUENCE)
@@ -250,20 +245,36 @@ public class UaTcpClientMessageHandler extends ByteToMessageCodec<UaRequestFutur
     @Override
     protected void encode(ChannelHandlerContext ctx, UaRequestFuture request, ByteBuf buffer) throws Exception {
         encodeMessage(request.getRequest(), MessageType.SecureMessage).whenComplete((t2, ex) -> {
+            long requestHandle = request.getRequest().getRequestHeader().getRequestHandle().longValue();
+            PendingRequest pendingRequest = pendingRequests.get(requestHandle);
+
+            if (pendingRequest != null && pendingRequest.getFuture() != request.getFuture()) {
+                pendingRequest = null;
+            }
+
             if (ex != null) {
-                ctx.close();
+                if (pendingRequest != null && pendingRequests.remove(pendingRequest)) {
+                    client.getExecutorService().execute(() -> request.getFuture().completeExceptionally(ex));
+                }
+
+                // Nothing was written for a request that's too large, so the channel is still usable.
+                boolean tooLarge = ex instanceof UaException &&
+                    ((UaException) ex).getStatusCode().getValue() == StatusCodes.Bad_RequestTooLarge;
+
+                if (!tooLarge) {
+                    ctx.close();
+                }
+
                 return;
             }
 
             long requestId = t2.v1();
             List<ByteBuf> chunks = t2.v2();
 
-            pending.put(requestId, request);
-
-            // No matter how we complete, make sure the entry in pending is removed.
-            // This covers the case where the request fails due to a timeout in the
-            // upper layers as well as normal completion.
-            request.getFuture().whenComplete((r, x) -> pending.remove(requestId));
+            // Responses are matched by request id, so it has to be recorded before the request is written.
+            if (pendingRequest != null) {
+                pendingRequest.setRequestId(secureChannel.getChannelId(), requestId);
+            }
 
             ctx.executor().execute(() -> {
                 chunks.forEach(c -> ctx.write(c, ctx.voidPromise()));
@@ -282,9 +293,21 @@ public class UaTcpClientMessageHandler extends ByteToMessageCodec<UaRequestFutur
             ByteBuf messageBuffer = null;
 
             try {
-                messageBuffer = BufferUtil.buffer();
+                messageBuffer = messageType == MessageType.OpenSecureChannel ?
+                    BufferUtil.buffer() : ChunkEncoder.allocateSymmetricMessageBuffer();
+
+                long encodeStart = System.nanoTime();
                 binaryEncoder.setBuffer(messageBuffer);
                 binaryEncoder.encodeMessage(null, request);
+                secureChannel.getMetrics().recordMessageOut(request.getClass(), System.nanoTime() - encodeStart);
+
+                int messageSize = messageBuffer.readableBytes();
+                int maxMessageSize = serializationQueue.getParameters().getRemoteMaxMessageSize();
+
+                if (maxMessageSize > 0 && messageSize > maxMessageSize) {
+                    throw new UaException(StatusCodes.Bad_RequestTooLarge,
+                        String.format("request too large (size=%s, max=%s)", messageSize, maxMessageSize));
+                }
 
                 List<ByteBuf> chunks;
 
@@ -305,7 +328,7 @@ public class UaTcpClientMessageHandler extends ByteToMessageCodec<UaRequestFutur
                 }
 
                 future.complete(new Tuple2<>(chunkEncoder.getLastRequestId(), chunks));
-            } catch (UaException ex) {
+            } catch (UaException | RuntimeException ex) {
                 logger.error("Error encoding {}: {}", request, ex.getMessage(), ex);
 
                 future.completeExceptionally(ex);
@@ -405,8 +428,8 @@ public class UaTcpClientMessageHandler extends ByteToMessageCodec<UaRequestFutur
         }
 
         if (accumulateChunk(buffer)) {
-            final List<ByteBuf> buffersToDecode = ImmutableList.copyOf(chunkBuffers);
-            chunkBuffers = new LinkedList<>();
+            final List<ByteBuf> buffersToDecode = chunkBuffers;
+            chunkBuffers = new ArrayList<>(serializationQueue.getParameters().getLocalMaxChunkCount());
 
             serializationQueue.decode((binaryDecoder, chunkDecoder) -> {
                 ByteBuf decodedBuffer = null;
@@ -414,10 +437,15 @@ public class UaTcpClientMessageHandler extends ByteToMessageCodec<UaRequestFutur
                 try {
                     decodedBuffer = chunkDecoder.decodeAsymmetric(secureChannel, buffersToDecode);
 
+                    long decodeStart = System.nanoTime();
+
                     UaResponseMessage responseMessage = binaryDecoder
                         .setBuffer(decodedBuffer)
                         .decodeMessage(null);
 
+                    secureChannel.getMetrics().recordMessageIn(
+                        responseMessage.getClass(), System.nanoTime() - decodeStart);
+
                     StatusCode serviceResult = responseMessage.getResponseHeader().getServiceResult();
 
                     if (serviceResult.isGood()) {
@@ -520,8 +548,8 @@ public class UaTcpClientMessageHandler extends ByteToMessageCodec<UaRequestFutur
         }
 
         if (accumulateChunk(buffer)) {
-            final List<ByteBuf> buffersToDecode = ImmutableList.copyOf(chunkBuffers);
-            chunkBuffers = new LinkedList<>();
+            final List<ByteBuf> buffersToDecode = chunkBuffers;
+            chunkBuffers = new ArrayList<>(serializationQueue.getParameters().getLocalMaxChunkCount());
 
             serializationQueue.decode((binaryDecoder, chunkDecoder) -> {
                 ByteBuf decodedBuffer = null;
@@ -529,29 +557,42 @@ public class UaTcpClientMessageHandler extends ByteToMessageCodec<UaRequestFutur
                 try {
                     decodedBuffer = chunkDecoder.decodeSymmetric(secureChannel, buffersToDecode);
 
-                    binaryDecoder.setBuffer(decodedBuffer);
+                    long requestId = chunkDecoder.getLastRequestId();
+                    PendingRequest pendingRequest = pendingRequests.getByRequestId(
+                        secureChannel.getChannelId(), requestId);
+
+                    // Only the request this response answers may stream its array fields.
+                    long decodeStart = System.nanoTime();
+                    binaryDecoder
+                        .setBuffer(decodedBuffer)
+                        .setArrayElementConsumers(
+                            pendingRequest != null ? pendingRequest.getArrayElementConsumers() : null);
                     UaResponseMessage response = binaryDecoder.decodeMessage(null);
+                    secureChannel.getMetrics().recordMessageIn(response.getClass(), System.nanoTime() - decodeStart);
+
+                    UInteger requestHandle = response.getResponseHeader().getRequestHandle();
 
-                    UaRequestFuture request = pending.remove(chunkDecoder.getLastRequestId());
+                    PendingRequest request = removePendingRequest(pendingRequest, requestHandle);
 
                     if (request != null) {
-                        client.getExecutorService().execute(
-                            () -> request.getFuture().complete(response));
+                        client.getExecutorService().execute(() -> request.complete(response));
                     } else {
-                        logger.warn("No UaRequestFuture for requestId={}", chunkDecoder.getLastRequestId());
+                        logger.warn("Received {} for unknown requestHandle={}, requestId={}",
+                            response.getClass().getSimpleName(), requestHandle, requestId);
                     }
                 } catch (MessageAbortedException e) {
                     logger.debug(
                         "Received message abort chunk; error={}, reason={}",
                         e.getStatusCode(), e.getMessage());
 
-                    UaRequestFuture request = pending.remove(chunkDecoder.getLastRequestId());
+                    PendingRequest request = pendingRequests.removeByRequestId(
+                        secureChannel.getChannelId(), chunkDecoder.getLastRequestId());
 
                     if (request != null) {
                         client.getExecutorService().execute(
                             () -> request.getFuture().completeExceptionally(e));
                     } else {
-                        logger.warn("No UaRequestFuture for requestId={}", chunkDecoder.getLastRequestId());
+                        logger.warn("No pending request for requestId={}", chunkDecoder.getLastRequestId());
                     }
                 } catch (Throwable t) {
                     logger.error("Error decoding symmetric message: {}", t.getMessage(), t);
@@ -566,6 +607,21 @@ public class UaTcpClientMessageHandler extends ByteToMessageCodec<UaRequestFutur
         }
     }
 
+    /**
+     * Remove the request a response was received for, as matched by the request id of the secure channel message. The
+     * request handle in the response header is only a fallback; a server may leave it 0, e.g. in a ServiceFault.
+     *
+     * @param matched the request matched by request id, or {@code null} if there was none.
+     */
+    @Nullable
+    private PendingRequest removePendingRequest(@Nullable PendingRequest matched, UInteger requestHandle) {
+        if (matched != null) {
+            return pendingRequests.remove(matched) ? matched : null;
+        } else {
+            return pendingRequests.remove(requestHandle.longValue());
+        }
+    }
+
     private void onError(ChannelHandlerContext ctx, ByteBuf buffer) {
         try {
             ErrorMessage errorMessage = TcpMessageDecoder.decodeError(buffer);
@@ -16,16 +16,20 @@ package org.eclipse.milo.opcua.stack.core;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nonnull;
 
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
 import io.netty.util.HashedWheelTimer;
 import io.netty.util.Timeout;
+import org.eclipse.milo.opcua.stack.core.util.InstrumentedExecutorService;
 import org.eclipse.milo.opcua.stack.core.util.ManifestUtil;
+import org.eclipse.milo.opcua.stack.core.util.TransportUtil;
 import org.slf4j.LoggerFactory;
 
 public final class Stack {
@@ -39,16 +43,21 @@ public final class Stack {
     public static final int DEFAULT_PORT = 12685;
 
 
-    private static NioEventLoopGroup EVENT_LOOP;
+    private static EventLoopGroup EVENT_LOOP;
+    private static EventLoopGroup NATIVE_EVENT_LOOP;
     private static ExecutorService EXECUTOR_SERVICE;
+    private static InstrumentedExecutorService HANDSHAKE_EXECUTOR_SERVICE;
     private static ScheduledExecutorService SCHEDULED_EXECUTOR_SERVICE;
     private static HashedWheelTimer WHEEL_TIMER;
     private static ClassLoader CUSTOM_CLASS_LOADER;
+    private static boolean NATIVE_TRANSPORT_PREFERRED = false;
 
     /**
-     * @return a shared {@link NioEventLoopGroup}.
+     * @return a shared {@link EventLoopGroup}; an epoll event loop if the native transport is preferred and available,
+     * otherwise a NIO event loop.
+     * @see #setNativeTransportPreferred(boolean)
      */
-    public static synchronized NioEventLoopGroup sharedEventLoop() {
+    public static synchronized EventLoopGroup sharedEventLoop() {
         if (EVENT_LOOP == null) {
             ThreadFactory threadFactory = new ThreadFactory() {
                 private final AtomicLong threadNumber = new AtomicLong(0L);
@@ -61,12 +70,46 @@ public final class Stack {
                 }
             };
 
-            EVENT_LOOP = new NioEventLoopGroup(0, threadFactory);
+            EVENT_LOOP = TransportUtil.newEventLoopGroup(NATIVE_TRANSPORT_PREFERRED, 0, threadFactory);
         }
 
         return EVENT_LOOP;
     }
 
+    /**
+     * @return the shared event loop if it is native, otherwise a second shared epoll event loop for channels that
+     * require the native transport, i.e. Unix domain sockets.
+     * @throws IllegalStateException if the native epoll transport is not available.
+     */
+    public static synchronized EventLoopGroup sharedNativeEventLoop() {
+        EventLoopGroup eventLoop = sharedEventLoop();
+
+        if (TransportUtil.isNative(eventLoop)) {
+            return eventLoop;
+        }
+
+        if (!TransportUtil.isEpollAvailable()) {
+            throw new IllegalStateException("native epoll transport not available");
+        }
+
+        if (NATIVE_EVENT_LOOP == null) {
+            ThreadFactory threadFactory = new ThreadFactory() {
+                private final AtomicLong threadNumber = new AtomicLong(0L);
+
+                @Override
+                public Thread newThread(@Nonnull Runnable r) {
+                    Thread thread = new Thread(r, "ua-netty-native-event-loop-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            };
+
+            NATIVE_EVENT_LOOP = TransportUtil.newEventLoopGroup(true, 0, threadFactory);
+        }
+
+        return NATIVE_EVENT_LOOP;
+    }
+
     /**
      * @return a shared {@link ExecutorService}.
      */
@@ -89,6 +132,41 @@ public final class Stack {
         return EXECUTOR_SERVICE;
     }
 
+    /**
+     * @return a shared, bounded {@link ExecutorService} for the asymmetric crypto of OpenSecureChannel handshakes.
+     * It runs at most half as many threads as there are processors, so a burst of handshakes cannot take every core
+     * away from established channels; excess handshakes wait in its queue.
+     */
+    public static synchronized InstrumentedExecutorService sharedHandshakeExecutor() {
+        if (HANDSHAKE_EXECUTOR_SERVICE == null) {
+            ThreadFactory threadFactory = new ThreadFactory() {
+                private final AtomicLong threadNumber = new AtomicLong(0L);
+
+                @Override
+                public Thread newThread(@Nonnull Runnable r) {
+                    Thread thread = new Thread(r, "ua-shared-handshake-pool-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            };
+
+            int threadCount = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threadCount, threadCount,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory
+            );
+
+            executor.allowCoreThreadTimeOut(true);
+
+            HANDSHAKE_EXECUTOR_SERVICE = new InstrumentedExecutorService("handshake", executor);
+        }
+
+        return HANDSHAKE_EXECUTOR_SERVICE;
+    }
+
     /**
      * @return a shared {@link ScheduledExecutorService}.
      */
@@ -145,14 +223,33 @@ public final class Stack {
     }
 
     /**
-     * Release shared resources, waiting at most 5 seconds for the {@link NioEventLoopGroup} to shutdown gracefully.
+     * @return {@code true} if the shared event loop should use the native epoll transport when it is available.
+     */
+    public static synchronized boolean isNativeTransportPreferred() {
+        return NATIVE_TRANSPORT_PREFERRED;
+    }
+
+    /**
+     * Set whether the shared event loop should use the native epoll transport when it is available.
+     * <p>
+     * Must be called before {@link #sharedEventLoop()} is first used, or after {@link #releaseSharedResources()}.
+     * Falls back to NIO when the native library cannot be loaded.
+     *
+     * @param nativeTransportPreferred {@code true} if the native transport should be used when available.
+     */
+    public static synchronized void setNativeTransportPreferred(boolean nativeTransportPreferred) {
+        NATIVE_TRANSPORT_PREFERRED = nativeTransportPreferred;
+    }
+
+    /**
+     * Release shared resources, waiting at most 5 seconds for the {@link EventLoopGroup} to shutdown gracefully.
      */
     public static synchronized void releaseSharedResources() {
         releaseSharedResources(5, TimeUnit.SECONDS);
     }
 
     /**
-     * Release shared resources, waiting at most the specified timeout for the {@link NioEventLoopGroup} to shutdown
+     * Release shared resources, waiting at most the specified timeout for the {@link EventLoopGroup} to shutdown
      * gracefully.
      *
      * @param timeout the duration of the timeout.
@@ -169,6 +266,16 @@ public final class Stack {
             EVENT_LOOP = null;
         }
 
+        if (NATIVE_EVENT_LOOP != null) {
+            try {
+                NATIVE_EVENT_LOOP.shutdownGracefully().await(timeout, unit);
+            } catch (InterruptedException e) {
+                LoggerFactory.getLogger(Stack.class)
+                    .warn("Interrupted awaiting native event loop shutdown.", e);
+            }
+            NATIVE_EVENT_LOOP = null;
+        }
+
         if (SCHEDULED_EXECUTOR_SERVICE != null) {
             SCHEDULED_EXECUTOR_SERVICE.shutdown();
         }
@@ -177,6 +284,11 @@ public final class Stack {
             EXECUTOR_SERVICE.shutdown();
         }
 
+        if (HANDSHAKE_EXECUTOR_SERVICE != null) {
+            HANDSHAKE_EXECUTOR_SERVICE.shutdown();
+            HANDSHAKE_EXECUTOR_SERVICE = null;
+        }
+
         if (SCHEDULED_EXECUTOR_SERVICE != null) {
             try {
                 SCHEDULED_EXECUTOR_SERVICE.awaitTermination(timeout, unit);
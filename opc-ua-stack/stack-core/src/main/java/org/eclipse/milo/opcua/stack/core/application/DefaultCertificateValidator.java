@@ -27,18 +27,25 @@ import java.nio.file.WatchService;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.security.auth.x500.X500Principal;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Sets;
+import com.google.common.collect.Multimaps;
 import com.google.common.util.concurrent.Uninterruptibles;
 import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
 import org.eclipse.milo.opcua.stack.core.util.CertificateUtil;
 import org.eclipse.milo.opcua.stack.core.util.CertificateValidationUtil;
 import org.eclipse.milo.opcua.stack.core.util.DigestUtil;
@@ -49,10 +56,22 @@ import static java.util.stream.Collectors.toSet;
 
 public class DefaultCertificateValidator implements CertificateValidator, AutoCloseable {
 
+    /**
+     * How long a trust chain verification result is cached for, unless the trusted or revocation directories change
+     * first.
+     */
+    public static final long TRUST_CHAIN_CACHE_TTL_SECONDS = 300;
+
+    private static final int TRUST_CHAIN_CACHE_MAX_SIZE = 1024;
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    private final Set<X509Certificate> trustedCertificates = Sets.newConcurrentHashSet();
-    private final Set<X509Certificate> authorityCertificates = Sets.newConcurrentHashSet();
+    private final Cache<String, TrustChainResult> trustChainCache = CacheBuilder.newBuilder()
+        .expireAfterWrite(TRUST_CHAIN_CACHE_TTL_SECONDS, TimeUnit.SECONDS)
+        .maximumSize(TRUST_CHAIN_CACHE_MAX_SIZE)
+        .build();
+
+    private volatile TrustedCertificates trustedCertificates = TrustedCertificates.EMPTY;
 
     private final File trustedDir;
     private final File rejectedDir;
@@ -156,8 +175,8 @@ public class DefaultCertificateValidator implements CertificateValidator, AutoCl
             this.watchService = null;
             this.thread = null;
 
-            this.trustedCertificates.clear();
-            this.authorityCertificates.clear();
+            this.trustedCertificates = TrustedCertificates.EMPTY;
+            this.trustChainCache.invalidateAll();
         }
 
         // dispose
@@ -180,13 +199,45 @@ public class DefaultCertificateValidator implements CertificateValidator, AutoCl
         }
     }
 
+    /**
+     * Verify the trust chain of {@code certificate}.
+     * <p>
+     * Results, positive and negative, are cached by the thumbprints of {@code certificate} and {@code chain} for
+     * {@link #TRUST_CHAIN_CACHE_TTL_SECONDS}, or until the trusted or revocation directories change. A certificate
+     * rejected from the cache is not written to the rejected directory again.
+     */
     @Override
-    public synchronized void verifyTrustChain(X509Certificate certificate,
-                                              List<X509Certificate> chain) throws UaException {
+    public void verifyTrustChain(X509Certificate certificate,
+                                 List<X509Certificate> chain) throws UaException {
+
+        TrustedCertificates trusted = trustedCertificates;
+        String key = trustChainKey(certificate, chain);
+
+        if (key != null) {
+            TrustChainResult cached = trustChainCache.getIfPresent(key);
+
+            // A result computed against a previous set of trusted certificates may have been cached after the
+            // cache was invalidated; it's only usable if it was computed against the current set.
+            if (cached != null && cached.trusted == trusted) {
+                if (cached.statusCode != null) {
+                    throw new UaException(cached.statusCode);
+                } else {
+                    return;
+                }
+            }
+        }
+
         try {
-            CertificateValidationUtil.validateTrustChain(
-                certificate, chain, trustedCertificates, authorityCertificates);
+            trusted.verifyTrustChain(certificate, chain);
+
+            if (key != null) {
+                trustChainCache.put(key, new TrustChainResult(trusted, null));
+            }
         } catch (UaException e) {
+            if (key != null) {
+                trustChainCache.put(key, new TrustChainResult(trusted, e.getStatusCode()));
+            }
+
             certificateRejected(certificate);
             throw e;
         }
@@ -195,15 +246,22 @@ public class DefaultCertificateValidator implements CertificateValidator, AutoCl
     /**
      * @return an immutable copy of the current trusted certificates.
      */
-    public synchronized ImmutableSet<X509Certificate> getTrustedCertificates() {
-        return ImmutableSet.copyOf(trustedCertificates);
+    public ImmutableSet<X509Certificate> getTrustedCertificates() {
+        return trustedCertificates.trusted;
     }
 
     /**
      * @return an immutable copy of the current trusted authority certificates.
      */
-    public synchronized ImmutableSet<X509Certificate> getAuthorityCertificates() {
-        return ImmutableSet.copyOf(authorityCertificates);
+    public ImmutableSet<X509Certificate> getAuthorityCertificates() {
+        return trustedCertificates.authority;
+    }
+
+    /**
+     * Discard all cached trust chain verification results.
+     */
+    public void invalidateTrustChainCache() {
+        trustChainCache.invalidateAll();
     }
 
     private void createWatchService() {
@@ -217,7 +275,18 @@ public class DefaultCertificateValidator implements CertificateValidator, AutoCl
                 StandardWatchEventKinds.ENTRY_MODIFY
             );
 
-            this.thread = new Thread(new Watcher(watchService, trustedKey));
+            WatchKey revocationKey = null;
+
+            if (revocationDir != null) {
+                revocationKey = revocationDir.toPath().register(
+                    watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY
+                );
+            }
+
+            this.thread = new Thread(new Watcher(watchService, trustedKey, revocationKey));
             this.thread.setName("ua-certificate-directory-watcher");
             this.thread.setDaemon(true);
             this.thread.start();
@@ -240,15 +309,31 @@ public class DefaultCertificateValidator implements CertificateValidator, AutoCl
             .collect(toSet());
 
         synchronized (DefaultCertificateValidator.this) {
-            trustedCertificates.clear();
-            trustedCertificates.addAll(trusted);
-
-            authorityCertificates.clear();
-            authorityCertificates.addAll(authority);
+            trustedCertificates = new TrustedCertificates(trusted, authority);
+            trustChainCache.invalidateAll();
         }
 
         logger.debug("trustedCertificates.size()={}, authorityCertificates.size()={}",
-            trustedCertificates.size(), authorityCertificates.size());
+            trusted.size(), authority.size());
+    }
+
+    @Nullable
+    private static String trustChainKey(X509Certificate certificate, List<X509Certificate> chain) {
+        try {
+            StringBuilder sb = new StringBuilder(thumbprint(certificate));
+
+            for (X509Certificate c : chain) {
+                sb.append(',').append(thumbprint(c));
+            }
+
+            return sb.toString();
+        } catch (CertificateEncodingException e) {
+            return null;
+        }
+    }
+
+    private static String thumbprint(X509Certificate certificate) throws CertificateEncodingException {
+        return ByteBufUtil.hexDump(Unpooled.wrappedBuffer(DigestUtil.sha1(certificate.getEncoded())));
     }
 
     private Set<X509Certificate> certificatesFromDir(File dir) {
@@ -280,7 +365,7 @@ public class DefaultCertificateValidator implements CertificateValidator, AutoCl
         try {
             String[] ss = certificate.getSubjectX500Principal().getName().split(",");
             String name = ss.length > 0 ? ss[0] : certificate.getSubjectX500Principal().getName();
-            String thumbprint = ByteBufUtil.hexDump(Unpooled.wrappedBuffer(DigestUtil.sha1(certificate.getEncoded())));
+            String thumbprint = thumbprint(certificate);
 
             String filename = String.format("%s [%s].der", URLEncoder.encode(name, "UTF-8"), thumbprint);
 
@@ -301,10 +386,12 @@ public class DefaultCertificateValidator implements CertificateValidator, AutoCl
 
         private final WatchService watchService;
         private final WatchKey trustedKey;
+        private final WatchKey revocationKey;
 
-        Watcher(WatchService watchService, WatchKey trustedKey) {
+        Watcher(WatchService watchService, WatchKey trustedKey, @Nullable WatchKey revocationKey) {
             this.watchService = watchService;
             this.trustedKey = trustedKey;
+            this.revocationKey = revocationKey;
         }
 
         @Override
@@ -321,6 +408,11 @@ public class DefaultCertificateValidator implements CertificateValidator, AutoCl
                                 synchronizeTrustedCertificates();
                             }
                         }
+                    } else if (key == revocationKey) {
+                        if (!key.pollEvents().isEmpty()) {
+                            logger.debug("Revocation directory changed; invalidating trust chain cache.");
+                            trustChainCache.invalidateAll();
+                        }
                     }
 
                     if (!key.reset()) {
@@ -338,4 +430,56 @@ public class DefaultCertificateValidator implements CertificateValidator, AutoCl
 
     }
 
+    /**
+     * An immutable snapshot of the trusted and authority certificates, indexed by subject so that verifying a trust
+     * chain only considers the certificates that could be part of it.
+     */
+    private static final class TrustedCertificates {
+
+        static final TrustedCertificates EMPTY = new TrustedCertificates(ImmutableSet.of(), ImmutableSet.of());
+
+        final ImmutableSet<X509Certificate> trusted;
+        final ImmutableSet<X509Certificate> authority;
+
+        private final ImmutableListMultimap<X500Principal, X509Certificate> trustedBySubject;
+        private final ImmutableListMultimap<X500Principal, X509Certificate> authorityBySubject;
+
+        TrustedCertificates(Set<X509Certificate> trusted, Set<X509Certificate> authority) {
+            this.trusted = ImmutableSet.copyOf(trusted);
+            this.authority = ImmutableSet.copyOf(authority);
+
+            trustedBySubject = Multimaps.index(trusted, X509Certificate::getSubjectX500Principal);
+            authorityBySubject = Multimaps.index(authority, X509Certificate::getSubjectX500Principal);
+        }
+
+        void verifyTrustChain(X509Certificate certificate, List<X509Certificate> chain) throws UaException {
+            Set<X509Certificate> trustedCandidates =
+                new HashSet<>(trustedBySubject.get(certificate.getSubjectX500Principal()));
+
+            // Any trust anchor for the chain must be the issuer of the certificate or of one of the intermediates.
+            Set<X509Certificate> authorityCandidates =
+                new HashSet<>(authorityBySubject.get(certificate.getIssuerX500Principal()));
+
+            for (X509Certificate c : chain) {
+                authorityCandidates.addAll(authorityBySubject.get(c.getIssuerX500Principal()));
+            }
+
+            CertificateValidationUtil.validateTrustChain(
+                certificate, chain, trustedCandidates, authorityCandidates);
+        }
+
+    }
+
+    private static final class TrustChainResult {
+
+        final TrustedCertificates trusted;
+        final StatusCode statusCode;
+
+        TrustChainResult(TrustedCertificates trusted, @Nullable StatusCode statusCode) {
+            this.trusted = trusted;
+            this.statusCode = statusCode;
+        }
+
+    }
+
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.application;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Preconditions;
+
+final class ExecutorFactories {
+
+    private ExecutorFactories() {}
+
+    static ExecutorService newWorkStealingPool(String threadNamePrefix, int parallelism) {
+        Preconditions.checkArgument(parallelism > 0, "parallelism must be > 0");
+
+        AtomicLong threadNumber = new AtomicLong(0L);
+
+        ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(threadNamePrefix + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        return new ForkJoinPool(parallelism, threadFactory, null, true);
+    }
+
+    static ExecutorService newThreadPerTaskExecutor(String threadNamePrefix, int maxPlatformThreads) {
+        Preconditions.checkArgument(maxPlatformThreads > 0, "maxPlatformThreads must be > 0");
+
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicLong threadNumber = new AtomicLong(0L);
+
+            ThreadFactory threadFactory = r -> {
+                Thread thread = new Thread(r, threadNamePrefix + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            };
+
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                maxPlatformThreads, maxPlatformThreads,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory
+            );
+
+            executor.allowCoreThreadTimeOut(true);
+
+            return executor;
+        }
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.application;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import com.google.common.base.Preconditions;
+import org.eclipse.milo.opcua.stack.core.Stack;
+import org.eclipse.milo.opcua.stack.core.util.ExecutorMetrics;
+import org.eclipse.milo.opcua.stack.core.util.InstrumentedExecutorService;
+
+/**
+ * Provides the {@link ExecutorService}s used by each stage of request processing.
+ * <p>
+ * {@link Stage#Decode} and {@link Stage#Encode} executors run message (de)serialization for each channel, one task at
+ * a time per channel; {@link Stage#Service} executors run service requests, and in the SDK, namespace and subscription
+ * work; {@link Stage#Handshake} executors run the asymmetric crypto of server-side OpenSecureChannel handshakes, in
+ * order with the decoding and encoding of the channel being opened or renewed.
+ */
+public interface ExecutorProvider {
+
+    enum Stage {
+        Decode,
+        Service,
+        Encode,
+        Handshake
+    }
+
+    /**
+     * @param stage the {@link Stage} to get the executor for.
+     * @return the {@link ExecutorService} for {@code stage}.
+     */
+    ExecutorService getExecutor(Stage stage);
+
+    /**
+     * @param stage the {@link Stage} to get metrics for.
+     * @return the {@link ExecutorMetrics} for {@code stage}, if its executor is instrumented.
+     */
+    default Optional<ExecutorMetrics> getMetrics(Stage stage) {
+        ExecutorService executor = getExecutor(stage);
+
+        if (executor instanceof ExecutorMetrics) {
+            return Optional.of((ExecutorMetrics) executor);
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Shut down any executors created by this provider. Executors supplied by the caller are not shut down.
+     */
+    default void shutdown() {}
+
+    /**
+     * @param executor the {@link ExecutorService} to use for every stage but {@link Stage#Handshake}.
+     * @return an {@link ExecutorProvider} that uses {@code executor} for every stage but {@link Stage#Handshake},
+     * which uses {@link Stack#sharedHandshakeExecutor()}.
+     */
+    static ExecutorProvider of(ExecutorService executor) {
+        return of(executor, executor, executor);
+    }
+
+    /**
+     * @param decodeExecutor  the {@link ExecutorService} for {@link Stage#Decode}.
+     * @param serviceExecutor the {@link ExecutorService} for {@link Stage#Service}.
+     * @param encodeExecutor  the {@link ExecutorService} for {@link Stage#Encode}.
+     * @return an {@link ExecutorProvider} that uses a separate {@link ExecutorService} for each stage, and
+     * {@link Stack#sharedHandshakeExecutor()} for {@link Stage#Handshake}.
+     */
+    static ExecutorProvider of(ExecutorService decodeExecutor,
+                               ExecutorService serviceExecutor,
+                               ExecutorService encodeExecutor) {
+
+        return of(decodeExecutor, serviceExecutor, encodeExecutor, Stack.sharedHandshakeExecutor());
+    }
+
+    /**
+     * @param decodeExecutor    the {@link ExecutorService} for {@link Stage#Decode}.
+     * @param serviceExecutor   the {@link ExecutorService} for {@link Stage#Service}.
+     * @param encodeExecutor    the {@link ExecutorService} for {@link Stage#Encode}.
+     * @param handshakeExecutor the {@link ExecutorService} for {@link Stage#Handshake}. It should be bounded and not
+     *                          shared with the other stages, so handshakes can't starve established channels.
+     * @return an {@link ExecutorProvider} that uses a separate {@link ExecutorService} for each stage.
+     */
+    static ExecutorProvider of(ExecutorService decodeExecutor,
+                               ExecutorService serviceExecutor,
+                               ExecutorService encodeExecutor,
+                               ExecutorService handshakeExecutor) {
+
+        Preconditions.checkNotNull(decodeExecutor, "decodeExecutor must be non-null");
+        Preconditions.checkNotNull(serviceExecutor, "serviceExecutor must be non-null");
+        Preconditions.checkNotNull(encodeExecutor, "encodeExecutor must be non-null");
+        Preconditions.checkNotNull(handshakeExecutor, "handshakeExecutor must be non-null");
+
+        return stage -> {
+            switch (stage) {
+                case Decode:
+                    return decodeExecutor;
+                case Encode:
+                    return encodeExecutor;
+                case Handshake:
+                    return handshakeExecutor;
+                default:
+                    return serviceExecutor;
+            }
+        };
+    }
+
+    /**
+     * Create a provider backed by a single bounded, work-stealing {@link ForkJoinPool} shared by every stage but
+     * {@link Stage#Handshake}, which uses {@link Stack#sharedHandshakeExecutor()}.
+     *
+     * @param parallelism the maximum number of threads in the pool.
+     * @return an {@link ExecutorProvider} backed by an instrumented work-stealing pool.
+     */
+    static ExecutorProvider workStealing(int parallelism) {
+        InstrumentedExecutorService executor = new InstrumentedExecutorService(
+            "work-stealing", ExecutorFactories.newWorkStealingPool("ua-work-stealing-pool-", parallelism));
+
+        return new ExecutorProvider() {
+            @Override
+            public ExecutorService getExecutor(Stage stage) {
+                return stage == Stage.Handshake ? Stack.sharedHandshakeExecutor() : executor;
+            }
+
+            @Override
+            public void shutdown() {
+                executor.shutdown();
+            }
+        };
+    }
+
+    /**
+     * Create a provider that runs each {@link Stage#Service} task on its own thread, for namespaces backed by blocking
+     * I/O. Decode and encode run on a bounded work-stealing pool sized to the available processors, and handshakes on
+     * {@link Stack#sharedHandshakeExecutor()}.
+     * <p>
+     * Virtual threads are used when the runtime supports them. Otherwise service tasks run on a pool of at most
+     * {@code maxPlatformThreads} platform threads, with any excess tasks queued, so a burst of blocking requests
+     * cannot grow the pool without bound.
+     *
+     * @param maxPlatformThreads the maximum number of platform threads used when virtual threads are not supported.
+     * @return an {@link ExecutorProvider} that runs service tasks thread-per-task.
+     */
+    static ExecutorProvider threadPerTask(int maxPlatformThreads) {
+        InstrumentedExecutorService serializationExecutor = new InstrumentedExecutorService(
+            "serialization",
+            ExecutorFactories.newWorkStealingPool(
+                "ua-serialization-pool-", Runtime.getRuntime().availableProcessors())
+        );
+
+        InstrumentedExecutorService serviceExecutor = new InstrumentedExecutorService(
+            "service", ExecutorFactories.newThreadPerTaskExecutor("ua-service-", maxPlatformThreads));
+
+        return new ExecutorProvider() {
+            @Override
+            public ExecutorService getExecutor(Stage stage) {
+                switch (stage) {
+                    case Service:
+                        return serviceExecutor;
+                    case Handshake:
+                        return Stack.sharedHandshakeExecutor();
+                    default:
+                        return serializationExecutor;
+                }
+            }
+
+            @Override
+            public void shutdown() {
+                serializationExecutor.shutdown();
+                serviceExecutor.shutdown();
+            }
+        };
+    }
+
+}
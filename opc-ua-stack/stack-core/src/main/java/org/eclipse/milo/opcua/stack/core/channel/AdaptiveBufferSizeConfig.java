@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.channel;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * Configures the {@link BufferSizeAdvisor}, which sizes the send and receive buffers negotiated for new connections
+ * from the message sizes observed on earlier ones.
+ * <p>
+ * Buffer sizes are chosen so that {@link #getPercentile()} of messages fit in a single chunk, bounded by
+ * {@link #getMinBufferSize()} and {@link #getMaxBufferSize()}. Until {@link #getMinSamples()} messages have been
+ * observed, the {@link ChannelConfig#getMaxChunkSize()} is used as before.
+ */
+public class AdaptiveBufferSizeConfig {
+
+    /**
+     * The smallest send or receive buffer size OPC UA allows.
+     */
+    public static final int MIN_BUFFER_SIZE = 8192;
+
+    /**
+     * An {@link AdaptiveBufferSizeConfig} with adaptive sizing disabled; the {@link ChannelConfig} sizes are used.
+     */
+    public static final AdaptiveBufferSizeConfig DISABLED =
+        new AdaptiveBufferSizeConfig(false, 1.0, MIN_BUFFER_SIZE, MIN_BUFFER_SIZE, 1L);
+
+    /**
+     * The default percentile of messages that should fit in a single chunk.
+     */
+    public static final double DEFAULT_PERCENTILE = 0.95;
+
+    /**
+     * The default upper bound on a recommended buffer size.
+     */
+    public static final int DEFAULT_MAX_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * The default number of messages that must be observed before a buffer size is recommended.
+     */
+    public static final long DEFAULT_MIN_SAMPLES = 100L;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final int minBufferSize;
+    private final int maxBufferSize;
+    private final long minSamples;
+
+    /**
+     * Create an enabled {@link AdaptiveBufferSizeConfig} using the default parameters.
+     *
+     * @see #DEFAULT_PERCENTILE
+     * @see #MIN_BUFFER_SIZE
+     * @see #DEFAULT_MAX_BUFFER_SIZE
+     * @see #DEFAULT_MIN_SAMPLES
+     */
+    public AdaptiveBufferSizeConfig() {
+        this(DEFAULT_PERCENTILE, MIN_BUFFER_SIZE, DEFAULT_MAX_BUFFER_SIZE, DEFAULT_MIN_SAMPLES);
+    }
+
+    /**
+     * Create an enabled {@link AdaptiveBufferSizeConfig}.
+     *
+     * @param percentile    the percentile of messages, between 0.0 and 1.0, that should fit in a single chunk.
+     * @param minBufferSize the smallest buffer size to recommend; at least {@link #MIN_BUFFER_SIZE}.
+     * @param maxBufferSize the largest buffer size to recommend.
+     * @param minSamples    the number of messages that must be observed before a buffer size is recommended.
+     */
+    public AdaptiveBufferSizeConfig(double percentile, int minBufferSize, int maxBufferSize, long minSamples) {
+        this(true, percentile, minBufferSize, maxBufferSize, minSamples);
+    }
+
+    private AdaptiveBufferSizeConfig(boolean enabled,
+                                     double percentile,
+                                     int minBufferSize,
+                                     int maxBufferSize,
+                                     long minSamples) {
+
+        Preconditions.checkArgument(percentile > 0.0 && percentile <= 1.0,
+            "percentile must be greater than 0.0 and at most 1.0");
+        Preconditions.checkArgument(minBufferSize >= MIN_BUFFER_SIZE,
+            "minBufferSize must be greater than or equal to " + MIN_BUFFER_SIZE);
+        Preconditions.checkArgument(maxBufferSize >= minBufferSize,
+            "maxBufferSize must be greater than or equal to minBufferSize");
+        Preconditions.checkArgument(minSamples > 0, "minSamples must be greater than 0");
+
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minBufferSize = minBufferSize;
+        this.maxBufferSize = maxBufferSize;
+        this.minSamples = minSamples;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public int getMinBufferSize() {
+        return minBufferSize;
+    }
+
+    public int getMaxBufferSize() {
+        return maxBufferSize;
+    }
+
+    public long getMinSamples() {
+        return minSamples;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("enabled", enabled)
+            .add("percentile", percentile)
+            .add("minBufferSize", minBufferSize)
+            .add("maxBufferSize", maxBufferSize)
+            .add("minSamples", minSamples)
+            .toString();
+    }
+
+}
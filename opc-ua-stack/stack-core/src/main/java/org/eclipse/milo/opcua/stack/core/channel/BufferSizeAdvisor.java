@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.channel;
+
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Recommends the send and receive buffer sizes to negotiate for new connections, from the sizes of the messages sent
+ * and received on the channels it tracks.
+ * <p>
+ * Buffer sizes are only negotiated by the Hello and Acknowledge messages that start a connection, so a
+ * recommendation takes effect when a client reconnects or a server accepts a new connection; renewing a secure
+ * channel keeps the sizes it was opened with.
+ *
+ * @see AdaptiveBufferSizeConfig
+ */
+public class BufferSizeAdvisor {
+
+    /**
+     * Room left in a recommended buffer for the headers, signature, and padding of a symmetric chunk.
+     */
+    static final int CHUNK_OVERHEAD = 128;
+
+    private final Set<ChannelMetrics> tracked = Sets.newConcurrentHashSet();
+
+    /* Message sizes observed on channels no longer tracked. */
+    private final MessageSizeHistogram retiredSizesIn = new MessageSizeHistogram();
+    private final MessageSizeHistogram retiredSizesOut = new MessageSizeHistogram();
+
+    private final AdaptiveBufferSizeConfig config;
+
+    public BufferSizeAdvisor(AdaptiveBufferSizeConfig config) {
+        this.config = config;
+    }
+
+    public AdaptiveBufferSizeConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Start taking the messages sent and received on a channel into account.
+     *
+     * @param metrics the {@link ChannelMetrics} of the channel.
+     */
+    public void track(ChannelMetrics metrics) {
+        tracked.add(metrics);
+    }
+
+    /**
+     * Stop tracking a channel that has closed. The messages it has already seen are kept.
+     *
+     * @param metrics the {@link ChannelMetrics} of the channel.
+     */
+    public synchronized void untrack(ChannelMetrics metrics) {
+        if (tracked.remove(metrics)) {
+            retiredSizesIn.add(metrics.getMessageSizesIn());
+            retiredSizesOut.add(metrics.getMessageSizesOut());
+        }
+    }
+
+    /**
+     * @return the sizes of all messages received on tracked channels, past and present.
+     */
+    public synchronized MessageSizeHistogram getMessageSizesIn() {
+        MessageSizeHistogram sizes = new MessageSizeHistogram();
+        sizes.add(retiredSizesIn);
+        tracked.forEach(m -> sizes.add(m.getMessageSizesIn()));
+        return sizes;
+    }
+
+    /**
+     * @return the sizes of all messages sent on tracked channels, past and present.
+     */
+    public synchronized MessageSizeHistogram getMessageSizesOut() {
+        MessageSizeHistogram sizes = new MessageSizeHistogram();
+        sizes.add(retiredSizesOut);
+        tracked.forEach(m -> sizes.add(m.getMessageSizesOut()));
+        return sizes;
+    }
+
+    /**
+     * @param channelConfig the {@link ChannelConfig} of the connection being negotiated.
+     * @return the receive buffer size to offer, which bounds the chunks the remote sends.
+     */
+    public int recommendReceiveBufferSize(ChannelConfig channelConfig) {
+        return recommendBufferSize(getMessageSizesIn(), channelConfig);
+    }
+
+    /**
+     * @param channelConfig the {@link ChannelConfig} of the connection being negotiated.
+     * @return the send buffer size to offer, which bounds the chunks sent to the remote.
+     */
+    public int recommendSendBufferSize(ChannelConfig channelConfig) {
+        return recommendBufferSize(getMessageSizesOut(), channelConfig);
+    }
+
+    private int recommendBufferSize(MessageSizeHistogram sizes, ChannelConfig channelConfig) {
+        if (sizes.getCount() < config.getMinSamples()) {
+            return channelConfig.getMaxChunkSize();
+        }
+
+        long bufferSize = sizes.getPercentile(config.getPercentile()) + CHUNK_OVERHEAD;
+
+        bufferSize = Math.max(bufferSize, config.getMinBufferSize());
+        bufferSize = Math.min(bufferSize, config.getMaxBufferSize());
+
+        // Never so small that the buffer size times the maximum chunk count limits the maximum message size.
+        int maxChunkCount = channelConfig.getMaxChunkCount();
+
+        if (maxChunkCount > 0) {
+            long maxMessageSize = channelConfig.getMaxMessageSize();
+            long minBufferSize = (maxMessageSize + maxChunkCount - 1) / maxChunkCount;
+
+            bufferSize = Math.max(bufferSize, minBufferSize);
+        }
+
+        return (int) Math.min(bufferSize, Integer.MAX_VALUE);
+    }
+
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.channel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.Maps;
+
+/**
+ * Transport counters for a single {@link SecureChannel}.
+ * <p>
+ * Counters are striped ({@link LongAdder}) so that recording from the encoding, decoding, and I/O threads of a busy
+ * channel doesn't contend; reading a counter sums its stripes and is comparatively expensive, which is the right
+ * trade-off for values recorded per chunk and read by monitoring.
+ */
+public class ChannelMetrics {
+
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder chunksIn = new LongAdder();
+    private final LongAdder chunksOut = new LongAdder();
+    private final LongAdder messagesIn = new LongAdder();
+    private final LongAdder messagesOut = new LongAdder();
+
+    private final LongAdder encodeNanos = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+    private final LongAdder cryptoNanos = new LongAdder();
+
+    private final LongAccumulator largestMessageSize = new LongAccumulator(Math::max, 0L);
+
+    private final MessageSizeHistogram messageSizesIn = new MessageSizeHistogram();
+    private final MessageSizeHistogram messageSizesOut = new MessageSizeHistogram();
+    private final LongAdder messageChunksIn = new LongAdder();
+    private final LongAdder messageChunksOut = new LongAdder();
+    private final LongAdder multiChunkMessages = new LongAdder();
+    private final LongAccumulator largestChunkCount = new LongAccumulator(Math::max, 0L);
+
+    private final ConcurrentMap<Class<?>, LongAdder> messageCounts = Maps.newConcurrentMap();
+
+    /**
+     * @param chunkSize the size of a chunk received, headers included.
+     */
+    public void recordChunkIn(int chunkSize) {
+        chunksIn.increment();
+        bytesIn.add(chunkSize);
+    }
+
+    /**
+     * @param chunkSize the size of a chunk sent, headers included.
+     */
+    public void recordChunkOut(int chunkSize) {
+        chunksOut.increment();
+        bytesOut.add(chunkSize);
+    }
+
+    /**
+     * @param messageSize the size of a message body sent or received, before chunking or after reassembly.
+     */
+    public void recordMessageSize(int messageSize) {
+        largestMessageSize.accumulate(messageSize);
+    }
+
+    /**
+     * @param messageSize the size of a message body received, after reassembly.
+     * @param chunkCount  the number of chunks it was received in.
+     */
+    public void recordMessageReceived(int messageSize, int chunkCount) {
+        recordMessageSize(messageSize);
+        messageSizesIn.record(messageSize);
+        messageChunksIn.add(chunkCount);
+        recordChunkCount(chunkCount);
+    }
+
+    /**
+     * @param messageSize the size of a message body sent, before chunking.
+     * @param chunkCount  the number of chunks it was sent in.
+     */
+    public void recordMessageSent(int messageSize, int chunkCount) {
+        recordMessageSize(messageSize);
+        messageSizesOut.record(messageSize);
+        messageChunksOut.add(chunkCount);
+        recordChunkCount(chunkCount);
+    }
+
+    private void recordChunkCount(int chunkCount) {
+        if (chunkCount > 1) {
+            multiChunkMessages.increment();
+        }
+
+        largestChunkCount.accumulate(chunkCount);
+    }
+
+    /**
+     * @param messageType the type of a message decoded.
+     * @param nanos       the time spent decoding it.
+     */
+    public void recordMessageIn(Class<?> messageType, long nanos) {
+        messagesIn.increment();
+        decodeNanos.add(nanos);
+        messageCount(messageType).increment();
+    }
+
+    /**
+     * @param messageType the type of a message encoded.
+     * @param nanos       the time spent encoding it.
+     */
+    public void recordMessageOut(Class<?> messageType, long nanos) {
+        messagesOut.increment();
+        encodeNanos.add(nanos);
+        messageCount(messageType).increment();
+    }
+
+    /**
+     * @param nanos time spent signing, verifying, encrypting, or decrypting.
+     */
+    public void recordCrypto(long nanos) {
+        cryptoNanos.add(nanos);
+    }
+
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    public long getChunksIn() {
+        return chunksIn.sum();
+    }
+
+    public long getChunksOut() {
+        return chunksOut.sum();
+    }
+
+    public long getMessagesIn() {
+        return messagesIn.sum();
+    }
+
+    public long getMessagesOut() {
+        return messagesOut.sum();
+    }
+
+    public long getEncodeNanos() {
+        return encodeNanos.sum();
+    }
+
+    public long getDecodeNanos() {
+        return decodeNanos.sum();
+    }
+
+    public long getCryptoNanos() {
+        return cryptoNanos.sum();
+    }
+
+    /**
+     * @return the size of the largest message body sent or received.
+     */
+    public long getLargestMessageSize() {
+        return largestMessageSize.get();
+    }
+
+    /**
+     * @return the sizes of message bodies received.
+     */
+    public MessageSizeHistogram getMessageSizesIn() {
+        return messageSizesIn;
+    }
+
+    /**
+     * @return the sizes of message bodies sent.
+     */
+    public MessageSizeHistogram getMessageSizesOut() {
+        return messageSizesOut;
+    }
+
+    /**
+     * @return the mean number of chunks per message received, or 0 if none have been received.
+     */
+    public double getChunksPerMessageIn() {
+        return chunksPerMessage(messageChunksIn.sum(), messageSizesIn.getCount());
+    }
+
+    /**
+     * @return the mean number of chunks per message sent, or 0 if none have been sent.
+     */
+    public double getChunksPerMessageOut() {
+        return chunksPerMessage(messageChunksOut.sum(), messageSizesOut.getCount());
+    }
+
+    /**
+     * @return the number of messages sent or received in more than one chunk.
+     */
+    public long getMultiChunkMessages() {
+        return multiChunkMessages.sum();
+    }
+
+    /**
+     * @return the largest number of chunks a single message was sent or received in.
+     */
+    public long getLargestChunkCount() {
+        return largestChunkCount.get();
+    }
+
+    private static double chunksPerMessage(long chunks, long messages) {
+        return messages > 0 ? (double) chunks / messages : 0.0;
+    }
+
+    /**
+     * @return a snapshot of the number of messages sent or received, by message type.
+     */
+    public Map<Class<?>, Long> getMessageCounts() {
+        Map<Class<?>, Long> counts = Maps.newHashMap();
+
+        messageCounts.forEach((type, count) -> counts.put(type, count.sum()));
+
+        return counts;
+    }
+
+    private LongAdder messageCount(Class<?> messageType) {
+        LongAdder count = messageCounts.get(messageType);
+
+        // get() first: computeIfAbsent locks the bin even when the key is present.
+        return count != null ? count : messageCounts.computeIfAbsent(messageType, t -> new LongAdder());
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("bytesIn", getBytesIn())
+            .add("bytesOut", getBytesOut())
+            .add("chunksIn", getChunksIn())
+            .add("chunksOut", getChunksOut())
+            .add("messagesIn", getMessagesIn())
+            .add("messagesOut", getMessagesOut())
+            .add("encodeNanos", getEncodeNanos())
+            .add("decodeNanos", getDecodeNanos())
+            .add("cryptoNanos", getCryptoNanos())
+            .add("largestMessageSize", getLargestMessageSize())
+            .add("chunksPerMessageIn", getChunksPerMessageIn())
+            .add("chunksPerMessageOut", getChunksPerMessageOut())
+            .add("multiChunkMessages", getMultiChunkMessages())
+            .add("largestChunkCount", getLargestChunkCount())
+            .toString();
+    }
+
+}
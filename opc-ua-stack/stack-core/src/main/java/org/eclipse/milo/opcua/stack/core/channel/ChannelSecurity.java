@@ -13,7 +13,14 @@
 
 package org.eclipse.milo.opcua.stack.core.channel;
 
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
 
 import org.eclipse.milo.opcua.stack.core.security.SecurityAlgorithm;
 import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
@@ -72,38 +79,33 @@ public class ChannelSecurity {
         assert (clientNonce != null);
         assert (serverNonce != null);
 
-        byte[] clientSignatureKey = (keyDerivation == SecurityAlgorithm.PSha1) ?
-            PShaUtil.createPSha1Key(serverNonce.bytes(), clientNonce.bytes(), 0, signatureKeySize) :
-            PShaUtil.createPSha256Key(serverNonce.bytes(), clientNonce.bytes(), 0, signatureKeySize);
+        int keyMaterialSize = signatureKeySize + encryptionKeySize + cipherTextBlockSize;
 
-        byte[] clientEncryptionKey = (keyDerivation == SecurityAlgorithm.PSha1) ?
-            PShaUtil.createPSha1Key(serverNonce.bytes(), clientNonce.bytes(), signatureKeySize, encryptionKeySize) :
-            PShaUtil.createPSha256Key(serverNonce.bytes(), clientNonce.bytes(), signatureKeySize, encryptionKeySize);
+        // Derive the key material for each direction once and split it, rather than re-deriving it for each key.
+        byte[] clientKeyMaterial = (keyDerivation == SecurityAlgorithm.PSha1) ?
+            PShaUtil.createPSha1Key(serverNonce.bytes(), clientNonce.bytes(), 0, keyMaterialSize) :
+            PShaUtil.createPSha256Key(serverNonce.bytes(), clientNonce.bytes(), 0, keyMaterialSize);
 
-        byte[] clientInitializationVector = (keyDerivation == SecurityAlgorithm.PSha1) ?
-            PShaUtil.createPSha1Key(serverNonce.bytes(), clientNonce.bytes(),
-                signatureKeySize + encryptionKeySize, cipherTextBlockSize) :
-            PShaUtil.createPSha256Key(serverNonce.bytes(), clientNonce.bytes(),
-                signatureKeySize + encryptionKeySize, cipherTextBlockSize);
+        byte[] serverKeyMaterial = (keyDerivation == SecurityAlgorithm.PSha1) ?
+            PShaUtil.createPSha1Key(clientNonce.bytes(), serverNonce.bytes(), 0, keyMaterialSize) :
+            PShaUtil.createPSha256Key(clientNonce.bytes(), serverNonce.bytes(), 0, keyMaterialSize);
 
-        byte[] serverSignatureKey = (keyDerivation == SecurityAlgorithm.PSha1) ?
-            PShaUtil.createPSha1Key(clientNonce.bytes(), serverNonce.bytes(), 0, signatureKeySize) :
-            PShaUtil.createPSha256Key(clientNonce.bytes(), serverNonce.bytes(), 0, signatureKeySize);
+        return new SecuritySecrets(
+            splitKeyMaterial(clientKeyMaterial, signatureKeySize, encryptionKeySize),
+            splitKeyMaterial(serverKeyMaterial, signatureKeySize, encryptionKeySize)
+        );
+    }
 
-        byte[] serverEncryptionKey = (keyDerivation == SecurityAlgorithm.PSha1) ?
-            PShaUtil.createPSha1Key(clientNonce.bytes(), serverNonce.bytes(), signatureKeySize, encryptionKeySize) :
-            PShaUtil.createPSha256Key(clientNonce.bytes(), serverNonce.bytes(), signatureKeySize, encryptionKeySize);
+    private static SecretKeys splitKeyMaterial(byte[] keyMaterial, int signatureKeySize, int encryptionKeySize) {
+        byte[] signatureKey = Arrays.copyOfRange(keyMaterial, 0, signatureKeySize);
 
-        byte[] serverInitializationVector = (keyDerivation == SecurityAlgorithm.PSha1) ?
-            PShaUtil.createPSha1Key(clientNonce.bytes(), serverNonce.bytes(),
-                signatureKeySize + encryptionKeySize, cipherTextBlockSize) :
-            PShaUtil.createPSha256Key(clientNonce.bytes(), serverNonce.bytes(),
-                signatureKeySize + encryptionKeySize, cipherTextBlockSize);
+        byte[] encryptionKey = Arrays.copyOfRange(
+            keyMaterial, signatureKeySize, signatureKeySize + encryptionKeySize);
 
-        return new SecuritySecrets(
-            new SecretKeys(clientSignatureKey, clientEncryptionKey, clientInitializationVector),
-            new SecretKeys(serverSignatureKey, serverEncryptionKey, serverInitializationVector)
-        );
+        byte[] initializationVector = Arrays.copyOfRange(
+            keyMaterial, signatureKeySize + encryptionKeySize, keyMaterial.length);
+
+        return new SecretKeys(signatureKey, encryptionKey, initializationVector);
     }
 
     public static class SecuritySecrets {
@@ -129,6 +131,16 @@ public class ChannelSecurity {
         private final byte[] encryptionKey;
         private final byte[] initializationVector;
 
+        /*
+         * Initialized crypto primitives are expensive to create, so a few of each kind are pooled here, for as long
+         * as these keys (i.e. the security token they belong to) are in use. A primitive is taken out of the pool
+         * while in use, so concurrent users never share an instance. The pools are bounded; when one is empty a new
+         * instance is created, and when one is full a returned instance is dropped.
+         */
+        private final PrimitivePool<Cipher> encryptionCiphers = new PrimitivePool<>();
+        private final PrimitivePool<Cipher> decryptionCiphers = new PrimitivePool<>();
+        private final PrimitivePool<Mac> signatureMacs = new PrimitivePool<>();
+
         public SecretKeys(byte[] signatureKey, byte[] encryptionKey, byte[] initializationVector) {
             this.signatureKey = signatureKey;
             this.encryptionKey = encryptionKey;
@@ -146,5 +158,136 @@ public class ChannelSecurity {
         public byte[] getInitializationVector() {
             return initializationVector;
         }
+
+        /**
+         * Get a {@link Cipher} initialized with the encryption key and initialization vector, either a pooled
+         * instance or a new one.
+         * <p>
+         * Return it with {@link #releaseCipher(int, Cipher)} once the operation has completed successfully.
+         *
+         * @param opmode         {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}.
+         * @param transformation the transformation the {@link Cipher} implements, e.g. "AES/CBC/NoPadding".
+         * @return an initialized {@link Cipher}.
+         * @throws GeneralSecurityException if a new {@link Cipher} could not be created.
+         */
+        public Cipher acquireCipher(int opmode, String transformation) throws GeneralSecurityException {
+            Cipher cipher = cipherPool(opmode).poll();
+
+            if (cipher == null || !transformation.equals(cipher.getAlgorithm())) {
+                SecretKeySpec keySpec = new SecretKeySpec(encryptionKey, keyAlgorithm(transformation));
+                IvParameterSpec ivSpec = new IvParameterSpec(initializationVector);
+
+                cipher = Cipher.getInstance(transformation);
+                cipher.init(opmode, keySpec, ivSpec);
+            }
+
+            return cipher;
+        }
+
+        /**
+         * Return a {@link Cipher} obtained from {@link #acquireCipher(int, String)} for re-use.
+         * <p>
+         * The {@link Cipher} must have completed its last operation with a call to {@code doFinal}, which resets it
+         * to the state it was in after initialization.
+         *
+         * @param opmode the mode the {@link Cipher} was acquired with.
+         * @param cipher the {@link Cipher} to return.
+         */
+        public void releaseCipher(int opmode, Cipher cipher) {
+            cipherPool(opmode).offer(cipher);
+        }
+
+        /**
+         * Get a {@link Mac} initialized with the signature key, either a pooled instance or a new one.
+         * <p>
+         * Return it with {@link #releaseMac(Mac)} once the operation has completed, successfully or not.
+         *
+         * @param transformation the transformation the {@link Mac} implements.
+         * @return an initialized {@link Mac}.
+         * @throws GeneralSecurityException if a new {@link Mac} could not be created.
+         */
+        public Mac acquireMac(String transformation) throws GeneralSecurityException {
+            Mac mac = signatureMacs.poll();
+
+            if (mac == null || !transformation.equals(mac.getAlgorithm())) {
+                mac = Mac.getInstance(transformation);
+                mac.init(new SecretKeySpec(signatureKey, transformation));
+            }
+
+            return mac;
+        }
+
+        /**
+         * Return a {@link Mac} obtained from {@link #acquireMac(String)} for re-use. It is reset first, so it can
+         * be returned even if its last operation failed.
+         *
+         * @param mac the {@link Mac} to return.
+         */
+        public void releaseMac(Mac mac) {
+            mac.reset();
+
+            signatureMacs.offer(mac);
+        }
+
+        private PrimitivePool<Cipher> cipherPool(int opmode) {
+            return opmode == Cipher.ENCRYPT_MODE ? encryptionCiphers : decryptionCiphers;
+        }
+
+        /**
+         * @param transformation a transformation of the form "algorithm/mode/padding", or just "algorithm".
+         * @return the algorithm part of {@code transformation}, which names the algorithm of the key.
+         */
+        private static String keyAlgorithm(String transformation) {
+            int slash = transformation.indexOf('/');
+
+            return slash < 0 ? transformation : transformation.substring(0, slash);
+        }
+    }
+
+    /**
+     * A small lock-free pool of crypto primitives. Each thread starts looking at a different slot, so threads using
+     * the same keys concurrently, e.g. while decoding chunks in parallel, mostly don't contend for one instance.
+     */
+    private static final class PrimitivePool<T> {
+        private static final int POOL_SIZE = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+        private final AtomicReferenceArray<T> slots = new AtomicReferenceArray<>(POOL_SIZE);
+
+        /**
+         * @return a pooled instance, or {@code null} if the pool is empty.
+         */
+        T poll() {
+            int start = startIndex();
+
+            for (int i = 0; i < POOL_SIZE; i++) {
+                int index = (start + i) % POOL_SIZE;
+
+                // Only write to a slot that looks occupied.
+                T t = slots.get(index) != null ? slots.getAndSet(index, null) : null;
+
+                if (t != null) {
+                    return t;
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * @param t the instance to return to the pool; dropped if the pool is full.
+         */
+        void offer(T t) {
+            int start = startIndex();
+
+            for (int i = 0; i < POOL_SIZE; i++) {
+                if (slots.compareAndSet((start + i) % POOL_SIZE, null, t)) {
+                    return;
+                }
+            }
+        }
+
+        private static int startIndex() {
+            return (int) (Thread.currentThread().getId() % POOL_SIZE);
+        }
     }
 }
@@ -22,9 +22,10 @@ import java.security.Signature;
 import java.security.SignatureException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
 import javax.crypto.Cipher;
-import javax.crypto.spec.IvParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
+import javax.crypto.Mac;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
@@ -47,15 +48,21 @@ public class ChunkDecoder {
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     private final Delegate asymmetricDelegate = new AsymmetricDelegate();
-    private final Delegate symmetricDelegate = new SymmetricDelegate();
+    private final SymmetricDelegate symmetricDelegate = new SymmetricDelegate();
 
     private volatile long lastSequenceNumber = -1L;
     private volatile long lastRequestId;
 
     private final ChannelParameters parameters;
+    private final ParallelDecodingConfig parallelDecodingConfig;
 
     public ChunkDecoder(ChannelParameters parameters) {
+        this(parameters, ParallelDecodingConfig.DISABLED);
+    }
+
+    public ChunkDecoder(ChannelParameters parameters, ParallelDecodingConfig parallelDecodingConfig) {
         this.parameters = parameters;
+        this.parallelDecodingConfig = parallelDecodingConfig;
     }
 
     public ByteBuf decodeAsymmetric(SecureChannel channel, List<ByteBuf> chunkBuffers) throws UaException {
@@ -67,7 +74,8 @@ public class ChunkDecoder {
     }
 
     private ByteBuf decode(Delegate delegate, SecureChannel channel, List<ByteBuf> chunkBuffers) throws UaException {
-        CompositeByteBuf composite = BufferUtil.compositeBuffer();
+        // Size the composite so it never consolidates: the chunk bodies are exposed as a view, not copied.
+        CompositeByteBuf composite = BufferUtil.compositeBuffer(Math.max(2, chunkBuffers.size()));
 
         int signatureSize = delegate.getSignatureSize(channel);
         int cipherTextBlockSize = delegate.getCipherTextBlockSize(channel);
@@ -75,62 +83,249 @@ public class ChunkDecoder {
         boolean encrypted = delegate.isEncryptionEnabled(channel);
         boolean signed = delegate.isSigningEnabled(channel);
 
-        for (ByteBuf chunkBuffer : chunkBuffers) {
-            final char chunkType = (char) chunkBuffer.getByte(3);
+        boolean parallel = delegate == symmetricDelegate &&
+            (encrypted || signed) &&
+            parallelDecodingConfig.isEnabled() &&
+            chunkBuffers.size() >= parallelDecodingConfig.getMinChunkCount();
 
-            chunkBuffer.skipBytes(SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE);
+        int chunkIndex = 0;
 
-            delegate.readSecurityHeader(channel, chunkBuffer);
+        try {
+            if (parallel) {
+                ChunkResult[] results = decryptAndVerifyParallel(
+                    channel, chunkBuffers, signatureSize, cipherTextBlockSize, encrypted, signed);
 
-            if (encrypted) {
-                decryptChunk(delegate, channel, chunkBuffer);
-            }
+                // Sequence numbers are validated, and failures reported, in chunk order.
+                for (; chunkIndex < chunkBuffers.size(); chunkIndex++) {
+                    ChunkResult result = results[chunkIndex];
 
-            int encryptedStart = chunkBuffer.readerIndex();
-            chunkBuffer.readerIndex(0);
+                    if (result.failure != null) {
+                        throw result.failure;
+                    }
 
-            if (signed) {
-                delegate.verifyChunk(channel, chunkBuffer);
+                    appendChunk(result.chunkType, chunkBuffers.get(chunkIndex), result.bodyEnd, composite);
+                }
+            } else {
+                for (; chunkIndex < chunkBuffers.size(); chunkIndex++) {
+                    decodeChunk(delegate, channel, chunkBuffers.get(chunkIndex), composite,
+                        signatureSize, cipherTextBlockSize, encrypted, signed);
+                }
             }
+        } catch (Throwable t) {
+            // Release the components decoded so far and any chunks not yet added, whatever the failure.
+            composite.release();
 
-            final int paddingSize = encrypted ? getPaddingSize(cipherTextBlockSize, signatureSize, chunkBuffer) : 0;
-            final int bodyEnd = chunkBuffer.readableBytes() - signatureSize - paddingSize;
+            for (int i = chunkIndex; i < chunkBuffers.size(); i++) {
+                chunkBuffers.get(i).release();
+            }
 
-            chunkBuffer.readerIndex(encryptedStart);
+            throw t;
+        }
 
-            SequenceHeader sequenceHeader = SequenceHeader.decode(chunkBuffer);
-            long sequenceNumber = sequenceHeader.getSequenceNumber();
-            lastRequestId = sequenceHeader.getRequestId();
+        channel.getMetrics().recordMessageReceived(composite.readableBytes(), chunkBuffers.size());
 
-            if (lastSequenceNumber == -1) {
-                lastSequenceNumber = sequenceNumber;
-            } else {
-                if (lastSequenceNumber + 1 != sequenceNumber) {
-                    String message = String.format("expected sequence number %s but received %s",
-                        lastSequenceNumber + 1, sequenceNumber);
+        return composite.order(ByteOrder.LITTLE_ENDIAN);
+    }
 
-                    logger.error(message);
-                    logger.error(ByteBufUtil.hexDump(chunkBuffer, 0, chunkBuffer.writerIndex()));
+    private void decodeChunk(Delegate delegate,
+                             SecureChannel channel,
+                             ByteBuf chunkBuffer,
+                             CompositeByteBuf composite,
+                             int signatureSize,
+                             int cipherTextBlockSize,
+                             boolean encrypted,
+                             boolean signed) throws UaException {
+
+        char chunkType = readChunkHeader(delegate, channel, chunkBuffer);
+
+        int bodyEnd = decryptAndVerify(
+            delegate, channel, chunkBuffer, signatureSize, cipherTextBlockSize, encrypted, signed);
+
+        appendChunk(chunkType, chunkBuffer, bodyEnd, composite);
+    }
 
-                    throw new UaException(StatusCodes.Bad_SecurityChecksFailed, message);
+    /**
+     * Decrypt and verify the chunks of a symmetric message concurrently on the {@link ParallelDecodingConfig} pool.
+     * <p>
+     * Security headers are read on the calling thread, in order, so that each chunk is decrypted with the keys of the
+     * token it names. Nothing is thrown: a failure is recorded in the {@link ChunkResult} of the chunk it occurred in
+     * and no chunk after a header failure is decrypted. A chunk the pool rejects is decrypted on the calling thread.
+     * Every task has completed by the time this returns.
+     */
+    private ChunkResult[] decryptAndVerifyParallel(SecureChannel channel,
+                                                   List<ByteBuf> chunkBuffers,
+                                                   int signatureSize,
+                                                   int cipherTextBlockSize,
+                                                   boolean encrypted,
+                                                   boolean signed) {
+
+        ChunkResult[] results = new ChunkResult[chunkBuffers.size()];
+        Delegate[] delegates = new Delegate[chunkBuffers.size()];
+
+        int chunkCount = 0;
+
+        for (; chunkCount < chunkBuffers.size(); chunkCount++) {
+            ChunkResult result = results[chunkCount] = new ChunkResult();
+
+            try {
+                result.chunkType = readChunkHeader(symmetricDelegate, channel, chunkBuffers.get(chunkCount));
+                delegates[chunkCount] = symmetricDelegate.withCurrentSecrets();
+            } catch (UaException e) {
+                result.failure = e;
+                break;
+            }
+        }
+
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[chunkCount];
+
+        try {
+            for (int i = 1; i < chunkCount; i++) {
+                final int index = i;
+
+                try {
+                    tasks[i] = parallelDecodingConfig.getPool().submit(() ->
+                        decryptAndVerifyChunk(delegates[index], channel, chunkBuffers.get(index), results[index],
+                            signatureSize, cipherTextBlockSize, encrypted, signed));
+                } catch (RejectedExecutionException e) {
+                    decryptAndVerifyChunk(delegates[i], channel, chunkBuffers.get(i), results[i],
+                        signatureSize, cipherTextBlockSize, encrypted, signed);
                 }
+            }
 
-                lastSequenceNumber = sequenceNumber;
+            if (chunkCount > 0) {
+                decryptAndVerifyChunk(delegates[0], channel, chunkBuffers.get(0), results[0],
+                    signatureSize, cipherTextBlockSize, encrypted, signed);
             }
+        } finally {
+            // The chunks are released once this returns, so every task must be done with its chunk first.
+            for (int i = 1; i < chunkCount; i++) {
+                ForkJoinTask<?> task = tasks[i];
 
-            ByteBuf bodyBuffer = chunkBuffer.readSlice(bodyEnd - chunkBuffer.readerIndex());
+                if (task != null) {
+                    task.quietlyJoin();
 
-            if (chunkType == 'A') {
-                ErrorMessage errorMessage = ErrorMessage.decode(bodyBuffer);
+                    if (task.isCompletedAbnormally()) {
+                        results[i].failure = new UaException(StatusCodes.Bad_InternalError, task.getException());
+                    }
+                }
+            }
+        }
+
+        return results;
+    }
+
+    private void decryptAndVerifyChunk(Delegate delegate,
+                                       SecureChannel channel,
+                                       ByteBuf chunkBuffer,
+                                       ChunkResult result,
+                                       int signatureSize,
+                                       int cipherTextBlockSize,
+                                       boolean encrypted,
+                                       boolean signed) {
+
+        try {
+            result.bodyEnd = decryptAndVerify(
+                delegate, channel, chunkBuffer, signatureSize, cipherTextBlockSize, encrypted, signed);
+        } catch (UaException e) {
+            result.failure = e;
+        } catch (RuntimeException e) {
+            result.failure = new UaException(StatusCodes.Bad_InternalError, e);
+        }
+    }
+
+    /**
+     * Read the secure message header and the security header of {@code chunkBuffer}.
+     *
+     * @return the chunk type.
+     */
+    private char readChunkHeader(Delegate delegate, SecureChannel channel, ByteBuf chunkBuffer) throws UaException {
+        final char chunkType = (char) chunkBuffer.getByte(3);
+
+        channel.getMetrics().recordChunkIn(chunkBuffer.readableBytes());
+
+        chunkBuffer.skipBytes(SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE);
+
+        delegate.readSecurityHeader(channel, chunkBuffer);
+
+        return chunkType;
+    }
 
-                throw new MessageAbortedException(errorMessage.getError(), errorMessage.getReason());
+    /**
+     * Decrypt and verify {@code chunkBuffer}, leaving its reader index at the start of the sequence header.
+     *
+     * @return the index the message body ends at, before any padding and signature.
+     */
+    private int decryptAndVerify(Delegate delegate,
+                                 SecureChannel channel,
+                                 ByteBuf chunkBuffer,
+                                 int signatureSize,
+                                 int cipherTextBlockSize,
+                                 boolean encrypted,
+                                 boolean signed) throws UaException {
+
+        long cryptoStart = encrypted || signed ? System.nanoTime() : 0L;
+
+        if (encrypted) {
+            decryptChunk(delegate, channel, chunkBuffer);
+        }
+
+        int encryptedStart = chunkBuffer.readerIndex();
+        chunkBuffer.readerIndex(0);
+
+        if (signed) {
+            delegate.verifyChunk(channel, chunkBuffer);
+        }
+
+        if (encrypted || signed) {
+            channel.getMetrics().recordCrypto(System.nanoTime() - cryptoStart);
+        }
+
+        final int paddingSize = encrypted ? getPaddingSize(cipherTextBlockSize, signatureSize, chunkBuffer) : 0;
+        final int bodyEnd = chunkBuffer.readableBytes() - signatureSize - paddingSize;
+
+        chunkBuffer.readerIndex(encryptedStart);
+
+        return bodyEnd;
+    }
+
+    /**
+     * Validate the sequence header of a decrypted and verified chunk and add its body to {@code composite}.
+     */
+    private void appendChunk(char chunkType,
+                             ByteBuf chunkBuffer,
+                             int bodyEnd,
+                             CompositeByteBuf composite) throws UaException {
+
+        SequenceHeader sequenceHeader = SequenceHeader.decode(chunkBuffer);
+        long sequenceNumber = sequenceHeader.getSequenceNumber();
+        lastRequestId = sequenceHeader.getRequestId();
+
+        if (lastSequenceNumber == -1) {
+            lastSequenceNumber = sequenceNumber;
+        } else {
+            if (lastSequenceNumber + 1 != sequenceNumber) {
+                String message = String.format("expected sequence number %s but received %s",
+                    lastSequenceNumber + 1, sequenceNumber);
+
+                logger.error(message);
+                logger.error(ByteBufUtil.hexDump(chunkBuffer, 0, chunkBuffer.writerIndex()));
+
+                throw new UaException(StatusCodes.Bad_SecurityChecksFailed, message);
             }
 
-            composite.addComponent(bodyBuffer);
-            composite.writerIndex(composite.writerIndex() + bodyBuffer.readableBytes());
+            lastSequenceNumber = sequenceNumber;
         }
 
-        return composite.order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuf bodyBuffer = chunkBuffer.readSlice(bodyEnd - chunkBuffer.readerIndex());
+
+        if (chunkType == 'A') {
+            ErrorMessage errorMessage = ErrorMessage.decode(bodyBuffer);
+
+            throw new MessageAbortedException(errorMessage.getError(), errorMessage.getReason());
+        }
+
+        composite.addComponent(bodyBuffer);
+        composite.writerIndex(composite.writerIndex() + bodyBuffer.readableBytes());
     }
 
     /**
@@ -140,25 +335,31 @@ public class ChunkDecoder {
         return lastRequestId;
     }
 
+    /**
+     * Decrypt the readable bytes of {@code chunkBuffer} in place, leaving the plaintext between the reader index and
+     * the new writer index.
+     * <p>
+     * {@link Cipher#doFinal(ByteBuffer, ByteBuffer)} is copy-safe, and a plaintext block is never larger than its
+     * ciphertext block, so decrypting block by block from the front never overwrites ciphertext not yet decrypted.
+     */
     private void decryptChunk(Delegate delegate, SecureChannel channel, ByteBuf chunkBuffer) throws UaException {
         int cipherTextBlockSize = delegate.getCipherTextBlockSize(channel);
         int blockCount = chunkBuffer.readableBytes() / cipherTextBlockSize;
 
-        int plainTextBufferSize = cipherTextBlockSize * blockCount;
-
-        ByteBuf plainTextBuffer = BufferUtil.buffer(plainTextBufferSize);
+        assert (chunkBuffer.readableBytes() % cipherTextBlockSize == 0);
 
-        ByteBuffer plainTextNioBuffer = plainTextBuffer
-            .writerIndex(plainTextBufferSize)
-            .nioBuffer();
+        if (chunkBuffer.nioBufferCount() != 1) {
+            // Writes to the ByteBuffer views of this chunk wouldn't be visible in the chunk; decrypt via a copy.
+            decryptChunkCopy(delegate, channel, chunkBuffer, cipherTextBlockSize, blockCount);
+            return;
+        }
 
         ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer();
+        ByteBuffer plainTextNioBuffer = chunkNioBuffer.duplicate();
 
         try {
             Cipher cipher = delegate.getCipher(channel);
 
-            assert (chunkBuffer.readableBytes() % cipherTextBlockSize == 0);
-
             if (delegate instanceof AsymmetricDelegate) {
                 for (int blockNumber = 0; blockNumber < blockCount; blockNumber++) {
                     chunkNioBuffer.limit(chunkNioBuffer.position() + cipherTextBlockSize);
@@ -168,17 +369,56 @@ public class ChunkDecoder {
             } else {
                 cipher.doFinal(chunkNioBuffer, plainTextNioBuffer);
             }
+
+            delegate.releaseCipher(channel, cipher);
         } catch (GeneralSecurityException e) {
             throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
         }
 
-        /* Write plainTextBuffer back into the chunk buffer we decrypted from. */
-        plainTextNioBuffer.flip(); // limit = pos, pos = 0
+        chunkBuffer.writerIndex(chunkBuffer.readerIndex() + plainTextNioBuffer.position());
+    }
+
+    private void decryptChunkCopy(Delegate delegate,
+                                  SecureChannel channel,
+                                  ByteBuf chunkBuffer,
+                                  int cipherTextBlockSize,
+                                  int blockCount) throws UaException {
+
+        int plainTextBufferSize = cipherTextBlockSize * blockCount;
+
+        ByteBuf plainTextBuffer = BufferUtil.buffer(plainTextBufferSize);
+
+        try {
+            ByteBuffer plainTextNioBuffer = plainTextBuffer
+                .writerIndex(plainTextBufferSize)
+                .nioBuffer();
+
+            ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer();
+
+            Cipher cipher = delegate.getCipher(channel);
+
+            if (delegate instanceof AsymmetricDelegate) {
+                for (int blockNumber = 0; blockNumber < blockCount; blockNumber++) {
+                    chunkNioBuffer.limit(chunkNioBuffer.position() + cipherTextBlockSize);
+
+                    cipher.doFinal(chunkNioBuffer, plainTextNioBuffer);
+                }
+            } else {
+                cipher.doFinal(chunkNioBuffer, plainTextNioBuffer);
+            }
 
-        chunkBuffer.writerIndex(chunkBuffer.readerIndex());
-        chunkBuffer.writeBytes(plainTextNioBuffer);
+            delegate.releaseCipher(channel, cipher);
 
-        plainTextBuffer.release();
+            /* Write plainTextBuffer back into the chunk buffer we decrypted from. */
+            plainTextNioBuffer.flip(); // limit = pos, pos = 0
+
+            chunkBuffer.writerIndex(chunkBuffer.readerIndex());
+            chunkBuffer.writeBytes(plainTextNioBuffer);
+        } catch (GeneralSecurityException e) {
+            throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+        } finally {
+            plainTextBuffer.release();
+        }
     }
 
     private int getPaddingSize(int cipherTextBlockSize, int signatureSize, ByteBuf buffer) {
@@ -194,6 +434,8 @@ public class ChunkDecoder {
 
         Cipher getCipher(SecureChannel channel) throws UaException;
 
+        void releaseCipher(SecureChannel channel, Cipher cipher);
+
         int getCipherTextBlockSize(SecureChannel channel);
 
         int getSignatureSize(SecureChannel channel);
@@ -226,6 +468,11 @@ public class ChunkDecoder {
             }
         }
 
+        @Override
+        public void releaseCipher(SecureChannel channel, Cipher cipher) {
+            // Asymmetric decryption only happens while opening or renewing; nothing is cached.
+        }
+
         @Override
         public int getCipherTextBlockSize(SecureChannel channel) {
             return channel.getLocalAsymmetricCipherTextBlockSize();
@@ -276,12 +523,33 @@ public class ChunkDecoder {
 
     }
 
+    private static class ChunkResult {
+        char chunkType;
+        int bodyEnd;
+        UaException failure;
+    }
+
     private static class SymmetricDelegate implements Delegate {
 
         private final Logger logger = LoggerFactory.getLogger(getClass());
 
         private volatile ChannelSecurity.SecuritySecrets securitySecrets;
 
+        SymmetricDelegate() {
+        }
+
+        private SymmetricDelegate(ChannelSecurity.SecuritySecrets securitySecrets) {
+            this.securitySecrets = securitySecrets;
+        }
+
+        /**
+         * @return a {@link SymmetricDelegate} fixed to the secrets selected by the last security header read, so a
+         * chunk can be decrypted and verified while this delegate goes on to read the next chunk's header.
+         */
+        SymmetricDelegate withCurrentSecrets() {
+            return new SymmetricDelegate(securitySecrets);
+        }
+
         @Override
         public void readSecurityHeader(SecureChannel channel, ByteBuf chunkBuffer) throws UaException {
             long receivedTokenId = SymmetricSecurityHeader.decode(chunkBuffer).getTokenId();
@@ -329,18 +597,17 @@ public class ChunkDecoder {
 
                 ChannelSecurity.SecretKeys decryptionKeys = channel.getDecryptionKeys(securitySecrets);
 
-                SecretKeySpec keySpec = new SecretKeySpec(decryptionKeys.getEncryptionKey(), "AES");
-                IvParameterSpec ivSpec = new IvParameterSpec(decryptionKeys.getInitializationVector());
-
-                Cipher cipher = Cipher.getInstance(transformation);
-                cipher.init(Cipher.DECRYPT_MODE, keySpec, ivSpec);
-
-                return cipher;
+                return decryptionKeys.acquireCipher(Cipher.DECRYPT_MODE, transformation);
             } catch (GeneralSecurityException e) {
                 throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
             }
         }
 
+        @Override
+        public void releaseCipher(SecureChannel channel, Cipher cipher) {
+            channel.getDecryptionKeys(securitySecrets).releaseCipher(Cipher.DECRYPT_MODE, cipher);
+        }
+
         @Override
         public int getCipherTextBlockSize(SecureChannel channel) {
             return channel.getSymmetricCipherTextBlockSize();
@@ -354,13 +621,28 @@ public class ChunkDecoder {
         @Override
         public void verifyChunk(SecureChannel channel, ByteBuf chunkBuffer) throws UaException {
             SecurityAlgorithm securityAlgorithm = channel.getSecurityPolicy().getSymmetricSignatureAlgorithm();
-            byte[] secretKey = channel.getDecryptionKeys(securitySecrets).getSignatureKey();
+            ChannelSecurity.SecretKeys decryptionKeys = channel.getDecryptionKeys(securitySecrets);
             int signatureSize = channel.getSymmetricSignatureSize();
 
             ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer(0, chunkBuffer.writerIndex());
             chunkNioBuffer.position(0).limit(chunkBuffer.writerIndex() - signatureSize);
 
-            byte[] signature = SignatureUtil.hmac(securityAlgorithm, secretKey, chunkNioBuffer);
+            Mac mac;
+
+            try {
+                mac = decryptionKeys.acquireMac(securityAlgorithm.getTransformation());
+            } catch (GeneralSecurityException e) {
+                throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+            }
+
+            byte[] signature;
+
+            try {
+                signature = SignatureUtil.hmac(mac, chunkNioBuffer);
+            } finally {
+                // releaseMac resets the Mac, so it can be re-used even if verification failed.
+                decryptionKeys.releaseMac(mac);
+            }
 
             byte[] signatureBytes = new byte[signatureSize];
             chunkNioBuffer.limit(chunkNioBuffer.position() + signatureSize);
@@ -19,8 +19,7 @@ import java.security.cert.Certificate;
 import java.util.ArrayList;
 import java.util.List;
 import javax.crypto.Cipher;
-import javax.crypto.spec.IvParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
+import javax.crypto.Mac;
 
 import io.netty.buffer.ByteBuf;
 import org.eclipse.milo.opcua.stack.core.StatusCodes;
@@ -30,7 +29,6 @@ import org.eclipse.milo.opcua.stack.core.channel.headers.SecureMessageHeader;
 import org.eclipse.milo.opcua.stack.core.channel.headers.SequenceHeader;
 import org.eclipse.milo.opcua.stack.core.channel.headers.SymmetricSecurityHeader;
 import org.eclipse.milo.opcua.stack.core.channel.messages.MessageType;
-import org.eclipse.milo.opcua.stack.core.security.SecurityAlgorithm;
 import org.eclipse.milo.opcua.stack.core.util.BufferUtil;
 import org.eclipse.milo.opcua.stack.core.util.LongSequence;
 import org.eclipse.milo.opcua.stack.core.util.SignatureUtil;
@@ -51,6 +49,26 @@ public class ChunkEncoder {
         this.parameters = parameters;
     }
 
+    /**
+     * Allocate a buffer to serialize a message into before it's passed to
+     * {@link #encodeSymmetric(SecureChannel, MessageType, ByteBuf, long)}.
+     * <p>
+     * Space for the secure message, symmetric security, and sequence headers is reserved in front of the message body.
+     * Messages that fit into a single chunk are then chunked, signed, and encrypted in place in this buffer without
+     * copying the body. The contents of the buffer are undefined after encoding.
+     *
+     * @return a buffer with space reserved for the chunk headers.
+     */
+    public static ByteBuf allocateSymmetricMessageBuffer() {
+        int reservedSize = SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE +
+            SymmetricSecurityHeader.SYMMETRIC_SECURITY_HEADER_SIZE +
+            SequenceHeader.SEQUENCE_HEADER_SIZE;
+
+        ByteBuf buffer = BufferUtil.buffer();
+
+        return buffer.writerIndex(reservedSize).readerIndex(reservedSize);
+    }
+
     public List<ByteBuf> encodeAsymmetric(
         SecureChannel channel,
         MessageType messageType,
@@ -78,7 +96,11 @@ public class ChunkEncoder {
 
         List<ByteBuf> chunks = new ArrayList<>();
 
+        ChannelMetrics metrics = channel.getMetrics();
+        int messageSize = messageBuffer.readableBytes();
+
         boolean encrypted = delegate.isEncryptionEnabled(channel);
+        boolean signed = delegate.isSigningEnabled(channel);
 
         int securityHeaderSize = delegate.getSecurityHeaderSize(channel);
         int cipherTextBlockSize = delegate.getCipherTextBlockSize(channel);
@@ -92,108 +114,182 @@ public class ChunkEncoder {
         int maxBlockCount = (maxChunkSize - headerSizes - signatureSize - paddingOverhead) / cipherTextBlockSize;
         int maxBodySize = (plainTextBlockSize * maxBlockCount - SequenceHeader.SEQUENCE_HEADER_SIZE);
 
-        while (messageBuffer.readableBytes() > 0) {
-            int bodySize = Math.min(messageBuffer.readableBytes(), maxBodySize);
+        int reservedSize = headerSizes + SequenceHeader.SEQUENCE_HEADER_SIZE;
 
-            int paddingSize = encrypted ?
-                plainTextBlockSize -
-                    (SequenceHeader.SEQUENCE_HEADER_SIZE + bodySize + signatureSize + paddingOverhead) %
-                        plainTextBlockSize : 0;
+        // A chunk allocated for the message but not yet added to the list of encoded chunks.
+        ByteBuf pendingChunk = null;
 
-            int plainTextContentSize = SequenceHeader.SEQUENCE_HEADER_SIZE +
-                bodySize + signatureSize + paddingSize + paddingOverhead;
+        try {
+            while (messageBuffer.readableBytes() > 0) {
+                int bodySize = Math.min(messageBuffer.readableBytes(), maxBodySize);
 
-            assert (plainTextContentSize % plainTextBlockSize == 0);
+                int paddingSize = encrypted ?
+                    plainTextBlockSize -
+                        (SequenceHeader.SEQUENCE_HEADER_SIZE + bodySize + signatureSize + paddingOverhead) %
+                            plainTextBlockSize : 0;
 
-            int chunkSize = SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE + securityHeaderSize +
-                (plainTextContentSize / plainTextBlockSize) * cipherTextBlockSize;
+                int plainTextContentSize = SequenceHeader.SEQUENCE_HEADER_SIZE +
+                    bodySize + signatureSize + paddingSize + paddingOverhead;
 
-            ByteBuf chunkBuffer = BufferUtil.buffer(chunkSize);
+                assert (plainTextContentSize % plainTextBlockSize == 0);
 
-            /* Message Header */
-            SecureMessageHeader messageHeader = new SecureMessageHeader(
-                messageType,
-                messageBuffer.readableBytes() > bodySize ? 'C' : 'F',
-                chunkSize,
-                channel.getChannelId()
-            );
+                int chunkSize = SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE + securityHeaderSize +
+                    (plainTextContentSize / plainTextBlockSize) * cipherTextBlockSize;
 
-            SecureMessageHeader.encode(messageHeader, chunkBuffer);
+                /*
+                 * If the whole message fits into a single chunk, the headers fit into the space reserved in front of
+                 * the body, and encryption doesn't change the size of the content, the chunk is built in place in the
+                 * message buffer rather than copying the body into a new buffer.
+                 */
+                boolean inPlace = chunks.isEmpty() &&
+                    bodySize == messageBuffer.readableBytes() &&
+                    messageBuffer.readerIndex() >= reservedSize &&
+                    cipherTextBlockSize == plainTextBlockSize;
 
-            /* Security Header */
-            delegate.encodeSecurityHeader(channel, chunkBuffer);
+                ByteBuf chunkBuffer;
 
-            /* Sequence Header */
-            SequenceHeader sequenceHeader = new SequenceHeader(
-                sequenceNumber.getAndIncrement(),
-                requestId
-            );
+                if (inPlace) {
+                    int chunkStart = messageBuffer.readerIndex() - reservedSize;
 
-            SequenceHeader.encode(sequenceHeader, chunkBuffer);
+                    messageBuffer.ensureWritable(chunkSize - reservedSize - bodySize);
+                    messageBuffer.skipBytes(bodySize);
 
-            /* Message Body */
-            chunkBuffer.writeBytes(messageBuffer, bodySize);
+                    chunkBuffer = messageBuffer.slice(chunkStart, chunkSize).writerIndex(0);
+                } else {
+                    chunkBuffer = pendingChunk = BufferUtil.buffer(chunkSize);
+                }
 
-            /* Padding and Signature */
-            if (encrypted) {
-                writePadding(cipherTextBlockSize, paddingSize, chunkBuffer);
-            }
+                /* Message Header */
+                SecureMessageHeader messageHeader = new SecureMessageHeader(
+                    messageType,
+                    messageBuffer.readableBytes() > bodySize ? 'C' : 'F',
+                    chunkSize,
+                    channel.getChannelId()
+                );
 
-            if (delegate.isSigningEnabled(channel)) {
-                ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer(0, chunkBuffer.writerIndex());
+                SecureMessageHeader.encode(messageHeader, chunkBuffer);
 
-                byte[] signature = delegate.signChunk(channel, chunkNioBuffer);
+                /* Security Header */
+                delegate.encodeSecurityHeader(channel, chunkBuffer);
 
-                chunkBuffer.writeBytes(signature);
-            }
+                /* Sequence Header */
+                SequenceHeader sequenceHeader = new SequenceHeader(
+                    sequenceNumber.getAndIncrement(),
+                    requestId
+                );
 
-            /* Encryption */
-            if (encrypted) {
-                chunkBuffer.readerIndex(SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE + securityHeaderSize);
+                SequenceHeader.encode(sequenceHeader, chunkBuffer);
 
-                assert (chunkBuffer.readableBytes() % plainTextBlockSize == 0);
+                /* Message Body */
+                if (inPlace) {
+                    chunkBuffer.writerIndex(chunkBuffer.writerIndex() + bodySize);
+                } else {
+                    chunkBuffer.writeBytes(messageBuffer, bodySize);
+                }
 
-                try {
-                    int blockCount = chunkBuffer.readableBytes() / plainTextBlockSize;
+                /* Padding and Signature */
+                if (encrypted) {
+                    writePadding(cipherTextBlockSize, paddingSize, chunkBuffer);
+                }
 
-                    ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer(
-                        chunkBuffer.readerIndex(), blockCount * cipherTextBlockSize);
+                long cryptoStart = encrypted || signed ? System.nanoTime() : 0L;
 
-                    ByteBuf copyBuffer = chunkBuffer.copy();
-                    ByteBuffer plainTextNioBuffer = copyBuffer.nioBuffer();
+                if (signed) {
+                    ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer(0, chunkBuffer.writerIndex());
 
-                    Cipher cipher = delegate.getAndInitializeCipher(channel);
+                    byte[] signature = delegate.signChunk(channel, chunkNioBuffer);
 
-                    if (delegate instanceof AsymmetricDelegate) {
-                        for (int blockNumber = 0; blockNumber < blockCount; blockNumber++) {
-                            int position = blockNumber * plainTextBlockSize;
-                            int limit = (blockNumber + 1) * plainTextBlockSize;
-                            plainTextNioBuffer.position(position).limit(limit);
+                    chunkBuffer.writeBytes(signature);
+                }
 
-                            int bytesWritten = cipher.doFinal(plainTextNioBuffer, chunkNioBuffer);
+                /* Encryption */
+                if (encrypted) {
+                    chunkBuffer.readerIndex(SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE + securityHeaderSize);
 
-                            assert (bytesWritten == cipherTextBlockSize);
-                        }
-                    } else {
-                        cipher.doFinal(plainTextNioBuffer, chunkNioBuffer);
-                    }
+                    assert (chunkBuffer.readableBytes() % plainTextBlockSize == 0);
 
-                    copyBuffer.release();
-                } catch (GeneralSecurityException e) {
-                    throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+                    encryptChunk(delegate, channel, chunkBuffer, plainTextBlockSize, cipherTextBlockSize);
+                }
+
+                if (encrypted || signed) {
+                    metrics.recordCrypto(System.nanoTime() - cryptoStart);
                 }
-            }
 
-            chunkBuffer.readerIndex(0).writerIndex(chunkSize);
+                chunkBuffer.readerIndex(0).writerIndex(chunkSize);
+                metrics.recordChunkOut(chunkSize);
 
-            chunks.add(chunkBuffer);
+                chunks.add(inPlace ? chunkBuffer.retain() : chunkBuffer);
+                pendingChunk = null;
+            }
+        } catch (Throwable t) {
+            // Release the chunks encoded so far and the one being encoded, whatever the failure.
+            if (pendingChunk != null) {
+                pendingChunk.release();
+            }
+            chunks.forEach(ByteBuf::release);
+            throw t;
         }
 
+        metrics.recordMessageSent(messageSize, chunks.size());
+
         lastRequestId = requestId;
 
         return chunks;
     }
 
+    /**
+     * Encrypt the readable bytes of {@code chunkBuffer} in place.
+     * <p>
+     * {@link Cipher#doFinal(ByteBuffer, ByteBuffer)} is copy-safe, so the plaintext and ciphertext may share the same
+     * region. When a ciphertext block is larger than a plaintext block (asymmetric encryption) the blocks are
+     * encrypted last-to-first so that no ciphertext is written over plaintext that has not been encrypted yet.
+     */
+    private void encryptChunk(Delegate delegate,
+                              SecureChannel channel,
+                              ByteBuf chunkBuffer,
+                              int plainTextBlockSize,
+                              int cipherTextBlockSize) throws UaException {
+
+        int blockCount = chunkBuffer.readableBytes() / plainTextBlockSize;
+
+        ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer(
+            chunkBuffer.readerIndex(), blockCount * cipherTextBlockSize);
+
+        ByteBuffer plainTextNioBuffer = chunkNioBuffer.duplicate();
+
+        Cipher cipher = delegate.getAndInitializeCipher(channel);
+        boolean completed = false;
+
+        try {
+            if (delegate instanceof AsymmetricDelegate) {
+                for (int blockNumber = blockCount - 1; blockNumber >= 0; blockNumber--) {
+                    plainTextNioBuffer.limit((blockNumber + 1) * plainTextBlockSize);
+                    plainTextNioBuffer.position(blockNumber * plainTextBlockSize);
+
+                    chunkNioBuffer.limit((blockNumber + 1) * cipherTextBlockSize);
+                    chunkNioBuffer.position(blockNumber * cipherTextBlockSize);
+
+                    int bytesWritten = cipher.doFinal(plainTextNioBuffer, chunkNioBuffer);
+
+                    assert (bytesWritten == cipherTextBlockSize);
+                }
+            } else {
+                plainTextNioBuffer.limit(blockCount * plainTextBlockSize);
+
+                cipher.doFinal(plainTextNioBuffer, chunkNioBuffer);
+            }
+
+            completed = true;
+        } catch (GeneralSecurityException e) {
+            throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+        } finally {
+            // A Cipher whose doFinal failed may not have been reset, so it's only returned for re-use on success.
+            if (completed) {
+                delegate.releaseCipher(channel, cipher);
+            }
+        }
+    }
+
     public long getLastRequestId() {
         return lastRequestId;
     }
@@ -224,6 +320,8 @@ public class ChunkEncoder {
 
         Cipher getAndInitializeCipher(SecureChannel channel) throws UaException;
 
+        void releaseCipher(SecureChannel channel, Cipher cipher);
+
         int getSecurityHeaderSize(SecureChannel channel) throws UaException;
 
         int getCipherTextBlockSize(SecureChannel channel);
@@ -266,6 +364,11 @@ public class ChunkEncoder {
             }
         }
 
+        @Override
+        public void releaseCipher(SecureChannel channel, Cipher cipher) {
+            // Asymmetric encryption only happens while opening or renewing; nothing is cached.
+        }
+
         @Override
         public void encodeSecurityHeader(SecureChannel channel, ByteBuf buffer) throws UaException {
             AsymmetricSecurityHeader header = new AsymmetricSecurityHeader(
@@ -331,14 +434,23 @@ public class ChunkEncoder {
 
         @Override
         public byte[] signChunk(SecureChannel channel, ByteBuffer chunkNioBuffer) throws UaException {
-            SecurityAlgorithm signatureAlgorithm = channel.getSecurityPolicy().getSymmetricSignatureAlgorithm();
-            byte[] signatureKey = channel.getEncryptionKeys(securitySecrets).getSignatureKey();
+            String transformation = channel.getSecurityPolicy().getSymmetricSignatureAlgorithm().getTransformation();
+            ChannelSecurity.SecretKeys secretKeys = channel.getEncryptionKeys(securitySecrets);
 
-            return SignatureUtil.hmac(
-                signatureAlgorithm,
-                signatureKey,
-                chunkNioBuffer
-            );
+            Mac mac;
+
+            try {
+                mac = secretKeys.acquireMac(transformation);
+            } catch (GeneralSecurityException e) {
+                throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+            }
+
+            try {
+                return SignatureUtil.hmac(mac, chunkNioBuffer);
+            } finally {
+                // releaseMac resets the Mac, so it can be re-used even if signing failed.
+                secretKeys.releaseMac(mac);
+            }
         }
 
         @Override
@@ -348,11 +460,7 @@ public class ChunkEncoder {
                     .getSymmetricEncryptionAlgorithm().getTransformation();
                 ChannelSecurity.SecretKeys secretKeys = channel.getEncryptionKeys(securitySecrets);
 
-                SecretKeySpec keySpec = new SecretKeySpec(secretKeys.getEncryptionKey(), "AES");
-                IvParameterSpec ivSpec = new IvParameterSpec(secretKeys.getInitializationVector());
-
-                Cipher cipher = Cipher.getInstance(transformation);
-                cipher.init(Cipher.ENCRYPT_MODE, keySpec, ivSpec);
+                Cipher cipher = secretKeys.acquireCipher(Cipher.ENCRYPT_MODE, transformation);
 
                 assert (cipher.getBlockSize() == channel.getSymmetricCipherTextBlockSize());
 
@@ -362,6 +470,11 @@ public class ChunkEncoder {
             }
         }
 
+        @Override
+        public void releaseCipher(SecureChannel channel, Cipher cipher) {
+            channel.getEncryptionKeys(securitySecrets).releaseCipher(Cipher.ENCRYPT_MODE, cipher);
+        }
+
         @Override
         public int getSecurityHeaderSize(SecureChannel channel) {
             return SymmetricSecurityHeader.SYMMETRIC_SECURITY_HEADER_SIZE;
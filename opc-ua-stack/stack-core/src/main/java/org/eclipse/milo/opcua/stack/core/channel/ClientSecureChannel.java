@@ -44,6 +44,8 @@ public class ClientSecureChannel extends DefaultAttributeMap implements SecureCh
     private final SecurityPolicy securityPolicy;
     private final MessageSecurityMode messageSecurityMode;
 
+    private final ChannelMetrics metrics = new ChannelMetrics();
+
     public ClientSecureChannel(SecurityPolicy securityPolicy, MessageSecurityMode messageSecurityMode) {
         this(null, null, null, null, securityPolicy, messageSecurityMode);
     }
@@ -147,6 +149,11 @@ public class ClientSecureChannel extends DefaultAttributeMap implements SecureCh
         return secretKeys.getServerKeys();
     }
 
+    @Override
+    public ChannelMetrics getMetrics() {
+        return metrics;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.channel;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * Configures the {@link FlushConsolidationHandler} installed on a channel.
+ * <p>
+ * When enabled, flushes requested while writing messages are deferred and combined into a single flush, so that
+ * messages completed close together go out in as few writes to the socket as possible.
+ */
+public class FlushConsolidationConfig {
+
+    /**
+     * A {@link FlushConsolidationConfig} with flush consolidation disabled; every flush goes to the socket.
+     */
+    public static final FlushConsolidationConfig DISABLED = new FlushConsolidationConfig(false, 1, 0, 0L);
+
+    /**
+     * The default maximum number of flushes to consolidate before flushing.
+     */
+    public static final int DEFAULT_MAX_MESSAGES = 64;
+
+    /**
+     * The default maximum number of bytes written before flushing.
+     */
+    public static final int DEFAULT_MAX_BYTES = 256 * 1024;
+
+    /**
+     * The default maximum delay, in microseconds. A delay of 0 means a deferred flush happens at the end of the
+     * current event loop iteration.
+     */
+    public static final long DEFAULT_MAX_DELAY_MICROS = 0L;
+
+    private final boolean enabled;
+    private final int maxMessages;
+    private final int maxBytes;
+    private final long maxDelayMicros;
+
+    /**
+     * Create an enabled {@link FlushConsolidationConfig} using the default parameters.
+     *
+     * @see #DEFAULT_MAX_MESSAGES
+     * @see #DEFAULT_MAX_BYTES
+     * @see #DEFAULT_MAX_DELAY_MICROS
+     */
+    public FlushConsolidationConfig() {
+        this(DEFAULT_MAX_MESSAGES, DEFAULT_MAX_BYTES, DEFAULT_MAX_DELAY_MICROS);
+    }
+
+    /**
+     * Create an enabled {@link FlushConsolidationConfig}.
+     *
+     * @param maxMessages    the maximum number of flushes to consolidate before flushing.
+     * @param maxBytes       the maximum number of bytes written before flushing.
+     * @param maxDelayMicros the maximum time a flush may be deferred, in microseconds. If 0, a deferred flush happens
+     *                       at the end of the current event loop iteration.
+     */
+    public FlushConsolidationConfig(int maxMessages, int maxBytes, long maxDelayMicros) {
+        this(true, maxMessages, maxBytes, maxDelayMicros);
+    }
+
+    private FlushConsolidationConfig(boolean enabled, int maxMessages, int maxBytes, long maxDelayMicros) {
+        Preconditions.checkArgument(maxMessages > 0, "maxMessages must be greater than 0");
+        Preconditions.checkArgument(maxBytes >= 0, "maxBytes must be greater than or equal to 0");
+        Preconditions.checkArgument(maxDelayMicros >= 0, "maxDelayMicros must be greater than or equal to 0");
+
+        this.enabled = enabled;
+        this.maxMessages = maxMessages;
+        this.maxBytes = maxBytes;
+        this.maxDelayMicros = maxDelayMicros;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxMessages() {
+        return maxMessages;
+    }
+
+    public int getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getMaxDelayMicros() {
+        return maxDelayMicros;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("enabled", enabled)
+            .add("maxMessages", maxMessages)
+            .add("maxBytes", maxBytes)
+            .add("maxDelayMicros", maxDelayMicros)
+            .toString();
+    }
+
+}
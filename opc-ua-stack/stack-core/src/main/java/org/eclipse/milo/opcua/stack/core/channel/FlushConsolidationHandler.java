@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.channel;
+
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * Defers and combines flushes so that messages written close together reach the socket in one write.
+ * <p>
+ * A requested flush is deferred until the end of the current event loop iteration, or until
+ * {@link FlushConsolidationConfig#getMaxDelayMicros()} has elapsed if a delay is configured. If
+ * {@link FlushConsolidationConfig#getMaxMessages()} flushes are requested or
+ * {@link FlushConsolidationConfig#getMaxBytes()} bytes are written first, the flush happens immediately. Pending
+ * writes are always flushed before the channel is closed or disconnected.
+ * <p>
+ * This handler should be the first handler in the pipeline.
+ */
+public class FlushConsolidationHandler extends ChannelOutboundHandlerAdapter {
+
+    private final Runnable flushTask = this::onFlushTask;
+
+    private int pendingFlushes = 0;
+    private long pendingBytes = 0L;
+    private boolean flushScheduled = false;
+
+    private volatile ChannelHandlerContext ctx;
+
+    private final int maxMessages;
+    private final int maxBytes;
+    private final long maxDelayNanos;
+
+    public FlushConsolidationHandler(FlushConsolidationConfig config) {
+        this.maxMessages = config.getMaxMessages();
+        this.maxBytes = config.getMaxBytes();
+        this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(config.getMaxDelayMicros());
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        flushIfPending(ctx);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof ByteBuf) {
+            pendingBytes += ((ByteBuf) msg).readableBytes();
+        }
+
+        ctx.write(msg, promise);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        pendingFlushes++;
+
+        if (pendingFlushes >= maxMessages || pendingBytes >= maxBytes || !ctx.channel().isWritable()) {
+            flushNow(ctx);
+        } else if (!flushScheduled) {
+            flushScheduled = true;
+
+            if (maxDelayNanos > 0) {
+                ctx.executor().schedule(flushTask, maxDelayNanos, TimeUnit.NANOSECONDS);
+            } else {
+                ctx.executor().execute(flushTask);
+            }
+        }
+    }
+
+    @Override
+    public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfPending(ctx);
+
+        ctx.disconnect(promise);
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfPending(ctx);
+
+        ctx.close(promise);
+    }
+
+    private void onFlushTask() {
+        flushScheduled = false;
+
+        ChannelHandlerContext ctx = this.ctx;
+
+        if (ctx != null && !ctx.isRemoved()) {
+            flushIfPending(ctx);
+        }
+    }
+
+    private void flushIfPending(ChannelHandlerContext ctx) {
+        if (pendingFlushes > 0) {
+            flushNow(ctx);
+        }
+    }
+
+    private void flushNow(ChannelHandlerContext ctx) {
+        pendingFlushes = 0;
+        pendingBytes = 0L;
+
+        ctx.flush();
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.channel;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A histogram of message sizes with power-of-two buckets.
+ * <p>
+ * Bucket {@code i} counts sizes greater than {@code 2^(i-1)} and at most {@code 2^i}, so a percentile is reported
+ * as the upper bound of the bucket it falls in: never smaller than the true value and at most twice it.
+ */
+public class MessageSizeHistogram {
+
+    private static final int BUCKET_COUNT = 32;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+
+    public MessageSizeHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param size the size of a message, in bytes.
+     */
+    public void record(long size) {
+        buckets[bucketIndex(size)].increment();
+    }
+
+    /**
+     * Add the counts of {@code histogram} to this histogram.
+     *
+     * @param histogram the {@link MessageSizeHistogram} to add.
+     */
+    public void add(MessageSizeHistogram histogram) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i].add(histogram.buckets[i].sum());
+        }
+    }
+
+    /**
+     * @return the number of sizes recorded.
+     */
+    public long getCount() {
+        long count = 0L;
+
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+
+        return count;
+    }
+
+    /**
+     * @param percentile a percentile, between 0.0 and 1.0.
+     * @return the upper bound of the bucket {@code percentile} of the recorded sizes fall in, or 0 if nothing has been
+     * recorded.
+     */
+    public long getPercentile(double percentile) {
+        Preconditions.checkArgument(percentile >= 0.0 && percentile <= 1.0, "percentile must be between 0.0 and 1.0");
+
+        long[] counts = getBucketCounts();
+
+        long total = 0L;
+        for (long count : counts) {
+            total += count;
+        }
+
+        if (total == 0L) {
+            return 0L;
+        }
+
+        long rank = Math.max(1L, (long) Math.ceil(percentile * total));
+        long cumulative = 0L;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += counts[i];
+
+            if (cumulative >= rank) {
+                return getBucketUpperBound(i);
+            }
+        }
+
+        return getBucketUpperBound(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * @return a snapshot of the count in each bucket.
+     * @see #getBucketUpperBound(int)
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[BUCKET_COUNT];
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets[i].sum();
+        }
+
+        return counts;
+    }
+
+    /**
+     * @param index a bucket index.
+     * @return the largest size counted in the bucket at {@code index}. The last bucket also counts all larger sizes.
+     */
+    public static long getBucketUpperBound(int index) {
+        return 1L << index;
+    }
+
+    static int bucketIndex(long size) {
+        if (size <= 1L) {
+            return 0;
+        } else {
+            return Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(size - 1));
+        }
+    }
+
+}
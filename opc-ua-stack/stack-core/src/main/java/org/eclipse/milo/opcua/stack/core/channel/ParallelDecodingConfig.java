@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.channel;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * Configures parallel decryption and signature verification of the chunks of a symmetric message.
+ * <p>
+ * When enabled, the {@link ChunkDecoder} decrypts and verifies the chunks of a message with at least
+ * {@link #getMinChunkCount()} chunks concurrently on {@link #getPool()}. Each chunk is encrypted and signed on its
+ * own, so the chunks are independent; sequence numbers are still validated in order once the crypto work is done.
+ */
+public class ParallelDecodingConfig {
+
+    /**
+     * A {@link ParallelDecodingConfig} with parallel decoding disabled; chunks are decoded one after another.
+     */
+    public static final ParallelDecodingConfig DISABLED = new ParallelDecodingConfig(false, 2, null);
+
+    /**
+     * The default minimum number of chunks a message must have to be decoded in parallel.
+     */
+    public static final int DEFAULT_MIN_CHUNK_COUNT = 4;
+
+    private final boolean enabled;
+    private final int minChunkCount;
+    private final ForkJoinPool pool;
+
+    /**
+     * Create an enabled {@link ParallelDecodingConfig} that decodes on the {@link ForkJoinPool#commonPool()}.
+     *
+     * @see #DEFAULT_MIN_CHUNK_COUNT
+     */
+    public ParallelDecodingConfig() {
+        this(DEFAULT_MIN_CHUNK_COUNT, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create an enabled {@link ParallelDecodingConfig}.
+     *
+     * @param minChunkCount the minimum number of chunks a message must have to be decoded in parallel. Smaller
+     *                      messages are decoded on the calling thread.
+     * @param pool          the {@link ForkJoinPool} chunks are decoded on.
+     */
+    public ParallelDecodingConfig(int minChunkCount, ForkJoinPool pool) {
+        this(true, minChunkCount, Preconditions.checkNotNull(pool, "pool"));
+    }
+
+    private ParallelDecodingConfig(boolean enabled, int minChunkCount, ForkJoinPool pool) {
+        Preconditions.checkArgument(minChunkCount > 1, "minChunkCount must be greater than 1");
+
+        this.enabled = enabled;
+        this.minChunkCount = minChunkCount;
+        this.pool = pool;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMinChunkCount() {
+        return minChunkCount;
+    }
+
+    /**
+     * @return the {@link ForkJoinPool} chunks are decoded on, or {@code null} if parallel decoding is disabled.
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("enabled", enabled)
+            .add("minChunkCount", minChunkCount)
+            .add("pool", pool)
+            .toString();
+    }
+
+}
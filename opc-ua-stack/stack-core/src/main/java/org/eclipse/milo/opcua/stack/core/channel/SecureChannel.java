@@ -55,6 +55,11 @@ public interface SecureChannel {
 
     ByteString getRemoteNonce();
 
+    /**
+     * @return the {@link ChannelMetrics} recorded for this channel.
+     */
+    ChannelMetrics getMetrics();
+
     default ByteString getLocalCertificateBytes() throws UaException {
         try {
             return getLocalCertificate() != null ?
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.channel;
+
+import java.util.Optional;
+import javax.annotation.Nullable;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import org.eclipse.milo.opcua.stack.core.serialization.binary.BinaryDecoder;
+import org.eclipse.milo.opcua.stack.core.serialization.binary.InterningCache;
+
+/**
+ * Configures how a {@link SerializationQueue} encodes and decodes the messages of a channel.
+ * <p>
+ * Create one with {@link #builder()}; anything not set uses the default described on the corresponding setter of
+ * {@link Builder}.
+ */
+public class SerializationConfig {
+
+    /**
+     * A {@link SerializationConfig} that uses the default settings.
+     */
+    public static final SerializationConfig DEFAULT = builder().build();
+
+    private final int maxArrayLength;
+    private final int maxStringLength;
+    private final InterningCache interningCache;
+    private final boolean primitiveArraysEnabled;
+    private final ParallelDecodingConfig parallelDecodingConfig;
+
+    private SerializationConfig(Builder builder) {
+        this.maxArrayLength = builder.maxArrayLength;
+        this.maxStringLength = builder.maxStringLength;
+        this.interningCache = builder.interningCache;
+        this.primitiveArraysEnabled = builder.primitiveArraysEnabled;
+        this.parallelDecodingConfig = builder.parallelDecodingConfig;
+    }
+
+    public int getMaxArrayLength() {
+        return maxArrayLength;
+    }
+
+    public int getMaxStringLength() {
+        return maxStringLength;
+    }
+
+    /**
+     * @return the {@link InterningCache} used when decoding, if configured.
+     */
+    public Optional<InterningCache> getInterningCache() {
+        return Optional.ofNullable(interningCache);
+    }
+
+    public boolean isPrimitiveArraysEnabled() {
+        return primitiveArraysEnabled;
+    }
+
+    public ParallelDecodingConfig getParallelDecodingConfig() {
+        return parallelDecodingConfig;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("maxArrayLength", maxArrayLength)
+            .add("maxStringLength", maxStringLength)
+            .add("interningCache", interningCache)
+            .add("primitiveArraysEnabled", primitiveArraysEnabled)
+            .add("parallelDecodingConfig", parallelDecodingConfig)
+            .toString();
+    }
+
+    /**
+     * @return a new {@link Builder} with every setting at its default.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private int maxArrayLength = ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH;
+        private int maxStringLength = ChannelConfig.DEFAULT_MAX_STRING_LENGTH;
+        private InterningCache interningCache = null;
+        private boolean primitiveArraysEnabled = false;
+        private ParallelDecodingConfig parallelDecodingConfig = ParallelDecodingConfig.DISABLED;
+
+        private Builder() {}
+
+        /**
+         * @param maxArrayLength the maximum length of an encoded or decoded array. Defaults to
+         *                       {@link ChannelConfig#DEFAULT_MAX_ARRAY_LENGTH}.
+         * @return this {@link Builder}.
+         */
+        public Builder setMaxArrayLength(int maxArrayLength) {
+            this.maxArrayLength = maxArrayLength;
+            return this;
+        }
+
+        /**
+         * @param maxStringLength the maximum length of an encoded or decoded string. Defaults to
+         *                        {@link ChannelConfig#DEFAULT_MAX_STRING_LENGTH}.
+         * @return this {@link Builder}.
+         */
+        public Builder setMaxStringLength(int maxStringLength) {
+            this.maxStringLength = maxStringLength;
+            return this;
+        }
+
+        /**
+         * @param interningCache the {@link InterningCache} used to de-duplicate decoded NodeIds, QualifiedNames,
+         *                       and namespace URIs, or {@code null} to disable interning, the default.
+         * @return this {@link Builder}.
+         */
+        public Builder setInterningCache(@Nullable InterningCache interningCache) {
+            this.interningCache = interningCache;
+            return this;
+        }
+
+        /**
+         * @param primitiveArraysEnabled {@code true} to decode Variant arrays of numeric and Boolean built-in types
+         *                               into primitive arrays; see
+         *                               {@link BinaryDecoder#setPrimitiveArraysEnabled(boolean)}. Defaults to
+         *                               {@code false}.
+         * @return this {@link Builder}.
+         */
+        public Builder setPrimitiveArraysEnabled(boolean primitiveArraysEnabled) {
+            this.primitiveArraysEnabled = primitiveArraysEnabled;
+            return this;
+        }
+
+        /**
+         * @param parallelDecodingConfig the {@link ParallelDecodingConfig} for symmetric messages. Defaults to
+         *                               {@link ParallelDecodingConfig#DISABLED}.
+         * @return this {@link Builder}.
+         */
+        public Builder setParallelDecodingConfig(ParallelDecodingConfig parallelDecodingConfig) {
+            this.parallelDecodingConfig = Preconditions.checkNotNull(parallelDecodingConfig, "parallelDecodingConfig");
+            return this;
+        }
+
+        public SerializationConfig build() {
+            return new SerializationConfig(this);
+        }
+
+    }
+
+}
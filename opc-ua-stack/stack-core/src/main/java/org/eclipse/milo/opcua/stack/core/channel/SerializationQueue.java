@@ -14,14 +14,21 @@
 package org.eclipse.milo.opcua.stack.core.channel;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
+import org.eclipse.milo.opcua.stack.core.application.ExecutorProvider;
 import org.eclipse.milo.opcua.stack.core.serialization.binary.BinaryDecoder;
 import org.eclipse.milo.opcua.stack.core.serialization.binary.BinaryEncoder;
 import org.eclipse.milo.opcua.stack.core.util.ExecutionQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class SerializationQueue {
 
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
     private final BinaryEncoder binaryEncoder;
     private final BinaryDecoder binaryDecoder;
 
@@ -31,23 +38,34 @@ public class SerializationQueue {
     private final ExecutionQueue encodingQueue;
     private final ExecutionQueue decodingQueue;
 
+    private final ExecutorService handshakeExecutor;
+    private volatile boolean paused = false;
+
     private final ChannelParameters parameters;
 
-    public SerializationQueue(ExecutorService executor,
+    /**
+     * @param executorProvider the {@link ExecutorProvider} supplying the encode, decode, and handshake executors.
+     * @param parameters       the {@link ChannelParameters} negotiated for the channel.
+     * @param config           the {@link SerializationConfig} for the channel.
+     */
+    public SerializationQueue(ExecutorProvider executorProvider,
                               ChannelParameters parameters,
-                              int maxArrayLength,
-                              int maxStringLength) {
+                              SerializationConfig config) {
 
         this.parameters = parameters;
 
-        binaryEncoder = new BinaryEncoder(maxArrayLength, maxStringLength);
-        binaryDecoder = new BinaryDecoder(maxArrayLength, maxStringLength);
+        binaryEncoder = new BinaryEncoder(config.getMaxArrayLength(), config.getMaxStringLength());
+        binaryDecoder = new BinaryDecoder(config.getMaxArrayLength(), config.getMaxStringLength())
+            .setInterningCache(config.getInterningCache().orElse(null))
+            .setPrimitiveArraysEnabled(config.isPrimitiveArraysEnabled());
 
         chunkEncoder = new ChunkEncoder(parameters);
-        chunkDecoder = new ChunkDecoder(parameters);
+        chunkDecoder = new ChunkDecoder(parameters, config.getParallelDecodingConfig());
+
+        encodingQueue = new ExecutionQueue(executorProvider.getExecutor(ExecutorProvider.Stage.Encode));
+        decodingQueue = new ExecutionQueue(executorProvider.getExecutor(ExecutorProvider.Stage.Decode));
 
-        encodingQueue = new ExecutionQueue(executor);
-        decodingQueue = new ExecutionQueue(executor);
+        handshakeExecutor = executorProvider.getExecutor(ExecutorProvider.Stage.Handshake);
     }
 
     public void encode(BiConsumer<BinaryEncoder, ChunkEncoder> consumer) {
@@ -58,7 +76,85 @@ public class SerializationQueue {
         decodingQueue.submit(() -> consumer.accept(binaryDecoder, chunkDecoder));
     }
 
+    /**
+     * Encode on the {@link ExecutorProvider.Stage#Handshake} executor rather than the encode executor.
+     * <p>
+     * The task stays in order with other encoding for this channel: encoding submitted after it waits until it
+     * completes, but no encode executor thread is held while it waits for or runs on the handshake executor.
+     */
+    public void encodeHandshake(BiConsumer<BinaryEncoder, ChunkEncoder> consumer) {
+        encodeHandshake(consumer, this::handshakeRejected);
+    }
+
+    /**
+     * Encode on the {@link ExecutorProvider.Stage#Handshake} executor as {@link #encodeHandshake(BiConsumer)} does.
+     *
+     * @param consumer   the encoding task.
+     * @param onRejected called instead of {@code consumer} if the handshake executor rejects the task, e.g. to release
+     *                   resources acquired for it.
+     */
+    public void encodeHandshake(BiConsumer<BinaryEncoder, ChunkEncoder> consumer,
+                                Consumer<RejectedExecutionException> onRejected) {
+
+        handOff(encodingQueue, () -> consumer.accept(binaryEncoder, chunkEncoder), onRejected);
+    }
+
+    /**
+     * Decode on the {@link ExecutorProvider.Stage#Handshake} executor rather than the decode executor.
+     *
+     * @see #encodeHandshake(BiConsumer)
+     */
+    public void decodeHandshake(BiConsumer<BinaryDecoder, ChunkDecoder> consumer) {
+        decodeHandshake(consumer, this::handshakeRejected);
+    }
+
+    /**
+     * Decode on the {@link ExecutorProvider.Stage#Handshake} executor as {@link #decodeHandshake(BiConsumer)} does.
+     *
+     * @param consumer   the decoding task.
+     * @param onRejected called instead of {@code consumer} if the handshake executor rejects the task, e.g. to release
+     *                   resources acquired for it.
+     */
+    public void decodeHandshake(BiConsumer<BinaryDecoder, ChunkDecoder> consumer,
+                                Consumer<RejectedExecutionException> onRejected) {
+
+        handOff(decodingQueue, () -> consumer.accept(binaryDecoder, chunkDecoder), onRejected);
+    }
+
+    private void handOff(ExecutionQueue queue, Runnable task, Consumer<RejectedExecutionException> onRejected) {
+        queue.submit(() -> {
+            // Hold back the rest of the queue until the task has run on the handshake executor.
+            queue.pause();
+
+            try {
+                handshakeExecutor.execute(() -> {
+                    try {
+                        task.run();
+                    } catch (Throwable t) {
+                        logger.warn("Uncaught Throwable during handshake.", t);
+                    } finally {
+                        resume(queue);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                resume(queue);
+                onRejected.accept(e);
+            }
+        });
+    }
+
+    private void handshakeRejected(RejectedExecutionException e) {
+        logger.warn("Handshake task rejected by executor.", e);
+    }
+
+    private void resume(ExecutionQueue queue) {
+        if (!paused) {
+            queue.resume();
+        }
+    }
+
     public void pause() {
+        paused = true;
         encodingQueue.pause();
         decodingQueue.pause();
     }
@@ -43,6 +43,8 @@ public class ServerSecureChannel extends DefaultAttributeMap implements SecureCh
     private volatile MessageSecurityMode messageSecurityMode;
     private volatile EndpointDescription endpointDescription;
 
+    private final ChannelMetrics metrics = new ChannelMetrics();
+
     public void setChannelId(long channelId) {
         this.channelId = channelId;
     }
@@ -148,6 +150,11 @@ public class ServerSecureChannel extends DefaultAttributeMap implements SecureCh
         return remoteNonce;
     }
 
+    @Override
+    public ChannelMetrics getMetrics() {
+        return metrics;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
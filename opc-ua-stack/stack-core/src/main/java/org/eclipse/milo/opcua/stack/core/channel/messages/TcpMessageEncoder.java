@@ -13,12 +13,11 @@
 
 package org.eclipse.milo.opcua.stack.core.channel.messages;
 
-import java.nio.ByteOrder;
 import java.util.function.Consumer;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.util.BufferUtil;
 
 public class TcpMessageEncoder {
 
@@ -26,7 +25,7 @@ public class TcpMessageEncoder {
         return encode(
             MessageType.Hello,
             (b) -> HelloMessage.encode(helloMessage, b),
-            Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN)
+            BufferUtil.buffer()
         );
     }
 
@@ -34,7 +33,7 @@ public class TcpMessageEncoder {
         return encode(
             MessageType.Acknowledge,
             b -> AcknowledgeMessage.encode(acknowledgeMessage, b),
-            Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN)
+            BufferUtil.buffer()
         );
     }
 
@@ -42,7 +41,7 @@ public class TcpMessageEncoder {
         return encode(
             MessageType.Error,
             (b) -> ErrorMessage.encode(errorMessage, b),
-            Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN)
+            BufferUtil.buffer()
         );
     }
 
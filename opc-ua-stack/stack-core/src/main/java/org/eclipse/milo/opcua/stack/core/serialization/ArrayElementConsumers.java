@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.serialization;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+
+import com.google.common.collect.Maps;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+
+/**
+ * Consumers that receive the elements of selected array fields of response messages as they are decoded, instead of
+ * the elements being collected into the decoded response.
+ * <p>
+ * Only array fields of the response message itself are streamed, e.g. the "Results" field of a
+ * {@code ReadResponse}; arrays inside nested structures are decoded as usual. A streamed field is left as an empty
+ * array in the decoded response.
+ * <p>
+ * Consumers are invoked on the decoding thread, in element order, before the response itself is completed. They
+ * should hand the element off rather than block.
+ */
+public class ArrayElementConsumers {
+
+    private final ConcurrentMap<NodeId, Map<String, Registration<?>>> registrations = Maps.newConcurrentMap();
+
+    /**
+     * Register a consumer for the elements of array field {@code field} of {@code responseType}.
+     *
+     * @param responseType the response type, e.g. {@code ReadResponse.class}.
+     * @param field        the name of the array field, e.g. "Results".
+     * @param elementType  the element type of the array field, e.g. {@code DataValue.class}.
+     * @param consumer     the {@link ArrayElementConsumer} to receive the elements.
+     * @return this {@link ArrayElementConsumers}.
+     */
+    public <T> ArrayElementConsumers register(Class<? extends UaResponseMessage> responseType,
+                                              String field,
+                                              Class<T> elementType,
+                                              ArrayElementConsumer<T> consumer) {
+
+        registrations.computeIfAbsent(getBinaryEncodingId(responseType), id -> Maps.newConcurrentMap())
+            .put(field, new Registration<>(elementType, consumer));
+
+        return this;
+    }
+
+    /**
+     * Remove the consumer for array field {@code field} of {@code responseType}, if any.
+     *
+     * @param responseType the response type the consumer was registered for.
+     * @param field        the name of the array field the consumer was registered for.
+     */
+    public void unregister(Class<? extends UaResponseMessage> responseType, String field) {
+        Map<String, Registration<?>> fields = registrations.get(getBinaryEncodingId(responseType));
+
+        if (fields != null) {
+            fields.remove(field);
+        }
+    }
+
+    /**
+     * @param encodingId the binary encoding id of a message being decoded.
+     * @return the registrations for the message's array fields, keyed by field name, or {@code null} if there are none.
+     */
+    @Nullable
+    public Map<String, Registration<?>> getRegistrations(NodeId encodingId) {
+        Map<String, Registration<?>> fields = registrations.get(encodingId);
+
+        return fields == null || fields.isEmpty() ? null : fields;
+    }
+
+    private static NodeId getBinaryEncodingId(Class<? extends UaResponseMessage> responseType) {
+        try {
+            // Every generated structure declares its encoding ids as public constants.
+            return (NodeId) responseType.getField("BinaryEncodingId").get(null);
+        } catch (NoSuchFieldException | IllegalAccessException | ClassCastException e) {
+            throw new IllegalArgumentException("no BinaryEncodingId for " + responseType, e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ArrayElementConsumer<T> {
+
+        /**
+         * @param requestHandle the requestHandle from the header of the response being decoded.
+         * @param index         the index of {@code element} in the array.
+         * @param element       the decoded element.
+         */
+        void accept(UInteger requestHandle, int index, T element);
+
+    }
+
+    public static final class Registration<T> {
+
+        private final Class<T> elementType;
+        private final ArrayElementConsumer<T> consumer;
+
+        private Registration(Class<T> elementType, ArrayElementConsumer<T> consumer) {
+            this.elementType = elementType;
+            this.consumer = consumer;
+        }
+
+        public Class<T> getElementType() {
+            return elementType;
+        }
+
+        public ArrayElementConsumer<T> getConsumer() {
+            return consumer;
+        }
+
+    }
+
+}
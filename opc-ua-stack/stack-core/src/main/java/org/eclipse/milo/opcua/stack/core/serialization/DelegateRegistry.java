@@ -43,6 +43,26 @@ public class DelegateRegistry {
     private static final Map<Class<?>, DecoderDelegate<?>> DECODERS_BY_CLASS = Maps.newConcurrentMap();
     private static final Map<NodeId, DecoderDelegate<?>> DECODERS_BY_ID = Maps.newConcurrentMap();
 
+    /**
+     * Per-class views of {@link #ENCODERS_BY_CLASS} and {@link #DECODERS_BY_CLASS}.
+     * <p>
+     * A {@link ClassValue} lookup is a field read on the {@link Class} itself once computed, instead of hashing into a
+     * concurrent map on every structure encoded or decoded. Entries are removed whenever a class is (re-)registered.
+     */
+    private static final ClassValue<EncoderDelegate<?>> ENCODER_CLASS_VALUE = new ClassValue<EncoderDelegate<?>>() {
+        @Override
+        protected EncoderDelegate<?> computeValue(Class<?> type) {
+            return ENCODERS_BY_CLASS.get(type);
+        }
+    };
+
+    private static final ClassValue<DecoderDelegate<?>> DECODER_CLASS_VALUE = new ClassValue<DecoderDelegate<?>>() {
+        @Override
+        protected DecoderDelegate<?> computeValue(Class<?> type) {
+            return DECODERS_BY_CLASS.get(type);
+        }
+    };
+
     private static final AtomicReference<Instance> INSTANCE_REF = new AtomicReference<>();
 
     private static synchronized Instance getOrInitialize() {
@@ -51,12 +71,7 @@ public class DelegateRegistry {
         if (instance == null) {
             DelegateRegistryInitializer.initialize();
 
-            instance = new Instance(
-                ENCODERS_BY_CLASS,
-                ENCODERS_BY_ID,
-                DECODERS_BY_CLASS,
-                DECODERS_BY_ID
-            );
+            instance = new Instance(ENCODERS_BY_ID, DECODERS_BY_ID);
 
             INSTANCE_REF.set(instance);
 
@@ -77,6 +92,7 @@ public class DelegateRegistry {
 
     public static synchronized <T> void registerEncoder(EncoderDelegate<T> delegate, Class<T> clazz, NodeId... ids) {
         ENCODERS_BY_CLASS.put(clazz, delegate);
+        ENCODER_CLASS_VALUE.remove(clazz);
 
         if (ids != null) {
             Arrays.stream(ids).forEach(id -> ENCODERS_BY_ID.put(id, delegate));
@@ -85,6 +101,7 @@ public class DelegateRegistry {
 
     public static synchronized <T> void registerDecoder(DecoderDelegate<T> delegate, Class<T> clazz, NodeId... ids) {
         DECODERS_BY_CLASS.put(clazz, delegate);
+        DECODER_CLASS_VALUE.remove(clazz);
 
         if (ids != null) {
             Arrays.stream(ids).forEach(id -> DECODERS_BY_ID.put(id, delegate));
@@ -93,37 +110,24 @@ public class DelegateRegistry {
 
     public static class Instance {
 
-        private final Map<Class<?>, EncoderDelegate<?>> encodersByClass;
         private final Map<NodeId, EncoderDelegate<?>> encodersById;
-
-        private final Map<Class<?>, DecoderDelegate<?>> decodersByClass;
         private final Map<NodeId, DecoderDelegate<?>> decodersById;
 
         private Instance(
-            Map<Class<?>, EncoderDelegate<?>> encodersByClass,
             Map<NodeId, EncoderDelegate<?>> encodersById,
-            Map<Class<?>, DecoderDelegate<?>> decodersByClass,
             Map<NodeId, DecoderDelegate<?>> decodersById) {
 
-            this.encodersByClass = encodersByClass;
             this.encodersById = encodersById;
-            this.decodersByClass = decodersByClass;
             this.decodersById = decodersById;
         }
 
-        @SuppressWarnings("unchecked")
         public <T> EncoderDelegate<T> getEncoder(Object t) throws UaSerializationException {
-            try {
-                return (EncoderDelegate<T>) encodersByClass.get(t.getClass());
-            } catch (NullPointerException e) {
-                throw new UaSerializationException(StatusCodes.Bad_EncodingError,
-                    "no encoder registered for class=" + t);
-            }
+            return getEncoder(t.getClass());
         }
 
         @SuppressWarnings("unchecked")
         public <T> EncoderDelegate<T> getEncoder(Class<?> clazz) throws UaSerializationException {
-            EncoderDelegate<?> encoderDelegate = encodersByClass.get(clazz);
+            EncoderDelegate<?> encoderDelegate = ENCODER_CLASS_VALUE.get(clazz);
 
             if (encoderDelegate != null) {
                 try {
@@ -137,6 +141,26 @@ public class DelegateRegistry {
             }
         }
 
+        /**
+         * Get the encoder registered for {@code clazz}, or, if there is none, the encoder registered for
+         * {@code encodingId}; e.g. for a subclass of a registered type, or a type registered only by encoding id.
+         *
+         * @param clazz      the class of the value to encode.
+         * @param encodingId the encoding id of the value to encode.
+         * @return the {@link EncoderDelegate} for the value.
+         * @throws UaSerializationException if no encoder is registered for either.
+         */
+        @SuppressWarnings("unchecked")
+        public <T> EncoderDelegate<T> getEncoder(Class<?> clazz, NodeId encodingId) throws UaSerializationException {
+            EncoderDelegate<?> encoderDelegate = ENCODER_CLASS_VALUE.get(clazz);
+
+            if (encoderDelegate != null) {
+                return (EncoderDelegate<T>) encoderDelegate;
+            } else {
+                return getEncoder(encodingId);
+            }
+        }
+
         @SuppressWarnings("unchecked")
         public <T> EncoderDelegate<T> getEncoder(NodeId encodingId) throws UaSerializationException {
             EncoderDelegate<?> encoderDelegate = encodersById.get(encodingId);
@@ -155,17 +179,12 @@ public class DelegateRegistry {
 
         @SuppressWarnings("unchecked")
         public <T> DecoderDelegate<T> getDecoder(T t) throws UaSerializationException {
-            try {
-                return (DecoderDelegate<T>) decodersByClass.get(t.getClass());
-            } catch (NullPointerException e) {
-                throw new UaSerializationException(StatusCodes.Bad_DecodingError,
-                    "no decoder registered for class=" + t);
-            }
+            return getDecoder((Class<T>) t.getClass());
         }
 
         @SuppressWarnings("unchecked")
         public <T> DecoderDelegate<T> getDecoder(Class<T> clazz) throws UaSerializationException {
-            DecoderDelegate<?> decoderDelegate = decodersByClass.get(clazz);
+            DecoderDelegate<?> decoderDelegate = DECODER_CLASS_VALUE.get(clazz);
 
             if (decoderDelegate != null) {
                 try {
@@ -16,15 +16,19 @@ package org.eclipse.milo.opcua.stack.core.serialization.binary;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Array;
 import java.nio.ByteOrder;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.UUID;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import javax.annotation.Nullable;
 
 import io.netty.buffer.ByteBuf;
 import org.eclipse.milo.opcua.stack.core.StatusCodes;
 import org.eclipse.milo.opcua.stack.core.UaSerializationException;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelConfig;
+import org.eclipse.milo.opcua.stack.core.serialization.ArrayElementConsumers;
+import org.eclipse.milo.opcua.stack.core.serialization.ArrayElementConsumers.ArrayElementConsumer;
 import org.eclipse.milo.opcua.stack.core.serialization.DecoderDelegate;
 import org.eclipse.milo.opcua.stack.core.serialization.DelegateRegistry;
 import org.eclipse.milo.opcua.stack.core.serialization.UaDecoder;
@@ -48,8 +52,10 @@ import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.ULong;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned;
+import org.eclipse.milo.opcua.stack.core.types.structured.ResponseHeader;
 import org.eclipse.milo.opcua.stack.core.util.ArrayUtil;
 import org.eclipse.milo.opcua.stack.core.util.TypeUtil;
+import org.slf4j.LoggerFactory;
 
 public class BinaryDecoder implements UaDecoder {
 
@@ -60,6 +66,17 @@ public class BinaryDecoder implements UaDecoder {
     private final int maxArrayLength;
     private final int maxStringLength;
 
+    private volatile InterningCache interningCache;
+    private volatile boolean primitiveArraysEnabled = false;
+    private volatile ArrayElementConsumers arrayElementConsumers;
+
+    /**
+     * Streaming state of the message currently being decoded; see {@link #decodeMessage(String)}.
+     */
+    private Map<String, ArrayElementConsumers.Registration<?>> streamingFields;
+    private UInteger streamingRequestHandle;
+    private int structureDepth;
+
     public BinaryDecoder() {
         this(ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH, ChannelConfig.DEFAULT_MAX_STRING_LENGTH);
     }
@@ -74,6 +91,42 @@ public class BinaryDecoder implements UaDecoder {
         return this;
     }
 
+    /**
+     * Set the {@link InterningCache} used to de-duplicate decoded NodeIds, QualifiedNames, and namespace URIs.
+     *
+     * @param interningCache the {@link InterningCache} to use, or {@code null} to disable interning.
+     * @return this {@link BinaryDecoder}.
+     */
+    public BinaryDecoder setInterningCache(@Nullable InterningCache interningCache) {
+        this.interningCache = interningCache;
+        return this;
+    }
+
+    /**
+     * Decode Variant arrays of Boolean, SByte, Int16, Int32, Int64, Float, and Double into primitive arrays, e.g.
+     * {@code double[]} instead of {@code Double[]}, without boxing each element.
+     * <p>
+     * Multi-dimensional arrays are decoded into multi-dimensional primitive arrays, e.g. {@code double[][]}.
+     *
+     * @param primitiveArraysEnabled {@code true} to decode into primitive arrays.
+     * @return this {@link BinaryDecoder}.
+     */
+    public BinaryDecoder setPrimitiveArraysEnabled(boolean primitiveArraysEnabled) {
+        this.primitiveArraysEnabled = primitiveArraysEnabled;
+        return this;
+    }
+
+    /**
+     * Set the {@link ArrayElementConsumers} that receive the elements of selected array fields of decoded messages.
+     *
+     * @param arrayElementConsumers the {@link ArrayElementConsumers} to use, or {@code null} to disable streaming.
+     * @return this {@link BinaryDecoder}.
+     */
+    public BinaryDecoder setArrayElementConsumers(@Nullable ArrayElementConsumers arrayElementConsumers) {
+        this.arrayElementConsumers = arrayElementConsumers;
+        return this;
+    }
+
     @Override
     public Boolean decodeBoolean(String field) {
         return buffer.readBoolean();
@@ -141,9 +194,9 @@ public class BinaryDecoder implements UaDecoder {
                     String.format("max string length exceeded (length=%s, max=%s)", length, maxStringLength));
             }
 
-            String s = buffer.toString(buffer.readerIndex(), length, Charset.forName("UTF-8"));
+            int index = buffer.readerIndex();
             buffer.skipBytes(length);
-            return s;
+            return readUtf8(buffer, index, length);
         }
     }
 
@@ -198,19 +251,22 @@ public class BinaryDecoder implements UaDecoder {
     public NodeId decodeNodeId(String field) throws UaSerializationException {
         int format = buffer.readByte() & 0x0F;
 
+        InterningCache cache = interningCache;
 
         if (format == 0x00) {
             /* Two-byte format */
-            return new NodeId(Unsigned.ushort(0), Unsigned.uint(buffer.readUnsignedByte()));
+            return numericNodeId(cache, 0, buffer.readUnsignedByte());
         } else if (format == 0x01) {
             /* Four-byte format */
-            return new NodeId(Unsigned.ushort(buffer.readUnsignedByte()), Unsigned.uint(buffer.readUnsignedShort()));
+            return numericNodeId(cache, buffer.readUnsignedByte(), buffer.readUnsignedShort());
         } else if (format == 0x02) {
             /* Numeric format */
-            return new NodeId(Unsigned.ushort(buffer.readUnsignedShort()), Unsigned.uint(buffer.readUnsignedInt()));
+            return numericNodeId(cache, buffer.readUnsignedShort(), buffer.readUnsignedInt());
         } else if (format == 0x03) {
             /* String format */
-            return new NodeId(Unsigned.ushort(buffer.readUnsignedShort()), decodeString(null));
+            NodeId nodeId = new NodeId(Unsigned.ushort(buffer.readUnsignedShort()), decodeString(null));
+
+            return cache != null && nodeId.getIdentifier() != null ? cache.intern(nodeId) : nodeId;
         } else if (format == 0x04) {
             /* Guid format */
             return new NodeId(Unsigned.ushort(buffer.readUnsignedShort()), decodeGuid(null));
@@ -222,6 +278,14 @@ public class BinaryDecoder implements UaDecoder {
         }
     }
 
+    private static NodeId numericNodeId(@Nullable InterningCache cache, int namespaceIndex, long identifier) {
+        if (cache != null) {
+            return cache.getNumericNodeId(namespaceIndex, identifier);
+        } else {
+            return new NodeId(Unsigned.ushort(namespaceIndex), Unsigned.uint(identifier));
+        }
+    }
+
     @Override
     public ExpandedNodeId decodeExpandedNodeId(String field) throws UaSerializationException {
         int flags = buffer.getByte(buffer.readerIndex());
@@ -233,6 +297,12 @@ public class BinaryDecoder implements UaDecoder {
 
         if ((flags & 0x80) == 0x80) {
             namespaceUri = decodeString(null);
+
+            InterningCache cache = interningCache;
+
+            if (cache != null && namespaceUri != null) {
+                namespaceUri = cache.internNamespaceUri(namespaceUri);
+            }
         }
 
         if ((flags & 0x40) == 0x40) {
@@ -252,7 +322,11 @@ public class BinaryDecoder implements UaDecoder {
         int namespaceIndex = decodeUInt16(null).intValue();
         String name = decodeString(null);
 
-        return new QualifiedName(Unsigned.ushort(namespaceIndex), name);
+        QualifiedName qualifiedName = new QualifiedName(Unsigned.ushort(namespaceIndex), name);
+
+        InterningCache cache = interningCache;
+
+        return cache != null ? cache.intern(qualifiedName) : qualifiedName;
     }
 
     @Override
@@ -330,12 +404,18 @@ public class BinaryDecoder implements UaDecoder {
                             String.format("max array length exceeded (length=%s, max=%s)", length, maxArrayLength));
                     }
 
-                    Object flatArray = Array.newInstance(backingClass, length);
+                    Object flatArray;
 
-                    for (int i = 0; i < length; i++) {
-                        Object element = decodeBuiltinType(typeId);
+                    if (primitiveArraysEnabled && isPrimitiveType(typeId)) {
+                        flatArray = readPrimitiveArray(typeId, length);
+                    } else {
+                        flatArray = Array.newInstance(backingClass, length);
 
-                        Array.set(flatArray, i, element);
+                        for (int i = 0; i < length; i++) {
+                            Object element = decodeBuiltinType(typeId);
+
+                            Array.set(flatArray, i, element);
+                        }
                     }
 
                     int[] dimensions = dimensionsEncoded ? decodeDimensions() : new int[]{length};
@@ -385,7 +465,27 @@ public class BinaryDecoder implements UaDecoder {
 
         DecoderDelegate<?> delegate = DELEGATE_REGISTRY.getDecoder(encodingId);
 
-        return (T) delegate.decode(this);
+        ArrayElementConsumers consumers = arrayElementConsumers;
+
+        if (consumers == null) {
+            return (T) delegate.decode(this);
+        }
+
+        Map<String, ArrayElementConsumers.Registration<?>> previousFields = streamingFields;
+        UInteger previousRequestHandle = streamingRequestHandle;
+        int previousDepth = structureDepth;
+
+        streamingFields = consumers.getRegistrations(encodingId);
+        streamingRequestHandle = null;
+        structureDepth = 0;
+
+        try {
+            return (T) delegate.decode(this);
+        } finally {
+            streamingFields = previousFields;
+            streamingRequestHandle = previousRequestHandle;
+            structureDepth = previousDepth;
+        }
     }
 
     @Override
@@ -403,7 +503,24 @@ public class BinaryDecoder implements UaDecoder {
 
         DecoderDelegate<T> delegate = DELEGATE_REGISTRY.getDecoder(clazz);
 
-        return delegate.decode(this);
+        if (streamingFields == null) {
+            return delegate.decode(this);
+        }
+
+        T value;
+
+        structureDepth++;
+        try {
+            value = delegate.decode(this);
+        } finally {
+            structureDepth--;
+        }
+
+        if (structureDepth == 0 && value instanceof ResponseHeader) {
+            streamingRequestHandle = ((ResponseHeader) value).getRequestHandle();
+        }
+
+        return value;
     }
 
     @Override
@@ -422,6 +539,16 @@ public class BinaryDecoder implements UaDecoder {
                     String.format("max array length exceeded (length=%s, max=%s)", length, maxArrayLength));
             }
 
+            ArrayElementConsumer<T> consumer = getStreamingConsumer(field, clazz);
+
+            if (consumer != null) {
+                for (int i = 0; i < length; i++) {
+                    acceptStreamed(consumer, i, decoder.apply(null));
+                }
+
+                return (T[]) Array.newInstance(clazz, 0);
+            }
+
             Object array = Array.newInstance(clazz, length);
 
             for (int i = 0; i < length; i++) {
@@ -448,6 +575,16 @@ public class BinaryDecoder implements UaDecoder {
                     String.format("max array length exceeded (length=%s, max=%s)", length, maxArrayLength));
             }
 
+            ArrayElementConsumer<T> consumer = getStreamingConsumer(field, clazz);
+
+            if (consumer != null) {
+                for (int i = 0; i < length; i++) {
+                    acceptStreamed(consumer, i, decoder.apply(null, clazz));
+                }
+
+                return (T[]) Array.newInstance(clazz, 0);
+            }
+
             T[] array = (T[]) Array.newInstance(clazz, length);
             for (int i = 0; i < length; i++) {
                 array[i] = decoder.apply(null, clazz);
@@ -456,6 +593,37 @@ public class BinaryDecoder implements UaDecoder {
         }
     }
 
+    /**
+     * @return the consumer registered for array field {@code field} of the message being decoded, or {@code null} if
+     * the field isn't streamed, isn't a field of the message itself, or was registered with a different element type.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private <T> ArrayElementConsumer<T> getStreamingConsumer(String field, Class<T> clazz) {
+        Map<String, ArrayElementConsumers.Registration<?>> fields = streamingFields;
+
+        if (fields == null || field == null || structureDepth != 0) {
+            return null;
+        }
+
+        ArrayElementConsumers.Registration<?> registration = fields.get(field);
+
+        if (registration != null && registration.getElementType() == clazz) {
+            return (ArrayElementConsumer<T>) registration.getConsumer();
+        } else {
+            return null;
+        }
+    }
+
+    private <T> void acceptStreamed(ArrayElementConsumer<T> consumer, int index, T element) {
+        try {
+            consumer.accept(streamingRequestHandle, index, element);
+        } catch (RuntimeException e) {
+            LoggerFactory.getLogger(getClass())
+                .warn("Error consuming streamed array element: {}", e.getMessage(), e);
+        }
+    }
+
     private int[] decodeDimensions() {
         int length = decodeInt32(null);
 
@@ -527,4 +695,118 @@ public class BinaryDecoder implements UaDecoder {
         }
     }
 
+    private static boolean isPrimitiveType(int typeId) {
+        switch (typeId) {
+            case 1:
+            case 2:
+            case 4:
+            case 6:
+            case 8:
+            case 10:
+            case 11:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Read {@code length} elements of the built-in type {@code typeId} into a one-dimensional primitive array.
+     *
+     * @see #isPrimitiveType(int)
+     */
+    private Object readPrimitiveArray(int typeId, int length) throws UaSerializationException {
+        ByteBuf buffer = this.buffer;
+
+        int elementSize = typeId == 8 || typeId == 11 ? 8 : typeId == 6 || typeId == 10 ? 4 : typeId == 4 ? 2 : 1;
+
+        if ((long) length * elementSize > buffer.readableBytes()) {
+            throw new UaSerializationException(StatusCodes.Bad_DecodingError,
+                String.format("array length exceeds readable bytes (length=%s, readable=%s)",
+                    length, buffer.readableBytes()));
+        }
+
+        switch (typeId) {
+            case 1: {
+                boolean[] values = new boolean[length];
+                for (int i = 0; i < length; i++) {
+                    values[i] = buffer.readBoolean();
+                }
+                return values;
+            }
+            case 2: {
+                byte[] values = new byte[length];
+                buffer.readBytes(values);
+                return values;
+            }
+            case 4: {
+                short[] values = new short[length];
+                for (int i = 0; i < length; i++) {
+                    values[i] = buffer.readShort();
+                }
+                return values;
+            }
+            case 6: {
+                int[] values = new int[length];
+                for (int i = 0; i < length; i++) {
+                    values[i] = buffer.readInt();
+                }
+                return values;
+            }
+            case 8: {
+                long[] values = new long[length];
+                for (int i = 0; i < length; i++) {
+                    values[i] = buffer.readLong();
+                }
+                return values;
+            }
+            case 10: {
+                float[] values = new float[length];
+                for (int i = 0; i < length; i++) {
+                    values[i] = buffer.readFloat();
+                }
+                return values;
+            }
+            case 11: {
+                double[] values = new double[length];
+                for (int i = 0; i < length; i++) {
+                    values[i] = buffer.readDouble();
+                }
+                return values;
+            }
+            default:
+                throw new UaSerializationException(StatusCodes.Bad_DecodingError,
+                    "not a primitive builtin type: " + typeId);
+        }
+    }
+
+    /**
+     * Decode {@code length} UTF-8 bytes starting at {@code index} in {@code buffer}.
+     * <p>
+     * Heap buffers are decoded straight from their backing array. For other buffers, e.g. the composite buffers
+     * produced when reassembling chunks, ASCII strings are read directly into a {@code char[]}; only strings that
+     * contain multi-byte characters go through a {@link java.nio.charset.CharsetDecoder}.
+     */
+    private static String readUtf8(ByteBuf buffer, int index, int length) {
+        if (length == 0) {
+            return "";
+        } else if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + index, length, StandardCharsets.UTF_8);
+        } else {
+            char[] chars = new char[length];
+
+            for (int i = 0; i < length; i++) {
+                byte b = buffer.getByte(index + i);
+
+                if (b < 0) {
+                    return buffer.toString(index, length, StandardCharsets.UTF_8);
+                }
+
+                chars[i] = (char) b;
+            }
+
+            return new String(chars);
+        }
+    }
+
 }
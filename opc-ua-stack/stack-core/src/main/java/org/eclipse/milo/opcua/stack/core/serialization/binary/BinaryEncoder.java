@@ -56,6 +56,16 @@ public class BinaryEncoder implements UaEncoder {
 
     private static final DelegateRegistry.Instance DELEGATE_REGISTRY = DelegateRegistry.getInstance();
 
+    /**
+     * The built-in type id, and whether it's a structure or enumeration, of each class encoded in a Variant.
+     */
+    private static final ClassValue<VariantType> VARIANT_TYPES = new ClassValue<VariantType>() {
+        @Override
+        protected VariantType computeValue(Class<?> type) {
+            return VariantType.of(type);
+        }
+    };
+
     private volatile ByteBuf buffer;
 
     private final int maxArrayLength;
@@ -188,26 +198,9 @@ public class BinaryEncoder implements UaEncoder {
                     "max string length exceeded");
             }
 
-            try {
-                // Record the current index and write a placeholder for the length.
-                int lengthIndex = buffer.writerIndex();
-                buffer.writeInt(0x42424242);
-
-                // Write the string bytes.
-                int indexBefore = buffer.writerIndex();
-                buffer.writeBytes(value.getBytes("UTF-8"));
-                int indexAfter = buffer.writerIndex();
-                int bytesWritten = indexAfter - indexBefore;
-
-                // Go back and update the length.
-                buffer.writerIndex(lengthIndex);
-                buffer.writeInt(bytesWritten);
-
-                // Return to where we were after writing the string.
-                buffer.writerIndex(indexAfter);
-            } catch (UnsupportedEncodingException e) {
-                throw new UaSerializationException(StatusCodes.Bad_EncodingError, e);
-            }
+            int utf8Length = utf8Length(value);
+            buffer.writeInt(utf8Length);
+            writeUtf8(value, utf8Length);
         }
     }
 
@@ -489,19 +482,12 @@ public class BinaryEncoder implements UaEncoder {
         if (value == null) {
             buffer.writeByte(0);
         } else {
-            boolean structure = false;
-            boolean enumeration = false;
             Class<?> valueClass = getClass(value);
+            VariantType variantType = VARIANT_TYPES.get(valueClass);
 
-            if (UaStructure.class.isAssignableFrom(valueClass)) {
-                valueClass = ExtensionObject.class;
-                structure = true;
-            } else if (UaEnumeration.class.isAssignableFrom(valueClass)) {
-                valueClass = Integer.class;
-                enumeration = true;
-            }
-
-            int typeId = TypeUtil.getBuiltinTypeId(valueClass);
+            int typeId = variantType.typeId;
+            boolean structure = variantType.structure;
+            boolean enumeration = variantType.enumeration;
 
             if (typeId == -1) {
                 LoggerFactory.getLogger(getClass())
@@ -517,10 +503,14 @@ public class BinaryEncoder implements UaEncoder {
                     int length = Array.getLength(value);
                     buffer.writeInt(length);
 
-                    for (int i = 0; i < length; i++) {
-                        Object o = Array.get(value, i);
+                    if (value.getClass().getComponentType().isPrimitive()) {
+                        writePrimitiveArray(value);
+                    } else {
+                        for (int i = 0; i < length; i++) {
+                            Object o = Array.get(value, i);
 
-                        encodeValue(o, typeId, structure, enumeration);
+                            encodeValue(o, typeId, structure, enumeration);
+                        }
                     }
                 } else {
                     buffer.writeByte(typeId | 0xC0);
@@ -529,10 +519,14 @@ public class BinaryEncoder implements UaEncoder {
                     int length = Array.getLength(flattened);
                     buffer.writeInt(length);
 
-                    for (int i = 0; i < length; i++) {
-                        Object o = Array.get(flattened, i);
+                    if (flattened.getClass().getComponentType().isPrimitive()) {
+                        writePrimitiveArray(flattened);
+                    } else {
+                        for (int i = 0; i < length; i++) {
+                            Object o = Array.get(flattened, i);
 
-                        encodeValue(o, typeId, structure, enumeration);
+                            encodeValue(o, typeId, structure, enumeration);
+                        }
                     }
 
                     encodeInt32(null, dimensions.length);
@@ -598,9 +592,10 @@ public class BinaryEncoder implements UaEncoder {
 
     @Override
     public <T extends UaStructure> void encodeMessage(String field, T message) throws UaSerializationException {
-        EncoderDelegate<T> delegate = DELEGATE_REGISTRY.getEncoder(message.getBinaryEncodingId());
+        NodeId encodingId = message.getBinaryEncodingId();
+        EncoderDelegate<T> delegate = DELEGATE_REGISTRY.getEncoder(message.getClass(), encodingId);
 
-        encodeNodeId(null, message.getBinaryEncodingId());
+        encodeNodeId(null, encodingId);
 
         delegate.encode(message, this);
     }
@@ -725,4 +720,164 @@ public class BinaryEncoder implements UaEncoder {
         }
     }
 
+    /**
+     * @return the number of bytes {@code value} occupies when UTF-8 encoded. Unpaired surrogates count as 1 byte,
+     * matching the '?' they are replaced with, as {@link String#getBytes(java.nio.charset.Charset)} does.
+     */
+    private static int utf8Length(String value) {
+        int length = value.length();
+        int utf8Length = length;
+
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    utf8Length += 1;
+                } else if (Character.isSurrogate(c)) {
+                    if (Character.isHighSurrogate(c) && i + 1 < length &&
+                        Character.isLowSurrogate(value.charAt(i + 1))) {
+
+                        utf8Length += 2;
+                        i++;
+                    }
+                } else {
+                    utf8Length += 2;
+                }
+            }
+        }
+
+        return utf8Length;
+    }
+
+    /**
+     * Write {@code value} UTF-8 encoded directly into the buffer.
+     *
+     * @param value      the String to write.
+     * @param utf8Length the encoded length of {@code value}, as computed by {@link #utf8Length(String)}.
+     */
+    private void writeUtf8(String value, int utf8Length) {
+        ByteBuf buffer = this.buffer;
+
+        buffer.ensureWritable(utf8Length);
+
+        int index = buffer.writerIndex();
+        int length = value.length();
+
+        if (utf8Length == length) {
+            // Fast path: every char encodes to a single byte.
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                buffer.setByte(index++, c < 0x80 ? c : '?');
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+
+                if (c < 0x80) {
+                    buffer.setByte(index++, c);
+                } else if (c < 0x800) {
+                    buffer.setByte(index++, 0xC0 | (c >> 6));
+                    buffer.setByte(index++, 0x80 | (c & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    if (Character.isHighSurrogate(c) && i + 1 < length &&
+                        Character.isLowSurrogate(value.charAt(i + 1))) {
+
+                        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+
+                        buffer.setByte(index++, 0xF0 | (codePoint >> 18));
+                        buffer.setByte(index++, 0x80 | ((codePoint >> 12) & 0x3F));
+                        buffer.setByte(index++, 0x80 | ((codePoint >> 6) & 0x3F));
+                        buffer.setByte(index++, 0x80 | (codePoint & 0x3F));
+                    } else {
+                        buffer.setByte(index++, '?');
+                    }
+                } else {
+                    buffer.setByte(index++, 0xE0 | (c >> 12));
+                    buffer.setByte(index++, 0x80 | ((c >> 6) & 0x3F));
+                    buffer.setByte(index++, 0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        buffer.writerIndex(index);
+    }
+
+    /**
+     * Write the elements of a one-dimensional primitive array without boxing them.
+     *
+     * @param array a {@code boolean[]}, {@code byte[]}, {@code short[]}, {@code int[]}, {@code long[]},
+     *              {@code float[]}, or {@code double[]}.
+     */
+    private void writePrimitiveArray(Object array) {
+        ByteBuf buffer = this.buffer;
+
+        if (array instanceof double[]) {
+            double[] values = (double[]) array;
+            buffer.ensureWritable(values.length * 8);
+            for (double v : values) {
+                buffer.writeDouble(v);
+            }
+        } else if (array instanceof float[]) {
+            float[] values = (float[]) array;
+            buffer.ensureWritable(values.length * 4);
+            for (float v : values) {
+                buffer.writeFloat(v);
+            }
+        } else if (array instanceof int[]) {
+            int[] values = (int[]) array;
+            buffer.ensureWritable(values.length * 4);
+            for (int v : values) {
+                buffer.writeInt(v);
+            }
+        } else if (array instanceof long[]) {
+            long[] values = (long[]) array;
+            buffer.ensureWritable(values.length * 8);
+            for (long v : values) {
+                buffer.writeLong(v);
+            }
+        } else if (array instanceof short[]) {
+            short[] values = (short[]) array;
+            buffer.ensureWritable(values.length * 2);
+            for (short v : values) {
+                buffer.writeShort(v);
+            }
+        } else if (array instanceof byte[]) {
+            buffer.writeBytes((byte[]) array);
+        } else if (array instanceof boolean[]) {
+            boolean[] values = (boolean[]) array;
+            buffer.ensureWritable(values.length);
+            for (boolean v : values) {
+                buffer.writeBoolean(v);
+            }
+        } else {
+            throw new UaSerializationException(StatusCodes.Bad_EncodingError,
+                "unsupported primitive array: " + array.getClass().getSimpleName());
+        }
+    }
+
+    private static final class VariantType {
+
+        private final int typeId;
+        private final boolean structure;
+        private final boolean enumeration;
+
+        private VariantType(int typeId, boolean structure, boolean enumeration) {
+            this.typeId = typeId;
+            this.structure = structure;
+            this.enumeration = enumeration;
+        }
+
+        private static VariantType of(Class<?> valueClass) {
+            if (UaStructure.class.isAssignableFrom(valueClass)) {
+                return new VariantType(TypeUtil.getBuiltinTypeId(ExtensionObject.class), true, false);
+            } else if (UaEnumeration.class.isAssignableFrom(valueClass)) {
+                return new VariantType(TypeUtil.getBuiltinTypeId(Integer.class), false, true);
+            } else {
+                return new VariantType(TypeUtil.getBuiltinTypeId(valueClass), false, false);
+            }
+        }
+
+    }
+
 }
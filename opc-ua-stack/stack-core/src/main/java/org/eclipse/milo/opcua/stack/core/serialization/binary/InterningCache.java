@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.serialization.binary;
+
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+
+/**
+ * A bounded, concurrent cache of decoded {@link NodeId}s, {@link QualifiedName}s, and namespace URIs.
+ * <p>
+ * When configured on a {@link BinaryDecoder}, values that were decoded before are returned as the same instance
+ * instead of a new one. Numeric NodeIds are looked up by namespace index and identifier before a NodeId is
+ * allocated; string NodeIds, QualifiedNames, and namespace URIs are de-duplicated after decoding, so that repeated
+ * values share one instance and compare equal by identity.
+ * <p>
+ * A single instance is meant to be shared by every channel of a client or server.
+ */
+public class InterningCache {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 8192;
+
+    private final Cache<Long, NodeId> numericNodeIds;
+    private final Cache<NodeId, NodeId> nodeIds;
+    private final Cache<QualifiedName, QualifiedName> qualifiedNames;
+    private final Cache<String, String> namespaceUris;
+
+    private final long maximumSize;
+
+    public InterningCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * @param maximumSize the maximum number of entries held for each kind of value.
+     */
+    public InterningCache(long maximumSize) {
+        Preconditions.checkArgument(maximumSize > 0, "maximumSize must be > 0");
+
+        this.maximumSize = maximumSize;
+
+        numericNodeIds = newCache(maximumSize);
+        nodeIds = newCache(maximumSize);
+        qualifiedNames = newCache(maximumSize);
+        namespaceUris = newCache(maximumSize);
+    }
+
+    /**
+     * @param namespaceIndex the namespace index, 0 to 65535.
+     * @param identifier     the numeric identifier, 0 to 2^32 - 1.
+     * @return the cached numeric {@link NodeId}, creating and caching it if necessary.
+     */
+    public NodeId getNumericNodeId(int namespaceIndex, long identifier) {
+        long key = ((long) namespaceIndex << 32) | identifier;
+
+        try {
+            return numericNodeIds.get(key, () -> new NodeId(ushort(namespaceIndex), uint(identifier)));
+        } catch (ExecutionException e) {
+            // The loader can't throw.
+            return new NodeId(ushort(namespaceIndex), uint(identifier));
+        }
+    }
+
+    /**
+     * @param nodeId a decoded {@link NodeId}.
+     * @return a cached {@link NodeId} equal to {@code nodeId}, or {@code nodeId} itself if none was cached yet.
+     */
+    public NodeId intern(NodeId nodeId) {
+        return intern(nodeIds, nodeId, nodeId);
+    }
+
+    /**
+     * @param qualifiedName a decoded {@link QualifiedName}.
+     * @return a cached {@link QualifiedName} equal to {@code qualifiedName}, or {@code qualifiedName} itself if none
+     * was cached yet.
+     */
+    public QualifiedName intern(QualifiedName qualifiedName) {
+        return intern(qualifiedNames, qualifiedName, qualifiedName);
+    }
+
+    /**
+     * @param namespaceUri a decoded namespace URI.
+     * @return a cached String equal to {@code namespaceUri}, or {@code namespaceUri} itself if none was cached yet.
+     */
+    public String internNamespaceUri(String namespaceUri) {
+        return intern(namespaceUris, namespaceUri, namespaceUri);
+    }
+
+    /**
+     * @return the hit and miss statistics for {@link NodeId}s, numeric and otherwise.
+     */
+    public CacheStats getNodeIdStats() {
+        return numericNodeIds.stats().plus(nodeIds.stats());
+    }
+
+    /**
+     * @return the hit and miss statistics for {@link QualifiedName}s.
+     */
+    public CacheStats getQualifiedNameStats() {
+        return qualifiedNames.stats();
+    }
+
+    /**
+     * @return the hit and miss statistics for namespace URIs.
+     */
+    public CacheStats getNamespaceUriStats() {
+        return namespaceUris.stats();
+    }
+
+    /**
+     * @return the number of entries currently cached, across all kinds of value.
+     */
+    public long size() {
+        return numericNodeIds.size() + nodeIds.size() + qualifiedNames.size() + namespaceUris.size();
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void invalidateAll() {
+        numericNodeIds.invalidateAll();
+        nodeIds.invalidateAll();
+        qualifiedNames.invalidateAll();
+        namespaceUris.invalidateAll();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("maximumSize", maximumSize)
+            .add("size", size())
+            .add("nodeIdHitRate", getNodeIdStats().hitRate())
+            .add("qualifiedNameHitRate", getQualifiedNameStats().hitRate())
+            .add("namespaceUriHitRate", getNamespaceUriStats().hitRate())
+            .toString();
+    }
+
+    private static <K, V> Cache<K, V> newCache(long maximumSize) {
+        return CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .recordStats()
+            .build();
+    }
+
+    private static <K, V> V intern(Cache<K, V> cache, K key, V value) {
+        try {
+            return cache.get(key, () -> value);
+        } catch (ExecutionException e) {
+            // The loader can't throw.
+            return value;
+        }
+    }
+
+}
@@ -14,7 +14,9 @@
 package org.eclipse.milo.opcua.stack.core.util;
 
 import java.util.ArrayDeque;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class AsyncSemaphore {
@@ -41,18 +43,78 @@ public class AsyncSemaphore {
         return f;
     }
 
+    /**
+     * Acquire a permit, waiting for one only if fewer than {@code maxQueueLength} acquirers are already waiting.
+     *
+     * @param maxQueueLength the maximum number of acquirers allowed to wait at once.
+     * @return an {@link Optional} containing a future completed with the acquired {@link SemaphorePermit}, or empty
+     * if no permit was available and the wait queue was full.
+     */
+    public synchronized Optional<CompletableFuture<SemaphorePermit>> acquire(int maxQueueLength) {
+        if (availablePermits.get() > 0 || waitQueue.size() < maxQueueLength) {
+            return Optional.of(acquire());
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stop waiting for a permit requested by {@link #acquire()}.
+     *
+     * @param acquisition the future returned by {@link #acquire()}.
+     * @return {@code true} if {@code acquisition} was still waiting and has been removed from the wait queue; it
+     * will not be completed by this semaphore. {@code false} if it has already been given a permit.
+     */
+    public synchronized boolean cancel(CompletableFuture<SemaphorePermit> acquisition) {
+        return waitQueue.removeFirstOccurrence(acquisition);
+    }
+
+    /**
+     * Acquire a permit only if one is available right now.
+     *
+     * @return an {@link Optional} containing the acquired {@link SemaphorePermit}, or empty if none was available.
+     */
+    public synchronized Optional<SemaphorePermit> tryAcquire() {
+        if (availablePermits.get() > 0) {
+            availablePermits.decrementAndGet();
+
+            return Optional.of(new PermitImpl());
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return the number of permits currently available.
+     */
+    public int getAvailablePermits() {
+        return availablePermits.get();
+    }
+
+    /**
+     * @return the number of acquirers currently waiting for a permit.
+     */
+    public synchronized int getQueueLength() {
+        return waitQueue.size();
+    }
+
     public interface SemaphorePermit {
 
         /**
-         * Releases this semaphore permit.
+         * Releases this semaphore permit. Releasing a permit more than once has no further effect.
          */
         void release();
 
     }
 
     private final class PermitImpl implements SemaphorePermit {
+
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
         @Override
         public void release() {
+            if (!released.compareAndSet(false, true)) return;
+
             CompletableFuture<SemaphorePermit> next;
 
             synchronized (AsyncSemaphore.this) {
@@ -14,26 +14,127 @@
 package org.eclipse.milo.opcua.stack.core.util;
 
 import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
 
+import com.google.common.base.Preconditions;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
 
+/**
+ * Allocates the buffers used when encoding, chunking, and decoding messages.
+ * <p>
+ * All buffers are obtained from a single, configurable {@link ByteBufAllocator}. The default is the shared heap-only
+ * {@link PooledByteBufAllocator}; {@link #setAllocator(ByteBufAllocator)} may be used to switch to a direct pooled
+ * allocator (see {@link #pooledAllocator(boolean)}) or an unpooled allocator, e.g. for debugging. The allocator should
+ * be configured before any clients or servers are started.
+ * <p>
+ * Allocation counters are maintained for every buffer allocated through this class and can be read at runtime.
+ */
 public class BufferUtil {
 
-    private static final ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+    private static final LongAdder BUFFERS_ALLOCATED = new LongAdder();
+    private static final LongAdder BYTES_ALLOCATED = new LongAdder();
+    private static final LongAdder COMPOSITES_ALLOCATED = new LongAdder();
+
+    private static volatile ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
 
     public static ByteBuf buffer() {
-        return allocator.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        BUFFERS_ALLOCATED.increment();
+
+        ByteBuf buffer = allocator.buffer();
+        BYTES_ALLOCATED.add(buffer.capacity());
+
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
     }
 
     public static ByteBuf buffer(int initialCapacity) {
+        BUFFERS_ALLOCATED.increment();
+        BYTES_ALLOCATED.add(initialCapacity);
+
         return allocator.buffer(initialCapacity).order(ByteOrder.LITTLE_ENDIAN);
     }
 
     public static CompositeByteBuf compositeBuffer() {
+        COMPOSITES_ALLOCATED.increment();
+
         return allocator.compositeBuffer();
     }
 
+    public static CompositeByteBuf compositeBuffer(int maxNumComponents) {
+        COMPOSITES_ALLOCATED.increment();
+
+        return allocator.compositeBuffer(maxNumComponents);
+    }
+
+    /**
+     * @return the {@link ByteBufAllocator} currently used by the stack, both for message serialization and as the
+     * {@link io.netty.channel.ChannelOption#ALLOCATOR} of client and server channels.
+     */
+    public static ByteBufAllocator getAllocator() {
+        return allocator;
+    }
+
+    /**
+     * Set the {@link ByteBufAllocator} used by the stack.
+     * <p>
+     * Channels that are already open keep the allocator they were created with.
+     *
+     * @param allocator the {@link ByteBufAllocator} to use.
+     */
+    public static void setAllocator(ByteBufAllocator allocator) {
+        Preconditions.checkNotNull(allocator, "allocator must be non-null");
+
+        BufferUtil.allocator = allocator;
+    }
+
+    /**
+     * @param preferDirect {@code true} if the allocator should prefer direct buffers.
+     * @return the shared {@link PooledByteBufAllocator} if {@code preferDirect} is {@code false}, otherwise a new
+     * {@link PooledByteBufAllocator} that prefers direct buffers.
+     */
+    public static ByteBufAllocator pooledAllocator(boolean preferDirect) {
+        return preferDirect ? new PooledByteBufAllocator(true) : PooledByteBufAllocator.DEFAULT;
+    }
+
+    /**
+     * @param preferDirect {@code true} if the allocator should prefer direct buffers.
+     * @return an {@link UnpooledByteBufAllocator}.
+     */
+    public static ByteBufAllocator unpooledAllocator(boolean preferDirect) {
+        return new UnpooledByteBufAllocator(preferDirect);
+    }
+
+    /**
+     * @return the number of buffers, not including composite buffers, allocated since startup or the last call to
+     * {@link #resetAllocationCounters()}.
+     */
+    public static long getBuffersAllocated() {
+        return BUFFERS_ALLOCATED.sum();
+    }
+
+    /**
+     * @return the sum of the initial capacities of all buffers allocated since startup or the last call to
+     * {@link #resetAllocationCounters()}.
+     */
+    public static long getBytesAllocated() {
+        return BYTES_ALLOCATED.sum();
+    }
+
+    /**
+     * @return the number of composite buffers allocated since startup or the last call to
+     * {@link #resetAllocationCounters()}.
+     */
+    public static long getCompositeBuffersAllocated() {
+        return COMPOSITES_ALLOCATED.sum();
+    }
+
+    public static void resetAllocationCounters() {
+        BUFFERS_ALLOCATED.reset();
+        BYTES_ALLOCATED.reset();
+        COMPOSITES_ALLOCATED.reset();
+    }
+
 }
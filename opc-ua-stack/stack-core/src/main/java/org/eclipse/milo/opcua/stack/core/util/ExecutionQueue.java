@@ -13,30 +13,51 @@
 
 package org.eclipse.milo.opcua.stack.core.util;
 
-import java.util.LinkedList;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import com.google.common.base.Preconditions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Queues up submitted {@link java.lang.Runnable}s and executes them in serial on an
  * {@link java.util.concurrent.ExecutorService}.
+ * <p>
+ * Submission is lock-free. At most one drain task is outstanding on the executor at a time; each drain task runs up
+ * to {@code maxBatchSize} queued {@link Runnable}s before handing the executor thread back.
  */
 public class ExecutionQueue {
 
+    public static final int DEFAULT_MAX_BATCH_SIZE = 16;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
-    private final Object queueLock = new Object();
-    private final LinkedList<Runnable> queue = new LinkedList<>();
+    private final ConcurrentLinkedDeque<Runnable> queue = new ConcurrentLinkedDeque<>();
 
-    private volatile boolean pollSubmitted = false;
+    private final AtomicBoolean drainSubmitted = new AtomicBoolean(false);
     private volatile boolean paused = false;
 
+    private final Runnable drainTask = this::drain;
+
     private final ExecutorService service;
+    private final int maxBatchSize;
 
     public ExecutionQueue(ExecutorService service) {
+        this(service, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * @param service      the {@link ExecutorService} to execute on.
+     * @param maxBatchSize the maximum number of {@link Runnable}s to execute per task submitted to {@code service}.
+     */
+    public ExecutionQueue(ExecutorService service, int maxBatchSize) {
+        Preconditions.checkArgument(maxBatchSize > 0, "maxBatchSize must be > 0");
+
         this.service = service;
+        this.maxBatchSize = maxBatchSize;
     }
 
     /**
@@ -45,11 +66,9 @@ public class ExecutionQueue {
      * @param runnable the {@link Runnable} to be executed.
      */
     public void submit(Runnable runnable) {
-        synchronized (queueLock) {
-            queue.add(runnable);
+        queue.addLast(runnable);
 
-            maybeSubmitPoll();
-        }
+        maybeSubmitDrain();
     }
 
     /**
@@ -58,49 +77,48 @@ public class ExecutionQueue {
      * @param runnable the {@link Runnable} to be executed.
      */
     public void submitToHead(Runnable runnable) {
-        synchronized (queueLock) {
-            queue.addFirst(runnable);
+        queue.addFirst(runnable);
 
-            maybeSubmitPoll();
-        }
+        maybeSubmitDrain();
     }
 
     /**
      * Pause execution of queued {@link java.lang.Runnable}s.
+     * <p>
+     * A {@link Runnable} that is already executing runs to completion.
      */
     public void pause() {
-        synchronized (queueLock) {
-            paused = true;
-        }
+        paused = true;
     }
 
     /**
      * Resume execution of queued {@link java.lang.Runnable}s.
      */
     public void resume() {
-        synchronized (queueLock) {
-            paused = false;
+        paused = false;
 
-            maybeSubmitPoll();
-        }
+        maybeSubmitDrain();
     }
 
-    private void maybeSubmitPoll() {
-        synchronized (queueLock) {
-            if (!pollSubmitted && !paused && !queue.isEmpty()) {
-                service.submit(new PollAndExecute());
-                pollSubmitted = true;
+    private void maybeSubmitDrain() {
+        if (!paused && !queue.isEmpty() && drainSubmitted.compareAndSet(false, true)) {
+            try {
+                service.execute(drainTask);
+            } catch (RejectedExecutionException e) {
+                drainSubmitted.set(false);
+                throw e;
             }
         }
     }
 
-    private class PollAndExecute implements Runnable {
-        @Override
-        public void run() {
-            Runnable runnable;
+    private void drain() {
+        int executed = 0;
 
-            synchronized (queueLock) {
-                runnable = queue.poll();
+        while (executed < maxBatchSize && !paused) {
+            Runnable runnable = queue.pollFirst();
+
+            if (runnable == null) {
+                break;
             }
 
             try {
@@ -109,15 +127,14 @@ public class ExecutionQueue {
                 log.warn("Uncaught Throwable during execution.", throwable);
             }
 
-            synchronized (queueLock) {
-                if (queue.isEmpty() || paused) {
-                    pollSubmitted = false;
-                } else {
-                    // polling remains true
-                    service.submit(new PollAndExecute());
-                }
-            }
+            executed++;
         }
+
+        drainSubmitted.set(false);
+
+        // Anything submitted after the last poll, or left over when the batch limit was reached,
+        // needs another drain; the submitter may have seen drainSubmitted == true and backed off.
+        maybeSubmitDrain();
     }
 
 }
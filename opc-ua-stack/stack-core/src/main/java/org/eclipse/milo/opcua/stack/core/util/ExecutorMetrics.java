@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.util;
+
+public interface ExecutorMetrics {
+
+    /**
+     * @return the number of tasks that have been submitted but have not yet started running.
+     */
+    int getQueueDepth();
+
+    /**
+     * @return the number of tasks currently running.
+     */
+    int getActiveCount();
+
+    /**
+     * @return the total number of tasks submitted.
+     */
+    long getSubmittedTaskCount();
+
+    /**
+     * @return the total number of tasks that have finished running, normally or exceptionally.
+     */
+    long getCompletedTaskCount();
+
+    /**
+     * @return the total time, in nanoseconds, that tasks that have started running spent queued before starting.
+     */
+    long getTotalQueueTimeNanos();
+
+    /**
+     * @return the longest time, in nanoseconds, that a task spent queued before starting.
+     */
+    long getMaxQueueTimeNanos();
+
+}
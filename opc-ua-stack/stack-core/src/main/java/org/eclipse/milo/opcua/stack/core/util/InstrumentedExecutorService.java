@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.util;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * An {@link ExecutorService} that delegates to another {@link ExecutorService} and keeps track of the number of queued
+ * and running tasks, and how long tasks spent queued.
+ */
+public class InstrumentedExecutorService extends AbstractExecutorService implements ExecutorMetrics {
+
+    private final AtomicInteger queued = new AtomicInteger(0);
+    private final AtomicInteger active = new AtomicInteger(0);
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+
+    private final LongAdder queueTimeNanos = new LongAdder();
+    private final LongAccumulator maxQueueTimeNanos = new LongAccumulator(Math::max, 0L);
+
+    private final String name;
+    private final ExecutorService delegate;
+
+    public InstrumentedExecutorService(String name, ExecutorService delegate) {
+        this.name = name;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        queued.incrementAndGet();
+        submitted.increment();
+
+        long submittedNanos = System.nanoTime();
+
+        try {
+            delegate.execute(() -> {
+                queued.decrementAndGet();
+                active.incrementAndGet();
+
+                long queueTime = System.nanoTime() - submittedNanos;
+                queueTimeNanos.add(queueTime);
+                maxQueueTimeNanos.accumulate(queueTime);
+
+                try {
+                    command.run();
+                } finally {
+                    active.decrementAndGet();
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    @Override
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    @Override
+    public long getSubmittedTaskCount() {
+        return submitted.sum();
+    }
+
+    @Override
+    public long getCompletedTaskCount() {
+        return completed.sum();
+    }
+
+    @Override
+    public long getTotalQueueTimeNanos() {
+        return queueTimeNanos.sum();
+    }
+
+    @Override
+    public long getMaxQueueTimeNanos() {
+        return maxQueueTimeNanos.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("name", name)
+            .add("queueDepth", getQueueDepth())
+            .add("activeCount", getActiveCount())
+            .add("submittedTaskCount", getSubmittedTaskCount())
+            .add("completedTaskCount", getCompletedTaskCount())
+            .add("maxQueueTimeNanos", getMaxQueueTimeNanos())
+            .toString();
+    }
+
+}
@@ -71,13 +71,12 @@ public class PShaUtil {
         byte[] a = seed;
         byte[] tmp;
 
+        // doFinal() resets the Mac with the same key, so it only needs to be initialized once.
+        mac.init(new SecretKeySpec(secret, transformation));
+
         while (required > 0) {
-            SecretKeySpec key = new SecretKeySpec(secret, transformation);
-            mac.init(key);
             mac.update(a);
             a = mac.doFinal();
-            mac.reset();
-            mac.init(key);
             mac.update(a);
             mac.update(seed);
             tmp = mac.doFinal();
@@ -76,14 +76,27 @@ public class SignatureUtil {
             Mac mac = Mac.getInstance(transformation);
             mac.init(new SecretKeySpec(secretKey, transformation));
 
-            for (ByteBuffer buffer : buffers) {
-                mac.update(buffer);
-            }
-
-            return mac.doFinal();
+            return hmac(mac, buffers);
         } catch (GeneralSecurityException e) {
             throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
         }
     }
 
+    /**
+     * Compute the HMAC of the provided buffers using an already initialized {@link Mac}.
+     * <p>
+     * The {@link Mac} is reset by this operation and may be re-used afterwards.
+     *
+     * @param mac     the initialized {@link Mac}.
+     * @param buffers the buffers to use.
+     * @return the computed HMAC.
+     */
+    public static byte[] hmac(Mac mac, ByteBuffer... buffers) {
+        for (ByteBuffer buffer : buffers) {
+            mac.update(buffer);
+        }
+
+        return mac.doFinal();
+    }
+
 }
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.util;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Selects between the NIO transport and the native epoll transport.
+ * <p>
+ * The native transport requires the optional {@code netty-transport-native-epoll} dependency and a Linux host. When
+ * either is missing {@link #isEpollAvailable()} returns {@code false} and NIO is used instead. The channel classes are
+ * always chosen to match the {@link EventLoopGroup} they will be registered with.
+ * <p>
+ * Endpoint URLs with the {@link #LOCAL_SCHEME} scheme use netty's in-JVM local transport instead of a socket, and
+ * endpoint URLs with the {@link #UNIX_SCHEME} scheme use a Unix domain socket, which requires the native transport.
+ */
+public class TransportUtil {
+
+    /**
+     * The endpoint URL scheme of the in-JVM local transport, e.g. "opc.local://example/server".
+     * <p>
+     * The host part of the URL names the local address; there is no port. A client can only connect to a server with
+     * a local endpoint that was started in the same JVM. Messages are framed, chunked, and secured exactly as they are
+     * over TCP, but are handed between event loops in memory rather than written to a socket.
+     */
+    public static final String LOCAL_SCHEME = "opc.local";
+
+    /**
+     * The endpoint URL scheme of the Unix domain socket transport, e.g.
+     * "opc.unix://localhost/server?socket=/var/run/milo/opcua.sock".
+     * <p>
+     * The {@code socket} query parameter is the path of the socket file; the host and path are used the same way they
+     * are in "opc.tcp" URLs. Messages keep the UA TCP framing. Only available on hosts where the native epoll
+     * transport is available, and the channels must be registered with a native {@link EventLoopGroup}.
+     */
+    public static final String UNIX_SCHEME = "opc.unix";
+
+    private static final String SOCKET_PARAMETER = "socket=";
+
+    private static final boolean EPOLL_AVAILABLE = checkEpollAvailable();
+
+    /**
+     * @return {@code true} if the native epoll transport can be used on this host.
+     */
+    public static boolean isEpollAvailable() {
+        return EPOLL_AVAILABLE;
+    }
+
+    /**
+     * Create a new {@link EventLoopGroup}.
+     *
+     * @param preferNative  {@code true} if an epoll event loop should be created when available.
+     * @param nThreads      the number of threads to use, or 0 for netty's default.
+     * @param threadFactory the {@link ThreadFactory} to use.
+     * @return an {@link EpollEventLoopGroup} if {@code preferNative} is {@code true} and epoll is available, otherwise
+     * a {@link NioEventLoopGroup}.
+     */
+    public static EventLoopGroup newEventLoopGroup(boolean preferNative, int nThreads, ThreadFactory threadFactory) {
+        if (preferNative && EPOLL_AVAILABLE) {
+            return new EpollEventLoopGroup(nThreads, threadFactory);
+        } else {
+            return new NioEventLoopGroup(nThreads, threadFactory);
+        }
+    }
+
+    /**
+     * @param group the {@link EventLoopGroup} the channel will be registered with.
+     * @return {@code true} if {@code group} is an {@link EpollEventLoopGroup}.
+     */
+    public static boolean isNative(EventLoopGroup group) {
+        return EPOLL_AVAILABLE && group instanceof EpollEventLoopGroup;
+    }
+
+    /**
+     * @param group the {@link EventLoopGroup} the channel will be registered with.
+     * @return the {@link SocketChannel} class to use with {@code group}.
+     */
+    public static Class<? extends SocketChannel> socketChannelClass(EventLoopGroup group) {
+        return isNative(group) ? EpollSocketChannel.class : NioSocketChannel.class;
+    }
+
+    /**
+     * @param group the {@link EventLoopGroup} the channel will be registered with.
+     * @return the {@link ServerSocketChannel} class to use with {@code group}.
+     */
+    public static Class<? extends ServerSocketChannel> serverSocketChannelClass(EventLoopGroup group) {
+        return isNative(group) ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+    }
+
+    /**
+     * Enable {@code SO_REUSEPORT} on {@code bootstrap} so that more than one server channel can be bound to the same
+     * address. Has no effect unless the bootstrap's group is native.
+     *
+     * @param bootstrap the {@link ServerBootstrap} to configure.
+     * @param group     the {@link EventLoopGroup} configured on {@code bootstrap}.
+     * @return {@code true} if {@code SO_REUSEPORT} was enabled.
+     */
+    public static boolean setReusePort(ServerBootstrap bootstrap, EventLoopGroup group) {
+        if (isNative(group)) {
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * @param endpointUri an endpoint URI.
+     * @return {@code true} if {@code endpointUri} uses the {@link #LOCAL_SCHEME} scheme.
+     */
+    public static boolean isLocal(URI endpointUri) {
+        return LOCAL_SCHEME.equalsIgnoreCase(endpointUri.getScheme());
+    }
+
+    /**
+     * @param endpointUri an endpoint URI.
+     * @return {@code true} if {@code endpointUri} uses the {@link #UNIX_SCHEME} scheme.
+     */
+    public static boolean isUnix(URI endpointUri) {
+        return UNIX_SCHEME.equalsIgnoreCase(endpointUri.getScheme());
+    }
+
+    /**
+     * @param endpointUri an endpoint URI using the {@link #UNIX_SCHEME} scheme.
+     * @return the path of the socket file named by the {@code socket} query parameter of {@code endpointUri}.
+     * @throws IllegalArgumentException if {@code endpointUri} has no {@code socket} query parameter.
+     */
+    public static String domainSocketPath(URI endpointUri) {
+        String query = endpointUri.getQuery();
+
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith(SOCKET_PARAMETER) && parameter.length() > SOCKET_PARAMETER.length()) {
+                    return parameter.substring(SOCKET_PARAMETER.length());
+                }
+            }
+        }
+
+        throw new IllegalArgumentException("no socket path in endpoint URL: " + endpointUri);
+    }
+
+    /**
+     * @param endpointUri an endpoint URI, with its server authority parsed.
+     * @param bindAddress the address to bind to instead of the host in {@code endpointUri}, if any. Ignored for local
+     *                    and Unix domain socket endpoints.
+     * @return the {@link SocketAddress} a server should bind to for {@code endpointUri}.
+     */
+    public static SocketAddress bindAddress(URI endpointUri, Optional<String> bindAddress) {
+        if (isLocal(endpointUri)) {
+            return new LocalAddress(endpointUri.getHost());
+        } else if (isUnix(endpointUri)) {
+            return domainSocketAddress(endpointUri);
+        } else {
+            return new InetSocketAddress(bindAddress.orElse(endpointUri.getHost()), endpointUri.getPort());
+        }
+    }
+
+    /**
+     * @param endpointUri an endpoint URI, with its server authority parsed.
+     * @return the {@link SocketAddress} a client should connect to for {@code endpointUri}.
+     */
+    public static SocketAddress connectAddress(URI endpointUri) {
+        if (isLocal(endpointUri)) {
+            return new LocalAddress(endpointUri.getHost());
+        } else if (isUnix(endpointUri)) {
+            return domainSocketAddress(endpointUri);
+        } else {
+            return new InetSocketAddress(endpointUri.getHost(), endpointUri.getPort());
+        }
+    }
+
+    /**
+     * @param group   the {@link EventLoopGroup} the channel will be registered with.
+     * @param address the {@link SocketAddress} the channel will connect to.
+     * @return the {@link Channel} class to use with {@code group} to connect to {@code address}.
+     * @throws IllegalArgumentException if {@code address} is a Unix domain socket and {@code group} is not native.
+     */
+    public static Class<? extends Channel> channelClass(EventLoopGroup group, SocketAddress address) {
+        if (address instanceof InetSocketAddress) {
+            return socketChannelClass(group);
+        } else if (address instanceof LocalAddress) {
+            return LocalChannel.class;
+        } else {
+            checkDomainSocketGroup(group);
+
+            return EpollDomainSocketChannel.class;
+        }
+    }
+
+    /**
+     * @param group   the {@link EventLoopGroup} the channel will be registered with.
+     * @param address the {@link SocketAddress} the channel will be bound to.
+     * @return the {@link ServerChannel} class to use with {@code group} to bind to {@code address}.
+     * @throws IllegalArgumentException if {@code address} is a Unix domain socket and {@code group} is not native.
+     */
+    public static Class<? extends ServerChannel> serverChannelClass(EventLoopGroup group, SocketAddress address) {
+        if (address instanceof InetSocketAddress) {
+            return serverSocketChannelClass(group);
+        } else if (address instanceof LocalAddress) {
+            return LocalServerChannel.class;
+        } else {
+            checkDomainSocketGroup(group);
+
+            return EpollServerDomainSocketChannel.class;
+        }
+    }
+
+    private static SocketAddress domainSocketAddress(URI endpointUri) {
+        if (!EPOLL_AVAILABLE) {
+            throw new IllegalArgumentException("Unix domain sockets require the native epoll transport");
+        }
+
+        return DomainSockets.address(domainSocketPath(endpointUri));
+    }
+
+    private static void checkDomainSocketGroup(EventLoopGroup group) {
+        if (!isNative(group)) {
+            throw new IllegalArgumentException("Unix domain sockets require a native epoll EventLoopGroup");
+        }
+    }
+
+    private static boolean checkEpollAvailable() {
+        try {
+            Class.forName("io.netty.channel.epoll.Epoll", false, TransportUtil.class.getClassLoader());
+
+            return Epoll.isAvailable();
+        } catch (Throwable t) {
+            LoggerFactory.getLogger(TransportUtil.class)
+                .debug("Native epoll transport not available: {}", t.getMessage());
+
+            return false;
+        }
+    }
+
+    /**
+     * Keeps the optional epoll classes out of {@link TransportUtil}'s own verification, so it still loads when the
+     * native transport isn't on the classpath.
+     */
+    private static final class DomainSockets {
+
+        static SocketAddress address(String path) {
+            return new DomainSocketAddress(path);
+        }
+
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.application;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.milo.opcua.stack.core.Stack;
+import org.eclipse.milo.opcua.stack.core.application.ExecutorProvider.Stage;
+import org.eclipse.milo.opcua.stack.core.util.ExecutorMetrics;
+import org.eclipse.milo.opcua.stack.core.util.InstrumentedExecutorService;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class ExecutorProviderTest {
+
+    @Test
+    public void testPerStageExecutors() {
+        ExecutorService decode = Executors.newSingleThreadExecutor();
+        ExecutorService service = Executors.newSingleThreadExecutor();
+        ExecutorService encode = Executors.newSingleThreadExecutor();
+
+        try {
+            ExecutorProvider provider = ExecutorProvider.of(decode, service, encode);
+
+            assertSame(provider.getExecutor(Stage.Decode), decode);
+            assertSame(provider.getExecutor(Stage.Service), service);
+            assertSame(provider.getExecutor(Stage.Encode), encode);
+            assertSame(provider.getExecutor(Stage.Handshake), Stack.sharedHandshakeExecutor());
+            assertFalse(provider.getMetrics(Stage.Service).isPresent());
+            assertTrue(provider.getMetrics(Stage.Handshake).isPresent());
+        } finally {
+            decode.shutdown();
+            service.shutdown();
+            encode.shutdown();
+        }
+    }
+
+    @Test
+    public void testWorkStealingMetrics() throws Exception {
+        ExecutorProvider provider = ExecutorProvider.workStealing(2);
+
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch finished = new CountDownLatch(1);
+
+            provider.getExecutor(Stage.Service).execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                    // ignored
+                }
+                finished.countDown();
+            });
+
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            ExecutorMetrics metrics = provider.getMetrics(Stage.Service).orElseThrow(AssertionError::new);
+            assertEquals(metrics.getActiveCount(), 1);
+            assertEquals(metrics.getSubmittedTaskCount(), 1L);
+
+            release.countDown();
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+        } finally {
+            provider.shutdown();
+        }
+    }
+
+    @Test
+    public void testThreadPerTaskSeparatesServiceStage() {
+        ExecutorProvider provider = ExecutorProvider.threadPerTask(4);
+
+        try {
+            assertNotSame(provider.getExecutor(Stage.Service), provider.getExecutor(Stage.Decode));
+            assertSame(provider.getExecutor(Stage.Decode), provider.getExecutor(Stage.Encode));
+            assertTrue(provider.getMetrics(Stage.Service).isPresent());
+        } finally {
+            provider.shutdown();
+        }
+    }
+
+    @Test
+    public void testHandshakeQueueTime() throws Exception {
+        ExecutorService service = Executors.newSingleThreadExecutor();
+        ExecutorService handshake = new InstrumentedExecutorService("handshake", Executors.newSingleThreadExecutor());
+
+        try {
+            ExecutorProvider provider = ExecutorProvider.of(service, service, service, handshake);
+            assertSame(provider.getExecutor(Stage.Handshake), handshake);
+
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch finished = new CountDownLatch(2);
+
+            handshake.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                    // ignored
+                }
+                finished.countDown();
+            });
+            handshake.execute(finished::countDown);
+
+            Thread.sleep(50);
+            release.countDown();
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+
+            ExecutorMetrics metrics = provider.getMetrics(Stage.Handshake).orElseThrow(AssertionError::new);
+            assertTrue(metrics.getMaxQueueTimeNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+            assertTrue(metrics.getTotalQueueTimeNanos() >= metrics.getMaxQueueTimeNanos());
+        } finally {
+            service.shutdown();
+            handshake.shutdown();
+        }
+    }
+
+}
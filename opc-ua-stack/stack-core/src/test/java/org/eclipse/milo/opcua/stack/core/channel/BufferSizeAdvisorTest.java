@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.channel;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+public class BufferSizeAdvisorTest {
+
+    /* Small enough per-chunk floor (8 MiB / 1024 chunks = 8 KiB) that recommendations aren't held up by it. */
+    private final ChannelConfig channelConfig = new ChannelConfig(
+        8192,
+        1024,
+        8192 * 1024,
+        ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH,
+        ChannelConfig.DEFAULT_MAX_STRING_LENGTH
+    );
+
+    @Test
+    public void testHistogramPercentiles() {
+        MessageSizeHistogram histogram = new MessageSizeHistogram();
+
+        assertEquals(histogram.getPercentile(0.95), 0L);
+
+        for (int i = 0; i < 90; i++) {
+            histogram.record(1000);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(100000);
+        }
+
+        assertEquals(histogram.getCount(), 100L);
+        assertEquals(histogram.getPercentile(0.5), 1024L);
+        assertEquals(histogram.getPercentile(0.9), 1024L);
+        assertEquals(histogram.getPercentile(0.95), 131072L);
+        assertEquals(histogram.getPercentile(1.0), 131072L);
+    }
+
+    @Test
+    public void testConfiguredSizeUntilMinSamples() {
+        BufferSizeAdvisor advisor = new BufferSizeAdvisor(
+            new AdaptiveBufferSizeConfig(0.95, 8192, 1024 * 1024, 100));
+
+        ChannelMetrics metrics = new ChannelMetrics();
+        advisor.track(metrics);
+
+        for (int i = 0; i < 99; i++) {
+            metrics.recordMessageReceived(20000, 3);
+        }
+
+        assertEquals(advisor.recommendReceiveBufferSize(channelConfig), channelConfig.getMaxChunkSize());
+
+        metrics.recordMessageReceived(20000, 3);
+
+        assertEquals(advisor.recommendReceiveBufferSize(channelConfig), 32768 + BufferSizeAdvisor.CHUNK_OVERHEAD);
+        assertEquals(advisor.recommendSendBufferSize(channelConfig), channelConfig.getMaxChunkSize());
+    }
+
+    @Test
+    public void testRecommendationBounded() {
+        BufferSizeAdvisor advisor = new BufferSizeAdvisor(
+            new AdaptiveBufferSizeConfig(0.95, 16384, 256 * 1024, 1));
+
+        ChannelMetrics metrics = new ChannelMetrics();
+        advisor.track(metrics);
+
+        metrics.recordMessageReceived(100, 1);
+        metrics.recordMessageSent(4 * 1024 * 1024, 64);
+
+        assertEquals(advisor.recommendReceiveBufferSize(channelConfig), 16384);
+        assertEquals(advisor.recommendSendBufferSize(channelConfig), 256 * 1024);
+
+        // The default ChannelConfig allows 32 chunks of 64 KiB; smaller buffers would shrink its max message size.
+        assertEquals(advisor.recommendReceiveBufferSize(ChannelConfig.DEFAULT), ChannelConfig.DEFAULT_MAX_CHUNK_SIZE);
+    }
+
+    @Test
+    public void testClosedChannelsRetained() {
+        BufferSizeAdvisor advisor = new BufferSizeAdvisor(
+            new AdaptiveBufferSizeConfig(0.95, 8192, 1024 * 1024, 1));
+
+        ChannelMetrics metrics = new ChannelMetrics();
+        advisor.track(metrics);
+
+        metrics.recordMessageReceived(50000, 7);
+        metrics.recordMessageReceived(50000, 7);
+
+        advisor.untrack(metrics);
+        advisor.untrack(metrics);
+
+        metrics.recordMessageReceived(50000, 7);
+
+        assertEquals(advisor.getMessageSizesIn().getCount(), 2L);
+        assertEquals(advisor.recommendReceiveBufferSize(channelConfig), 65536 + BufferSizeAdvisor.CHUNK_OVERHEAD);
+    }
+
+    @Test
+    public void testChunksPerMessage() {
+        ChannelMetrics metrics = new ChannelMetrics();
+
+        metrics.recordMessageReceived(100, 1);
+        metrics.recordMessageReceived(200000, 4);
+        metrics.recordMessageSent(100, 1);
+
+        assertEquals(metrics.getChunksPerMessageIn(), 2.5);
+        assertEquals(metrics.getChunksPerMessageOut(), 1.0);
+        assertEquals(metrics.getMultiChunkMessages(), 1L);
+        assertEquals(metrics.getLargestChunkCount(), 4L);
+        assertEquals(metrics.getLargestMessageSize(), 200000L);
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
+public class FlushConsolidationHandlerTest {
+
+    @Test
+    public void testFlushDeferredUntilTaskRuns() {
+        EmbeddedChannel channel = new EmbeddedChannel(
+            new FlushConsolidationHandler(new FlushConsolidationConfig(64, 1024, 0)));
+
+        channel.writeAndFlush(Unpooled.wrappedBuffer(new byte[8]));
+        channel.writeAndFlush(Unpooled.wrappedBuffer(new byte[8]));
+
+        assertNull(channel.readOutbound());
+
+        channel.runPendingTasks();
+
+        assertEquals(readAndRelease(channel), 8);
+        assertEquals(readAndRelease(channel), 8);
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testFlushWhenMaxMessagesReached() {
+        EmbeddedChannel channel = new EmbeddedChannel(
+            new FlushConsolidationHandler(new FlushConsolidationConfig(2, 1024, 0)));
+
+        channel.writeAndFlush(Unpooled.wrappedBuffer(new byte[8]));
+        assertNull(channel.readOutbound());
+
+        channel.writeAndFlush(Unpooled.wrappedBuffer(new byte[8]));
+        assertEquals(readAndRelease(channel), 8);
+        assertEquals(readAndRelease(channel), 8);
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testFlushWhenMaxBytesReached() {
+        EmbeddedChannel channel = new EmbeddedChannel(
+            new FlushConsolidationHandler(new FlushConsolidationConfig(64, 16, 0)));
+
+        channel.writeAndFlush(Unpooled.wrappedBuffer(new byte[16]));
+
+        assertEquals(readAndRelease(channel), 16);
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testPendingFlushedOnClose() {
+        EmbeddedChannel channel = new EmbeddedChannel(
+            new FlushConsolidationHandler(new FlushConsolidationConfig(64, 1024, 0)));
+
+        channel.writeAndFlush(Unpooled.wrappedBuffer(new byte[8]));
+        channel.close();
+
+        assertEquals(readAndRelease(channel), 8);
+    }
+
+    private static int readAndRelease(EmbeddedChannel channel) {
+        ByteBuf buffer = (ByteBuf) channel.readOutbound();
+        int readable = buffer.readableBytes();
+        buffer.release();
+        return readable;
+    }
+
+}
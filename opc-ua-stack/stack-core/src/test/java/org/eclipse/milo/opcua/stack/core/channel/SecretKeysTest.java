@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+
+package org.eclipse.milo.opcua.stack.core.channel;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+public class SecretKeysTest {
+
+    private static final String CIPHER_TRANSFORMATION = "AES/CBC/NoPadding";
+    private static final String MAC_TRANSFORMATION = "HmacSHA256";
+
+    private final ChannelSecurity.SecretKeys secretKeys =
+        new ChannelSecurity.SecretKeys(new byte[32], new byte[32], new byte[16]);
+
+    @Test
+    public void testReleasedInstancesAreReused() throws Exception {
+        Cipher cipher = secretKeys.acquireCipher(Cipher.ENCRYPT_MODE, CIPHER_TRANSFORMATION);
+        secretKeys.releaseCipher(Cipher.ENCRYPT_MODE, cipher);
+        assertSame(secretKeys.acquireCipher(Cipher.ENCRYPT_MODE, CIPHER_TRANSFORMATION), cipher);
+
+        Mac mac = secretKeys.acquireMac(MAC_TRANSFORMATION);
+        secretKeys.releaseMac(mac);
+        assertSame(secretKeys.acquireMac(MAC_TRANSFORMATION), mac);
+    }
+
+    @Test
+    public void testConcurrentUsersGetDistinctInstances() throws Exception {
+        Mac first = secretKeys.acquireMac(MAC_TRANSFORMATION);
+        Mac second = secretKeys.acquireMac(MAC_TRANSFORMATION);
+        assertNotSame(first, second);
+
+        // A pooled instance is never handed out while it's still in use.
+        secretKeys.releaseMac(first);
+        assertNotSame(secretKeys.acquireMac(MAC_TRANSFORMATION), second);
+    }
+
+    @Test
+    public void testEncryptDecryptRoundTrip() throws Exception {
+        byte[] plainText = new byte[64];
+        for (int i = 0; i < plainText.length; i++) {
+            plainText[i] = (byte) i;
+        }
+
+        Cipher encrypt = secretKeys.acquireCipher(Cipher.ENCRYPT_MODE, CIPHER_TRANSFORMATION);
+        byte[] cipherText = encrypt.doFinal(plainText);
+        secretKeys.releaseCipher(Cipher.ENCRYPT_MODE, encrypt);
+
+        Cipher decrypt = secretKeys.acquireCipher(Cipher.DECRYPT_MODE, CIPHER_TRANSFORMATION);
+        assertEquals(decrypt.doFinal(cipherText), plainText);
+        secretKeys.releaseCipher(Cipher.DECRYPT_MODE, decrypt);
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.channel;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.milo.opcua.stack.core.application.ExecutorProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class SerializationQueueTest {
+
+    private final ChannelParameters parameters = new ChannelParameters(
+        ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE,
+        ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+        ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+        ChannelConfig.DEFAULT_MAX_CHUNK_COUNT,
+        ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE,
+        ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+        ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+        ChannelConfig.DEFAULT_MAX_CHUNK_COUNT
+    );
+
+    @Test
+    public void testHandshakeRunsOnHandshakeExecutorInOrder() throws Exception {
+        ExecutorService serialization = Executors.newSingleThreadExecutor(r -> new Thread(r, "serialization"));
+        ExecutorService handshake = Executors.newSingleThreadExecutor(r -> new Thread(r, "handshake"));
+
+        try {
+            SerializationQueue queue = new SerializationQueue(
+                ExecutorProvider.of(serialization, serialization, serialization, handshake),
+                parameters, SerializationConfig.DEFAULT);
+
+            List<String> events = new CopyOnWriteArrayList<>();
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch serializationFree = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(1);
+
+            queue.decodeHandshake((binaryDecoder, chunkDecoder) -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                    // ignored
+                }
+                events.add("handshake:" + Thread.currentThread().getName());
+            });
+
+            queue.decode((binaryDecoder, chunkDecoder) -> {
+                events.add("decode:" + Thread.currentThread().getName());
+                done.countDown();
+            });
+
+            // The serialization executor isn't held while the handshake blocks.
+            serialization.execute(serializationFree::countDown);
+            assertTrue(serializationFree.await(5, TimeUnit.SECONDS));
+            assertTrue(events.isEmpty());
+
+            release.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+
+            assertEquals(events.size(), 2);
+            assertEquals(events.get(0), "handshake:handshake");
+            assertEquals(events.get(1), "decode:serialization");
+        } finally {
+            serialization.shutdown();
+            handshake.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectedHandshakeCallsOnRejected() throws Exception {
+        ExecutorService serialization = Executors.newSingleThreadExecutor(r -> new Thread(r, "serialization"));
+        ExecutorService handshake = Executors.newSingleThreadExecutor(r -> new Thread(r, "handshake"));
+        handshake.shutdown();
+
+        try {
+            SerializationQueue queue = new SerializationQueue(
+                ExecutorProvider.of(serialization, serialization, serialization, handshake),
+                parameters, SerializationConfig.DEFAULT);
+
+            List<String> events = new CopyOnWriteArrayList<>();
+            CountDownLatch done = new CountDownLatch(1);
+
+            queue.decodeHandshake(
+                (binaryDecoder, chunkDecoder) -> events.add("handshake"),
+                e -> events.add("rejected"));
+
+            queue.decode((binaryDecoder, chunkDecoder) -> {
+                events.add("decode");
+                done.countDown();
+            });
+
+            // The queue isn't left paused by the rejected task.
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+
+            assertEquals(events.size(), 2);
+            assertEquals(events.get(0), "rejected");
+            assertEquals(events.get(1), "decode");
+        } finally {
+            serialization.shutdown();
+        }
+    }
+
+}
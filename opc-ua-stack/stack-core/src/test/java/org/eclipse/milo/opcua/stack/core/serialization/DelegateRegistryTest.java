@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.serialization;
+
+import org.eclipse.milo.opcua.stack.core.UaSerializationException;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertSame;
+
+public class DelegateRegistryTest {
+
+    @Test(expectedExceptions = UaSerializationException.class)
+    public void testUnregisteredClassThrows() {
+        DelegateRegistry.getInstance().getEncoder(new Unregistered());
+    }
+
+    @Test
+    public void testReRegistrationVisibleAfterLookup() {
+        EncoderDelegate<Registered> encoder1 = (value, encoder) -> {};
+        DecoderDelegate<Registered> decoder1 = decoder -> new Registered();
+        DelegateRegistry.register(encoder1, decoder1, Registered.class);
+
+        assertSame(DelegateRegistry.getInstance().getEncoder(Registered.class), encoder1);
+        assertSame(DelegateRegistry.getInstance().getDecoder(Registered.class), decoder1);
+
+        EncoderDelegate<Registered> encoder2 = (value, encoder) -> {};
+        DecoderDelegate<Registered> decoder2 = decoder -> new Registered();
+        DelegateRegistry.register(encoder2, decoder2, Registered.class);
+
+        assertSame(DelegateRegistry.getInstance().getEncoder(new Registered()), encoder2);
+        assertSame(DelegateRegistry.getInstance().getDecoder(Registered.class), decoder2);
+    }
+
+    @Test
+    public void testEncoderFallsBackToEncodingId() {
+        NodeId encodingId = new NodeId(1, "DelegateRegistryTest.RegisteredById");
+
+        EncoderDelegate<RegisteredById> encoder = (value, e) -> {};
+        DelegateRegistry.registerEncoder(encoder, RegisteredById.class, encodingId);
+
+        // No encoder is registered for the subclass itself, so the one registered for its encoding id is used.
+        assertSame(DelegateRegistry.getInstance().getEncoder(RegisteredByIdSubclass.class, encodingId), encoder);
+        assertSame(DelegateRegistry.getInstance().getEncoder(RegisteredById.class, NodeId.NULL_VALUE), encoder);
+    }
+
+    @Test(expectedExceptions = UaSerializationException.class)
+    public void testEncoderFallbackToUnknownEncodingIdThrows() {
+        DelegateRegistry.getInstance().getEncoder(Unregistered.class, new NodeId(1, "DelegateRegistryTest.Unknown"));
+    }
+
+    private static class Registered {
+    }
+
+    private static class RegisteredById {
+    }
+
+    private static class RegisteredByIdSubclass extends RegisteredById {
+    }
+
+    private static class Unregistered {
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.serialization.binary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.milo.opcua.stack.core.serialization.ArrayElementConsumers;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DiagnosticInfo;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExpandedNodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.NodeClass;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowseResponse;
+import org.eclipse.milo.opcua.stack.core.types.structured.BrowseResult;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadResponse;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReferenceDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.ResponseHeader;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+
+public class ArrayStreamingTest extends BinarySerializationFixture {
+
+    private static final ResponseHeader HEADER = new ResponseHeader(
+        DateTime.now(), uint(42), StatusCode.GOOD, null, new String[0], null);
+
+    @Test
+    public void testTopLevelArrayStreamed() {
+        DataValue[] values = new DataValue[100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new DataValue(new Variant(i));
+        }
+
+        List<UInteger> handles = new ArrayList<>();
+        List<DataValue> streamed = new ArrayList<>();
+
+        decoder.setArrayElementConsumers(new ArrayElementConsumers().register(
+            ReadResponse.class, "Results", DataValue.class,
+            (requestHandle, index, value) -> {
+                assertEquals(index, streamed.size());
+                handles.add(requestHandle);
+                streamed.add(value);
+            }));
+
+        encoder.encodeMessage(null, new ReadResponse(HEADER, values, new DiagnosticInfo[0]));
+        ReadResponse response = decoder.decodeMessage(null);
+
+        assertEquals(response.getResults().length, 0);
+        assertEquals(response.getResponseHeader().getRequestHandle(), uint(42));
+        assertEquals(streamed.toArray(new DataValue[0]), values);
+        assertEquals(handles.size(), values.length);
+        assertEquals(handles.get(0), uint(42));
+    }
+
+    @Test
+    public void testNestedArraysNotStreamed() {
+        ReferenceDescription reference = new ReferenceDescription(
+            NodeId.NULL_VALUE,
+            true,
+            ExpandedNodeId.NULL_VALUE,
+            QualifiedName.NULL_VALUE,
+            LocalizedText.NULL_VALUE,
+            NodeClass.Object,
+            ExpandedNodeId.NULL_VALUE);
+
+        BrowseResult result = new BrowseResult(
+            StatusCode.GOOD, ByteString.NULL_VALUE, new ReferenceDescription[]{reference, reference});
+
+        List<BrowseResult> streamed = new ArrayList<>();
+
+        decoder.setArrayElementConsumers(new ArrayElementConsumers()
+            .register(BrowseResponse.class, "Results", BrowseResult.class, (h, i, r) -> streamed.add(r))
+            .register(BrowseResponse.class, "References", ReferenceDescription.class, (h, i, r) -> {
+                throw new AssertionError("nested array streamed");
+            }));
+
+        encoder.encodeMessage(null, new BrowseResponse(HEADER, new BrowseResult[]{result}, new DiagnosticInfo[0]));
+        BrowseResponse response = decoder.decodeMessage(null);
+
+        assertEquals(response.getResults().length, 0);
+        assertEquals(streamed.size(), 1);
+        assertEquals(streamed.get(0).getReferences().length, 2);
+    }
+
+    @Test
+    public void testUnregisteredMessageDecodedNormally() {
+        DataValue[] values = {new DataValue(new Variant(1)), new DataValue(new Variant(2))};
+
+        decoder.setArrayElementConsumers(new ArrayElementConsumers().register(
+            BrowseResponse.class, "Results", BrowseResult.class, (h, i, r) -> {
+                throw new AssertionError("unexpected element");
+            }));
+
+        encoder.encodeMessage(null, new ReadResponse(HEADER, values, new DiagnosticInfo[0]));
+        ReadResponse response = decoder.decodeMessage(null);
+
+        assertEquals(response.getResults(), values);
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.serialization.binary;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExpandedNodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class InterningCacheTest extends BinarySerializationFixture {
+
+    @DataProvider
+    public Object[][] getNodeIds() {
+        return new Object[][]{
+            {new NodeId(0, 1)},
+            {new NodeId(1, 1024)},
+            {new NodeId(ushort(2), uint(70000))},
+            {new NodeId(ushort(3), "string")}
+        };
+    }
+
+    @Test(dataProvider = "getNodeIds")
+    public void testNodeIdInterned(NodeId nodeId) {
+        InterningCache cache = new InterningCache();
+        decoder.setInterningCache(cache);
+
+        encoder.encodeNodeId(null, nodeId);
+        encoder.encodeNodeId(null, nodeId);
+
+        NodeId first = decoder.decodeNodeId(null);
+        NodeId second = decoder.decodeNodeId(null);
+
+        assertEquals(first, nodeId);
+        assertSame(second, first);
+        assertEquals(cache.getNodeIdStats().hitCount(), 1L);
+    }
+
+    @Test
+    public void testQualifiedNameInterned() {
+        InterningCache cache = new InterningCache();
+        decoder.setInterningCache(cache);
+
+        QualifiedName name = new QualifiedName(2, "Name");
+
+        encoder.encodeQualifiedName(null, name);
+        encoder.encodeQualifiedName(null, name);
+
+        QualifiedName first = decoder.decodeQualifiedName(null);
+        QualifiedName second = decoder.decodeQualifiedName(null);
+
+        assertEquals(first, name);
+        assertSame(second, first);
+        assertEquals(cache.getQualifiedNameStats().hitRate(), 0.5);
+    }
+
+    @Test
+    public void testNamespaceUriInterned() {
+        InterningCache cache = new InterningCache();
+        decoder.setInterningCache(cache);
+
+        ExpandedNodeId xni = new ExpandedNodeId(ushort(0), uint(1), "urn:test", 0);
+
+        encoder.encodeExpandedNodeId(null, xni);
+        encoder.encodeExpandedNodeId(null, xni);
+
+        ExpandedNodeId first = decoder.decodeExpandedNodeId(null);
+        ExpandedNodeId second = decoder.decodeExpandedNodeId(null);
+
+        assertEquals(first, xni);
+        assertSame(second.getNamespaceUri(), first.getNamespaceUri());
+    }
+
+    @Test
+    public void testMaximumSize() {
+        InterningCache cache = new InterningCache(16);
+
+        for (int i = 0; i < 1000; i++) {
+            cache.getNumericNodeId(0, i);
+        }
+
+        assertTrue(cache.size() <= 16);
+    }
+
+}
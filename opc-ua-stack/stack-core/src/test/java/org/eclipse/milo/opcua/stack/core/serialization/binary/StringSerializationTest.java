@@ -13,6 +13,12 @@
 
 package org.eclipse.milo.opcua.stack.core.serialization.binary;
 
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -26,7 +32,10 @@ public class StringSerializationTest extends BinarySerializationFixture {
                 {null},
                 {""},
                 {"Hello, world!"},
-                {"水Boy"}
+                {"水Boy"},
+                {"\u00e9t\u00e9"},
+                {"\ud83d\ude00 emoji"},
+                {"\u0800\uffff\u07ff"}
         };
     }
 
@@ -38,4 +47,49 @@ public class StringSerializationTest extends BinarySerializationFixture {
         assertEquals(decoded, value);
     }
 
+    @Test(dataProvider = "StringProvider")
+    public void testEncodedBytesMatchGetBytes(String value) {
+        encoder.encodeString(null, value);
+
+        int length = buffer.readInt();
+
+        if (value == null) {
+            assertEquals(length, -1);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.readBytes(bytes);
+
+            assertEquals(bytes, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testUnpairedSurrogateEncodedAsQuestionMark() {
+        String value = "a\ud800b\udc00";
+
+        encoder.encodeString(null, value);
+
+        String expected = new String(value.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+
+        assertEquals(decoder.decodeString(null), expected);
+    }
+
+    @Test(dataProvider = "StringProvider")
+    public void testStringRoundTripComposite(String value) {
+        encoder.encodeString(null, value);
+
+        // Split the encoded bytes across two components so the decoder can't use a backing array.
+        int split = buffer.readableBytes() / 2;
+
+        CompositeByteBuf composite = Unpooled.compositeBuffer();
+        composite.addComponent(buffer.readSlice(split));
+        composite.addComponent(buffer.readSlice(buffer.readableBytes()));
+        composite.writerIndex(composite.capacity());
+
+        ByteBuf swapped = composite.order(ByteOrder.LITTLE_ENDIAN);
+        String decoded = new BinaryDecoder().setBuffer(swapped).decodeString(null);
+
+        assertEquals(decoded, value);
+    }
+
 }
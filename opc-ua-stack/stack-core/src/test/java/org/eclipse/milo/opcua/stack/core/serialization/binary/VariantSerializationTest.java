@@ -18,6 +18,8 @@ import java.nio.ByteOrder;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import org.eclipse.milo.opcua.stack.core.BuiltinDataType;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaSerializationException;
 import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
 import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
@@ -99,6 +101,64 @@ public class VariantSerializationTest extends BinarySerializationFixture {
         assertEquals(decoded, expected);
     }
 
+    @DataProvider(name = "PrimitiveArrayProvider")
+    public Object[][] getPrimitiveArrays() {
+        return new Object[][]{
+                {new boolean[]{true, false, true}, new Boolean[]{true, false, true}},
+                {new byte[]{-1, 0, 1}, new Byte[]{-1, 0, 1}},
+                {new short[]{-1, 0, 1}, new Short[]{-1, 0, 1}},
+                {new int[]{-1, 0, 1}, new Integer[]{-1, 0, 1}},
+                {new long[]{-1L, 0L, 1L}, new Long[]{-1L, 0L, 1L}},
+                {new float[]{-1.5f, 0f, 1.5f}, new Float[]{-1.5f, 0f, 1.5f}},
+                {new double[]{-1.5, 0.0, 1.5}, new Double[]{-1.5, 0.0, 1.5}},
+                {new double[][]{{0.0, 1.0, 2.0}, {3.0, 4.0, 5.0}}, new Double[][]{{0.0, 1.0, 2.0}, {3.0, 4.0, 5.0}}},
+                {new int[][][]{{{0, 1}, {2, 3}}, {{4, 5}, {6, 7}}},
+                        new Integer[][][]{{{0, 1}, {2, 3}}, {{4, 5}, {6, 7}}}}
+        };
+    }
+
+    @Test(dataProvider = "PrimitiveArrayProvider",
+            description = "Test that primitive arrays are encoded identically to their boxed equivalents.")
+    public void testPrimitiveArrayEncodedSameAsBoxed(Object primitiveArray, Object boxedArray) {
+        encoder.encodeVariant(null, new Variant(primitiveArray));
+        byte[] primitiveBytes = new byte[buffer.readableBytes()];
+        buffer.readBytes(primitiveBytes);
+
+        encoder.encodeVariant(null, new Variant(boxedArray));
+        byte[] boxedBytes = new byte[buffer.readableBytes()];
+        buffer.readBytes(boxedBytes);
+
+        assertEquals(primitiveBytes, boxedBytes);
+    }
+
+    @Test(dataProvider = "PrimitiveArrayProvider",
+            description = "Test that primitive arrays round trip as primitive arrays when enabled on the decoder.")
+    public void testPrimitiveArraysEnabledRoundTrip(Object primitiveArray, Object boxedArray) {
+        decoder.setPrimitiveArraysEnabled(true);
+
+        encoder.encodeVariant(null, new Variant(boxedArray));
+        Variant decoded = decoder.decodeVariant(null);
+
+        assertEquals(decoded.getValue().getClass(), primitiveArray.getClass());
+        assertEquals(decoded, new Variant(primitiveArray));
+    }
+
+    @Test(description = "Test that a primitive array longer than the remaining bytes is rejected before allocating.")
+    public void testPrimitiveArrayLengthExceedsReadableBytes() {
+        decoder.setPrimitiveArraysEnabled(true);
+
+        buffer.writeByte(BuiltinDataType.Double.getTypeId() | (1 << 7));
+        buffer.writeInt(1024);
+        buffer.writeDouble(0.0);
+
+        try {
+            decoder.decodeVariant(null);
+            Assert.fail("expected UaSerializationException");
+        } catch (UaSerializationException e) {
+            assertEquals(e.getStatusCode(), StatusCodes.Bad_DecodingError);
+        }
+    }
+
     @Test(description = "Test that a Variant containing a null array encoded with a negative array size to indicate a null value decodes properly.")
     public void testNullArrayEncodedWithNegativeArraySize() {
         ByteBuf buffer = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
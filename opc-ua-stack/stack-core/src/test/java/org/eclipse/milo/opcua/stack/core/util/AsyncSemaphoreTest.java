@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.util;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.milo.opcua.stack.core.util.AsyncSemaphore.SemaphorePermit;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class AsyncSemaphoreTest {
+
+    @Test
+    public void testTryAcquireAndQueue() {
+        AsyncSemaphore semaphore = new AsyncSemaphore(1);
+
+        Optional<SemaphorePermit> permit = semaphore.tryAcquire();
+        assertTrue(permit.isPresent());
+        assertFalse(semaphore.tryAcquire().isPresent());
+        assertEquals(semaphore.getAvailablePermits(), 0);
+
+        CompletableFuture<SemaphorePermit> waiter = semaphore.acquire();
+        assertFalse(waiter.isDone());
+        assertEquals(semaphore.getQueueLength(), 1);
+
+        permit.get().release();
+        assertTrue(waiter.isDone());
+        assertEquals(semaphore.getQueueLength(), 0);
+        assertEquals(semaphore.getAvailablePermits(), 0);
+
+        waiter.join().release();
+        assertEquals(semaphore.getAvailablePermits(), 1);
+    }
+
+    @Test
+    public void testReleaseIsIdempotent() {
+        AsyncSemaphore semaphore = new AsyncSemaphore(1);
+
+        SemaphorePermit permit = semaphore.acquire().join();
+        permit.release();
+        permit.release();
+
+        assertEquals(semaphore.getAvailablePermits(), 1);
+    }
+
+}
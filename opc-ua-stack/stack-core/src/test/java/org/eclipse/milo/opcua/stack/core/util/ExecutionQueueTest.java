@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.util;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class ExecutionQueueTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterClass
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSubmissionOrderPreserved() throws Exception {
+        ExecutionQueue queue = new ExecutionQueue(executor, 4);
+
+        List<Integer> executed = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1000);
+
+        for (int i = 0; i < 1000; i++) {
+            final int n = i;
+            queue.submit(() -> {
+                executed.add(n);
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(executed.get(i).intValue(), i);
+        }
+    }
+
+    @Test
+    public void testSerialExecutionWithManyProducers() throws Exception {
+        ExecutionQueue queue = new ExecutionQueue(executor);
+
+        AtomicInteger running = new AtomicInteger(0);
+        AtomicBoolean overlapped = new AtomicBoolean(false);
+        CountDownLatch latch = new CountDownLatch(4 * 1000);
+
+        Thread[] producers = new Thread[4];
+
+        for (int i = 0; i < producers.length; i++) {
+            producers[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    queue.submit(() -> {
+                        if (running.incrementAndGet() > 1) {
+                            overlapped.set(true);
+                        }
+                        running.decrementAndGet();
+                        latch.countDown();
+                    });
+                }
+            });
+            producers[i].start();
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertFalse(overlapped.get());
+    }
+
+    @Test
+    public void testPauseAndResume() throws Exception {
+        ExecutionQueue queue = new ExecutionQueue(executor);
+
+        queue.pause();
+
+        AtomicInteger executed = new AtomicInteger(0);
+        CountDownLatch latch = new CountDownLatch(2);
+
+        queue.submit(() -> {
+            executed.incrementAndGet();
+            latch.countDown();
+        });
+        queue.submitToHead(() -> {
+            assertEquals(executed.get(), 0);
+            executed.incrementAndGet();
+            latch.countDown();
+        });
+
+        assertFalse(latch.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(executed.get(), 0);
+
+        queue.resume();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(executed.get(), 2);
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.core.util;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.Optional;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class TransportUtilTest {
+
+    @Test
+    public void testNioWhenNativeNotPreferred() {
+        EventLoopGroup group = TransportUtil.newEventLoopGroup(false, 1, Thread::new);
+
+        try {
+            assertTrue(group instanceof NioEventLoopGroup);
+            assertFalse(TransportUtil.isNative(group));
+            assertEquals(TransportUtil.socketChannelClass(group), NioSocketChannel.class);
+            assertEquals(TransportUtil.serverSocketChannelClass(group), NioServerSocketChannel.class);
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testChannelClassesMatchPreferredGroup() {
+        EventLoopGroup group = TransportUtil.newEventLoopGroup(true, 1, Thread::new);
+
+        try {
+            assertEquals(TransportUtil.isNative(group), TransportUtil.isEpollAvailable());
+
+            if (TransportUtil.isNative(group)) {
+                assertEquals(TransportUtil.socketChannelClass(group), EpollSocketChannel.class);
+                assertEquals(TransportUtil.serverSocketChannelClass(group), EpollServerSocketChannel.class);
+            } else {
+                assertEquals(TransportUtil.socketChannelClass(group), NioSocketChannel.class);
+                assertEquals(TransportUtil.serverSocketChannelClass(group), NioServerSocketChannel.class);
+            }
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testAddressesFromEndpointUrls() throws Exception {
+        URI tcp = new URI("opc.tcp://localhost:12685/test").parseServerAuthority();
+
+        assertEquals(TransportUtil.connectAddress(tcp), new InetSocketAddress("localhost", 12685));
+        assertEquals(
+            TransportUtil.bindAddress(tcp, Optional.of("0.0.0.0")),
+            new InetSocketAddress("0.0.0.0", 12685));
+
+        URI local = new URI("opc.local://example/test").parseServerAuthority();
+
+        assertTrue(TransportUtil.isLocal(local));
+        assertEquals(TransportUtil.connectAddress(local), new LocalAddress("example"));
+        assertEquals(TransportUtil.bindAddress(local, Optional.of("0.0.0.0")), new LocalAddress("example"));
+
+        URI unix = new URI("opc.unix://localhost/test?socket=/tmp/milo-test.sock").parseServerAuthority();
+
+        assertTrue(TransportUtil.isUnix(unix));
+        assertEquals(TransportUtil.domainSocketPath(unix), "/tmp/milo-test.sock");
+
+        assertThrows(IllegalArgumentException.class, () ->
+            TransportUtil.domainSocketPath(new URI("opc.unix://localhost/test")));
+    }
+
+    @Test
+    public void testChannelClassesForAddresses() {
+        EventLoopGroup group = TransportUtil.newEventLoopGroup(false, 1, Thread::new);
+
+        try {
+            SocketAddress local = new LocalAddress("example");
+
+            assertEquals(TransportUtil.channelClass(group, local), LocalChannel.class);
+            assertEquals(TransportUtil.serverChannelClass(group, local), LocalServerChannel.class);
+
+            SocketAddress inet = new InetSocketAddress("localhost", 12685);
+
+            assertEquals(TransportUtil.channelClass(group, inet), NioSocketChannel.class);
+            assertEquals(TransportUtil.serverChannelClass(group, inet), NioServerSocketChannel.class);
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testDomainSocketChannelClassesRequireNativeGroup() throws Exception {
+        if (!TransportUtil.isEpollAvailable()) {
+            throw new SkipException("native epoll transport not available");
+        }
+
+        URI unix = new URI("opc.unix://localhost/test?socket=/tmp/milo-test.sock").parseServerAuthority();
+        SocketAddress address = TransportUtil.connectAddress(unix);
+
+        assertEquals(((DomainSocketAddress) address).path(), "/tmp/milo-test.sock");
+
+        EventLoopGroup nio = TransportUtil.newEventLoopGroup(false, 1, Thread::new);
+        EventLoopGroup epoll = TransportUtil.newEventLoopGroup(true, 1, Thread::new);
+
+        try {
+            assertThrows(IllegalArgumentException.class, () -> TransportUtil.channelClass(nio, address));
+
+            assertEquals(TransportUtil.channelClass(epoll, address), EpollDomainSocketChannel.class);
+            assertEquals(TransportUtil.serverChannelClass(epoll, address), EpollServerDomainSocketChannel.class);
+        } finally {
+            nio.shutdownGracefully();
+            epoll.shutdownGracefully();
+        }
+    }
+
+}
@@ -14,12 +14,19 @@
 package org.eclipse.milo.opcua.stack.server.config;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 
 import org.eclipse.milo.opcua.stack.core.application.CertificateManager;
 import org.eclipse.milo.opcua.stack.core.application.CertificateValidator;
+import org.eclipse.milo.opcua.stack.core.application.ExecutorProvider;
+import org.eclipse.milo.opcua.stack.core.channel.AdaptiveBufferSizeConfig;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelConfig;
+import org.eclipse.milo.opcua.stack.core.channel.FlushConsolidationConfig;
+import org.eclipse.milo.opcua.stack.core.channel.ParallelDecodingConfig;
+import org.eclipse.milo.opcua.stack.core.channel.SerializationConfig;
+import org.eclipse.milo.opcua.stack.core.serialization.binary.InterningCache;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.structured.ApplicationDescription;
 import org.eclipse.milo.opcua.stack.core.types.structured.SignedSoftwareCertificate;
@@ -97,6 +104,76 @@ public interface UaTcpStackServerConfig {
      */
     boolean isStrictEndpointUrlsEnabled();
 
+    /**
+     * @return the {@link FlushConsolidationConfig} for channels accepted by this server. Flush consolidation is
+     * disabled by default.
+     */
+    FlushConsolidationConfig getFlushConsolidationConfig();
+
+    /**
+     * Get the {@link ExecutorProvider} supplying the executors for the decode, service, and encode stages.
+     * <p>
+     * If none was configured, every stage uses {@link #getExecutor()}. If one was configured but no executor was,
+     * {@link #getExecutor()} is the {@link ExecutorProvider.Stage#Service} executor.
+     *
+     * @return the {@link ExecutorProvider}.
+     */
+    ExecutorProvider getExecutorProvider();
+
+    /**
+     * Get the {@link InterningCache} used to de-duplicate decoded NodeIds, QualifiedNames, and namespace URIs.
+     * <p>
+     * Interning is disabled unless a cache is configured.
+     *
+     * @return the {@link InterningCache}, if configured.
+     */
+    Optional<InterningCache> getInterningCache();
+
+    /**
+     * @return {@code true} if Variant arrays of numeric and Boolean built-in types should be decoded into primitive
+     * arrays, e.g. {@code double[]} instead of {@code Double[]}.
+     */
+    boolean isPrimitiveArraysEnabled();
+
+    /**
+     * Get the maximum number of OpenSecureChannel handshakes that may be queued or running at once.
+     * <p>
+     * Further OpenSecureChannel requests are rejected with Bad_TcpServerTooBusy until a handshake completes, so a
+     * reconnect storm can only queue a bounded amount of asymmetric crypto work.
+     *
+     * @return the maximum number of pending handshakes.
+     */
+    int getMaxPendingHandshakes();
+
+    /**
+     * @return the {@link ParallelDecodingConfig} for channels accepted by this server. Chunks of a message are
+     * decoded one after another by default.
+     */
+    ParallelDecodingConfig getParallelDecodingConfig();
+
+    /**
+     * @return the {@link AdaptiveBufferSizeConfig} used to size the buffers negotiated for connections accepted by
+     * this server. Adaptive sizing is disabled by default.
+     */
+    AdaptiveBufferSizeConfig getAdaptiveBufferSizeConfig();
+
+    /**
+     * Get the {@link SerializationConfig} for channels opened by this server, combining the array and string length
+     * limits of {@link #getChannelConfig()} with {@link #getInterningCache()}, {@link #isPrimitiveArraysEnabled()},
+     * and {@link #getParallelDecodingConfig()}.
+     *
+     * @return the {@link SerializationConfig} for channels opened by this server.
+     */
+    default SerializationConfig getSerializationConfig() {
+        return SerializationConfig.builder()
+            .setMaxArrayLength(getChannelConfig().getMaxArrayLength())
+            .setMaxStringLength(getChannelConfig().getMaxStringLength())
+            .setInterningCache(getInterningCache().orElse(null))
+            .setPrimitiveArraysEnabled(isPrimitiveArraysEnabled())
+            .setParallelDecodingConfig(getParallelDecodingConfig())
+            .build();
+    }
+
     /**
      * @return a new {@link UaTcpStackServerConfigBuilder}.
      */
@@ -126,6 +203,13 @@ public interface UaTcpStackServerConfig {
         builder.setSoftwareCertificates(config.getSoftwareCertificates());
         builder.setChannelConfig(config.getChannelConfig());
         builder.setStrictEndpointUrlsEnabled(config.isStrictEndpointUrlsEnabled());
+        builder.setFlushConsolidationConfig(config.getFlushConsolidationConfig());
+        builder.setExecutorProvider(config.getExecutorProvider());
+        config.getInterningCache().ifPresent(builder::setInterningCache);
+        builder.setPrimitiveArraysEnabled(config.isPrimitiveArraysEnabled());
+        builder.setMaxPendingHandshakes(config.getMaxPendingHandshakes());
+        builder.setParallelDecodingConfig(config.getParallelDecodingConfig());
+        builder.setAdaptiveBufferSizeConfig(config.getAdaptiveBufferSizeConfig());
 
         return builder;
     }
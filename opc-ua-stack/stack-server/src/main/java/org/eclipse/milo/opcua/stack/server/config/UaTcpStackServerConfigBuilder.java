@@ -15,13 +15,19 @@ package org.eclipse.milo.opcua.stack.server.config;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 
 import com.google.common.base.Preconditions;
 import org.eclipse.milo.opcua.stack.core.Stack;
 import org.eclipse.milo.opcua.stack.core.application.CertificateManager;
 import org.eclipse.milo.opcua.stack.core.application.CertificateValidator;
+import org.eclipse.milo.opcua.stack.core.application.ExecutorProvider;
+import org.eclipse.milo.opcua.stack.core.channel.AdaptiveBufferSizeConfig;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelConfig;
+import org.eclipse.milo.opcua.stack.core.channel.FlushConsolidationConfig;
+import org.eclipse.milo.opcua.stack.core.channel.ParallelDecodingConfig;
+import org.eclipse.milo.opcua.stack.core.serialization.binary.InterningCache;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.structured.SignedSoftwareCertificate;
 import org.eclipse.milo.opcua.stack.core.types.structured.UserTokenPolicy;
@@ -43,6 +49,13 @@ public class UaTcpStackServerConfigBuilder {
     private ExecutorService executor;
     private List<UserTokenPolicy> userTokenPolicies = new ArrayList<>();
     private List<SignedSoftwareCertificate> softwareCertificates = new ArrayList<>();
+    private FlushConsolidationConfig flushConsolidationConfig = FlushConsolidationConfig.DISABLED;
+    private ExecutorProvider executorProvider;
+    private InterningCache interningCache;
+    private boolean primitiveArraysEnabled = false;
+    private int maxPendingHandshakes = 100;
+    private ParallelDecodingConfig parallelDecodingConfig = ParallelDecodingConfig.DISABLED;
+    private AdaptiveBufferSizeConfig adaptiveBufferSizeConfig = AdaptiveBufferSizeConfig.DISABLED;
 
 
     public UaTcpStackServerConfigBuilder setServerName(String serverName) {
@@ -100,12 +113,54 @@ public class UaTcpStackServerConfigBuilder {
         return this;
     }
 
+    public UaTcpStackServerConfigBuilder setFlushConsolidationConfig(
+        FlushConsolidationConfig flushConsolidationConfig) {
+
+        this.flushConsolidationConfig = flushConsolidationConfig;
+        return this;
+    }
+
+    public UaTcpStackServerConfigBuilder setExecutorProvider(ExecutorProvider executorProvider) {
+        this.executorProvider = executorProvider;
+        return this;
+    }
+
+    public UaTcpStackServerConfigBuilder setInterningCache(InterningCache interningCache) {
+        this.interningCache = interningCache;
+        return this;
+    }
+
+    public UaTcpStackServerConfigBuilder setPrimitiveArraysEnabled(boolean primitiveArraysEnabled) {
+        this.primitiveArraysEnabled = primitiveArraysEnabled;
+        return this;
+    }
+
+    public UaTcpStackServerConfigBuilder setMaxPendingHandshakes(int maxPendingHandshakes) {
+        this.maxPendingHandshakes = maxPendingHandshakes;
+        return this;
+    }
+
+    public UaTcpStackServerConfigBuilder setParallelDecodingConfig(ParallelDecodingConfig parallelDecodingConfig) {
+        this.parallelDecodingConfig = parallelDecodingConfig;
+        return this;
+    }
+
+    public UaTcpStackServerConfigBuilder setAdaptiveBufferSizeConfig(
+        AdaptiveBufferSizeConfig adaptiveBufferSizeConfig) {
+
+        this.adaptiveBufferSizeConfig = adaptiveBufferSizeConfig;
+        return this;
+    }
+
     public UaTcpStackServerConfig build() {
         Preconditions.checkNotNull(certificateManager, "certificateManager must be non-null");
         Preconditions.checkNotNull(certificateValidator, "certificateValidator must be non-null");
+        Preconditions.checkArgument(maxPendingHandshakes > 0, "maxPendingHandshakes must be > 0");
 
         if (executor == null) {
-            executor = Stack.sharedExecutor();
+            executor = executorProvider != null ?
+                executorProvider.getExecutor(ExecutorProvider.Stage.Service) :
+                Stack.sharedExecutor();
         }
 
         return new UaTcpStackServerConfigImpl(
@@ -119,7 +174,14 @@ public class UaTcpStackServerConfigBuilder {
             certificateValidator,
             executor,
             userTokenPolicies,
-            softwareCertificates
+            softwareCertificates,
+            flushConsolidationConfig,
+            executorProvider != null ? executorProvider : ExecutorProvider.of(executor),
+            interningCache,
+            primitiveArraysEnabled,
+            maxPendingHandshakes,
+            parallelDecodingConfig,
+            adaptiveBufferSizeConfig
         );
     }
 
@@ -139,6 +201,13 @@ public class UaTcpStackServerConfigBuilder {
         private final ExecutorService executor;
         private final List<UserTokenPolicy> userTokenPolicies;
         private final List<SignedSoftwareCertificate> softwareCertificates;
+        private final FlushConsolidationConfig flushConsolidationConfig;
+        private final ExecutorProvider executorProvider;
+        private final InterningCache interningCache;
+        private final boolean primitiveArraysEnabled;
+        private final int maxPendingHandshakes;
+        private final ParallelDecodingConfig parallelDecodingConfig;
+        private final AdaptiveBufferSizeConfig adaptiveBufferSizeConfig;
 
         public UaTcpStackServerConfigImpl(String serverName,
                                           LocalizedText applicationName,
@@ -150,7 +219,14 @@ public class UaTcpStackServerConfigBuilder {
                                           CertificateValidator certificateValidator,
                                           ExecutorService executor,
                                           List<UserTokenPolicy> userTokenPolicies,
-                                          List<SignedSoftwareCertificate> softwareCertificates) {
+                                          List<SignedSoftwareCertificate> softwareCertificates,
+                                          FlushConsolidationConfig flushConsolidationConfig,
+                                          ExecutorProvider executorProvider,
+                                          InterningCache interningCache,
+                                          boolean primitiveArraysEnabled,
+                                          int maxPendingHandshakes,
+                                          ParallelDecodingConfig parallelDecodingConfig,
+                                          AdaptiveBufferSizeConfig adaptiveBufferSizeConfig) {
 
             this.serverName = serverName;
             this.applicationName = applicationName;
@@ -163,6 +239,13 @@ public class UaTcpStackServerConfigBuilder {
             this.executor = executor;
             this.userTokenPolicies = userTokenPolicies;
             this.softwareCertificates = softwareCertificates;
+            this.flushConsolidationConfig = flushConsolidationConfig;
+            this.executorProvider = executorProvider;
+            this.interningCache = interningCache;
+            this.primitiveArraysEnabled = primitiveArraysEnabled;
+            this.maxPendingHandshakes = maxPendingHandshakes;
+            this.parallelDecodingConfig = parallelDecodingConfig;
+            this.adaptiveBufferSizeConfig = adaptiveBufferSizeConfig;
         }
 
         @Override
@@ -220,6 +303,41 @@ public class UaTcpStackServerConfigBuilder {
             return softwareCertificates;
         }
 
+        @Override
+        public FlushConsolidationConfig getFlushConsolidationConfig() {
+            return flushConsolidationConfig;
+        }
+
+        @Override
+        public ExecutorProvider getExecutorProvider() {
+            return executorProvider;
+        }
+
+        @Override
+        public Optional<InterningCache> getInterningCache() {
+            return Optional.ofNullable(interningCache);
+        }
+
+        @Override
+        public boolean isPrimitiveArraysEnabled() {
+            return primitiveArraysEnabled;
+        }
+
+        @Override
+        public int getMaxPendingHandshakes() {
+            return maxPendingHandshakes;
+        }
+
+        @Override
+        public ParallelDecodingConfig getParallelDecodingConfig() {
+            return parallelDecodingConfig;
+        }
+
+        @Override
+        public AdaptiveBufferSizeConfig getAdaptiveBufferSizeConfig() {
+            return adaptiveBufferSizeConfig;
+        }
+
     }
 
 }
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
 
 import io.netty.buffer.ByteBuf;
@@ -70,7 +71,7 @@ public class UaTcpServerAsymmetricHandler extends ByteToMessageDecoder implement
     private ServerSecureChannel secureChannel;
     private volatile boolean symmetricHandlerAdded = false;
 
-    private List<ByteBuf> chunkBuffers = new ArrayList<>();
+    private List<ByteBuf> chunkBuffers;
 
     private final AtomicReference<AsymmetricSecurityHeader> headerRef = new AtomicReference<>();
 
@@ -86,6 +87,8 @@ public class UaTcpServerAsymmetricHandler extends ByteToMessageDecoder implement
 
         maxChunkCount = serializationQueue.getParameters().getLocalMaxChunkCount();
         maxChunkSize = serializationQueue.getParameters().getLocalReceiveBufferSize();
+
+        chunkBuffers = new ArrayList<>(maxChunkCount);
     }
 
     @Override
@@ -251,31 +254,63 @@ public class UaTcpServerAsymmetricHandler extends ByteToMessageDecoder implement
                 chunkBuffers = new ArrayList<>(maxChunkCount);
                 headerRef.set(null);
 
-                serializationQueue.decode((binaryDecoder, chunkDecoder) -> {
+                if (!server.tryAcquireHandshakePermit()) {
+                    buffersToDecode.forEach(ByteBuf::release);
+
+                    if (secureChannelId == 0) {
+                        server.closeSecureChannel(secureChannel);
+                    }
+
+                    throw new UaException(StatusCodes.Bad_TcpServerTooBusy,
+                        "too many pending OpenSecureChannel requests");
+                }
+
+                serializationQueue.decodeHandshake((binaryDecoder, chunkDecoder) -> {
                     ByteBuf messageBuffer = null;
+                    boolean responseQueued = false;
 
                     try {
                         messageBuffer = chunkDecoder.decodeAsymmetric(secureChannel, buffersToDecode);
 
+                        long decodeStart = System.nanoTime();
+
                         OpenSecureChannelRequest request = binaryDecoder
                             .setBuffer(messageBuffer)
                             .decodeMessage(null);
 
+                        secureChannel.getMetrics().recordMessageIn(
+                            request.getClass(), System.nanoTime() - decodeStart);
+
                         logger.debug("Received OpenSecureChannelRequest ({}, id={}).",
                             request.getRequestType(), secureChannelId);
 
                         long requestId = chunkDecoder.getLastRequestId();
                         installSecurityToken(ctx, request, requestId);
+                        responseQueued = true;
                     } catch (UaException e) {
                         logger.error("Error decoding asymmetric message: {}", e.getMessage(), e);
                         ctx.close();
                     } finally {
+                        if (!responseQueued) {
+                            // Otherwise released once the response has been encoded.
+                            server.releaseHandshakePermit();
+                        }
+
                         if (messageBuffer != null) {
                             messageBuffer.release();
                         }
                         buffersToDecode.clear();
                     }
-                });
+                }, e -> {
+                        buffersToDecode.forEach(ByteBuf::release);
+                        buffersToDecode.clear();
+
+                        if (secureChannelId == 0) {
+                            server.closeSecureChannel(secureChannel);
+                        }
+
+                        handshakeRejected(ctx, e);
+                    });
             }
         }
     }
@@ -382,12 +417,14 @@ public class UaTcpServerAsymmetricHandler extends ByteToMessageDecoder implement
         long requestId,
         OpenSecureChannelResponse response) {
 
-        serializationQueue.encode((binaryEncoder, chunkEncoder) -> {
+        serializationQueue.encodeHandshake((binaryEncoder, chunkEncoder) -> {
             ByteBuf messageBuffer = BufferUtil.buffer();
 
             try {
+                long encodeStart = System.nanoTime();
                 binaryEncoder.setBuffer(messageBuffer);
                 binaryEncoder.encodeMessage(null, response);
+                secureChannel.getMetrics().recordMessageOut(response.getClass(), System.nanoTime() - encodeStart);
 
                 List<ByteBuf> chunks = chunkEncoder.encodeAsymmetric(
                     secureChannel,
@@ -413,8 +450,27 @@ public class UaTcpServerAsymmetricHandler extends ByteToMessageDecoder implement
                 ctx.close();
             } finally {
                 messageBuffer.release();
+                server.releaseHandshakePermit();
             }
-        });
+        }, e -> handshakeRejected(ctx, e));
+    }
+
+    /**
+     * Release the handshake permit held for a task the handshake executor rejected, and fail the connection with
+     * Bad_TcpServerTooBusy.
+     */
+    private void handshakeRejected(ChannelHandlerContext ctx, RejectedExecutionException e) {
+        server.releaseHandshakePermit();
+
+        try {
+            UaException cause = new UaException(StatusCodes.Bad_TcpServerTooBusy, "handshake executor rejected task");
+            ErrorMessage errorMessage = ExceptionHandler.sendErrorMessage(ctx, cause);
+
+            logger.debug("[remote={}] {}.", ctx.channel().remoteAddress(), errorMessage.getReason(), e);
+        } catch (Exception inner) {
+            logger.error("Error sending ErrorMessage: {}", inner.getMessage(), inner);
+            ctx.close();
+        }
     }
 
     @Override
@@ -26,9 +26,12 @@ import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.util.AttributeKey;
 import org.eclipse.milo.opcua.stack.core.StatusCodes;
 import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.channel.BufferSizeAdvisor;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelConfig;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelParameters;
 import org.eclipse.milo.opcua.stack.core.channel.ExceptionHandler;
+import org.eclipse.milo.opcua.stack.core.channel.FlushConsolidationConfig;
+import org.eclipse.milo.opcua.stack.core.channel.FlushConsolidationHandler;
 import org.eclipse.milo.opcua.stack.core.channel.SerializationQueue;
 import org.eclipse.milo.opcua.stack.core.channel.headers.HeaderDecoder;
 import org.eclipse.milo.opcua.stack.core.channel.messages.AcknowledgeMessage;
@@ -66,7 +69,9 @@ public class UaTcpServerHelloHandler extends ByteToMessageDecoder implements Hea
             switch (messageType) {
                 case Hello:
                     onHello(ctx, buffer.readSlice(messageLength));
-                    break;
+                    // onHello removed this handler, releasing the cumulation buffer; anything that arrived after the
+                    // Hello has been passed on to the next handler.
+                    return;
 
                 default:
                     throw new UaException(StatusCodes.Bad_TcpMessageTypeInvalid,
@@ -100,12 +105,21 @@ public class UaTcpServerHelloHandler extends ByteToMessageDecoder implements Hea
         }
 
         ChannelConfig config = server.getChannelConfig();
+        Optional<BufferSizeAdvisor> advisor = server.getBufferSizeAdvisor();
+
+        int receiveBufferSize = advisor
+            .map(a -> a.recommendReceiveBufferSize(config))
+            .orElse(config.getMaxChunkSize());
+
+        int sendBufferSize = advisor
+            .map(a -> a.recommendSendBufferSize(config))
+            .orElse(config.getMaxChunkSize());
 
         /* Our receive buffer size is determined by the remote send buffer size. */
-        long localReceiveBufferSize = Math.min(remoteSendBufferSize, config.getMaxChunkSize());
+        long localReceiveBufferSize = Math.min(remoteSendBufferSize, receiveBufferSize);
 
         /* Our send buffer size is determined by the remote receive buffer size. */
-        long localSendBufferSize = Math.min(remoteReceiveBufferSize, config.getMaxChunkSize());
+        long localSendBufferSize = Math.min(remoteReceiveBufferSize, sendBufferSize);
 
         /* Max chunk count the remote can send us; not influenced by remote configuration. */
         long localMaxChunkCount = config.getMaxChunkCount();
@@ -124,16 +138,18 @@ public class UaTcpServerHelloHandler extends ByteToMessageDecoder implements Hea
             Ints.saturatedCast(remoteMaxChunkCount)
         );
 
-        int maxArrayLength = config.getMaxArrayLength();
-        int maxStringLength = config.getMaxStringLength();
-
         SerializationQueue serializationQueue = new SerializationQueue(
-            server.getConfig().getExecutor(),
+            server.getConfig().getExecutorProvider(),
             parameters,
-            maxArrayLength,
-            maxStringLength
+            server.getConfig().getSerializationConfig()
         );
 
+        FlushConsolidationConfig flushConfig = server.getConfig().getFlushConsolidationConfig();
+
+        if (flushConfig.isEnabled()) {
+            ctx.pipeline().addFirst(new FlushConsolidationHandler(flushConfig));
+        }
+
         ctx.pipeline().addLast(new UaTcpServerAsymmetricHandler(server, serializationQueue));
         ctx.pipeline().remove(this);
 
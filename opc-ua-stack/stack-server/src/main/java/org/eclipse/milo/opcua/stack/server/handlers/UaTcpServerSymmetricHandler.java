@@ -26,6 +26,7 @@ import org.eclipse.milo.opcua.stack.core.UaException;
 import org.eclipse.milo.opcua.stack.core.application.services.ServiceRequest;
 import org.eclipse.milo.opcua.stack.core.application.services.ServiceResponse;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelSecurity;
+import org.eclipse.milo.opcua.stack.core.channel.ChunkEncoder;
 import org.eclipse.milo.opcua.stack.core.channel.ExceptionHandler;
 import org.eclipse.milo.opcua.stack.core.channel.SerializationQueue;
 import org.eclipse.milo.opcua.stack.core.channel.ServerSecureChannel;
@@ -35,7 +36,11 @@ import org.eclipse.milo.opcua.stack.core.channel.messages.ErrorMessage;
 import org.eclipse.milo.opcua.stack.core.channel.messages.MessageType;
 import org.eclipse.milo.opcua.stack.core.serialization.UaRequestMessage;
 import org.eclipse.milo.opcua.stack.core.serialization.UaResponseMessage;
-import org.eclipse.milo.opcua.stack.core.util.BufferUtil;
+import org.eclipse.milo.opcua.stack.core.serialization.binary.BinaryEncoder;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.structured.ResponseHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.ServiceFault;
 import org.eclipse.milo.opcua.stack.server.tcp.UaTcpStackServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -88,11 +93,32 @@ public class UaTcpServerSymmetricHandler extends ByteToMessageCodec<ServiceRespo
     @Override
     protected void encode(ChannelHandlerContext ctx, ServiceResponse message, ByteBuf out) throws Exception {
         serializationQueue.encode((binaryEncoder, chunkEncoder) -> {
-            ByteBuf messageBuffer = BufferUtil.buffer();
+            UaResponseMessage response = message.getResponse();
+            ByteBuf messageBuffer = null;
 
             try {
-                binaryEncoder.setBuffer(messageBuffer);
-                binaryEncoder.encodeMessage(null, message.getResponse());
+                messageBuffer = encodeResponse(binaryEncoder, response);
+
+                int messageSize = messageBuffer.readableBytes();
+                int maxMessageSize = serializationQueue.getParameters().getRemoteMaxMessageSize();
+
+                if (maxMessageSize > 0 && messageSize > maxMessageSize) {
+                    logger.warn("{} too large (size={}, max={}), sending ServiceFault instead.",
+                        response.getClass().getSimpleName(), messageSize, maxMessageSize);
+
+                    messageBuffer.release();
+                    messageBuffer = null;
+
+                    ResponseHeader responseHeader = new ResponseHeader(
+                        DateTime.now(),
+                        response.getResponseHeader().getRequestHandle(),
+                        new StatusCode(StatusCodes.Bad_ResponseTooLarge),
+                        null, null, null
+                    );
+
+                    response = new ServiceFault(responseHeader);
+                    messageBuffer = encodeResponse(binaryEncoder, response);
+                }
 
                 final List<ByteBuf> chunks = chunkEncoder.encodeSymmetric(
                     secureChannel,
@@ -105,15 +131,33 @@ public class UaTcpServerSymmetricHandler extends ByteToMessageCodec<ServiceRespo
                     chunks.forEach(c -> ctx.write(c, ctx.voidPromise()));
                     ctx.flush();
                 });
-            } catch (UaException e) {
-                logger.error("Error encoding {}: {}", message.getResponse().getClass(), e.getMessage(), e);
+            } catch (UaException | RuntimeException e) {
+                logger.error("Error encoding {}: {}", response.getClass(), e.getMessage(), e);
                 ctx.close();
             } finally {
-                messageBuffer.release();
+                if (messageBuffer != null) {
+                    messageBuffer.release();
+                }
             }
         });
     }
 
+    private ByteBuf encodeResponse(BinaryEncoder binaryEncoder, UaResponseMessage response) {
+        ByteBuf messageBuffer = ChunkEncoder.allocateSymmetricMessageBuffer();
+
+        try {
+            long encodeStart = System.nanoTime();
+            binaryEncoder.setBuffer(messageBuffer);
+            binaryEncoder.encodeMessage(null, response);
+            secureChannel.getMetrics().recordMessageOut(response.getClass(), System.nanoTime() - encodeStart);
+
+            return messageBuffer;
+        } catch (RuntimeException e) {
+            messageBuffer.release();
+            throw e;
+        }
+    }
+
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf buffer, List<Object> out) throws Exception {
         buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
@@ -170,13 +214,18 @@ public class UaTcpServerSymmetricHandler extends ByteToMessageCodec<ServiceRespo
                 chunkBuffers = new ArrayList<>(maxChunkCount);
 
                 serializationQueue.decode((binaryDecoder, chunkDecoder) -> {
+                    ByteBuf messageBuffer = null;
+
                     try {
                         validateChunkHeaders(buffersToDecode);
 
-                        ByteBuf messageBuffer = chunkDecoder.decodeSymmetric(secureChannel, buffersToDecode);
+                        messageBuffer = chunkDecoder.decodeSymmetric(secureChannel, buffersToDecode);
 
+                        long decodeStart = System.nanoTime();
                         binaryDecoder.setBuffer(messageBuffer);
                         UaRequestMessage request = binaryDecoder.decodeMessage(null);
+                        secureChannel.getMetrics().recordMessageIn(
+                            request.getClass(), System.nanoTime() - decodeStart);
 
                         ServiceRequest<UaRequestMessage, UaResponseMessage> serviceRequest = new ServiceRequest<>(
                             request,
@@ -186,12 +235,14 @@ public class UaTcpServerSymmetricHandler extends ByteToMessageCodec<ServiceRespo
                         );
 
                         server.getExecutorService().execute(() -> server.receiveRequest(serviceRequest));
-
-                        messageBuffer.release();
-                        buffersToDecode.clear();
                     } catch (UaException e) {
                         logger.error("Error decoding symmetric message: {}", e.getMessage(), e);
                         ctx.close();
+                    } finally {
+                        if (messageBuffer != null) {
+                            messageBuffer.release();
+                        }
+                        buffersToDecode.clear();
                     }
                 });
             }
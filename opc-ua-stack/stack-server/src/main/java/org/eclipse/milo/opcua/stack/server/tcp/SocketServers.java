@@ -14,6 +14,7 @@
 package org.eclipse.milo.opcua.stack.server.tcp;
 
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
@@ -24,20 +25,22 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import io.netty.bootstrap.ServerBootstrap;
-import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
 import io.netty.handler.logging.LoggingHandler;
 import org.eclipse.milo.opcua.stack.core.Stack;
 import org.eclipse.milo.opcua.stack.core.util.AsyncSemaphore;
+import org.eclipse.milo.opcua.stack.core.util.BufferUtil;
 import org.eclipse.milo.opcua.stack.core.util.FutureUtils;
+import org.eclipse.milo.opcua.stack.core.util.TransportUtil;
 import org.eclipse.milo.opcua.stack.core.util.Unit;
 import org.eclipse.milo.opcua.stack.server.handlers.UaTcpServerHelloHandler;
 import org.slf4j.Logger;
@@ -47,27 +50,61 @@ public class SocketServers {
 
     private static final AsyncSemaphore SEMAPHORE = new AsyncSemaphore(1);
 
-    static final ConcurrentMap<InetSocketAddress, SocketServer> SERVERS = Maps.newConcurrentMap();
+    static final ConcurrentMap<SocketAddress, SocketServer> SERVERS = Maps.newConcurrentMap();
 
+    private static volatile int REUSE_PORT_ACCEPTORS = 1;
+
+    /**
+     * @return the number of server channels bound to each address when the native transport is in use.
+     */
+    public static int getReusePortAcceptors() {
+        return REUSE_PORT_ACCEPTORS;
+    }
+
+    /**
+     * Set the number of server channels bound to each address when the native transport is in use.
+     * <p>
+     * Each channel is bound with {@code SO_REUSEPORT} so the kernel distributes incoming connections between them and
+     * accepts are spread across event loop threads. Ignored, and a single channel is bound, when the shared event loop
+     * is not native. Only affects addresses bound after this is called.
+     *
+     * @param acceptors the number of server channels to bind per address; must be at least 1.
+     */
+    public static void setReusePortAcceptors(int acceptors) {
+        Preconditions.checkArgument(acceptors >= 1, "acceptors must be >= 1");
+
+        REUSE_PORT_ACCEPTORS = acceptors;
+    }
 
     public static CompletableFuture<Unit> bindServer(UaTcpStackServer stackServer, String address, int port) {
+        return bindServer(stackServer, isa(address, port));
+    }
+
+    /**
+     * Bind {@code stackServer} to {@code address}, which is an {@link InetSocketAddress}, a {@link LocalAddress} for
+     * endpoints using the in-JVM local transport, or a Unix domain socket address.
+     *
+     * @param stackServer the {@link UaTcpStackServer} to bind.
+     * @param address     the {@link SocketAddress} to bind to.
+     * @return a {@link CompletableFuture} that completes when the server is bound.
+     */
+    public static CompletableFuture<Unit> bindServer(UaTcpStackServer stackServer, SocketAddress address) {
         return SEMAPHORE.acquire().thenCompose(permit ->
-            doBindServer(stackServer, address, port)
+            doBindServer(stackServer, address)
                 .whenComplete((u, ex) -> permit.release())
         );
     }
 
-    private static CompletableFuture<Unit> doBindServer(UaTcpStackServer stackServer, String address, int port) {
-        InetSocketAddress isa = isa(address, port);
-
-        if (SERVERS.containsKey(isa)) {
-            SocketServer server = SERVERS.get(isa);
+    private static CompletableFuture<Unit> doBindServer(UaTcpStackServer stackServer, SocketAddress address) {
+        if (SERVERS.containsKey(address)) {
+            SocketServer server = SERVERS.get(address);
             server.addServer(stackServer);
 
             return CompletableFuture.completedFuture(Unit.VALUE);
         } else {
-            return SocketServer.bootstrap(isa).thenApply(s -> {
-                SERVERS.putIfAbsent(isa, s);
+            return SocketServer.bootstrap(address).thenApply(s -> {
+                s.addServer(stackServer);
+                SERVERS.put(address, s);
 
                 return Unit.VALUE;
             });
@@ -75,21 +112,23 @@ public class SocketServers {
     }
 
     public static CompletableFuture<Unit> unbindServer(UaTcpStackServer stackServer, String address, int port) {
+        return unbindServer(stackServer, isa(address, port));
+    }
+
+    public static CompletableFuture<Unit> unbindServer(UaTcpStackServer stackServer, SocketAddress address) {
         return SEMAPHORE.acquire().thenCompose(permit ->
-            doUnbindServer(stackServer, address, port)
+            doUnbindServer(stackServer, address)
                 .whenComplete((u, ex) -> permit.release())
         );
     }
 
-    private static CompletableFuture<Unit> doUnbindServer(UaTcpStackServer stackServer, String address, int port) {
-        InetSocketAddress isa = isa(address, port);
-
-        if (SERVERS.containsKey(isa)) {
-            SocketServer socketServer = SERVERS.get(isa);
+    private static CompletableFuture<Unit> doUnbindServer(UaTcpStackServer stackServer, SocketAddress address) {
+        if (SERVERS.containsKey(address)) {
+            SocketServer socketServer = SERVERS.get(address);
             socketServer.removeServer(stackServer);
 
             if (socketServer.isEmpty()) {
-                SERVERS.remove(isa);
+                SERVERS.remove(address);
                 return socketServer.shutdown();
             }
         }
@@ -127,12 +166,12 @@ public class SocketServers {
 
         private final Map<String, UaTcpStackServer> boundServers = Maps.newConcurrentMap();
 
-        private final InetSocketAddress address;
-        private final Channel channel;
+        private final SocketAddress address;
+        private final List<Channel> channels;
 
-        private SocketServer(InetSocketAddress address, Channel channel) {
+        private SocketServer(SocketAddress address, List<Channel> channels) {
             this.address = address;
-            this.channel = channel;
+            this.channels = channels;
         }
 
         private UaTcpStackServer getServer(String endpointUrl) {
@@ -184,28 +223,38 @@ public class SocketServers {
         }
 
         private CompletableFuture<Unit> shutdown() {
-            CompletableFuture<Unit> shutdownFuture = new CompletableFuture<>();
-
             boundServers.clear();
-            channel.close().addListener((ChannelFutureListener) future -> shutdownFuture.complete(Unit.VALUE));
 
-            return shutdownFuture;
+            return closeAll(channels);
         }
 
-        static CompletableFuture<SocketServer> bootstrap(InetSocketAddress address) {
+        static CompletableFuture<SocketServer> bootstrap(SocketAddress address) {
 
             final CompletableFuture<SocketServer> serverFuture = new CompletableFuture<>();
 
+            final boolean inet = address instanceof InetSocketAddress;
+
+            final EventLoopGroup eventLoop;
             final ServerBootstrap bootstrap = new ServerBootstrap();
 
-            bootstrap.group(Stack.sharedEventLoop())
+            try {
+                // Local channels run on any event loop; Unix domain sockets need a native one.
+                eventLoop = inet || address instanceof LocalAddress ?
+                    Stack.sharedEventLoop() : Stack.sharedNativeEventLoop();
+
+                bootstrap.channel(TransportUtil.serverChannelClass(eventLoop, address));
+            } catch (IllegalStateException | IllegalArgumentException e) {
+                serverFuture.completeExceptionally(e);
+
+                return serverFuture;
+            }
+
+            bootstrap.group(eventLoop)
                 .handler(new LoggingHandler(SocketServer.class))
-                .channel(NioServerSocketChannel.class)
-                .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
-                .childOption(ChannelOption.TCP_NODELAY, true)
-                .childHandler(new ChannelInitializer<SocketChannel>() {
+                .childOption(ChannelOption.ALLOCATOR, BufferUtil.getAllocator())
+                .childHandler(new ChannelInitializer<Channel>() {
                     @Override
-                    protected void initChannel(SocketChannel channel) throws Exception {
+                    protected void initChannel(Channel channel) throws Exception {
                         Function<String, Optional<UaTcpStackServer>> serverLookup =
                             endpointUrl -> getServerByEndpointUrl(address, endpointUrl);
 
@@ -213,19 +262,61 @@ public class SocketServers {
                     }
                 });
 
-            bootstrap.bind(address).addListener((ChannelFutureListener) future -> {
-                if (future.isSuccess()) {
-                    SocketServer socketServer = new SocketServer(address, future.channel());
-                    serverFuture.complete(socketServer);
+            int acceptors = 1;
+
+            if (inet) {
+                bootstrap.childOption(ChannelOption.TCP_NODELAY, true);
+
+                if (TransportUtil.setReusePort(bootstrap, eventLoop)) {
+                    acceptors = REUSE_PORT_ACCEPTORS;
+                }
+            }
+
+            List<CompletableFuture<Channel>> bindFutures = Lists.newArrayListWithCapacity(acceptors);
+
+            for (int i = 0; i < acceptors; i++) {
+                CompletableFuture<Channel> bindFuture = new CompletableFuture<>();
+
+                bootstrap.bind(address).addListener((ChannelFutureListener) future -> {
+                    if (future.isSuccess()) {
+                        bindFuture.complete(future.channel());
+                    } else {
+                        bindFuture.completeExceptionally(future.cause());
+                    }
+                });
+
+                bindFutures.add(bindFuture);
+            }
+
+            FutureUtils.sequence(bindFutures).whenComplete((channels, ex) -> {
+                if (ex == null) {
+                    serverFuture.complete(new SocketServer(address, channels));
                 } else {
-                    serverFuture.completeExceptionally(future.cause());
+                    List<Channel> bound = bindFutures.stream()
+                        .filter(f -> !f.isCompletedExceptionally())
+                        .map(CompletableFuture::join)
+                        .collect(Collectors.toList());
+
+                    closeAll(bound).whenComplete((u, ex2) -> serverFuture.completeExceptionally(ex));
                 }
             });
 
             return serverFuture;
         }
 
-        static Optional<UaTcpStackServer> getServerByEndpointUrl(InetSocketAddress address, String endpointUrl) {
+        private static CompletableFuture<Unit> closeAll(List<Channel> channels) {
+            List<CompletableFuture<Unit>> closeFutures = channels.stream()
+                .map(channel -> {
+                    CompletableFuture<Unit> closeFuture = new CompletableFuture<>();
+                    channel.close().addListener((ChannelFutureListener) future -> closeFuture.complete(Unit.VALUE));
+                    return closeFuture;
+                })
+                .collect(Collectors.toList());
+
+            return FutureUtils.sequence(closeFutures).thenApply(v -> Unit.VALUE);
+        }
+
+        static Optional<UaTcpStackServer> getServerByEndpointUrl(SocketAddress address, String endpointUrl) {
             SocketServer socketServer = SocketServers.SERVERS.get(address);
 
             if (socketServer != null) {
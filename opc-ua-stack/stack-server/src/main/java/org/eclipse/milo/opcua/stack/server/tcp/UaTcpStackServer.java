@@ -14,20 +14,29 @@
 package org.eclipse.milo.opcua.stack.server.tcp;
 
 import java.net.InetAddress;
+import java.net.SocketAddress;
 import java.net.URI;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
@@ -43,6 +52,7 @@ import org.eclipse.milo.opcua.stack.core.StatusCodes;
 import org.eclipse.milo.opcua.stack.core.UaException;
 import org.eclipse.milo.opcua.stack.core.application.CertificateManager;
 import org.eclipse.milo.opcua.stack.core.application.CertificateValidator;
+import org.eclipse.milo.opcua.stack.core.application.ExecutorProvider;
 import org.eclipse.milo.opcua.stack.core.application.UaStackServer;
 import org.eclipse.milo.opcua.stack.core.application.services.AttributeServiceSet;
 import org.eclipse.milo.opcua.stack.core.application.services.DiscoveryServiceSet;
@@ -57,7 +67,10 @@ import org.eclipse.milo.opcua.stack.core.application.services.SessionServiceSet;
 import org.eclipse.milo.opcua.stack.core.application.services.SubscriptionServiceSet;
 import org.eclipse.milo.opcua.stack.core.application.services.TestServiceSet;
 import org.eclipse.milo.opcua.stack.core.application.services.ViewServiceSet;
+import org.eclipse.milo.opcua.stack.core.channel.AdaptiveBufferSizeConfig;
+import org.eclipse.milo.opcua.stack.core.channel.BufferSizeAdvisor;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelConfig;
+import org.eclipse.milo.opcua.stack.core.channel.ChannelMetrics;
 import org.eclipse.milo.opcua.stack.core.channel.ServerSecureChannel;
 import org.eclipse.milo.opcua.stack.core.security.SecurityPolicy;
 import org.eclipse.milo.opcua.stack.core.serialization.UaRequestMessage;
@@ -74,6 +87,7 @@ import org.eclipse.milo.opcua.stack.core.types.structured.GetEndpointsResponse;
 import org.eclipse.milo.opcua.stack.core.types.structured.SignedSoftwareCertificate;
 import org.eclipse.milo.opcua.stack.core.types.structured.UserTokenPolicy;
 import org.eclipse.milo.opcua.stack.core.util.FutureUtils;
+import org.eclipse.milo.opcua.stack.core.util.TransportUtil;
 import org.eclipse.milo.opcua.stack.core.util.Unit;
 import org.eclipse.milo.opcua.stack.server.Endpoint;
 import org.eclipse.milo.opcua.stack.server.config.UaTcpStackServerConfig;
@@ -108,14 +122,39 @@ public class UaTcpStackServer implements UaStackServer {
     private final List<Endpoint> endpoints = Lists.newCopyOnWriteArrayList();
     private final Set<String> discoveryUrls = Sets.newConcurrentHashSet();
 
+    /**
+     * Discovery service results, keyed by the request parameters they were computed from. Only the response header
+     * differs between responses to equal requests, so the description arrays are computed once and shared.
+     */
+    private final Cache<List<Object>, DiscoveryResult<EndpointDescription[]>> getEndpointsCache =
+        newDiscoveryCache();
+    private final Cache<List<Object>, DiscoveryResult<ApplicationDescription[]>> findServersCache =
+        newDiscoveryCache();
+
+    /**
+     * Incremented on every invalidation. A result computed while an invalidation was in progress carries the
+     * version it started from, so it is recomputed instead of served.
+     */
+    private final AtomicLong discoveryVersion = new AtomicLong();
+
     private final HashedWheelTimer wheelTimer = Stack.sharedWheelTimer();
     private final Map<Long, Timeout> timeouts = Maps.newConcurrentMap();
 
+    private final Semaphore handshakePermits;
+    private final LongAdder rejectedHandshakes = new LongAdder();
+
+    private final BufferSizeAdvisor bufferSizeAdvisor;
+
     private final UaTcpStackServerConfig config;
 
     public UaTcpStackServer(UaTcpStackServerConfig config) {
         this.config = config;
 
+        handshakePermits = new Semaphore(config.getMaxPendingHandshakes());
+
+        bufferSizeAdvisor = config.getAdaptiveBufferSizeConfig().isEnabled() ?
+            new BufferSizeAdvisor(config.getAdaptiveBufferSizeConfig()) : null;
+
         addServiceSet(new DefaultDiscoveryServiceSet());
 
         addServiceSet(new AttributeServiceSet() {
@@ -146,14 +185,13 @@ public class UaTcpStackServer implements UaStackServer {
     public CompletableFuture<UaTcpStackServer> startup() {
         Stream<CompletableFuture<Unit>> stream = endpoints.stream().map(endpoint -> {
             URI endpointUri = endpoint.getEndpointUri();
-            String bindAddress = endpoint.getBindAddress().orElse(endpointUri.getHost());
-            int bindPort = endpointUri.getPort();
+            SocketAddress bindAddress = TransportUtil.bindAddress(endpointUri, endpoint.getBindAddress());
 
-            CompletableFuture<Unit> future = SocketServers.bindServer(this, bindAddress, bindPort);
+            CompletableFuture<Unit> future = SocketServers.bindServer(this, bindAddress);
 
             future.thenRun(() -> {
-                logger.info("{} bound to {}:{} [{}/{}]",
-                    endpoint.getEndpointUri(), bindAddress, bindPort,
+                logger.info("{} bound to {} [{}/{}]",
+                    endpoint.getEndpointUri(), bindAddress,
                     endpoint.getSecurityPolicy(), endpoint.getMessageSecurity());
 
                 addDiscoveryUrl(endpointUri);
@@ -170,26 +208,70 @@ public class UaTcpStackServer implements UaStackServer {
 
         StringBuilder discoveryUrl = new StringBuilder();
 
-        discoveryUrl.append("opc.tcp://")
-            .append(endpointUri.getHost())
-            .append(":")
-            .append(endpointUri.getPort());
+        discoveryUrl.append(endpointUri.getScheme())
+            .append("://")
+            .append(endpointUri.getHost());
+
+        if (endpointUri.getPort() != -1) {
+            discoveryUrl.append(":").append(endpointUri.getPort());
+        }
 
         if (!serverName.isEmpty()) {
             discoveryUrl.append("/").append(serverName);
         }
 
+        if (TransportUtil.isUnix(endpointUri)) {
+            discoveryUrl.append("?").append(endpointUri.getRawQuery());
+        }
+
         discoveryUrls.add(discoveryUrl.toString());
+
+        invalidateDiscoveryCache();
+    }
+
+    /**
+     * Invalidate the cached results of the GetEndpoints and FindServers services.
+     * <p>
+     * Adding an endpoint or a discovery URL and {@link #replaceEndpointCertificate(X509Certificate, X509Certificate)}
+     * invalidate them automatically; call this after changing anything else the results are built from.
+     */
+    public void invalidateDiscoveryCache() {
+        discoveryVersion.incrementAndGet();
+
+        getEndpointsCache.invalidateAll();
+        findServersCache.invalidateAll();
+    }
+
+    static <V> Cache<List<Object>, DiscoveryResult<V>> newDiscoveryCache() {
+        // Bounded because the keys come from clients.
+        return CacheBuilder.newBuilder().maximumSize(64).build();
+    }
+
+    <V> V getDiscoveryResult(
+        Cache<List<Object>, DiscoveryResult<V>> cache,
+        List<Object> key,
+        Supplier<V> loader) throws ExecutionException {
+
+        long version = discoveryVersion.get();
+
+        DiscoveryResult<V> result = cache.get(key, () -> new DiscoveryResult<>(version, loader.get()));
+
+        if (result.version < version) {
+            // Loaded from endpoints that have since changed.
+            result = new DiscoveryResult<>(version, loader.get());
+            cache.put(key, result);
+        }
+
+        return result.value;
     }
 
     @Override
     public CompletableFuture<UaTcpStackServer> shutdown() {
         Stream<CompletableFuture<Unit>> stream = endpoints.stream().map(endpoint -> {
             URI endpointUri = endpoint.getEndpointUri();
-            String bindAddress = endpoint.getBindAddress().orElse(endpointUri.getHost());
-            int bindPort = endpointUri.getPort();
+            SocketAddress bindAddress = TransportUtil.bindAddress(endpointUri, endpoint.getBindAddress());
 
-            return SocketServers.unbindServer(this, bindAddress, bindPort);
+            return SocketServers.unbindServer(this, bindAddress);
         });
 
         return FutureUtils.sequence(stream)
@@ -307,7 +389,7 @@ public class UaTcpStackServer implements UaStackServer {
 
     @Override
     public ExecutorService getExecutorService() {
-        return config.getExecutor();
+        return config.getExecutorProvider().getExecutor(ExecutorProvider.Stage.Service);
     }
 
     @Override
@@ -329,6 +411,11 @@ public class UaTcpStackServer implements UaStackServer {
         channel.setChannelId(nextChannelId());
         long channelId = channel.getChannelId();
         secureChannels.put(channelId, channel);
+
+        if (bufferSizeAdvisor != null) {
+            bufferSizeAdvisor.track(channel.getMetrics());
+        }
+
         return channel;
     }
 
@@ -338,6 +425,10 @@ public class UaTcpStackServer implements UaStackServer {
 
         if (secureChannels.remove(channelId) != null) {
             logger.debug("Removed secure channel id={}", channelId);
+
+            if (bufferSizeAdvisor != null) {
+                bufferSizeAdvisor.untrack(secureChannel.getMetrics());
+            }
         }
 
         Channel channel = secureChannel.attr(BoundChannelKey).get();
@@ -381,10 +472,63 @@ public class UaTcpStackServer implements UaStackServer {
         }
     }
 
+    /**
+     * Acquire a permit to run an OpenSecureChannel handshake. Each permit acquired must be released with
+     * {@link #releaseHandshakePermit()} when the handshake completes or fails.
+     *
+     * @return {@code true} if a permit was acquired; {@code false} if the maximum number of pending handshakes has
+     * been reached and the handshake should be rejected.
+     */
+    public boolean tryAcquireHandshakePermit() {
+        if (handshakePermits.tryAcquire()) {
+            return true;
+        } else {
+            rejectedHandshakes.increment();
+            return false;
+        }
+    }
+
+    public void releaseHandshakePermit() {
+        handshakePermits.release();
+    }
+
+    /**
+     * @return the number of OpenSecureChannel handshakes currently queued or running.
+     */
+    public int getPendingHandshakeCount() {
+        return config.getMaxPendingHandshakes() - handshakePermits.availablePermits();
+    }
+
+    /**
+     * @return the number of OpenSecureChannel handshakes rejected because too many were pending.
+     */
+    public long getRejectedHandshakeCount() {
+        return rejectedHandshakes.sum();
+    }
+
     public ServerSecureChannel getSecureChannel(long channelId) {
         return secureChannels.get(channelId);
     }
 
+    /**
+     * @return the {@link ChannelMetrics} of each open secure channel, keyed by secure channel id.
+     */
+    public Map<Long, ChannelMetrics> getChannelMetrics() {
+        Map<Long, ChannelMetrics> channelMetrics = Maps.newHashMap();
+
+        secureChannels.forEach((channelId, secureChannel) -> channelMetrics.put(channelId, secureChannel.getMetrics()));
+
+        return channelMetrics;
+    }
+
+    /**
+     * @return the {@link BufferSizeAdvisor} sizing the buffers negotiated for new connections, if an
+     * {@link AdaptiveBufferSizeConfig} is enabled.
+     */
+    public Optional<BufferSizeAdvisor> getBufferSizeAdvisor() {
+        return Optional.ofNullable(bufferSizeAdvisor);
+    }
+
     @SuppressWarnings("unchecked")
     public <T extends UaRequestMessage, U extends UaResponseMessage> void addRequestHandler(
         Class<T> requestClass, ServiceRequestHandler<T, U> requestHandler) {
@@ -412,7 +556,14 @@ public class UaTcpStackServer implements UaStackServer {
             try {
                 URI uri = new URI(endpointUri);
 
+                if (TransportUtil.isUnix(uri)) {
+                    // Fail here rather than at startup if there's no socket path.
+                    TransportUtil.domainSocketPath(uri);
+                }
+
                 endpoints.add(new Endpoint(uri, bindAddress, certificate, securityPolicy, messageSecurity));
+
+                invalidateDiscoveryCache();
             } catch (Throwable e) {
                 logger.warn("Invalid endpoint URI, ignoring: {}", endpointUri);
             }
@@ -421,6 +572,41 @@ public class UaTcpStackServer implements UaStackServer {
         return this;
     }
 
+    /**
+     * Replace {@code oldCertificate} with {@code newCertificate} on every endpoint using it, e.g. after renewing the
+     * application instance certificate, and invalidate the discovery cache so GetEndpoints returns the new one.
+     * <p>
+     * The {@link CertificateManager} must also provide {@code newCertificate} and its {@link java.security.KeyPair}
+     * for clients to open secure channels with it.
+     *
+     * @param oldCertificate the certificate to replace.
+     * @param newCertificate the certificate to replace it with.
+     * @return the number of endpoints updated.
+     */
+    public int replaceEndpointCertificate(X509Certificate oldCertificate, X509Certificate newCertificate) {
+        AtomicInteger replaced = new AtomicInteger(0);
+
+        endpoints.replaceAll(endpoint -> {
+            if (oldCertificate.equals(endpoint.getCertificate().orElse(null))) {
+                replaced.incrementAndGet();
+
+                return new Endpoint(
+                    endpoint.getEndpointUri(),
+                    endpoint.getBindAddress().orElse(null),
+                    newCertificate,
+                    endpoint.getSecurityPolicy(),
+                    endpoint.getMessageSecurity()
+                );
+            } else {
+                return endpoint;
+            }
+        });
+
+        invalidateDiscoveryCache();
+
+        return replaced.get();
+    }
+
     private EndpointDescription mapEndpoint(Endpoint endpoint) {
         List<UserTokenPolicy> userTokenPolicies = config.getUserTokenPolicies();
 
@@ -454,6 +640,26 @@ public class UaTcpStackServer implements UaStackServer {
         public void onGetEndpoints(ServiceRequest<GetEndpointsRequest, GetEndpointsResponse> serviceRequest) {
             GetEndpointsRequest request = serviceRequest.getRequest();
 
+            List<Object> key = Arrays.asList(
+                request.getEndpointUrl(),
+                listOf(request.getProfileUris()),
+                listOf(request.getLocaleIds())
+            );
+
+            try {
+                EndpointDescription[] endpointDescriptions =
+                    getDiscoveryResult(getEndpointsCache, key, () -> getEndpoints(request));
+
+                serviceRequest.setResponse(new GetEndpointsResponse(
+                    serviceRequest.createResponseHeader(),
+                    endpointDescriptions
+                ));
+            } catch (ExecutionException e) {
+                serviceRequest.setServiceFault(new UaException(e.getCause()));
+            }
+        }
+
+        private EndpointDescription[] getEndpoints(GetEndpointsRequest request) {
             List<String> profileUris = request.getProfileUris() != null ?
                 newArrayList(request.getProfileUris()) :
                 new ArrayList<>();
@@ -467,14 +673,9 @@ public class UaTcpStackServer implements UaStackServer {
                 .filter(ed -> filterEndpointUrls(ed, request.getEndpointUrl()))
                 .collect(toList());
 
-            GetEndpointsResponse response = new GetEndpointsResponse(
-                serviceRequest.createResponseHeader(),
-                matchingEndpoints.isEmpty() ?
-                    a(allEndpoints, EndpointDescription.class) :
-                    a(matchingEndpoints, EndpointDescription.class)
-            );
-
-            serviceRequest.setResponse(response);
+            return matchingEndpoints.isEmpty() ?
+                a(allEndpoints, EndpointDescription.class) :
+                a(matchingEndpoints, EndpointDescription.class);
         }
 
         private boolean filterProfileUris(EndpointDescription endpoint, List<String> profileUris) {
@@ -497,6 +698,26 @@ public class UaTcpStackServer implements UaStackServer {
         public void onFindServers(ServiceRequest<FindServersRequest, FindServersResponse> serviceRequest) {
             FindServersRequest request = serviceRequest.getRequest();
 
+            List<Object> key = Arrays.asList(
+                request.getEndpointUrl(),
+                listOf(request.getServerUris()),
+                listOf(request.getLocaleIds())
+            );
+
+            try {
+                ApplicationDescription[] applicationDescriptions =
+                    getDiscoveryResult(findServersCache, key, () -> findServers(request));
+
+                serviceRequest.setResponse(new FindServersResponse(
+                    serviceRequest.createResponseHeader(),
+                    applicationDescriptions
+                ));
+            } catch (ExecutionException e) {
+                serviceRequest.setServiceFault(new UaException(e.getCause()));
+            }
+        }
+
+        private ApplicationDescription[] findServers(FindServersRequest request) {
             List<String> serverUris = request.getServerUris() != null ?
                 newArrayList(request.getServerUris()) :
                 new ArrayList<>();
@@ -508,12 +729,7 @@ public class UaTcpStackServer implements UaStackServer {
                 .filter(ad -> filterServerUris(ad, serverUris))
                 .collect(toList());
 
-            FindServersResponse response = new FindServersResponse(
-                serviceRequest.createResponseHeader(),
-                a(applicationDescriptions, ApplicationDescription.class)
-            );
-
-            serviceRequest.setResponse(response);
+            return a(applicationDescriptions, ApplicationDescription.class);
         }
 
         private ApplicationDescription getApplicationDescription(String endpointUrl) {
@@ -575,6 +791,22 @@ public class UaTcpStackServer implements UaStackServer {
             return serverUris.size() == 0 || serverUris.contains(ad.getApplicationUri());
         }
 
+        private List<String> listOf(String[] strings) {
+            return strings != null ? Arrays.asList(strings) : new ArrayList<>();
+        }
+
+    }
+
+    static final class DiscoveryResult<V> {
+
+        final long version;
+        final V value;
+
+        DiscoveryResult(long version, V value) {
+            this.version = version;
+            this.value = value;
+        }
+
     }
 
 }
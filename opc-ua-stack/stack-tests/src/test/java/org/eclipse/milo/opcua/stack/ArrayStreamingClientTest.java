@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+
+package org.eclipse.milo.opcua.stack;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.milo.opcua.stack.client.UaTcpStackClient;
+import org.eclipse.milo.opcua.stack.client.config.UaTcpStackClientConfig;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.security.SecurityPolicy;
+import org.eclipse.milo.opcua.stack.core.serialization.ArrayElementConsumers;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MessageSecurityMode;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.EndpointDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadResponse;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.eclipse.milo.opcua.stack.core.types.structured.RequestHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.ResponseHeader;
+import org.eclipse.milo.opcua.stack.core.util.CryptoRestrictions;
+import org.eclipse.milo.opcua.stack.server.config.UaTcpStackServerConfig;
+import org.eclipse.milo.opcua.stack.server.tcp.UaTcpStackServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+
+public class ArrayStreamingClientTest extends SecurityFixture {
+
+    private static final String ENDPOINT_URL = "opc.tcp://localhost:12688/array-streaming-client-test";
+
+    private static final int NODE_COUNT = 100;
+
+    private UaTcpStackServer server;
+    private UaTcpStackClient client;
+
+    @BeforeClass
+    public void startClientAndServer() throws Exception {
+        CryptoRestrictions.remove();
+
+        UaTcpStackServerConfig serverConfig = UaTcpStackServerConfig.builder()
+            .setServerName("test")
+            .setCertificateManager(serverCertificateManager)
+            .setCertificateValidator(serverCertificateValidator)
+            .build();
+
+        server = new UaTcpStackServer(serverConfig);
+
+        server.addEndpoint(ENDPOINT_URL, null)
+            .addEndpoint(ENDPOINT_URL, null, serverCertificate,
+                SecurityPolicy.Basic256Sha256, MessageSecurityMode.SignAndEncrypt);
+
+        server.addRequestHandler(ReadRequest.class, service -> {
+            ReadRequest request = service.getRequest();
+            ReadValueId[] nodesToRead = request.getNodesToRead();
+
+            DataValue[] results = new DataValue[nodesToRead.length];
+
+            for (int i = 0; i < results.length; i++) {
+                results[i] = new DataValue(new Variant(i));
+            }
+
+            ResponseHeader header = new ResponseHeader(
+                DateTime.now(),
+                request.getRequestHeader().getRequestHandle(),
+                StatusCode.GOOD,
+                null, null, null
+            );
+
+            service.setResponse(new ReadResponse(header, results, null));
+        });
+
+        server.startup().get();
+
+        // Stream from messages that were decrypted first, as most deployments would.
+        EndpointDescription endpoint = Arrays.stream(UaTcpStackClient.getEndpoints(ENDPOINT_URL).get())
+            .filter(e -> e.getSecurityMode() == MessageSecurityMode.SignAndEncrypt)
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("no SignAndEncrypt endpoint"));
+
+        UaTcpStackClientConfig clientConfig = UaTcpStackClientConfig.builder()
+            .setEndpoint(endpoint)
+            .setKeyPair(clientKeyPair)
+            .setCertificate(clientCertificate)
+            .build();
+
+        client = new UaTcpStackClient(clientConfig);
+        client.connect().get();
+    }
+
+    @AfterClass
+    public void stopClientAndServer() throws Exception {
+        client.disconnect().get();
+        server.shutdown().get();
+    }
+
+    @Test
+    public void testConsumersApplyOnlyToTheirRequest() throws Exception {
+        List<DataValue> streamed = new CopyOnWriteArrayList<>();
+
+        ArrayElementConsumers consumers = new ArrayElementConsumers().register(
+            ReadResponse.class, "Results", DataValue.class,
+            (requestHandle, index, value) -> streamed.add(value));
+
+        for (int i = 0; i < 10; i++) {
+            streamed.clear();
+
+            CompletableFuture<ReadResponse> streamedRead = client.sendRequest(readRequest(2 * i), consumers);
+            CompletableFuture<ReadResponse> plainRead = client.sendRequest(readRequest(2 * i + 1));
+
+            assertEquals(streamedRead.get().getResults().length, 0);
+            assertEquals(streamed.size(), NODE_COUNT);
+
+            DataValue[] results = plainRead.get().getResults();
+            assertEquals(results.length, NODE_COUNT);
+            assertEquals(results[NODE_COUNT - 1].getValue().getValue(), NODE_COUNT - 1);
+            assertEquals(streamed.size(), NODE_COUNT);
+        }
+    }
+
+    private static ReadRequest readRequest(long requestHandle) {
+        RequestHeader header = new RequestHeader(
+            NodeId.NULL_VALUE, DateTime.now(), uint(requestHandle), uint(0), null, uint(10000), null);
+
+        ReadValueId[] nodesToRead = new ReadValueId[NODE_COUNT];
+
+        for (int i = 0; i < NODE_COUNT; i++) {
+            nodesToRead[i] = new ReadValueId(new NodeId(0, i), AttributeId.Value.uid(), null, null);
+        }
+
+        return new ReadRequest(header, 0.0, TimestampsToReturn.Neither, nodesToRead);
+    }
+
+}
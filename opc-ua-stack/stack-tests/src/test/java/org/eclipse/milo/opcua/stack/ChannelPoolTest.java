@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import org.eclipse.milo.opcua.stack.client.UaTcpStackClient;
+import org.eclipse.milo.opcua.stack.client.config.ChannelPoolConfig;
+import org.eclipse.milo.opcua.stack.client.config.ChannelPoolConfig.SelectionPolicy;
+import org.eclipse.milo.opcua.stack.client.config.UaTcpStackClientConfig;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.structured.CreateSessionRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.CreateSessionResponse;
+import org.eclipse.milo.opcua.stack.core.types.structured.EndpointDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.RequestHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.ResponseHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.SignatureData;
+import org.eclipse.milo.opcua.stack.core.types.structured.SignedSoftwareCertificate;
+import org.eclipse.milo.opcua.stack.core.types.structured.TestStackRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.TestStackResponse;
+import org.eclipse.milo.opcua.stack.server.config.UaTcpStackServerConfig;
+import org.eclipse.milo.opcua.stack.server.tcp.UaTcpStackServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+public class ChannelPoolTest extends SecurityFixture {
+
+    private static final String ENDPOINT_URL = "opc.local://channel-pool-test/test";
+
+    private static final String INVALID_SESSION = "invalid-session";
+
+    private UaTcpStackServer server;
+    private EndpointDescription endpoint;
+
+    @BeforeClass
+    public void startServer() throws Exception {
+        UaTcpStackServerConfig config = UaTcpStackServerConfig.builder()
+            .setServerName("test")
+            .setCertificateManager(serverCertificateManager)
+            .setCertificateValidator(serverCertificateValidator)
+            .build();
+
+        server = new UaTcpStackServer(config);
+        server.addEndpoint(ENDPOINT_URL, null);
+
+        // Echo back the id of the secure channel each request arrived on, or fail as if the session were unknown.
+        server.addRequestHandler(TestStackRequest.class, service -> {
+            TestStackRequest request = service.getRequest();
+
+            if (INVALID_SESSION.equals(request.getInput().getValue())) {
+                service.setServiceFault(StatusCodes.Bad_SessionIdInvalid);
+            } else {
+                service.setResponse(new TestStackResponse(
+                    responseHeader(request.getRequestHeader()),
+                    new Variant(service.getSecureChannel().getChannelId())));
+            }
+        });
+
+        // Hand out a session whose authentication token is the id of the channel it was created on.
+        server.addRequestHandler(CreateSessionRequest.class, service -> {
+            long channelId = service.getSecureChannel().getChannelId();
+
+            service.setResponse(new CreateSessionResponse(
+                responseHeader(service.getRequest().getRequestHeader()),
+                new NodeId(1, "session"),
+                new NodeId(ushort(1), uint(channelId)),
+                60000.0,
+                ByteString.NULL_VALUE,
+                ByteString.NULL_VALUE,
+                new EndpointDescription[0],
+                new SignedSoftwareCertificate[0],
+                new SignatureData(null, ByteString.NULL_VALUE),
+                uint(0)));
+        });
+
+        server.startup().get();
+
+        endpoint = UaTcpStackClient.getEndpoints(ENDPOINT_URL).get()[0];
+    }
+
+    @AfterClass
+    public void stopServer() throws Exception {
+        server.shutdown().get();
+    }
+
+    @Test
+    public void testRoundRobinUsesEveryChannel() throws Exception {
+        UaTcpStackClient client = connect(new ChannelPoolConfig(3, SelectionPolicy.RoundRobin));
+
+        assertEquals(channelIds(client, NodeId.NULL_VALUE, 9).size(), 3);
+
+        client.disconnect().get();
+    }
+
+    @Test
+    public void testLeastLoadedUsesEveryChannel() throws Exception {
+        UaTcpStackClient client = connect(new ChannelPoolConfig(3, SelectionPolicy.LeastLoaded));
+
+        assertEquals(channelIds(client, NodeId.NULL_VALUE, 30).size(), 3);
+
+        client.disconnect().get();
+    }
+
+    @Test
+    public void testSessionRequestsStayOnSessionChannel() throws Exception {
+        UaTcpStackClient client = connect(new ChannelPoolConfig(3, SelectionPolicy.RoundRobin));
+
+        for (int i = 0; i < 3; i++) {
+            CreateSessionRequest request = new CreateSessionRequest(
+                header(NodeId.NULL_VALUE, i), client.getApplication(), null, ENDPOINT_URL, "session",
+                ByteString.NULL_VALUE, ByteString.NULL_VALUE, 60000.0, uint(0));
+
+            CreateSessionResponse response = client.<CreateSessionResponse>sendRequest(request).get();
+
+            NodeId authenticationToken = response.getAuthenticationToken();
+            long sessionChannelId = ((UInteger) authenticationToken.getIdentifier()).longValue();
+
+            Set<Object> channelIds = channelIds(client, authenticationToken, 6);
+
+            assertEquals(channelIds.size(), 1);
+            assertEquals(channelIds.iterator().next(), sessionChannelId);
+            assertEquals(client.getChannelFuture(authenticationToken).get().getChannelId(), sessionChannelId);
+        }
+
+        client.disconnect().get();
+    }
+
+    @Test
+    public void testSessionChannelForgotten() throws Exception {
+        UaTcpStackClient client = connect(new ChannelPoolConfig(3, SelectionPolicy.RoundRobin));
+
+        long primaryChannelId = client.getChannelFuture().get().getChannelId();
+
+        NodeId released = createSessionOffPrimary(client, primaryChannelId);
+        client.releaseSession(released);
+        assertEquals(client.getChannelFuture(released).get().getChannelId(), primaryChannelId);
+
+        NodeId invalid = createSessionOffPrimary(client, primaryChannelId);
+        TestStackRequest request = new TestStackRequest(
+            header(invalid, 200), uint(0), 0, new Variant(INVALID_SESSION));
+
+        try {
+            client.sendRequest(request).get();
+            fail("expected Bad_SessionIdInvalid");
+        } catch (ExecutionException e) {
+            assertEquals(((UaException) e.getCause()).getStatusCode().getValue(), StatusCodes.Bad_SessionIdInvalid);
+        }
+
+        assertEquals(client.getChannelFuture(invalid).get().getChannelId(), primaryChannelId);
+
+        client.disconnect().get();
+    }
+
+    private NodeId createSessionOffPrimary(UaTcpStackClient client, long primaryChannelId) throws Exception {
+        for (int i = 0; i < 3; i++) {
+            CreateSessionRequest request = new CreateSessionRequest(
+                header(NodeId.NULL_VALUE, i), client.getApplication(), null, ENDPOINT_URL, "session",
+                ByteString.NULL_VALUE, ByteString.NULL_VALUE, 60000.0, uint(0));
+
+            CreateSessionResponse response = client.<CreateSessionResponse>sendRequest(request).get();
+            NodeId authenticationToken = response.getAuthenticationToken();
+
+            if (client.getChannelFuture(authenticationToken).get().getChannelId() != primaryChannelId) {
+                return authenticationToken;
+            }
+        }
+
+        throw new AssertionError("no session created off the primary channel");
+    }
+
+    private UaTcpStackClient connect(ChannelPoolConfig channelPoolConfig) throws Exception {
+        UaTcpStackClientConfig config = UaTcpStackClientConfig.builder()
+            .setEndpoint(endpoint)
+            .setChannelPoolConfig(channelPoolConfig)
+            .build();
+
+        UaTcpStackClient client = new UaTcpStackClient(config);
+        client.connect().get();
+        return client;
+    }
+
+    private static Set<Object> channelIds(UaTcpStackClient client,
+                                          NodeId authenticationToken,
+                                          int requestCount) throws Exception {
+
+        List<CompletableFuture<TestStackResponse>> futures = new ArrayList<>();
+
+        for (int i = 0; i < requestCount; i++) {
+            TestStackRequest request = new TestStackRequest(
+                header(authenticationToken, 100 + i), uint(0), 0, new Variant(i));
+
+            futures.add(client.sendRequest(request));
+        }
+
+        Set<Object> channelIds = ConcurrentHashMap.newKeySet();
+
+        for (CompletableFuture<TestStackResponse> future : futures) {
+            channelIds.add(future.get().getOutput().getValue());
+        }
+
+        return channelIds;
+    }
+
+    private static RequestHeader header(NodeId authenticationToken, int requestHandle) {
+        return new RequestHeader(
+            authenticationToken, DateTime.now(), uint(requestHandle), uint(0), null, uint(10000), null);
+    }
+
+    private static ResponseHeader responseHeader(RequestHeader requestHeader) {
+        return new ResponseHeader(
+            DateTime.now(), requestHeader.getRequestHandle(), StatusCode.GOOD, null, null, null);
+    }
+
+}
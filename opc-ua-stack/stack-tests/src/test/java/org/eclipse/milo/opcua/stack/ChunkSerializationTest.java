@@ -13,17 +13,31 @@
 
 package org.eclipse.milo.opcua.stack;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import io.netty.buffer.AbstractByteBufAllocator;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import io.netty.util.ReferenceCountUtil;
+import io.netty.util.ResourceLeakDetector;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelConfig;
+import org.eclipse.milo.opcua.stack.core.channel.ChannelSecurity;
+import org.eclipse.milo.opcua.stack.core.channel.ChannelMetrics;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelParameters;
 import org.eclipse.milo.opcua.stack.core.channel.ChunkDecoder;
 import org.eclipse.milo.opcua.stack.core.channel.ChunkEncoder;
 import org.eclipse.milo.opcua.stack.core.channel.ClientSecureChannel;
+import org.eclipse.milo.opcua.stack.core.channel.ParallelDecodingConfig;
 import org.eclipse.milo.opcua.stack.core.channel.SecureChannel;
 import org.eclipse.milo.opcua.stack.core.channel.ServerSecureChannel;
+import org.eclipse.milo.opcua.stack.core.channel.headers.SecureMessageHeader;
 import org.eclipse.milo.opcua.stack.core.channel.messages.MessageType;
 import org.eclipse.milo.opcua.stack.core.security.SecurityPolicy;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
@@ -37,11 +51,15 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 public class ChunkSerializationTest extends SecureChannelFixture {
 
     static {
         CryptoRestrictions.remove();
+
+        ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
     }
 
     Logger logger = LoggerFactory.getLogger(getClass());
@@ -57,6 +75,8 @@ public class ChunkSerializationTest extends SecureChannelFixture {
         ChannelConfig.DEFAULT_MAX_CHUNK_COUNT
     );
 
+    ParallelDecodingConfig parallelDecodingConfig = new ParallelDecodingConfig(2, ForkJoinPool.commonPool());
+
     @DataProvider
     public Object[][] getAsymmetricSecurityParameters() {
         return new Object[][]{
@@ -203,4 +223,367 @@ public class ChunkSerializationTest extends SecureChannelFixture {
         assertEquals(decodedBuffer, messageBuffer);
     }
 
+    @Test(dataProvider = "getSymmetricSecurityParameters")
+    public void testSymmetricMessageWithReservedHeaders(SecurityPolicy securityPolicy,
+                                                        MessageSecurityMode messageSecurity,
+                                                        int messageSize) throws Exception {
+
+        logger.info("Symmetric chunk serialization (reserved headers), " +
+                "securityPolicy={}, messageSecurityMode={}, messageSize={}",
+            securityPolicy, messageSecurity, messageSize);
+
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+        ChunkDecoder decoder = new ChunkDecoder(parameters);
+
+        SecureChannel[] channels = generateChannels(securityPolicy, messageSecurity);
+        ClientSecureChannel clientChannel = (ClientSecureChannel) channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        byte[] messageBytes = new byte[messageSize];
+        for (int i = 0; i < messageBytes.length; i++) {
+            messageBytes[i] = (byte) i;
+        }
+
+        ByteBuf messageBuffer = ChunkEncoder.allocateSymmetricMessageBuffer().writeBytes(messageBytes);
+
+        List<ByteBuf> chunkBuffers = encoder.encodeSymmetric(
+            clientChannel,
+            MessageType.SecureMessage,
+            messageBuffer,
+            1L
+        );
+
+        // Chunks built in place must remain valid after the message buffer is released.
+        messageBuffer.release();
+
+        ByteBuf decodedBuffer = decoder.decodeSymmetric(
+            serverChannel,
+            chunkBuffers
+        );
+
+        ReferenceCountUtil.releaseLater(decodedBuffer);
+
+        assertEquals(decodedBuffer, Unpooled.wrappedBuffer(messageBytes));
+    }
+
+    @Test
+    public void testChunksReleasedWhenDecodeFails() throws Exception {
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+        ChunkDecoder decoder = new ChunkDecoder(parameters);
+
+        SecureChannel[] channels = generateChannels(SecurityPolicy.None, MessageSecurityMode.None);
+        ClientSecureChannel clientChannel = (ClientSecureChannel) channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        byte[] messageBytes = new byte[ChannelConfig.DEFAULT_MAX_CHUNK_SIZE * 4];
+        ByteBuf messageBuffer = BufferUtil.buffer().writeBytes(messageBytes);
+
+        List<ByteBuf> chunkBuffers = encoder.encodeSymmetric(
+            clientChannel,
+            MessageType.SecureMessage,
+            messageBuffer,
+            1L
+        );
+
+        messageBuffer.release();
+
+        assertTrue(chunkBuffers.size() > 2);
+
+        // Out of order chunks cause a sequence number failure part way through decoding.
+        Collections.swap(chunkBuffers, 1, 2);
+
+        try {
+            decoder.decodeSymmetric(serverChannel, chunkBuffers);
+            fail("expected UaException");
+        } catch (UaException e) {
+            chunkBuffers.forEach(b -> assertEquals(b.refCnt(), 0));
+        }
+    }
+
+    @Test(dataProvider = "getSymmetricSecurityParameters")
+    public void testSymmetricMessageParallelDecoding(SecurityPolicy securityPolicy,
+                                                     MessageSecurityMode messageSecurity,
+                                                     int messageSize) throws Exception {
+
+        logger.info("Symmetric chunk serialization (parallel decoding), " +
+                "securityPolicy={}, messageSecurityMode={}, messageSize={}",
+            securityPolicy, messageSecurity, messageSize);
+
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+        ChunkDecoder decoder = new ChunkDecoder(parameters, parallelDecodingConfig);
+
+        SecureChannel[] channels = generateChannels(securityPolicy, messageSecurity);
+        ClientSecureChannel clientChannel = (ClientSecureChannel) channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        byte[] messageBytes = new byte[messageSize];
+        for (int i = 0; i < messageBytes.length; i++) {
+            messageBytes[i] = (byte) i;
+        }
+
+        // Decode two messages so the second is checked against the sequence numbers left by the first.
+        for (long requestId = 1L; requestId <= 2L; requestId++) {
+            ByteBuf messageBuffer = BufferUtil.buffer().writeBytes(messageBytes);
+
+            List<ByteBuf> chunkBuffers = encoder.encodeSymmetric(
+                clientChannel,
+                MessageType.SecureMessage,
+                messageBuffer,
+                requestId
+            );
+
+            messageBuffer.release();
+
+            ByteBuf decodedBuffer = decoder.decodeSymmetric(serverChannel, chunkBuffers);
+
+            ReferenceCountUtil.releaseLater(decodedBuffer);
+
+            assertEquals(decodedBuffer, Unpooled.wrappedBuffer(messageBytes));
+            assertEquals(decoder.getLastRequestId(), requestId);
+        }
+    }
+
+    @Test
+    public void testChunksReleasedWhenParallelDecodeFails() throws Exception {
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+        ChunkDecoder decoder = new ChunkDecoder(parameters, parallelDecodingConfig);
+
+        SecureChannel[] channels = generateChannels(SecurityPolicy.Basic256Sha256, MessageSecurityMode.SignAndEncrypt);
+        ClientSecureChannel clientChannel = (ClientSecureChannel) channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        ByteBuf messageBuffer = BufferUtil.buffer().writeBytes(new byte[ChannelConfig.DEFAULT_MAX_CHUNK_SIZE * 4]);
+
+        List<ByteBuf> chunkBuffers = encoder.encodeSymmetric(
+            clientChannel,
+            MessageType.SecureMessage,
+            messageBuffer,
+            1L
+        );
+
+        messageBuffer.release();
+
+        assertTrue(chunkBuffers.size() > 2);
+
+        // Out of order chunks decrypt and verify, but fail sequence number validation after the first chunk.
+        Collections.swap(chunkBuffers, 1, 2);
+
+        try {
+            decoder.decodeSymmetric(serverChannel, chunkBuffers);
+            fail("expected UaException");
+        } catch (UaException e) {
+            assertEquals(e.getStatusCode().getValue(), StatusCodes.Bad_SecurityChecksFailed);
+            assertTrue(e.getMessage().contains("sequence number"));
+            chunkBuffers.forEach(b -> assertEquals(b.refCnt(), 0));
+        }
+    }
+
+    @Test
+    public void testParallelDecodeReportsTamperedChunk() throws Exception {
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+        ChunkDecoder decoder = new ChunkDecoder(parameters, parallelDecodingConfig);
+
+        SecureChannel[] channels = generateChannels(SecurityPolicy.Basic256Sha256, MessageSecurityMode.Sign);
+        ClientSecureChannel clientChannel = (ClientSecureChannel) channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        ByteBuf messageBuffer = BufferUtil.buffer().writeBytes(new byte[ChannelConfig.DEFAULT_MAX_CHUNK_SIZE * 4]);
+
+        List<ByteBuf> chunkBuffers = encoder.encodeSymmetric(
+            clientChannel,
+            MessageType.SecureMessage,
+            messageBuffer,
+            1L
+        );
+
+        messageBuffer.release();
+
+        // Flip a body byte in the last chunk so its signature no longer verifies.
+        ByteBuf lastChunk = chunkBuffers.get(chunkBuffers.size() - 1);
+        int offset = lastChunk.readerIndex() + lastChunk.readableBytes() / 2;
+        lastChunk.setByte(offset, lastChunk.getByte(offset) ^ 0xFF);
+
+        try {
+            decoder.decodeSymmetric(serverChannel, chunkBuffers);
+            fail("expected UaException");
+        } catch (UaException e) {
+            assertEquals(e.getStatusCode().getValue(), StatusCodes.Bad_SecurityChecksFailed);
+            assertEquals(e.getMessage(), "could not verify signature");
+            chunkBuffers.forEach(b -> assertEquals(b.refCnt(), 0));
+        }
+    }
+
+    @Test
+    public void testChunksReleasedWhenDecodeThrowsRuntimeException() throws Exception {
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+        ChunkDecoder decoder = new ChunkDecoder(parameters);
+
+        SecureChannel[] channels = generateChannels(SecurityPolicy.None, MessageSecurityMode.None);
+        ClientSecureChannel clientChannel = (ClientSecureChannel) channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        ByteBuf messageBuffer = BufferUtil.buffer().writeBytes(new byte[ChannelConfig.DEFAULT_MAX_CHUNK_SIZE * 4]);
+
+        List<ByteBuf> chunkBuffers = encoder.encodeSymmetric(
+            clientChannel,
+            MessageType.SecureMessage,
+            messageBuffer,
+            1L
+        );
+
+        messageBuffer.release();
+
+        assertTrue(chunkBuffers.size() > 2);
+
+        // Truncate the second chunk inside its security header, so reading the header runs off the end.
+        chunkBuffers.get(1).writerIndex(SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE + 2);
+
+        try {
+            decoder.decodeSymmetric(serverChannel, chunkBuffers);
+            fail("expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException e) {
+            chunkBuffers.forEach(b -> assertEquals(b.refCnt(), 0));
+        }
+    }
+
+    @Test
+    public void testChunksReleasedWhenEncodeFails() throws Exception {
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+
+        ServerSecureChannel serverChannel = (ServerSecureChannel)
+            generateChannels(SecurityPolicy.Basic256Sha256, MessageSecurityMode.Sign)[1];
+
+        // Signing the third chunk fails after the first two chunks have been allocated and encoded.
+        AtomicInteger keyRequests = new AtomicInteger();
+
+        ServerSecureChannel failingChannel = new ServerSecureChannel() {
+            @Override
+            public ChannelSecurity.SecretKeys getEncryptionKeys(ChannelSecurity.SecuritySecrets secretKeys) {
+                if (keyRequests.incrementAndGet() > 2) {
+                    throw new IllegalStateException("keys unavailable");
+                }
+                return super.getEncryptionKeys(secretKeys);
+            }
+        };
+
+        failingChannel.setSecurityPolicy(serverChannel.getSecurityPolicy());
+        failingChannel.setMessageSecurityMode(serverChannel.getMessageSecurityMode());
+        failingChannel.setKeyPair(serverKeyPair);
+        failingChannel.setLocalCertificate(serverCertificate);
+        failingChannel.setRemoteCertificate(clientCertificateBytes);
+        failingChannel.setChannelSecurity(serverChannel.getChannelSecurity());
+
+        List<ByteBuf> allocated = Collections.synchronizedList(new ArrayList<>());
+
+        ByteBufAllocator recordingAllocator = new AbstractByteBufAllocator() {
+            @Override
+            protected ByteBuf newHeapBuffer(int initialCapacity, int maxCapacity) {
+                ByteBuf buffer = Unpooled.buffer(initialCapacity, maxCapacity);
+                allocated.add(buffer);
+                return buffer;
+            }
+
+            @Override
+            protected ByteBuf newDirectBuffer(int initialCapacity, int maxCapacity) {
+                return newHeapBuffer(initialCapacity, maxCapacity);
+            }
+
+            @Override
+            public boolean isDirectBufferPooled() {
+                return false;
+            }
+        };
+
+        ByteBuf messageBuffer = Unpooled.buffer().writeBytes(new byte[ChannelConfig.DEFAULT_MAX_CHUNK_SIZE * 4]);
+
+        ByteBufAllocator allocator = BufferUtil.getAllocator();
+        BufferUtil.setAllocator(recordingAllocator);
+
+        try {
+            encoder.encodeSymmetric(failingChannel, MessageType.SecureMessage, messageBuffer, 1L);
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals(allocated.size(), 3);
+            allocated.forEach(b -> assertEquals(b.refCnt(), 0));
+        } finally {
+            BufferUtil.setAllocator(allocator);
+            messageBuffer.release();
+        }
+    }
+
+    @Test
+    public void testParallelDecodeWithRejectingPool() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        pool.shutdown();
+
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+        ChunkDecoder decoder = new ChunkDecoder(parameters, new ParallelDecodingConfig(2, pool));
+
+        SecureChannel[] channels = generateChannels(SecurityPolicy.Basic256Sha256, MessageSecurityMode.SignAndEncrypt);
+        ClientSecureChannel clientChannel = (ClientSecureChannel) channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        byte[] messageBytes = new byte[ChannelConfig.DEFAULT_MAX_CHUNK_SIZE * 4];
+        for (int i = 0; i < messageBytes.length; i++) {
+            messageBytes[i] = (byte) i;
+        }
+
+        ByteBuf messageBuffer = BufferUtil.buffer().writeBytes(messageBytes);
+
+        List<ByteBuf> chunkBuffers = encoder.encodeSymmetric(
+            clientChannel,
+            MessageType.SecureMessage,
+            messageBuffer,
+            1L
+        );
+
+        messageBuffer.release();
+
+        // Every chunk the shut down pool rejects is decoded on the calling thread instead.
+        ByteBuf decodedBuffer = decoder.decodeSymmetric(serverChannel, chunkBuffers);
+
+        ReferenceCountUtil.releaseLater(decodedBuffer);
+
+        assertEquals(decodedBuffer, Unpooled.wrappedBuffer(messageBytes));
+    }
+
+    @Test
+    public void testChunkMetricsRecorded() throws Exception {
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+        ChunkDecoder decoder = new ChunkDecoder(parameters);
+
+        SecureChannel[] channels = generateChannels(SecurityPolicy.Basic256Sha256, MessageSecurityMode.SignAndEncrypt);
+        ClientSecureChannel clientChannel = (ClientSecureChannel) channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        int messageSize = ChannelConfig.DEFAULT_MAX_CHUNK_SIZE * 2;
+        ByteBuf messageBuffer = BufferUtil.buffer().writeBytes(new byte[messageSize]);
+
+        List<ByteBuf> chunkBuffers = encoder.encodeSymmetric(
+            clientChannel,
+            MessageType.SecureMessage,
+            messageBuffer,
+            1L
+        );
+
+        messageBuffer.release();
+
+        long chunkBytes = chunkBuffers.stream().mapToLong(ByteBuf::readableBytes).sum();
+
+        ChannelMetrics clientMetrics = clientChannel.getMetrics();
+        assertEquals(clientMetrics.getChunksOut(), chunkBuffers.size());
+        assertEquals(clientMetrics.getBytesOut(), chunkBytes);
+        assertEquals(clientMetrics.getLargestMessageSize(), messageSize);
+        assertTrue(clientMetrics.getCryptoNanos() > 0);
+
+        ByteBuf decodedBuffer = decoder.decodeSymmetric(serverChannel, chunkBuffers);
+        decodedBuffer.release();
+
+        ChannelMetrics serverMetrics = serverChannel.getMetrics();
+        assertEquals(serverMetrics.getChunksIn(), clientMetrics.getChunksOut());
+        assertEquals(serverMetrics.getBytesIn(), chunkBytes);
+        assertEquals(serverMetrics.getLargestMessageSize(), messageSize);
+        assertTrue(serverMetrics.getCryptoNanos() > 0);
+    }
+
 }
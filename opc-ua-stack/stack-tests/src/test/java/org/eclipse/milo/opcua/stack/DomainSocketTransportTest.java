@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import org.eclipse.milo.opcua.stack.client.UaTcpStackClient;
+import org.eclipse.milo.opcua.stack.client.config.UaTcpStackClientConfig;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.structured.EndpointDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.RequestHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.ResponseHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.TestStackRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.TestStackResponse;
+import org.eclipse.milo.opcua.stack.core.util.TransportUtil;
+import org.eclipse.milo.opcua.stack.server.config.UaTcpStackServerConfig;
+import org.eclipse.milo.opcua.stack.server.tcp.UaTcpStackServer;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class DomainSocketTransportTest extends SecurityFixture {
+
+    private File socketFile;
+    private String endpointUrl;
+
+    private UaTcpStackServer server;
+
+    @BeforeClass
+    public void startServer() throws Exception {
+        if (!TransportUtil.isEpollAvailable()) {
+            throw new SkipException("native epoll transport not available");
+        }
+
+        socketFile = new File(Files.createTempDirectory("milo").toFile(), "opcua.sock");
+        endpointUrl = "opc.unix://localhost/test?socket=" + socketFile.getAbsolutePath();
+
+        UaTcpStackServerConfig config = UaTcpStackServerConfig.builder()
+            .setServerName("test")
+            .setCertificateManager(serverCertificateManager)
+            .setCertificateValidator(serverCertificateValidator)
+            .build();
+
+        server = new UaTcpStackServer(config);
+
+        server.addEndpoint(endpointUrl, null);
+
+        server.addRequestHandler(TestStackRequest.class, service -> {
+            TestStackRequest request = service.getRequest();
+
+            ResponseHeader header = new ResponseHeader(
+                DateTime.now(),
+                request.getRequestHeader().getRequestHandle(),
+                StatusCode.GOOD,
+                null, null, null
+            );
+
+            service.setResponse(new TestStackResponse(header, request.getInput()));
+        });
+
+        server.startup().get();
+    }
+
+    @AfterClass
+    public void stopServer() throws Exception {
+        if (server != null) {
+            server.shutdown().get();
+        }
+    }
+
+    @Test
+    public void testRoundTripOverDomainSocket() throws Exception {
+        EndpointDescription[] endpoints = UaTcpStackClient.getEndpoints(endpointUrl).get();
+
+        assertEquals(endpoints.length, 1);
+        assertTrue(socketFile.exists());
+
+        EndpointDescription endpoint = endpoints[0];
+
+        assertEquals(endpoint.getEndpointUrl(), endpointUrl);
+
+        UaTcpStackClientConfig config = UaTcpStackClientConfig.builder()
+            .setEndpoint(endpoint)
+            .setKeyPair(clientKeyPair)
+            .setCertificate(clientCertificate)
+            .build();
+
+        UaTcpStackClient client = new UaTcpStackClient(config);
+
+        client.connect().get();
+
+        assertTrue(client.getChannelFuture().get().getChannel() instanceof EpollDomainSocketChannel);
+
+        RequestHeader header = new RequestHeader(
+            NodeId.NULL_VALUE, DateTime.now(), uint(0), uint(0), null, uint(10000), null);
+
+        Variant input = new Variant("hello, unix");
+
+        TestStackResponse response = client.<TestStackResponse>sendRequest(
+            new TestStackRequest(header, uint(0), 0, input)).get();
+
+        assertEquals(response.getOutput(), input);
+
+        client.disconnect().get();
+    }
+
+}
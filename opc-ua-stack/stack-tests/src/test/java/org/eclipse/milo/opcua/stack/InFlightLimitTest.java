@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.milo.opcua.stack.client.InFlightMetrics;
+import org.eclipse.milo.opcua.stack.client.UaTcpStackClient;
+import org.eclipse.milo.opcua.stack.client.config.InFlightLimitConfig;
+import org.eclipse.milo.opcua.stack.client.config.InFlightLimitConfig.SaturationPolicy;
+import org.eclipse.milo.opcua.stack.client.config.UaTcpStackClientConfig;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.application.services.ServiceRequest;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.structured.EndpointDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.RequestHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.ResponseHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.TestStackRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.TestStackResponse;
+import org.eclipse.milo.opcua.stack.server.config.UaTcpStackServerConfig;
+import org.eclipse.milo.opcua.stack.server.tcp.UaTcpStackServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class InFlightLimitTest extends SecurityFixture {
+
+    private static final String ENDPOINT_URL = "opc.local://in-flight-limit-test/test";
+
+    private final List<ServiceRequest<TestStackRequest, TestStackResponse>> parked = new CopyOnWriteArrayList<>();
+
+    private UaTcpStackServer server;
+    private EndpointDescription endpoint;
+
+    @BeforeClass
+    public void startServer() throws Exception {
+        UaTcpStackServerConfig config = UaTcpStackServerConfig.builder()
+            .setServerName("test")
+            .setCertificateManager(serverCertificateManager)
+            .setCertificateValidator(serverCertificateValidator)
+            .build();
+
+        server = new UaTcpStackServer(config);
+        server.addEndpoint(ENDPOINT_URL, null);
+
+        // Responses are held back until the test releases them.
+        server.<TestStackRequest, TestStackResponse>addRequestHandler(TestStackRequest.class, parked::add);
+
+        server.startup().get();
+
+        endpoint = UaTcpStackClient.getEndpoints(ENDPOINT_URL).get()[0];
+    }
+
+    @AfterClass
+    public void stopServer() throws Exception {
+        server.shutdown().get();
+    }
+
+    @BeforeMethod
+    public void clearParked() {
+        parked.clear();
+    }
+
+    @Test(timeOut = 10_000)
+    public void testFailFastWhenSaturated() throws Exception {
+        UaTcpStackClient client = connect(new InFlightLimitConfig(2, 0, SaturationPolicy.FailFast));
+
+        CompletableFuture<TestStackResponse> f1 = send(client, 1);
+        CompletableFuture<TestStackResponse> f2 = send(client, 2);
+        CompletableFuture<TestStackResponse> f3 = send(client, 3);
+
+        try {
+            f3.get();
+            fail("expected Bad_TooManyOperations");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof UaException);
+            assertEquals(((UaException) e.getCause()).getStatusCode().getValue(), StatusCodes.Bad_TooManyOperations);
+        }
+
+        InFlightMetrics metrics = client.getInFlightMetrics().orElseThrow(AssertionError::new);
+        assertEquals(metrics.getInFlightRequests(), 2);
+        assertEquals(metrics.getUtilization(), 1.0);
+        assertEquals(metrics.getRejectedRequests(), 1L);
+
+        respondToParked(2);
+        assertEquals(f1.get().getOutput(), new Variant(1));
+        assertEquals(f2.get().getOutput(), new Variant(2));
+
+        awaitInFlight(metrics, 0);
+
+        client.disconnect().get();
+    }
+
+    @Test(timeOut = 10_000)
+    public void testWaitWhenSaturated() throws Exception {
+        UaTcpStackClient client = connect(new InFlightLimitConfig(1, 0, SaturationPolicy.Wait));
+
+        CompletableFuture<TestStackResponse> f1 = send(client, 1);
+        CompletableFuture<TestStackResponse> f2 = send(client, 2);
+
+        InFlightMetrics metrics = client.getInFlightMetrics().orElseThrow(AssertionError::new);
+
+        respondToParked(1);
+        assertEquals(f1.get().getOutput(), new Variant(1));
+        assertFalse(f2.isDone());
+
+        respondToParked(1);
+        assertEquals(f2.get().getOutput(), new Variant(2));
+
+        assertEquals(metrics.getAcquiredRequests(), 2L);
+        assertEquals(metrics.getQueuedRequests(), 1L);
+        assertTrue(metrics.getMaxQueueNanos() > 0);
+        assertEquals(metrics.getPeakInFlightRequests(), 1L);
+
+        client.disconnect().get();
+    }
+
+    @Test(timeOut = 10_000)
+    public void testWaitQueueFull() throws Exception {
+        UaTcpStackClient client = connect(new InFlightLimitConfig(1, 0, SaturationPolicy.Wait, 1, 0L));
+
+        CompletableFuture<TestStackResponse> f1 = send(client, 1);
+        CompletableFuture<TestStackResponse> f2 = send(client, 2);
+        CompletableFuture<TestStackResponse> f3 = send(client, 3);
+
+        assertTooManyOperations(f3);
+
+        InFlightMetrics metrics = client.getInFlightMetrics().orElseThrow(AssertionError::new);
+        assertEquals(metrics.getQueueLength(), 1);
+        assertEquals(metrics.getRejectedRequests(), 1L);
+
+        respondToParked(1);
+        assertEquals(f1.get().getOutput(), new Variant(1));
+
+        respondToParked(1);
+        assertEquals(f2.get().getOutput(), new Variant(2));
+
+        client.disconnect().get();
+    }
+
+    @Test(timeOut = 10_000)
+    public void testWaitQueueTimeout() throws Exception {
+        UaTcpStackClient client = connect(new InFlightLimitConfig(1, 0, SaturationPolicy.Wait, 8, 200L));
+
+        CompletableFuture<TestStackResponse> f1 = send(client, 1);
+        CompletableFuture<TestStackResponse> f2 = send(client, 2);
+
+        assertTooManyOperations(f2);
+
+        InFlightMetrics metrics = client.getInFlightMetrics().orElseThrow(AssertionError::new);
+        assertEquals(metrics.getQueueLength(), 0);
+        assertEquals(metrics.getRejectedRequests(), 1L);
+
+        respondToParked(1);
+        assertEquals(f1.get().getOutput(), new Variant(1));
+
+        // The timed out request didn't take the permit released by the first.
+        awaitInFlight(metrics, 0);
+
+        CompletableFuture<TestStackResponse> f3 = send(client, 3);
+        respondToParked(1);
+        assertEquals(f3.get().getOutput(), new Variant(3));
+
+        client.disconnect().get();
+    }
+
+    private UaTcpStackClient connect(InFlightLimitConfig inFlightLimitConfig) throws Exception {
+        UaTcpStackClientConfig config = UaTcpStackClientConfig.builder()
+            .setEndpoint(endpoint)
+            .setInFlightLimitConfig(inFlightLimitConfig)
+            .build();
+
+        UaTcpStackClient client = new UaTcpStackClient(config);
+        client.connect().get();
+        return client;
+    }
+
+    private static CompletableFuture<TestStackResponse> send(UaTcpStackClient client, int input) {
+        RequestHeader header = new RequestHeader(
+            NodeId.NULL_VALUE, DateTime.now(), uint(input), uint(0), null, uint(10000), null);
+
+        return client.sendRequest(new TestStackRequest(header, uint(0), 0, new Variant(input)));
+    }
+
+    private static void assertTooManyOperations(CompletableFuture<?> future) throws InterruptedException {
+        try {
+            future.get();
+            fail("expected Bad_TooManyOperations");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof UaException);
+            assertEquals(((UaException) e.getCause()).getStatusCode().getValue(), StatusCodes.Bad_TooManyOperations);
+        }
+    }
+
+    private void respondToParked(int count) throws InterruptedException {
+        while (parked.size() < count) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+
+        for (int i = 0; i < count; i++) {
+            ServiceRequest<TestStackRequest, TestStackResponse> service = parked.remove(0);
+            TestStackRequest request = service.getRequest();
+
+            ResponseHeader header = new ResponseHeader(
+                DateTime.now(), request.getRequestHeader().getRequestHandle(), StatusCode.GOOD, null, null, null);
+
+            service.setResponse(new TestStackResponse(header, request.getInput()));
+        }
+    }
+
+    private static void awaitInFlight(InFlightMetrics metrics, int inFlight) throws InterruptedException {
+        while (metrics.getInFlightRequests() != inFlight) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+
+import org.eclipse.milo.opcua.stack.client.UaTcpStackClient;
+import org.eclipse.milo.opcua.stack.client.config.UaTcpStackClientConfig;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.UaServiceFaultException;
+import org.eclipse.milo.opcua.stack.core.channel.ChannelConfig;
+import org.eclipse.milo.opcua.stack.core.security.SecurityPolicy;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MessageSecurityMode;
+import org.eclipse.milo.opcua.stack.core.types.structured.EndpointDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.RequestHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.ResponseHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.TestStackRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.TestStackResponse;
+import org.eclipse.milo.opcua.stack.server.config.UaTcpStackServerConfig;
+import org.eclipse.milo.opcua.stack.server.tcp.UaTcpStackServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class MessageSizeLimitTest extends SecurityFixture {
+
+    private static final String ENDPOINT_URL = "opc.tcp://localhost:12689/message-size-limit-test";
+
+    private static final ChannelConfig CHANNEL_CONFIG = new ChannelConfig(
+        8192, 4, 32768,
+        ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH,
+        ChannelConfig.DEFAULT_MAX_STRING_LENGTH);
+
+    private static final int TOO_LARGE = 40000;
+
+    private UaTcpStackServer server;
+    private UaTcpStackClient client;
+
+    @BeforeClass
+    public void startClientAndServer() throws Exception {
+        UaTcpStackServerConfig serverConfig = UaTcpStackServerConfig.builder()
+            .setServerName("test")
+            .setCertificateManager(serverCertificateManager)
+            .setCertificateValidator(serverCertificateValidator)
+            .setChannelConfig(CHANNEL_CONFIG)
+            .build();
+
+        server = new UaTcpStackServer(serverConfig);
+
+        server.addEndpoint(ENDPOINT_URL, null)
+            .addEndpoint(ENDPOINT_URL, null, serverCertificate,
+                SecurityPolicy.Basic128Rsa15, MessageSecurityMode.SignAndEncrypt);
+
+        // Replies with a ByteString of the requested length.
+        server.addRequestHandler(TestStackRequest.class, service -> {
+            TestStackRequest request = service.getRequest();
+            int length = (Integer) request.getInput().getValue();
+
+            ResponseHeader header = new ResponseHeader(
+                DateTime.now(),
+                request.getRequestHeader().getRequestHandle(),
+                StatusCode.GOOD,
+                null, null, null
+            );
+
+            service.setResponse(new TestStackResponse(header, new Variant(ByteString.of(new byte[length]))));
+        });
+
+        server.startup().get();
+
+        EndpointDescription endpoint = Arrays.stream(UaTcpStackClient.getEndpoints(ENDPOINT_URL).get())
+            .filter(e -> e.getSecurityPolicyUri().equals(SecurityPolicy.None.getSecurityPolicyUri()))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("no unsecured endpoint"));
+
+        UaTcpStackClientConfig clientConfig = UaTcpStackClientConfig.builder()
+            .setEndpoint(endpoint)
+            .setChannelConfig(CHANNEL_CONFIG)
+            .build();
+
+        client = new UaTcpStackClient(clientConfig);
+        client.connect().get();
+    }
+
+    @AfterClass
+    public void stopClientAndServer() throws Exception {
+        client.disconnect().get();
+        server.shutdown().get();
+    }
+
+    @Test
+    public void testRequestTooLarge() throws Exception {
+        try {
+            client.sendRequest(request(new Variant(ByteString.of(new byte[TOO_LARGE])))).get();
+            fail("expected Bad_RequestTooLarge");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof UaException);
+            assertEquals(((UaException) e.getCause()).getStatusCode().getValue(), StatusCodes.Bad_RequestTooLarge);
+        }
+
+        // The channel is still usable.
+        TestStackResponse response = client.<TestStackResponse>sendRequest(request(new Variant(16))).get();
+        assertEquals(((ByteString) response.getOutput().getValue()).length(), 16);
+    }
+
+    @Test
+    public void testResponseTooLarge() throws Exception {
+        try {
+            client.sendRequest(request(new Variant(TOO_LARGE))).get();
+            fail("expected Bad_ResponseTooLarge");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof UaServiceFaultException);
+            assertEquals(((UaException) e.getCause()).getStatusCode().getValue(), StatusCodes.Bad_ResponseTooLarge);
+        }
+
+        TestStackResponse response = client.<TestStackResponse>sendRequest(request(new Variant(16))).get();
+        assertEquals(((ByteString) response.getOutput().getValue()).length(), 16);
+    }
+
+    private static TestStackRequest request(Variant input) {
+        RequestHeader header = new RequestHeader(
+            NodeId.NULL_VALUE, DateTime.now(), uint(0), uint(0), null, uint(10000), null);
+
+        return new TestStackRequest(header, uint(0), 0, input);
+    }
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import io.netty.util.HashedWheelTimer;
+import org.eclipse.milo.opcua.stack.client.PendingRequestTable;
+import org.eclipse.milo.opcua.stack.client.PendingRequestTable.PendingRequest;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.serialization.UaResponseMessage;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.structured.RequestHeader;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class PendingRequestTableTest {
+
+    private HashedWheelTimer wheelTimer;
+
+    @BeforeClass
+    public void startTimer() {
+        wheelTimer = new HashedWheelTimer();
+    }
+
+    @AfterClass
+    public void stopTimer() {
+        wheelTimer.stop();
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        PendingRequestTable table = new PendingRequestTable(wheelTimer);
+
+        List<PendingRequest> requests = new ArrayList<>();
+
+        // Enough entries to grow every segment several times, with handles up to UInteger.MAX_VALUE.
+        for (long i = 0; i < 10_000; i++) {
+            long handle = i * 429_497L;
+            requests.add(table.put(header(handle, 60_000), new CompletableFuture<>()));
+        }
+
+        assertEquals(table.size(), requests.size());
+
+        for (PendingRequest request : requests) {
+            assertSame(table.get(request.getRequestHandle()), request);
+        }
+
+        // Remove every other entry, then make sure the rest are still reachable.
+        for (int i = 0; i < requests.size(); i += 2) {
+            assertSame(table.remove(requests.get(i).getRequestHandle()), requests.get(i));
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            PendingRequest request = requests.get(i);
+
+            if (i % 2 == 0) {
+                assertNull(table.get(request.getRequestHandle()));
+            } else {
+                assertSame(table.get(request.getRequestHandle()), request);
+            }
+        }
+
+        assertEquals(table.size(), requests.size() / 2);
+    }
+
+    @Test
+    public void testConditionalRemoveAndRequestId() {
+        PendingRequestTable table = new PendingRequestTable(wheelTimer);
+
+        PendingRequest first = table.put(header(1, 60_000), new CompletableFuture<>());
+        PendingRequest second = table.put(header(1, 60_000), new CompletableFuture<>());
+
+        assertEquals(table.size(), 1);
+        assertFalse(table.remove(first));
+        assertSame(table.get(1), second);
+
+        second.setRequestId(7, 42);
+        assertNull(table.removeByRequestId(7, 43));
+        assertNull(table.removeByRequestId(8, 42));
+        assertSame(table.removeByRequestId(7, 42), second);
+        assertEquals(table.size(), 0);
+    }
+
+    @Test
+    public void testRequestIdIndex() {
+        PendingRequestTable table = new PendingRequestTable(wheelTimer);
+
+        PendingRequest request = table.put(header(5, 60_000), new CompletableFuture<>());
+        assertNull(table.getByRequestId(7, 42));
+
+        request.setRequestId(7, 42);
+        assertSame(table.getByRequestId(7, 42), request);
+
+        // Sent again, e.g. on a new secure channel; only the latest channel and id match.
+        request.setRequestId(9, 43);
+        assertNull(table.getByRequestId(7, 42));
+        assertSame(table.getByRequestId(9, 43), request);
+
+        // Removing by handle drops the request id entry too.
+        assertSame(table.remove(5), request);
+        assertNull(table.getByRequestId(9, 43));
+        assertNull(table.removeByRequestId(9, 43));
+
+        // A request that completed before its id was recorded isn't left in the index.
+        request.setRequestId(9, 44);
+        assertNull(table.getByRequestId(9, 44));
+
+        // Request ids and channel ids span the whole UInt32 range.
+        PendingRequest other = table.put(header(6, 60_000), new CompletableFuture<>());
+        other.setRequestId(UInteger.MAX_VALUE, UInteger.MAX_VALUE - 1);
+        assertSame(table.removeByRequestId(UInteger.MAX_VALUE, UInteger.MAX_VALUE - 1), other);
+        assertEquals(table.size(), 0);
+    }
+
+    @Test(timeOut = 10_000)
+    public void testTimeoutSweep() throws Exception {
+        PendingRequestTable table = new PendingRequestTable(wheelTimer);
+
+        CompletableFuture<UaResponseMessage> shortFuture = new CompletableFuture<>();
+        CompletableFuture<UaResponseMessage> longFuture = new CompletableFuture<>();
+
+        table.put(header(1, 200), shortFuture);
+        table.put(header(2, 60_000), longFuture);
+
+        try {
+            shortFuture.get();
+            fail("expected Bad_Timeout");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof UaException);
+            assertEquals(((UaException) e.getCause()).getStatusCode().getValue(), StatusCodes.Bad_Timeout);
+        }
+
+        assertFalse(longFuture.isDone());
+        assertNull(table.get(1));
+        assertEquals(table.size(), 1);
+    }
+
+    @Test(timeOut = 10_000)
+    public void testTimeoutSweepMixedDeadlines() throws Exception {
+        PendingRequestTable table = new PendingRequestTable(wheelTimer);
+
+        List<CompletableFuture<UaResponseMessage>> expiring = new ArrayList<>();
+        List<CompletableFuture<UaResponseMessage>> waiting = new ArrayList<>();
+
+        // Interleave short and long deadlines, and remove some of each, so entries
+        // leave the deadline heap from the middle as well as from the head.
+        for (long i = 0; i < 2_000; i++) {
+            CompletableFuture<UaResponseMessage> future = new CompletableFuture<>();
+            boolean expires = i % 3 == 0;
+
+            table.put(header(i, expires ? 100 + i % 200 : 60_000 - i), future);
+
+            if (i % 7 == 0) {
+                table.remove(i);
+            } else if (expires) {
+                expiring.add(future);
+            } else {
+                waiting.add(future);
+            }
+        }
+
+        for (CompletableFuture<UaResponseMessage> future : expiring) {
+            try {
+                future.get();
+                fail("expected Bad_Timeout");
+            } catch (ExecutionException e) {
+                assertEquals(((UaException) e.getCause()).getStatusCode().getValue(), StatusCodes.Bad_Timeout);
+            }
+        }
+
+        for (CompletableFuture<UaResponseMessage> future : waiting) {
+            assertFalse(future.isDone());
+        }
+
+        assertEquals(table.size(), waiting.size());
+    }
+
+    private static RequestHeader header(long requestHandle, long timeoutHint) {
+        return new RequestHeader(
+            NodeId.NULL_VALUE, DateTime.now(), uint(requestHandle), uint(0), null, uint(timeoutHint), null);
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack;
+
+import io.netty.util.ResourceLeakDetector;
+import org.eclipse.milo.opcua.stack.client.UaTcpStackClient;
+import org.eclipse.milo.opcua.stack.client.config.UaTcpStackClientConfig;
+import org.eclipse.milo.opcua.stack.core.security.SecurityPolicy;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MessageSecurityMode;
+import org.eclipse.milo.opcua.stack.core.types.structured.EndpointDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.RequestHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.ResponseHeader;
+import org.eclipse.milo.opcua.stack.core.types.structured.TestStackRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.TestStackResponse;
+import org.eclipse.milo.opcua.stack.core.util.CryptoRestrictions;
+import org.eclipse.milo.opcua.stack.server.config.UaTcpStackServerConfig;
+import org.eclipse.milo.opcua.stack.server.tcp.UaTcpStackServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Connects over TCP with pooled Hello, Acknowledge, and chunk buffers and paranoid leak detection.
+ */
+public class TcpConnectTest extends SecurityFixture {
+
+    static {
+        ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+    }
+
+    private static final String ENDPOINT_URL = "opc.tcp://localhost:12687/tcp-connect-test";
+
+    private UaTcpStackServer server;
+
+    @BeforeClass
+    public void startServer() throws Exception {
+        CryptoRestrictions.remove();
+
+        UaTcpStackServerConfig config = UaTcpStackServerConfig.builder()
+            .setServerName("test")
+            .setCertificateManager(serverCertificateManager)
+            .setCertificateValidator(serverCertificateValidator)
+            .build();
+
+        server = new UaTcpStackServer(config);
+
+        server.addEndpoint(ENDPOINT_URL, null)
+            .addEndpoint(ENDPOINT_URL, null, serverCertificate,
+                SecurityPolicy.Basic256Sha256, MessageSecurityMode.SignAndEncrypt);
+
+        server.addRequestHandler(TestStackRequest.class, service -> {
+            TestStackRequest request = service.getRequest();
+
+            ResponseHeader header = new ResponseHeader(
+                DateTime.now(),
+                request.getRequestHeader().getRequestHandle(),
+                StatusCode.GOOD,
+                null, null, null
+            );
+
+            service.setResponse(new TestStackResponse(header, request.getInput()));
+        });
+
+        server.startup().get();
+    }
+
+    @AfterClass
+    public void stopServer() throws Exception {
+        server.shutdown().get();
+    }
+
+    @Test
+    public void testConnectAndRoundTrip() throws Exception {
+        EndpointDescription[] endpoints = UaTcpStackClient.getEndpoints(ENDPOINT_URL).get();
+
+        assertEquals(endpoints.length, 2);
+
+        for (EndpointDescription endpoint : endpoints) {
+            UaTcpStackClientConfig config = UaTcpStackClientConfig.builder()
+                .setEndpoint(endpoint)
+                .setKeyPair(clientKeyPair)
+                .setCertificate(clientCertificate)
+                .build();
+
+            UaTcpStackClient client = new UaTcpStackClient(config);
+
+            // Connect more than once so the Hello and Acknowledge buffers are recycled by the pool in between.
+            for (int i = 0; i < 3; i++) {
+                client.connect().get();
+
+                assertEquals(roundTrip(client, new Variant("hello")), new Variant("hello"));
+
+                // Large enough to be sent and received in several chunks.
+                Variant large = new Variant(ByteString.of(new byte[256 * 1024]));
+                assertEquals(roundTrip(client, large), large);
+
+                client.disconnect().get();
+            }
+        }
+    }
+
+    private static Variant roundTrip(UaTcpStackClient client, Variant input) throws Exception {
+        RequestHeader header = new RequestHeader(
+            NodeId.NULL_VALUE, DateTime.now(), uint(0), uint(0), null, uint(10000), null);
+
+        TestStackResponse response = client.<TestStackResponse>sendRequest(
+            new TestStackRequest(header, uint(0), 0, input)).get();
+
+        return response.getOutput();
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableList;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.application.DefaultCertificateValidator;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TrustChainCacheTest extends SecurityFixture {
+
+    @Test(timeOut = 10_000)
+    public void testResultsCachedAndInvalidatedByWatcher() throws Exception {
+        File trustedDir = Files.createTempDirectory("trusted").toFile();
+        File rejectedDir = Files.createTempDirectory("rejected").toFile();
+        File revocationDir = Files.createTempDirectory("revocation").toFile();
+
+        Files.write(new File(trustedDir, "client.der").toPath(), clientCertificateBytes);
+
+        try (DefaultCertificateValidator validator =
+                 new DefaultCertificateValidator(trustedDir, rejectedDir, revocationDir)) {
+
+            validator.verifyTrustChain(clientCertificate, ImmutableList.of(clientCertificate));
+
+            assertRejected(validator);
+            assertEquals(rejectedFileCount(rejectedDir), 1);
+
+            // The negative result is cached; the certificate isn't written out again.
+            deleteRejectedFiles(rejectedDir);
+            assertRejected(validator);
+            assertEquals(rejectedFileCount(rejectedDir), 0);
+
+            // Trusting the certificate invalidates the cached result once the watcher notices.
+            Files.write(new File(trustedDir, "server.der").toPath(), serverCertificateBytes);
+
+            while (true) {
+                try {
+                    validator.verifyTrustChain(serverCertificate, ImmutableList.of(serverCertificate));
+                    break;
+                } catch (UaException e) {
+                    TimeUnit.MILLISECONDS.sleep(50);
+                }
+            }
+        }
+    }
+
+    private void assertRejected(DefaultCertificateValidator validator) {
+        try {
+            validator.verifyTrustChain(serverCertificate, ImmutableList.of(serverCertificate));
+            fail("expected UaException");
+        } catch (UaException e) {
+            assertEquals(e.getStatusCode().getValue(), StatusCodes.Bad_SecurityChecksFailed);
+        }
+    }
+
+    private static int rejectedFileCount(File rejectedDir) {
+        File[] files = rejectedDir.listFiles();
+
+        return files != null ? files.length : 0;
+    }
+
+    private static void deleteRejectedFiles(File rejectedDir) {
+        File[] files = rejectedDir.listFiles();
+
+        if (files != null) {
+            for (File f : files) {
+                assertTrue(f.delete());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Mac;
+
+import io.netty.buffer.ByteBuf;
+import org.eclipse.milo.opcua.stack.SecureChannelFixture;
+import org.eclipse.milo.opcua.stack.core.channel.ChannelConfig;
+import org.eclipse.milo.opcua.stack.core.channel.ChannelParameters;
+import org.eclipse.milo.opcua.stack.core.channel.ChannelSecurity;
+import org.eclipse.milo.opcua.stack.core.channel.ChunkDecoder;
+import org.eclipse.milo.opcua.stack.core.channel.ChunkEncoder;
+import org.eclipse.milo.opcua.stack.core.channel.SecureChannel;
+import org.eclipse.milo.opcua.stack.core.channel.messages.MessageType;
+import org.eclipse.milo.opcua.stack.core.security.SecurityAlgorithm;
+import org.eclipse.milo.opcua.stack.core.security.SecurityPolicy;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MessageSecurityMode;
+import org.eclipse.milo.opcua.stack.core.util.CryptoRestrictions;
+import org.eclipse.milo.opcua.stack.core.util.SignatureUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Symmetric chunk encode/decode throughput for each {@link SecurityPolicy}, plus the cost of computing a chunk
+ * signature with and without a cached {@link Mac}.
+ * <p>
+ * Run with {@code main} from the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkSerializationBenchmark extends SecureChannelFixture {
+
+    static {
+        CryptoRestrictions.remove();
+    }
+
+    @Param({"None", "Basic128Rsa15", "Basic256", "Basic256Sha256"})
+    public SecurityPolicy securityPolicy;
+
+    @Param({"1024", "65536"})
+    public int messageSize;
+
+    private ChunkEncoder encoder;
+    private ChunkDecoder decoder;
+
+    private SecureChannel clientChannel;
+    private SecureChannel serverChannel;
+
+    private byte[] messageBytes;
+    private ByteBuffer signatureInput;
+
+    @Setup
+    public void setUpChannels() throws Exception {
+        MessageSecurityMode messageSecurity = securityPolicy == SecurityPolicy.None ?
+            MessageSecurityMode.None : MessageSecurityMode.SignAndEncrypt;
+
+        ChannelParameters parameters = new ChannelParameters(
+            ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_COUNT,
+            ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_COUNT
+        );
+
+        encoder = new ChunkEncoder(parameters);
+        decoder = new ChunkDecoder(parameters);
+
+        SecureChannel[] channels = generateChannels(securityPolicy, messageSecurity);
+        clientChannel = channels[0];
+        serverChannel = channels[1];
+
+        messageBytes = new byte[messageSize];
+        for (int i = 0; i < messageBytes.length; i++) {
+            messageBytes[i] = (byte) i;
+        }
+
+        signatureInput = ByteBuffer.wrap(messageBytes);
+    }
+
+    @Benchmark
+    public int encodeDecodeSymmetric() throws Exception {
+        ByteBuf messageBuffer = ChunkEncoder.allocateSymmetricMessageBuffer().writeBytes(messageBytes);
+
+        List<ByteBuf> chunkBuffers = encoder.encodeSymmetric(
+            clientChannel,
+            MessageType.SecureMessage,
+            messageBuffer,
+            1L
+        );
+
+        messageBuffer.release();
+
+        ByteBuf decodedBuffer = decoder.decodeSymmetric(serverChannel, chunkBuffers);
+
+        int decodedSize = decodedBuffer.readableBytes();
+        decodedBuffer.release();
+
+        return decodedSize;
+    }
+
+    @Benchmark
+    public byte[] hmacUncached() throws Exception {
+        if (securityPolicy == SecurityPolicy.None) {
+            return null;
+        }
+
+        SecurityAlgorithm algorithm = securityPolicy.getSymmetricSignatureAlgorithm();
+        byte[] signatureKey = getEncryptionKeys().getSignatureKey();
+
+        signatureInput.clear();
+
+        return SignatureUtil.hmac(algorithm, signatureKey, signatureInput);
+    }
+
+    @Benchmark
+    public byte[] hmacCached() throws Exception {
+        if (securityPolicy == SecurityPolicy.None) {
+            return null;
+        }
+
+        String transformation = securityPolicy.getSymmetricSignatureAlgorithm().getTransformation();
+        ChannelSecurity.SecretKeys secretKeys = getEncryptionKeys();
+
+        signatureInput.clear();
+
+        Mac mac = secretKeys.acquireMac(transformation);
+        byte[] signature = SignatureUtil.hmac(mac, signatureInput);
+        secretKeys.releaseMac(mac);
+
+        return signature;
+    }
+
+    private ChannelSecurity.SecretKeys getEncryptionKeys() {
+        return clientChannel.getEncryptionKeys(clientChannel.getChannelSecurity().getCurrentKeys());
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(
+            new OptionsBuilder()
+                .include(ChunkSerializationBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.benchmarks;
+
+import java.util.LinkedList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.milo.opcua.stack.core.util.ExecutionQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Throughput of {@link ExecutionQueue} compared to the previous monitor-based implementation, with 8 producer
+ * threads submitting to one shared queue.
+ * <p>
+ * Run with {@code main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class ExecutionQueueBenchmark {
+
+    private static final int TASKS_PER_INVOCATION = 1000;
+
+    @Param({"1", "16", "64"})
+    public int maxBatchSize;
+
+    private ExecutorService executor;
+
+    private ExecutionQueue executionQueue;
+    private SynchronizedExecutionQueue synchronizedQueue;
+
+    @Setup
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+
+        executionQueue = new ExecutionQueue(executor, maxBatchSize);
+        synchronizedQueue = new SynchronizedExecutionQueue(executor);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS_PER_INVOCATION)
+    public void lockFree() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(TASKS_PER_INVOCATION);
+
+        for (int i = 0; i < TASKS_PER_INVOCATION; i++) {
+            executionQueue.submit(latch::countDown);
+        }
+
+        latch.await();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS_PER_INVOCATION)
+    public void synchronizedLinkedList() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(TASKS_PER_INVOCATION);
+
+        for (int i = 0; i < TASKS_PER_INVOCATION; i++) {
+            synchronizedQueue.submit(latch::countDown);
+        }
+
+        latch.await();
+    }
+
+    /**
+     * The previous {@link ExecutionQueue} implementation: a {@link LinkedList} guarded by a monitor, with one executor
+     * hand-off per task.
+     */
+    private static class SynchronizedExecutionQueue {
+
+        private final Object queueLock = new Object();
+        private final LinkedList<Runnable> queue = new LinkedList<>();
+
+        private boolean pollSubmitted = false;
+
+        private final ExecutorService service;
+
+        SynchronizedExecutionQueue(ExecutorService service) {
+            this.service = service;
+        }
+
+        void submit(Runnable runnable) {
+            synchronized (queueLock) {
+                queue.add(runnable);
+
+                if (!pollSubmitted) {
+                    service.submit(this::pollAndExecute);
+                    pollSubmitted = true;
+                }
+            }
+        }
+
+        private void pollAndExecute() {
+            Runnable runnable;
+
+            synchronized (queueLock) {
+                runnable = queue.poll();
+            }
+
+            runnable.run();
+
+            synchronized (queueLock) {
+                if (queue.isEmpty()) {
+                    pollSubmitted = false;
+                } else {
+                    service.submit(this::pollAndExecute);
+                }
+            }
+        }
+
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(
+            new OptionsBuilder()
+                .include(ExecutionQueueBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.benchmarks;
+
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.eclipse.milo.opcua.stack.core.serialization.UaStructure;
+import org.eclipse.milo.opcua.stack.core.serialization.binary.BinaryDecoder;
+import org.eclipse.milo.opcua.stack.core.serialization.binary.BinaryEncoder;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DiagnosticInfo;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ExtensionObject;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.structured.DataChangeNotification;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoredItemNotification;
+import org.eclipse.milo.opcua.stack.core.types.structured.NotificationMessage;
+import org.eclipse.milo.opcua.stack.core.types.structured.PublishResponse;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadResponse;
+import org.eclipse.milo.opcua.stack.core.types.structured.ResponseHeader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+
+/**
+ * Binary encode/decode round trips of {@link ReadResponse} and {@link PublishResponse}, which exercise codec dispatch
+ * for nested structures, Variants, and ExtensionObjects.
+ * <p>
+ * Run with {@code main} from the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StructureCodecBenchmark {
+
+    @Param({"10", "1000"})
+    public int valueCount;
+
+    private ByteBuf buffer;
+    private BinaryEncoder encoder;
+    private BinaryDecoder decoder;
+
+    private ReadResponse readResponse;
+    private PublishResponse publishResponse;
+
+    @Setup
+    public void setUp() {
+        buffer = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        encoder = new BinaryEncoder().setBuffer(buffer);
+        decoder = new BinaryDecoder().setBuffer(buffer);
+
+        ResponseHeader header = new ResponseHeader(
+            DateTime.now(), uint(1), StatusCode.GOOD, null, new String[0], null);
+
+        DataValue[] values = new DataValue[valueCount];
+        MonitoredItemNotification[] notifications = new MonitoredItemNotification[valueCount];
+
+        for (int i = 0; i < valueCount; i++) {
+            values[i] = new DataValue(new Variant(i * 1.5d), StatusCode.GOOD, DateTime.now(), DateTime.now());
+            notifications[i] = new MonitoredItemNotification(uint(i), values[i]);
+        }
+
+        readResponse = new ReadResponse(header, values, new DiagnosticInfo[0]);
+
+        ExtensionObject notificationData = ExtensionObject.encode(
+            new DataChangeNotification(notifications, new DiagnosticInfo[0]));
+
+        publishResponse = new PublishResponse(
+            header,
+            uint(1),
+            new UInteger[]{uint(1)},
+            false,
+            new NotificationMessage(uint(1), DateTime.now(), new ExtensionObject[]{notificationData}),
+            new StatusCode[0],
+            new DiagnosticInfo[0]
+        );
+    }
+
+    @Benchmark
+    public Object readResponseRoundTrip() {
+        return roundTrip(readResponse);
+    }
+
+    @Benchmark
+    public Object publishResponseRoundTrip() {
+        PublishResponse decoded = roundTrip(publishResponse);
+
+        // Decode the notification data too, as a client would.
+        return decoded.getNotificationMessage().getNotificationData()[0].decode();
+    }
+
+    private <T extends UaStructure> T roundTrip(T message) {
+        buffer.clear();
+
+        encoder.encodeMessage(null, message);
+
+        return decoder.decodeMessage(null);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(
+            new OptionsBuilder()
+                .include(StructureCodecBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+
+}
@@ -5,6 +5,9 @@ import java.util.Optional;
 import org.eclipse.milo.opcua.stack.SecurityFixture;
 import org.eclipse.milo.opcua.stack.core.Stack;
 import org.eclipse.milo.opcua.stack.core.channel.ChannelConfig;
+import org.eclipse.milo.opcua.stack.core.channel.ParallelDecodingConfig;
+import org.eclipse.milo.opcua.stack.core.channel.SerializationConfig;
+import org.eclipse.milo.opcua.stack.core.serialization.binary.InterningCache;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.testng.annotations.Test;
 
@@ -86,4 +89,26 @@ public class UaTcpStackClientConfigTest extends SecurityFixture {
         assertEquals(copy.getChannelLifetime(), uint(0));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testSerializationConfig() {
+        InterningCache interningCache = new InterningCache();
+        ParallelDecodingConfig parallelDecodingConfig = new ParallelDecodingConfig();
+
+        UaTcpStackClientConfig config = UaTcpStackClientConfig.builder()
+            .setEndpointUrl("test")
+            .setChannelConfig(new ChannelConfig(8192, 4, 32768, 100, 200))
+            .setInterningCache(interningCache)
+            .setPrimitiveArraysEnabled(true)
+            .setParallelDecodingConfig(parallelDecodingConfig)
+            .build();
+
+        SerializationConfig serializationConfig = config.getSerializationConfig();
+
+        assertEquals(serializationConfig.getMaxArrayLength(), 100);
+        assertEquals(serializationConfig.getMaxStringLength(), 200);
+        assertEquals(serializationConfig.getInterningCache(), Optional.of(interningCache));
+        assertEquals(serializationConfig.isPrimitiveArraysEnabled(), true);
+        assertEquals(serializationConfig.getParallelDecodingConfig(), parallelDecodingConfig);
+    }
+
+}
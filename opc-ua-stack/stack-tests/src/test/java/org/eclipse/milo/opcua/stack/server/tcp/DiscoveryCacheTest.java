@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2016 Kevin Herron
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ *
+ * The Eclipse Public License is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ *   http://www.eclipse.org/org/documents/edl-v10.html.
+ */
+
+package org.eclipse.milo.opcua.stack.server.tcp;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.cache.Cache;
+
+import org.eclipse.milo.opcua.stack.SecurityFixture;
+import org.eclipse.milo.opcua.stack.core.application.services.ServiceRequest;
+import org.eclipse.milo.opcua.stack.core.channel.ServerSecureChannel;
+import org.eclipse.milo.opcua.stack.core.security.SecurityPolicy;
+import org.eclipse.milo.opcua.stack.core.serialization.UaRequestMessage;
+import org.eclipse.milo.opcua.stack.core.serialization.UaResponseMessage;
+import org.eclipse.milo.opcua.stack.core.types.builtin.ByteString;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MessageSecurityMode;
+import org.eclipse.milo.opcua.stack.core.types.structured.EndpointDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.FindServersRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.FindServersResponse;
+import org.eclipse.milo.opcua.stack.core.types.structured.GetEndpointsRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.GetEndpointsResponse;
+import org.eclipse.milo.opcua.stack.core.types.structured.RequestHeader;
+import org.eclipse.milo.opcua.stack.server.config.UaTcpStackServerConfig;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.BeforeSuite;
+import org.testng.annotations.Test;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+public class DiscoveryCacheTest extends SecurityFixture {
+
+    private static final String ENDPOINT_URL = "opc.tcp://localhost:12685/test";
+
+    private UaTcpStackServer server;
+
+    @BeforeSuite
+    public void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @BeforeMethod
+    public void createServer() {
+        UaTcpStackServerConfig config = UaTcpStackServerConfig.builder()
+            .setServerName("test")
+            .setCertificateManager(serverCertificateManager)
+            .setCertificateValidator(serverCertificateValidator)
+            .build();
+
+        server = new UaTcpStackServer(config);
+        server.addEndpoint(ENDPOINT_URL, null);
+    }
+
+    @Test
+    public void testGetEndpointsCached() throws Exception {
+        GetEndpointsResponse response1 = getEndpoints(1, new String[0]);
+        GetEndpointsResponse response2 = getEndpoints(2, new String[0]);
+
+        assertEquals(response1.getEndpoints().length, 1);
+        assertSame(response2.getEndpoints(), response1.getEndpoints());
+
+        assertEquals(response1.getResponseHeader().getRequestHandle(), uint(1));
+        assertEquals(response2.getResponseHeader().getRequestHandle(), uint(2));
+    }
+
+    @Test
+    public void testGetEndpointsKeyedByFilter() throws Exception {
+        GetEndpointsResponse response1 = getEndpoints(1, new String[0]);
+        GetEndpointsResponse response2 = getEndpoints(2, new String[]{"urn:unknown-profile"});
+
+        assertNotSame(response2.getEndpoints(), response1.getEndpoints());
+        assertEquals(response2.getEndpoints().length, 0);
+    }
+
+    @Test
+    public void testAddEndpointInvalidatesCache() throws Exception {
+        GetEndpointsResponse response1 = getEndpoints(1, new String[0]);
+
+        server.addEndpoint("opc.tcp://localhost:12686/test", null);
+
+        GetEndpointsResponse response2 = getEndpoints(2, new String[0]);
+
+        assertNotEquals(response2.getEndpoints().length, response1.getEndpoints().length);
+    }
+
+    @Test
+    public void testReplaceEndpointCertificateInvalidatesCache() throws Exception {
+        server.addEndpoint(ENDPOINT_URL, null, serverCertificate,
+            SecurityPolicy.Basic256Sha256, MessageSecurityMode.SignAndEncrypt);
+
+        GetEndpointsResponse response1 = getEndpoints(1, new String[0]);
+        assertEquals(securedEndpoint(response1).getServerCertificate(), ByteString.of(serverCertificateBytes));
+
+        assertEquals(server.replaceEndpointCertificate(serverCertificate, clientCertificate), 1);
+
+        GetEndpointsResponse response2 = getEndpoints(2, new String[0]);
+        assertEquals(securedEndpoint(response2).getServerCertificate(), ByteString.of(clientCertificateBytes));
+    }
+
+    @Test
+    public void testFindServersCached() throws Exception {
+        FindServersResponse response1 = findServers(1);
+        FindServersResponse response2 = findServers(2);
+
+        assertEquals(response1.getServers().length, 1);
+        assertSame(response2.getServers(), response1.getServers());
+
+        server.invalidateDiscoveryCache();
+
+        FindServersResponse response3 = findServers(3);
+
+        assertNotSame(response3.getServers(), response1.getServers());
+        assertEquals(response3.getServers().length, 1);
+    }
+
+    @Test
+    public void testResultLoadedDuringInvalidationNotReused() throws Exception {
+        Cache<List<Object>, UaTcpStackServer.DiscoveryResult<Integer>> cache = UaTcpStackServer.newDiscoveryCache();
+        List<Object> key = Collections.singletonList(ENDPOINT_URL);
+        AtomicInteger loads = new AtomicInteger(0);
+
+        // The first load is still in flight when the endpoints change.
+        server.getDiscoveryResult(cache, key, () -> {
+            int load = loads.incrementAndGet();
+            if (load == 1) {
+                server.invalidateDiscoveryCache();
+            }
+            return load;
+        });
+
+        assertEquals(server.getDiscoveryResult(cache, key, loads::incrementAndGet), Integer.valueOf(2));
+        assertEquals(server.getDiscoveryResult(cache, key, loads::incrementAndGet), Integer.valueOf(2));
+        assertEquals(loads.get(), 2);
+    }
+
+    private GetEndpointsResponse getEndpoints(int requestHandle, String[] profileUris) throws Exception {
+        return send(new GetEndpointsRequest(header(requestHandle), ENDPOINT_URL, new String[0], profileUris));
+    }
+
+    private static EndpointDescription securedEndpoint(GetEndpointsResponse response) {
+        return Arrays.stream(response.getEndpoints())
+            .filter(e -> e.getSecurityMode() == MessageSecurityMode.SignAndEncrypt)
+            .findFirst().orElseThrow(AssertionError::new);
+    }
+
+    private FindServersResponse findServers(int requestHandle) throws Exception {
+        return send(new FindServersRequest(header(requestHandle), ENDPOINT_URL, new String[0], new String[0]));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends UaResponseMessage> T send(UaRequestMessage request) throws Exception {
+        ServiceRequest<UaRequestMessage, UaResponseMessage> serviceRequest =
+            new ServiceRequest<>(request, 0L, server, new ServerSecureChannel());
+
+        server.receiveRequest(serviceRequest);
+
+        return (T) serviceRequest.getFuture().get();
+    }
+
+    private static RequestHeader header(int requestHandle) {
+        return new RequestHeader(null, DateTime.now(), uint(requestHandle), uint(0), null, uint(5000), null);
+    }
+
+}